@@ -0,0 +1,67 @@
+/*
+ * File    : ArithmeticMeanBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.statistic.Statistic;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>ArithmeticMeanBenchmark</i> measures the computation of the emotional
+ * dimensions of sentences and documents from the ones of their words.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ArithmeticMeanBenchmark {
+
+    @Param({"english"})
+    private String language;
+
+    @Param({"10", "100", "1000"})
+    private int words;
+
+    private Statistic statistic;
+    private TextData textData;
+
+
+    /**
+     * Method to set up the statistic and the tagged document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        statistic = (Statistic)BenchmarkFixtures.getConfigurationManager().lookup("bench_arithmetic_mean");
+        statistic.initialize();
+        textData = BenchmarkFixtures.getTextData(BenchmarkFixtures.getConfigurationManager(), language,
+            words, BenchmarkFixtures.SPOTTED);
+    }
+
+
+    /**
+     * Function to compute the statistics of the document.
+     *
+     * @return The document with its emotional dimensions.
+     */
+    @Benchmark
+    public TextData computeStatistics() {
+        statistic.applyStatistics(textData);
+        return textData;
+    }
+
+}
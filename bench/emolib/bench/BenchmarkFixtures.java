@@ -0,0 +1,513 @@
+/*
+ * File    : BenchmarkFixtures.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Random;
+
+import emolib.classifier.FeatureBox;
+import emolib.eks.EmotionalKeywordSpotter;
+import emolib.splitter.SentenceSplitter;
+import emolib.stemmer.Stemmer;
+import emolib.stemmer.snowball.SnowballStemmer;
+import emolib.tokenizer.Tokenizer;
+import emolib.util.conf.ConfigurationManager;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>BenchmarkFixtures</i> class generates the data needed by the benchmarks,
+ * so that they can be run without the proprietary resources of EmoLib.
+ *
+ * <p>
+ * The fixtures are generated deterministically into a temporary directory:
+ * </p>
+ * <ul>
+ *     <li>
+ *         An affective dictionary in the ANLW format for each language, whose keys are
+ *         the Snowball stems of a small affective vocabulary padded with pseudo-words
+ *         up to the size of ANEW.
+ *     </li>
+ *     <li>
+ *         A configuration file with the taggers <i>bench_english</i> and <i>bench_spanish</i>
+ *         (tokenizer, sentence splitter, stemmer, EKS and arithmetic mean) and their
+ *         standalone stages. The POS taggers and the WSD need external models, so they are
+ *         left out, except for the SimLibWSD if the <i>emolib.bench.wnindex</i> property
+ *         gives the path of a WordNet index.
+ *     </li>
+ *     <li>
+ *         Synthetic documents of any length and labelled FeatureBoxes for the classifiers.
+ *     </li>
+ * </ul>
+ * <p>
+ * The <i>emolib.bench.corpus.english</i> and <i>emolib.bench.corpus.spanish</i> properties
+ * may point to sample text files to build the documents from instead. The
+ * <i>emolib.bench.config</i> property may point to a real configuration file, and then the
+ * <i>emolib.bench.tagger.english</i> and <i>emolib.bench.tagger.spanish</i> properties
+ * give the names of the taggers to benchmark end-to-end.
+ * </p>
+ */
+public final class BenchmarkFixtures {
+
+    public static final String ENGLISH = "english";
+    public static final String SPANISH = "spanish";
+
+    public static final String[] CATEGORIES = {"pos", "neg", "neu"};
+
+    /** The text has been tokenized and split into sentences. */
+    public static final int SPLIT = 1;
+    /** The text has also been stemmed. */
+    public static final int STEMMED = 2;
+    /** The text has also been tagged with the emotional dimensions of its words. */
+    public static final int SPOTTED = 3;
+
+    private static final int DICTIONARY_SIZE = 1034;
+    private static final int STEMMING_ITERATIONS = 4;
+    private static final long SEED = 1;
+
+    private static final String[] ENGLISH_VOCABULARY = {"happy", "love", "joy", "hate", "sad",
+        "anger", "fear", "calm", "excited", "bored", "proud", "angry", "lonely", "hope", "trust",
+        "disgust", "surprise", "pleasant", "awful", "terrible", "wonderful", "beautiful", "ugly",
+        "friendly", "hostile", "peace", "war", "gift", "pain", "smile", "cry", "laugh", "kiss",
+        "fight", "win", "lose", "success", "failure", "delight", "misery", "comfort", "danger",
+        "safe", "sick", "healthy", "rich", "poor", "brave", "coward", "gentle", "cruel", "house",
+        "table", "walk", "green", "paper", "river", "music", "city", "window"};
+    private static final String[] ENGLISH_FUNCTION_WORDS = {"the", "a", "very", "not", "and",
+        "but", "with", "in", "my", "this", "always", "quite", "few", "of", "to", "I", "we"};
+
+    private static final String[] SPANISH_VOCABULARY = {"feliz", "amor", "alegr\u00eda", "odio",
+        "triste", "ira", "miedo", "calma", "emocionado", "aburrido", "orgulloso", "enfadado", "solo",
+        "esperanza", "confianza", "asco", "sorpresa", "agradable", "horrible", "terrible",
+        "maravilloso", "hermoso", "feo", "amable", "hostil", "paz", "guerra", "regalo", "dolor",
+        "sonrisa", "llorar", "re\u00edr", "beso", "pelea", "ganar", "perder", "\u00e9xito", "fracaso",
+        "placer", "miseria", "consuelo", "peligro", "seguro", "enfermo", "sano", "rico", "pobre",
+        "valiente", "cobarde", "gentil", "cruel", "casa", "mesa", "caminar", "verde", "papel", "r\u00edo",
+        "m\u00fasica", "ciudad", "ventana"};
+    private static final String[] SPANISH_FUNCTION_WORDS = {"el", "la", "muy", "no", "y", "pero",
+        "con", "en", "mi", "este", "siempre", "bastante", "pocos", "de", "a", "yo", "nosotros"};
+
+    private static File fixtureDirectory;
+    private static File configFile;
+
+
+    /**
+     * Void constructor, not to be used.
+     */
+    private BenchmarkFixtures() {
+    }
+
+
+    /**
+     * Function to retrieve a new configuration manager with the generated components.
+     * Each benchmark state gets its own manager, and thus its own component instances.
+     *
+     * @return The configuration manager.
+     */
+    public static ConfigurationManager getConfigurationManager() throws Exception {
+        return new ConfigurationManager(getConfigFile().toURI().toURL());
+    }
+
+
+    /**
+     * Function to retrieve a new configuration manager with the taggers to benchmark
+     * end-to-end, i.e., the one of the <i>emolib.bench.config</i> property, if defined,
+     * or the generated one otherwise.
+     *
+     * @return The configuration manager.
+     */
+    public static ConfigurationManager getTaggerConfigurationManager() throws Exception {
+        if (System.getProperty("emolib.bench.config") != null) {
+            return new ConfigurationManager(new File(System.getProperty("emolib.bench.config")).toURI().toURL());
+        } else {
+            return getConfigurationManager();
+        }
+    }
+
+
+    /**
+     * Function to retrieve a document processed by the standalone stages of the generated
+     * configuration, in order to feed the benchmark of the following stage.
+     *
+     * @param cm The configuration manager.
+     * @param language The language.
+     * @param numberOfWords The number of words of the document.
+     * @param lastStage The last stage to apply: SPLIT, STEMMED or SPOTTED.
+     *
+     * @return The processed document.
+     */
+    public static TextData getTextData(ConfigurationManager cm, String language, int numberOfWords,
+            int lastStage) throws Exception {
+        Tokenizer tokenizer = (Tokenizer)cm.lookup("bench_" + language + "_tokenizer");
+        tokenizer.initialize();
+        tokenizer.inputData(getDocument(language, numberOfWords));
+        TextData textData = (TextData)tokenizer.getData();
+        SentenceSplitter splitter = (SentenceSplitter)cm.lookup("bench_sentence_splitter");
+        splitter.initialize();
+        splitter.applySentenceSplitting(textData);
+        if (lastStage >= STEMMED) {
+            Stemmer stemmer = (Stemmer)cm.lookup("bench_" + language + "_stemmer");
+            stemmer.initialize();
+            stemmer.applyStemming(textData);
+        }
+        if (lastStage >= SPOTTED) {
+            EmotionalKeywordSpotter eks = (EmotionalKeywordSpotter)cm.lookup("bench_" + language + "_eks");
+            eks.initialize();
+            eks.applyEKS(textData);
+        }
+        return textData;
+    }
+
+
+    /**
+     * Function to retrieve the name of the tagger of a language.
+     *
+     * @param language The language.
+     *
+     * @return The name of the tagger component.
+     */
+    public static String getTaggerName(String language) {
+        return System.getProperty("emolib.bench.tagger." + language, "bench_" + language);
+    }
+
+
+    /**
+     * Function to retrieve the path of the WordNet index for the SimLibWSD.
+     *
+     * @return The path, or null if the <i>emolib.bench.wnindex</i> property is not defined.
+     */
+    public static String getWordNetIndex() {
+        String index = System.getProperty("emolib.bench.wnindex");
+        if ((index != null) && (index.length() == 0)) {
+            index = null;
+        }
+        return index;
+    }
+
+
+    /**
+     * Function to retrieve a document with a given number of words.
+     *
+     * @param language The language.
+     * @param numberOfWords The number of words (and punctuation marks).
+     *
+     * @return The document.
+     */
+    public static String getDocument(String language, int numberOfWords) throws IOException {
+        String corpus = System.getProperty("emolib.bench.corpus." + language);
+        if (corpus != null) {
+            return getSampleDocument(corpus, numberOfWords);
+        }
+        String[] vocabulary = getVocabulary(language);
+        String[] functionWords = getFunctionWords(language);
+        Random random = new Random(SEED + numberOfWords);
+        StringBuilder document = new StringBuilder();
+        int sentenceLength = 0;
+        for (int word = 0; word < numberOfWords; word++) {
+            if ((sentenceLength > 5) && ((random.nextInt(8) == 0) || (word == numberOfWords - 1))) {
+                document.append(" .");
+                sentenceLength = 0;
+            } else {
+                if (random.nextInt(10) < 7) {
+                    document.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+                } else {
+                    document.append(' ').append(functionWords[random.nextInt(functionWords.length)]);
+                }
+                sentenceLength++;
+            }
+        }
+        return document.toString().trim();
+    }
+
+
+    /**
+     * Function to retrieve the keys of the generated dictionary of a language.
+     *
+     * @param language The language.
+     *
+     * @return The dictionary keys.
+     */
+    public static String[] getDictionaryKeys(String language) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(
+            getDictionaryFile(language)), "UTF-8"));
+        String[] keys = new String[Integer.parseInt(reader.readLine())];
+        for (int key = 0; key < keys.length; key++) {
+            keys[key] = reader.readLine().split("\t")[0];
+        }
+        reader.close();
+        return keys;
+    }
+
+
+    /**
+     * Function to retrieve the generated dictionary of a language.
+     *
+     * @param language The language.
+     *
+     * @return The dictionary file.
+     */
+    public static File getDictionaryFile(String language) throws IOException {
+        getConfigFile();
+        return getDictionaryFileName(language);
+    }
+
+
+    /**
+     * Function to generate labelled examples for the classifiers.
+     * Each category prefers a third of the vocabulary and has its own emotional
+     * dimensions, so the classifiers have something to learn.
+     *
+     * @param numberOfExamples The number of examples.
+     * @param seed The seed of the generator.
+     * @param categories The list where the categories of the examples are appended.
+     *
+     * @return The examples.
+     */
+    public static ArrayList<FeatureBox> getExamples(int numberOfExamples, long seed,
+            ArrayList<String> categories) {
+        String[] posTags = {"NOMBRE", "VERBO", "ADJETIVO", "ADVERBIO", "OTRO"};
+        Random random = new Random(seed);
+        ArrayList<FeatureBox> examples = new ArrayList<FeatureBox>(numberOfExamples);
+        for (int example = 0; example < numberOfExamples; example++) {
+            int category = example % CATEGORIES.length;
+            int length = 5 + random.nextInt(16);
+            StringBuilder words = new StringBuilder();
+            StringBuilder tags = new StringBuilder();
+            for (int word = 0; word < length; word++) {
+                int index = random.nextInt(ENGLISH_VOCABULARY.length);
+                if (random.nextInt(10) < 6) {
+                    index = index - (index % CATEGORIES.length) + category;
+                    if (index >= ENGLISH_VOCABULARY.length) {
+                        index -= CATEGORIES.length;
+                    }
+                }
+                words.append(' ').append(ENGLISH_VOCABULARY[index]);
+                tags.append(' ').append(posTags[index % posTags.length]);
+            }
+            FeatureBox fbox = new FeatureBox();
+            fbox.setNumberOfEmotionalDimensions(3);
+            fbox.setValence((float)(3 + 2 * category + random.nextGaussian()));
+            fbox.setActivation((float)(5 + category - random.nextGaussian()));
+            fbox.setControl((float)(5 + random.nextGaussian()));
+            fbox.setWords(words.toString().trim());
+            fbox.setPOSTags(tags.toString().trim());
+            fbox.setStems(words.toString().trim());
+            fbox.setNegation(random.nextInt(10) == 0);
+            examples.add(fbox);
+            categories.add(CATEGORIES[category]);
+        }
+        return examples;
+    }
+
+
+    /**
+     * Function to retrieve the generated configuration file, which is generated
+     * (along with the dictionaries) the first time.
+     *
+     * @return The configuration file.
+     */
+    public static synchronized File getConfigFile() throws IOException {
+        if (configFile == null) {
+            fixtureDirectory = File.createTempFile("emolib-bench", "");
+            fixtureDirectory.delete();
+            if (!fixtureDirectory.mkdir()) {
+                throw new IOException("BenchmarkFixtures: the fixture directory cannot be created!");
+            }
+            fixtureDirectory.deleteOnExit();
+            writeDictionary(ENGLISH, ENGLISH_VOCABULARY);
+            writeDictionary(SPANISH, SPANISH_VOCABULARY);
+            File config = new File(fixtureDirectory, "emolib.bench.config.xml");
+            config.deleteOnExit();
+            PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(config), "UTF-8"));
+            out.println("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+            out.println("<config>");
+            writeLanguageComponents(out, ENGLISH, "emolib.tokenizer.lexer.english.EnglishLexer");
+            writeLanguageComponents(out, SPANISH, "emolib.tokenizer.lexer.spanish.SpanishLexer");
+            out.println("    <component name=\"bench_sentence_splitter\" " +
+                "type=\"emolib.splitter.bdt.SentenceSplitterBDT\"/>");
+            out.println("    <component name=\"bench_arithmetic_mean\" " +
+                "type=\"emolib.statistic.average.ArithmeticMean\">");
+            out.println("        <property name=\"threshold\" value=\"5.75\"/>");
+            out.println("    </component>");
+            if (getWordNetIndex() != null) {
+                out.println("    <component name=\"bench_simlib_wsd\" type=\"emolib.wsd.simlib.SimLibWSD\">");
+                out.println("        <property name=\"wn_index_path\" value=\"" +
+                    getWordNetIndex() + "\"/>");
+                out.println("    </component>");
+            }
+            out.println("</config>");
+            out.close();
+            configFile = config;
+        }
+        return configFile;
+    }
+
+
+    /**
+     * Method to write the components of a language: tokenizer, stemmer, EKS and tagger.
+     *
+     * @param out The configuration file writer.
+     * @param language The language.
+     * @param lexer The class of the tokenizer.
+     */
+    private static void writeLanguageComponents(PrintWriter out, String language, String lexer) {
+        out.println("    <component name=\"bench_" + language + "_tokenizer\" type=\"" + lexer + "\"/>");
+        out.println("    <component name=\"bench_" + language + "_stemmer\" " +
+            "type=\"emolib.stemmer.snowball.GenericSnowballStemmer\">");
+        out.println("        <property name=\"language\" value=\"" + language + "\"/>");
+        out.println("        <property name=\"iterations\" value=\"" + STEMMING_ITERATIONS + "\"/>");
+        out.println("    </component>");
+        out.println("    <component name=\"bench_" + language + "_eks\" " +
+            "type=\"emolib.eks.anlw.EmotionalKeywordSpotterANLW\">");
+        out.println("        <property name=\"dictionary\" value=\"" +
+            getDictionaryFileName(language).getAbsolutePath() + "\"/>");
+        out.println("    </component>");
+        out.println("    <component name=\"bench_" + language + "\" type=\"emolib.AffectiveTagger\">");
+        out.println("        <property name=\"language\" value=\"" +
+            Character.toUpperCase(language.charAt(0)) + language.substring(1) + "\"/>");
+        out.println("        <propertylist name=\"pipeline\">");
+        out.println("            <item>bench_" + language + "_tokenizer</item>");
+        out.println("            <item>bench_sentence_splitter</item>");
+        out.println("            <item>bench_" + language + "_stemmer</item>");
+        out.println("            <item>bench_" + language + "_eks</item>");
+        out.println("            <item>bench_arithmetic_mean</item>");
+        out.println("        </propertylist>");
+        out.println("    </component>");
+    }
+
+
+    /**
+     * Method to write the dictionary of a language in the ANLW format: the number of
+     * entries followed by one "stem valence activation control category" line per entry.
+     *
+     * @param language The language.
+     * @param vocabulary The affective vocabulary.
+     */
+    private static void writeDictionary(String language, String[] vocabulary) throws IOException {
+        String[] categories = {"noun", "verb", "adjective", "noun verb"};
+        Random random = new Random(SEED);
+        SnowballStemmer stemmer;
+        try {
+            stemmer = (SnowballStemmer)Class.forName("emolib.stemmer.snowball.ext." + language +
+                "Stemmer").newInstance();
+        } catch (Exception e) {
+            throw new IOException("BenchmarkFixtures: the " + language + " stemmer cannot be loaded!");
+        }
+        File dictionary = getDictionaryFileName(language);
+        dictionary.deleteOnExit();
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(dictionary), "UTF-8"));
+        out.println(DICTIONARY_SIZE);
+        for (int entry = 0; entry < DICTIONARY_SIZE; entry++) {
+            String word;
+            if (entry < vocabulary.length) {
+                word = vocabulary[entry];
+            } else {
+                // Pseudo-words up to the size of the real dictionary
+                StringBuilder pseudoWord = new StringBuilder();
+                int length = 4 + random.nextInt(6);
+                for (int letter = 0; letter < length; letter++) {
+                    pseudoWord.append((char)('a' + random.nextInt(26)));
+                }
+                word = pseudoWord.toString();
+            }
+            stemmer.setCurrent(word.toLowerCase());
+            for (int iteration = 0; iteration < STEMMING_ITERATIONS; iteration++) {
+                stemmer.stem();
+            }
+            out.println(stemmer.getCurrent() + "\t" + (1 + 8 * random.nextFloat()) + "\t" +
+                (1 + 8 * random.nextFloat()) + "\t" + (1 + 8 * random.nextFloat()) + "\t" +
+                categories[entry % categories.length]);
+        }
+        out.close();
+    }
+
+
+    /**
+     * Function to retrieve the dictionary file of a language, without generating it.
+     *
+     * @param language The language.
+     *
+     * @return The dictionary file.
+     */
+    private static File getDictionaryFileName(String language) {
+        return new File(fixtureDirectory, language + ".dat");
+    }
+
+
+    /**
+     * Function to build a document from a sample corpus, cycling through its words.
+     *
+     * @param corpus The path of the sample corpus.
+     * @param numberOfWords The number of words.
+     *
+     * @return The document.
+     */
+    private static String getSampleDocument(String corpus, int numberOfWords) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(corpus), "UTF-8"));
+        ArrayList<String> words = new ArrayList<String>();
+        String line = reader.readLine();
+        while ((line != null) && (words.size() < numberOfWords)) {
+            String[] lineWords = line.trim().split("\\s+");
+            for (int word = 0; word < lineWords.length; word++) {
+                if (lineWords[word].length() > 0) {
+                    words.add(lineWords[word]);
+                }
+            }
+            line = reader.readLine();
+        }
+        reader.close();
+        if (words.isEmpty()) {
+            throw new IOException("BenchmarkFixtures: the sample corpus " + corpus + " is empty!");
+        }
+        StringBuilder document = new StringBuilder();
+        for (int word = 0; word < numberOfWords; word++) {
+            document.append(' ').append(words.get(word % words.size()));
+        }
+        return document.toString().trim();
+    }
+
+
+    /**
+     * Function to retrieve the affective vocabulary of a language.
+     *
+     * @param language The language.
+     *
+     * @return The vocabulary.
+     */
+    private static String[] getVocabulary(String language) {
+        if (SPANISH.equals(language)) {
+            return SPANISH_VOCABULARY;
+        } else {
+            return ENGLISH_VOCABULARY;
+        }
+    }
+
+
+    /**
+     * Function to retrieve the function words of a language.
+     *
+     * @param language The language.
+     *
+     * @return The function words.
+     */
+    private static String[] getFunctionWords(String language) {
+        if (SPANISH.equals(language)) {
+            return SPANISH_FUNCTION_WORDS;
+        } else {
+            return ENGLISH_FUNCTION_WORDS;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * File    : ClassifierBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import emolib.classifier.Classifier;
+import emolib.classifier.FeatureBox;
+import emolib.classifier.eval.KFoldXValidation;
+
+/**
+ * The <i>ClassifierBenchmark</i> measures the classification of a test set with
+ * trained classifiers. The classifiers are given by their specifications in
+ * KFoldXValidation, and they are trained with synthetic examples.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ClassifierBenchmark {
+
+    private static final int TEST_SIZE = 200;
+
+    @Param({"NC", "NB", "5NN", "MNB", "BNB", "LOGR", "ARNR", "LSA", "WSVM"})
+    private String classifierSpec;
+
+    @Param({"1000"})
+    private int trainingSize;
+
+    private Classifier classifier;
+    private ArrayList<FeatureBox> testSet;
+
+
+    /**
+     * Method to train the classifier and to generate the test set.
+     */
+    @Setup
+    public void setUp() {
+        classifier = new KFoldXValidation().createClassifier(classifierSpec, "3");
+        ArrayList<String> categories = new ArrayList<String>();
+        ArrayList<FeatureBox> examples = BenchmarkFixtures.getExamples(trainingSize, 1, categories);
+        for (int example = 0; example < examples.size(); example++) {
+            classifier.inputTrainingExample(examples.get(example), categories.get(example));
+        }
+        classifier.train();
+        testSet = BenchmarkFixtures.getExamples(TEST_SIZE, 2, new ArrayList<String>());
+    }
+
+
+    /**
+     * Method to classify the test set.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TEST_SIZE)
+    public void classify(Blackhole blackhole) {
+        for (int example = 0; example < TEST_SIZE; example++) {
+            blackhole.consume(classifier.getCategory(testSet.get(example)));
+        }
+    }
+
+}
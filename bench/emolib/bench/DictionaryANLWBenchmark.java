@@ -0,0 +1,114 @@
+/*
+ * File    : DictionaryANLWBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import emolib.eks.EmotionalKeywordSpotter;
+import emolib.eks.anlw.DictionaryANLW;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>DictionaryANLWBenchmark</i> measures the lookups in the ANLW dictionary
+ * (for keys that are found and keys that are not) and the whole
+ * EmotionalKeywordSpotterANLW stage on stemmed documents.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DictionaryANLWBenchmark {
+
+    private static final int NUMBER_OF_KEYS = 1024;
+
+    @Param({"english", "spanish"})
+    private String language;
+
+    @Param({"100"})
+    private int words;
+
+    private DictionaryANLW dictionary;
+    private String[] hits;
+    private String[] misses;
+    private EmotionalKeywordSpotter eks;
+    private TextData textData;
+
+
+    /**
+     * Method to set up the dictionary, the keys to look up and the stemmed document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        dictionary = new DictionaryANLW(BenchmarkFixtures.getDictionaryFile(language).getAbsolutePath());
+        String[] keys = BenchmarkFixtures.getDictionaryKeys(language);
+        hits = new String[NUMBER_OF_KEYS];
+        misses = new String[NUMBER_OF_KEYS];
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            hits[key] = keys[(key * 7) % keys.length];
+            misses[key] = hits[key] + "zq";
+        }
+        eks = (EmotionalKeywordSpotter)BenchmarkFixtures.getConfigurationManager().lookup("bench_" +
+            language + "_eks");
+        eks.initialize();
+        textData = BenchmarkFixtures.getTextData(BenchmarkFixtures.getConfigurationManager(), language,
+            words, BenchmarkFixtures.STEMMED);
+    }
+
+
+    /**
+     * Method to look up keys that are in the dictionary.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_KEYS)
+    public void lookupHits(Blackhole blackhole) {
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            if (dictionary.containsEmotionalKey(hits[key])) {
+                blackhole.consume(dictionary.getFirstDimentions(hits[key]));
+            }
+        }
+    }
+
+
+    /**
+     * Method to look up keys that are not in the dictionary.
+     *
+     * @param blackhole The sink of the results.
+     */
+    @Benchmark
+    @OperationsPerInvocation(NUMBER_OF_KEYS)
+    public void lookupMisses(Blackhole blackhole) {
+        for (int key = 0; key < NUMBER_OF_KEYS; key++) {
+            blackhole.consume(dictionary.containsEmotionalKey(misses[key]));
+        }
+    }
+
+
+    /**
+     * Function to spot the emotional keywords of the document.
+     *
+     * @return The tagged document.
+     */
+    @Benchmark
+    public TextData spotKeywords() {
+        eks.applyEKS(textData);
+        return textData;
+    }
+
+}
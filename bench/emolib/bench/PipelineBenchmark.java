@@ -0,0 +1,67 @@
+/*
+ * File    : PipelineBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.AffectiveTagger;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>PipelineBenchmark</i> measures the whole AffectiveTagger pipeline, from the
+ * raw text to its emotional dimensions, for documents of different lengths.
+ * The tagger is the one generated by the fixtures, unless another one is given by
+ * the <i>emolib.bench.config</i> and <i>emolib.bench.tagger.LANGUAGE</i> properties.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PipelineBenchmark {
+
+    @Param({"english", "spanish"})
+    private String language;
+
+    @Param({"10", "100", "1000"})
+    private int words;
+
+    private AffectiveTagger tagger;
+    private String document;
+
+
+    /**
+     * Method to set up the tagger and the document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        tagger = (AffectiveTagger)BenchmarkFixtures.getTaggerConfigurationManager().lookup(
+            BenchmarkFixtures.getTaggerName(language));
+        document = BenchmarkFixtures.getDocument(language, words);
+    }
+
+
+    /**
+     * Function to process the document.
+     *
+     * @return The processed document.
+     */
+    @Benchmark
+    public TextData processText() {
+        return tagger.processText(document);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * File    : SimLibWSDBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.util.proc.TextData;
+import emolib.wsd.WordSenseDisambiguator;
+
+/**
+ * The <i>SimLibWSDBenchmark</i> measures the SimLibWSD on stemmed English documents.
+ *
+ * <p>
+ * The WordNet index cannot be generated, so this benchmark requires the
+ * <i>emolib.bench.wnindex</i> property to give the path of a real one
+ * (see the <i>wn_index</i> property of the <i>benchmark</i> Ant target).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SimLibWSDBenchmark {
+
+    @Param({"10", "100"})
+    private int words;
+
+    private WordSenseDisambiguator wsd;
+    private TextData textData;
+
+
+    /**
+     * Method to set up the WSD and the stemmed document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        if (BenchmarkFixtures.getWordNetIndex() == null) {
+            throw new IllegalStateException("SimLibWSDBenchmark: the emolib.bench.wnindex property " +
+                "is not defined!");
+        }
+        wsd = (WordSenseDisambiguator)BenchmarkFixtures.getConfigurationManager().lookup("bench_simlib_wsd");
+        wsd.initialize();
+        textData = BenchmarkFixtures.getTextData(BenchmarkFixtures.getConfigurationManager(),
+            BenchmarkFixtures.ENGLISH, words, BenchmarkFixtures.STEMMED);
+    }
+
+
+    /**
+     * Function to disambiguate the words of the document.
+     *
+     * @return The document with the senses of its words.
+     */
+    @Benchmark
+    public TextData disambiguate() {
+        wsd.applyWSD(textData);
+        return textData;
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * File    : StemmerBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.stemmer.Stemmer;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>StemmerBenchmark</i> measures the GenericSnowballStemmer on tokenized
+ * documents of different lengths.
+ * The stems are overwritten at each invocation, so the same document is reused.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StemmerBenchmark {
+
+    @Param({"english", "spanish"})
+    private String language;
+
+    @Param({"10", "100", "1000"})
+    private int words;
+
+    private Stemmer stemmer;
+    private TextData textData;
+
+
+    /**
+     * Method to set up the stemmer and the tokenized document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        stemmer = (Stemmer)BenchmarkFixtures.getConfigurationManager().lookup("bench_" +
+            language + "_stemmer");
+        stemmer.initialize();
+        textData = BenchmarkFixtures.getTextData(BenchmarkFixtures.getConfigurationManager(), language,
+            words, BenchmarkFixtures.SPLIT);
+    }
+
+
+    /**
+     * Function to stem the document.
+     *
+     * @return The stemmed document.
+     */
+    @Benchmark
+    public TextData stem() {
+        stemmer.applyStemming(textData);
+        return textData;
+    }
+
+}
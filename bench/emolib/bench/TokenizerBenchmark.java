@@ -0,0 +1,67 @@
+/*
+ * File    : TokenizerBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.tokenizer.Tokenizer;
+import emolib.util.proc.Data;
+
+/**
+ * The <i>TokenizerBenchmark</i> measures the lexical analysis of documents of
+ * different lengths, i.e., the first stage of the AffectiveTagger pipeline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    @Param({"english", "spanish"})
+    private String language;
+
+    @Param({"10", "100", "1000"})
+    private int words;
+
+    private Tokenizer tokenizer;
+    private String document;
+
+
+    /**
+     * Method to set up the tokenizer and the document.
+     */
+    @Setup
+    public void setUp() throws Exception {
+        tokenizer = (Tokenizer)BenchmarkFixtures.getConfigurationManager().lookup("bench_" +
+            language + "_tokenizer");
+        tokenizer.initialize();
+        document = BenchmarkFixtures.getDocument(language, words);
+    }
+
+
+    /**
+     * Function to tokenize the document.
+     *
+     * @return The tokenized document.
+     */
+    @Benchmark
+    public Data tokenize() throws Exception {
+        tokenizer.inputData(document);
+        return tokenizer.getData();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * File    : TrainingBenchmark.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import emolib.classifier.Classifier;
+import emolib.classifier.FeatureBox;
+import emolib.classifier.eval.KFoldXValidation;
+
+/**
+ * The <i>TrainingBenchmark</i> measures the training of the classifiers with
+ * different amounts of synthetic examples.
+ * A new classifier is created and fed with the examples before each invocation,
+ * so only the training procedure is measured.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class TrainingBenchmark {
+
+    @Param({"ARNR", "MNB", "LOGR", "LSA", "LSAwRSVD"})
+    private String classifierSpec;
+
+    @Param({"500", "2000"})
+    private int trainingSize;
+
+    private ArrayList<FeatureBox> examples;
+    private ArrayList<String> categories;
+    private Classifier classifier;
+
+
+    /**
+     * Method to generate the training examples.
+     */
+    @Setup(Level.Trial)
+    public void setUpExamples() {
+        categories = new ArrayList<String>();
+        examples = BenchmarkFixtures.getExamples(trainingSize, 1, categories);
+    }
+
+
+    /**
+     * Method to create the classifier and to input the training examples.
+     */
+    @Setup(Level.Invocation)
+    public void setUpClassifier() {
+        classifier = new KFoldXValidation().createClassifier(classifierSpec, "3");
+        for (int example = 0; example < examples.size(); example++) {
+            classifier.inputTrainingExample(examples.get(example), categories.get(example));
+        }
+    }
+
+
+    /**
+     * Function to train the classifier.
+     *
+     * @return The trained classifier.
+     */
+    @Benchmark
+    public Classifier train() {
+        classifier.train();
+        return classifier;
+    }
+
+}
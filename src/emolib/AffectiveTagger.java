@@ -16,10 +16,25 @@
 
 package emolib;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.*;
 import java.io.File;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import emolib.util.*;
 import emolib.util.proc.*;
@@ -63,6 +78,26 @@ import emolib.formatter.AffectiveFormatter;
  * namely the INPUTTER and OUTPUTTER.
  * Otherwise, the application will report the problem and crash.
  * </p>
+ * <p>
+ * The pipeline can be instrumented by setting the <i>instrumentation</i> property to true.
+ * Then, each Text Data Processor is wrapped into an
+ * {@link emolib.util.proc.InstrumentedDataProcessor} that records its call counts,
+ * processing times, latency percentiles, words per second and allocated bytes. These
+ * statistics are registered as JMX MBeans (emolib:type=AffectiveTagger,...) and, if the
+ * <i>instrumentation_dump_period</i> property is set (in seconds), they are periodically
+ * logged at the INFO level (see the <i>logLevel</i> property of the component).
+ * When the instrumentation is off, the pipeline is not modified at all.
+ * </p>
+ * <p>
+ * The heavy resources of the pipeline (POS models, WordNet indexes, affective lexicons,
+ * classifier models...) are loaded when the Text Data Processors are initialized. The
+ * components are created on demand by the Configuration Manager, so only the ones on the
+ * pipeline are loaded, and their initialization does not depend on each other. Thus, if the
+ * <i>parallel_initialization</i> property is set to true, the processors are initialized
+ * concurrently and the cold start of the tagger takes as long as its slowest resource
+ * rather than their sum. In any case, the initialization time of each processor is
+ * recorded and logged at the INFO level.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
@@ -86,6 +121,23 @@ public class AffectiveTagger extends TextDataProcessor {
      */
     public final static String PROP_EMOLIB_PATH = "emolib_path";
 
+    /**
+     * The name of the property that enables the instrumentation of the pipeline.
+     */
+    public final static String PROP_INSTRUMENTATION = "instrumentation";
+
+    /**
+     * The name of the property that defines the period (in seconds) of the
+     * instrumentation reports in the log. Zero disables the periodic reports.
+     */
+    public final static String PROP_INSTRUMENTATION_DUMP_PERIOD = "instrumentation_dump_period";
+
+    /**
+     * The name of the property that enables the concurrent initialization of
+     * the processors of the pipeline.
+     */
+    public final static String PROP_PARALLEL_INITIALIZATION = "parallel_initialization";
+
     // ----------------------------
         // Configuration data
     // -----------------------------
@@ -93,6 +145,16 @@ public class AffectiveTagger extends TextDataProcessor {
 
     private DataProcessor first;
     private DataProcessor last;
+    private DataProcessor outputStage;
+
+    private List<StageStatistics> stageStatistics;
+    private List<ObjectName> registeredStatistics;
+    private Timer instrumentationTimer;
+    private Logger logger;
+
+    private boolean parallelInitialization;
+    private Map<String, Long> initializationTimes;
+    private long initializationTime;
 
     private String lang;
 
@@ -107,6 +169,9 @@ public class AffectiveTagger extends TextDataProcessor {
         registry.register(PROP_PIPELINE, PropertyType.COMPONENT_LIST);
         registry.register(PROP_LANGUAGE, PropertyType.STRING);
         registry.register(PROP_EMOLIB_PATH, PropertyType.STRING);
+        registry.register(PROP_INSTRUMENTATION, PropertyType.BOOLEAN);
+        registry.register(PROP_INSTRUMENTATION_DUMP_PERIOD, PropertyType.INT);
+        registry.register(PROP_PARALLEL_INITIALIZATION, PropertyType.BOOLEAN);
     }
 
 
@@ -121,15 +186,133 @@ public class AffectiveTagger extends TextDataProcessor {
 
         path = ps.getString(PROP_EMOLIB_PATH, "NONE");
 
+        boolean instrumentation = ps.getBoolean(PROP_INSTRUMENTATION, false);
+
+        parallelInitialization = ps.getBoolean(PROP_PARALLEL_INITIALIZATION, false);
+        logger = ps.getLogger();
+
+        // The first and last processors are kept unwrapped for the INPUTTER and
+        // OUTPUTTER calls, the wrappers only take part in the getData chain.
+        InstrumentedDataProcessor instrumented = null;
         for (Iterator i = textProcessorList.iterator(); i.hasNext();) {
             DataProcessor dp = (DataProcessor)i.next();
-            dp.setPredecessor(last);
+            dp.setPredecessor(outputStage);
             if (first == null) {
                 first = dp;
             }
             last = dp;
+            if (instrumentation) {
+                instrumented = new InstrumentedDataProcessor(dp, instrumented);
+                if (stageStatistics == null) {
+                    stageStatistics = new ArrayList<StageStatistics>();
+                }
+                stageStatistics.add(instrumented.getStatistics());
+                outputStage = instrumented;
+            } else {
+                outputStage = dp;
+            }
         }
         initialize();
+        if (instrumentation) {
+            registerStageStatistics();
+            int dumpPeriod = ps.getInt(PROP_INSTRUMENTATION_DUMP_PERIOD, 0);
+            if (dumpPeriod > 0) {
+                startInstrumentationDump(dumpPeriod);
+            }
+        }
+    }
+
+
+    /**
+     * Method to register the statistics of the stages of the pipeline as JMX MBeans.
+     */
+    private void registerStageStatistics() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        registeredStatistics = new ArrayList<ObjectName>();
+        for (int stage = 0; stage < stageStatistics.size(); stage++) {
+            StageStatistics statistics = stageStatistics.get(stage);
+            try {
+                ObjectName name = new ObjectName("emolib:type=AffectiveTagger,name=" +
+                    ObjectName.quote(getName()) + ",stage=" + ObjectName.quote(statistics.getName()));
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+                server.registerMBean(statistics, name);
+                registeredStatistics.add(name);
+            } catch (Exception e) {
+                System.out.println("EmoLib: the statistics of " + statistics.getName() +
+                    " cannot be registered!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Method to unregister the JMX MBeans of the statistics of the stages of the pipeline.
+     */
+    private void unregisterStageStatistics() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (int stage = 0; stage < registeredStatistics.size(); stage++) {
+            ObjectName name = registeredStatistics.get(stage);
+            try {
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (Exception e) {
+                System.out.println("EmoLib: the statistics " + name + " cannot be unregistered!");
+                e.printStackTrace();
+            }
+        }
+        registeredStatistics = null;
+    }
+
+
+    /**
+     * Method to start logging the instrumentation report periodically.
+     *
+     * @param period The period, in seconds.
+     */
+    private void startInstrumentationDump(int period) {
+        if (instrumentationTimer != null) {
+            instrumentationTimer.cancel();
+        }
+        instrumentationTimer = new Timer("EmoLib instrumentation: " + getName(), true);
+        instrumentationTimer.schedule(new TimerTask() {
+            public void run() {
+                logger.info(getInstrumentationReport());
+            }
+        }, period * 1000L, period * 1000L);
+    }
+
+
+    /**
+     * Function to retrieve the statistics of the stages of the pipeline.
+     *
+     * @return The statistics of each stage, or null if the instrumentation is off.
+     */
+    public List<StageStatistics> getStageStatistics() {
+        return stageStatistics;
+    }
+
+
+    /**
+     * Function to retrieve a report of the statistics of the stages of the pipeline,
+     * one line per stage.
+     *
+     * @return The instrumentation report.
+     */
+    public String getInstrumentationReport() {
+        StringBuilder report = new StringBuilder(getName());
+        report.append(" instrumentation:");
+        if (stageStatistics == null) {
+            report.append(" off");
+        } else {
+            for (int stage = 0; stage < stageStatistics.size(); stage++) {
+                report.append("\n\t").append(stageStatistics.get(stage).toString());
+            }
+        }
+        return report.toString();
     }
 
 
@@ -138,10 +321,118 @@ public class AffectiveTagger extends TextDataProcessor {
      */
     public void initialize() {
         super.initialize();
+        initializationTimes = new LinkedHashMap<String, Long>();
+        long start = System.nanoTime();
+        if (parallelInitialization && (textProcessorList.size() > 1)) {
+            initializeInParallel();
+        } else {
+            for (Iterator i = textProcessorList.iterator(); i.hasNext();) {
+                TextDataProcessor dp = (TextDataProcessor)i.next();
+                initializationTimes.put(dp.getName(), Long.valueOf(initializeProcessor(dp)));
+            }
+        }
+        initializationTime = (System.nanoTime() - start) / 1000000L;
+        if (logger != null) {
+            logger.info(getInitializationReport());
+        }
+    }
+
+
+    /**
+     * Method to initialize the processors of the pipeline concurrently, one thread each.
+     * A processor that appears more than once in the pipeline is initialized once.
+     */
+    private void initializeInParallel() {
+        List<TextDataProcessor> processors = new ArrayList<TextDataProcessor>();
         for (Iterator i = textProcessorList.iterator(); i.hasNext();) {
             TextDataProcessor dp = (TextDataProcessor)i.next();
-            dp.initialize();
+            if (!processors.contains(dp)) {
+                processors.add(dp);
+            }
         }
+        ExecutorService executor = Executors.newFixedThreadPool(processors.size(), new ThreadFactory() {
+            public Thread newThread(Runnable task) {
+                Thread loader = new Thread(task, "EmoLib initialization: " + getName());
+                loader.setDaemon(true);
+                return loader;
+            }
+        });
+        try {
+            List<Future<Long>> loads = new ArrayList<Future<Long>>();
+            for (int processor = 0; processor < processors.size(); processor++) {
+                final TextDataProcessor dp = processors.get(processor);
+                loads.add(executor.submit(new Callable<Long>() {
+                    public Long call() {
+                        return Long.valueOf(initializeProcessor(dp));
+                    }
+                }));
+            }
+            for (int processor = 0; processor < processors.size(); processor++) {
+                String name = processors.get(processor).getName();
+                try {
+                    initializationTimes.put(name, loads.get(processor).get());
+                } catch (ExecutionException e) {
+                    System.out.println("EmoLib: problem initializing " + name + "!");
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException)e.getCause();
+                    } else if (e.getCause() instanceof Error) {
+                        throw (Error)e.getCause();
+                    }
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            System.out.println("EmoLib: the initialization of " + getName() + " has been interrupted!");
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Function to initialize a processor of the pipeline.
+     *
+     * @param dp The processor.
+     *
+     * @return The initialization time, in milliseconds.
+     */
+    private long initializeProcessor(TextDataProcessor dp) {
+        long start = System.nanoTime();
+        dp.initialize();
+        return (System.nanoTime() - start) / 1000000L;
+    }
+
+
+    /**
+     * Function to retrieve the initialization times of the processors of the pipeline.
+     *
+     * @return The initialization time of each processor (in milliseconds), in pipeline order.
+     */
+    public Map<String, Long> getInitializationTimes() {
+        return initializationTimes;
+    }
+
+
+    /**
+     * Function to retrieve a report of the initialization times of the processors of the
+     * pipeline, one line per processor.
+     *
+     * @return The initialization report.
+     */
+    public String getInitializationReport() {
+        StringBuilder report = new StringBuilder(getName());
+        report.append(" initialization: ").append(initializationTime).append(" ms");
+        if (parallelInitialization) {
+            report.append(" (parallel)");
+        }
+        if (initializationTimes != null) {
+            for (Iterator<Map.Entry<String, Long>> i = initializationTimes.entrySet().iterator(); i.hasNext();) {
+                Map.Entry<String, Long> time = i.next();
+                report.append("\n\t").append(time.getKey()).append(": ").append(time.getValue()).append(" ms");
+            }
+        }
+        return report.toString();
     }
 
 
@@ -155,6 +446,26 @@ public class AffectiveTagger extends TextDataProcessor {
         }
     }
 
+
+    /**
+     * Method to release the resources of the processors of the pipeline when the
+     * AffectiveTagger is no longer used, e.g., the shared models they hold. The
+     * statistics of the instrumentation, if any, are unregistered from JMX.
+     */
+    public void deallocate() {
+        if (instrumentationTimer != null) {
+            instrumentationTimer.cancel();
+            instrumentationTimer = null;
+        }
+        if (registeredStatistics != null) {
+            unregisterStageStatistics();
+        }
+        for (Iterator i = textProcessorList.iterator(); i.hasNext();) {
+            TextDataProcessor dp = (TextDataProcessor)i.next();
+            dp.deallocate();
+        }
+    }
+
     /**
      * Sets the source of Data for this AffectiveTagger.
      * It basically sets the predecessor of the first DataProcessor
@@ -175,7 +486,7 @@ public class AffectiveTagger extends TextDataProcessor {
      * @throws DataProcessingException If a Data Processor error occurs.
      */
     public Data getData() throws DataProcessingException {
-        Data data = last.getData();
+        Data data = outputStage.getData();
 
         return data;
     }
@@ -201,7 +512,7 @@ public class AffectiveTagger extends TextDataProcessor {
      */
     public String toString() {
         String description = "";
-        DataProcessor current = last;
+        DataProcessor current = outputStage;
         while (current != null) {
             description = (current.getName() + description);
             current = current.getPredecessor();
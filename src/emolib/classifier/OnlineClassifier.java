@@ -0,0 +1,62 @@
+/*
+ * File    : OnlineClassifier.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier;
+
+/**
+ * The <i>OnlineClassifier</i> interface defines the methods that a
+ * classifier must implement in order to be trained incrementally.
+ *
+ * <p>
+ * Instead of accumulating the training examples and building the whole
+ * model from scratch (see Classifier's train), an online classifier folds
+ * each new labelled example into its live model, at a cost that does not
+ * depend on the number of examples already seen, and without keeping them
+ * in memory. Additionally, two models of the same kind (e.g., trained on
+ * different shards of a corpus in parallel) may be merged into one.
+ * </p>
+ * <p>
+ * An online classifier may be batch-trained first and updated afterwards.
+ * If its settings do not allow online training (e.g., a vocabulary that
+ * cannot grow), update and merge throw an IllegalStateException. Merging a
+ * model of another kind, or with other settings, throws an IllegalArgumentException,
+ * so nothing is ever merged silently.
+ * </p>
+ *
+ * @see emolib.classifier.Classifier
+ */
+public interface OnlineClassifier {
+
+    /**
+     * Method to fold a new training example into the model.
+     *
+     * @param features The input emotional features.
+     * @param cat The category of the input example.
+     */
+    public void update(FeatureBox features, String cat);
+
+
+    /**
+     * Method to merge another model of the same kind into this one.
+     * The other model is left untouched.
+     *
+     * @param otherModel The model to merge.
+     *
+     * @throws IllegalArgumentException If the other model can't be merged into this one.
+     */
+    public void merge(OnlineClassifier otherModel);
+
+}
+
@@ -0,0 +1,204 @@
+/*
+ * File    : SparseVector.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier;
+
+/**
+ * The <i>SparseVector</i> class defines the vectorial representation of
+ * the textual features that the vector-based classifiers work with.
+ *
+ * <p>
+ * Only the non-null weights of the vector are kept, along with their
+ * indices (sorted in ascending order) within the feature space, whose full
+ * dimension is also recorded. This way, the cost of producing and
+ * processing a document vector scales with the length of the document
+ * instead of with the size of the vocabulary.
+ * </p>
+ *
+ * @see emolib.classifier.FeatureBox
+ */
+public class SparseVector {
+
+    private int[] theIndices;
+    private float[] theValues;
+    private int theDimension;
+
+
+    /**
+     * Main constructor.
+     * The given indices need not be sorted, they are sorted here along with
+     * their values. The arrays are owned by the vector afterwards.
+     *
+     * @param indices The indices of the non-null values.
+     * @param values The non-null values.
+     * @param dimension The dimension of the whole feature space.
+     */
+    public SparseVector(int[] indices, float[] values, int dimension) {
+        if (indices.length != values.length) {
+            System.out.println("SparseVector: indices and values don't match!");
+        }
+        theIndices = indices;
+        theValues = values;
+        theDimension = dimension;
+        sortIndices();
+    }
+
+
+    /**
+     * Constructor of an empty vector.
+     *
+     * @param dimension The dimension of the whole feature space.
+     */
+    public SparseVector(int dimension) {
+        theIndices = new int[0];
+        theValues = new float[0];
+        theDimension = dimension;
+    }
+
+
+    /**
+     * Function to retrieve the number of non-null values of this vector.
+     *
+     * @return The number of non-null values.
+     */
+    public int getNumberOfValues() {
+        return theIndices.length;
+    }
+
+
+    /**
+     * Function to retrieve the dimension of the feature space.
+     *
+     * @return The dimension.
+     */
+    public int getDimension() {
+        return theDimension;
+    }
+
+
+    /**
+     * Function to retrieve the index of the given non-null value.
+     *
+     * @param pos The position of the non-null value.
+     *
+     * @return The index in the feature space.
+     */
+    public int getIndex(int pos) {
+        return theIndices[pos];
+    }
+
+
+    /**
+     * Function to retrieve the given non-null value.
+     *
+     * @param pos The position of the non-null value.
+     *
+     * @return The value.
+     */
+    public float getValue(int pos) {
+        return theValues[pos];
+    }
+
+
+    /**
+     * Function to retrieve the sorted indices of the non-null values.
+     *
+     * @return The indices.
+     */
+    public int[] getIndices() {
+        return theIndices;
+    }
+
+
+    /**
+     * Function to retrieve the non-null values.
+     *
+     * @return The values.
+     */
+    public float[] getValues() {
+        return theValues;
+    }
+
+
+    /**
+     * Function to compute the dot product with a dense vector of weights.
+     *
+     * @param weights The dense weights, indexed in the same feature space.
+     *
+     * @return The dot product.
+     */
+    public double dotProduct(double[] weights) {
+        double prod = 0;
+        for (int i = 0; i < theIndices.length; i++) {
+            prod += weights[theIndices[i]] * (double)theValues[i];
+        }
+        return prod;
+    }
+
+
+    /**
+     * Function to compute the squared Euclidean norm of this vector.
+     *
+     * @return The squared norm.
+     */
+    public double squaredNorm() {
+        double norm = 0;
+        for (int i = 0; i < theValues.length; i++) {
+            norm += (double)theValues[i] * (double)theValues[i];
+        }
+        return norm;
+    }
+
+
+    /**
+     * Function to export this vector into its dense form.
+     * Beware that this allocates the whole feature space.
+     *
+     * @return The dense vector.
+     */
+    public float[] toDenseVector() {
+        float[] vec = new float[theDimension];
+        for (int i = 0; i < theIndices.length; i++) {
+            vec[theIndices[i]] = theValues[i];
+        }
+        return vec;
+    }
+
+
+    /**
+     * Sorting method of the indices (and their values).
+     * The Insertion sort method is used, since the vectors are short and
+     * usually come almost sorted.
+     */
+    private void sortIndices() {
+        int auxIndex;
+        float auxValue;
+        int j;
+        for (int i = 1; i < theIndices.length; i++) {
+            auxIndex = theIndices[i];
+            auxValue = theValues[i];
+            j = i - 1;
+            while ((j >= 0) && (theIndices[j] > auxIndex)) {
+                theIndices[j + 1] = theIndices[j];
+                theValues[j + 1] = theValues[j];
+                j--;
+            }
+            theIndices[j + 1] = auxIndex;
+            theValues[j + 1] = auxValue;
+        }
+    }
+
+}
+
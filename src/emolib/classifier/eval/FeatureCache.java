@@ -0,0 +1,364 @@
+/*
+ * File    : FeatureCache.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2011 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier.eval;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.net.URL;
+import java.security.MessageDigest;
+
+import emolib.classifier.FeatureBox;
+
+
+/**
+ * The <i>FeatureCache</i> class stores the features extracted from a corpus file
+ * so that they need not be extracted again with the text processing pipeline.
+ *
+ * <p>
+ * The FeatureBoxes and the categories of a corpus are saved in a compact binary file
+ * in the cache directory. This file is keyed by a hash of the contents of the corpus
+ * and a fingerprint of the pipeline configuration (the contents of the configuration
+ * file and the name of the pipeline component), so any change in either of them
+ * invalidates the cached features. Note that the resources referenced by the
+ * configuration file (lexicons, models, etc.) are not fingerprinted: the cache
+ * directory should be cleaned if they are modified.
+ * </p>
+ */
+public class FeatureCache {
+
+    private static final int MAGIC = 0x454d4643;
+    private static final int VERSION = 1;
+
+    private static final int EMOTIONAL_DIMENSIONS = 1;
+    private static final int SYNONYMS = 2;
+    private static final int NEGATION = 4;
+
+    private File cacheDirectory;
+    private byte[] pipelineFingerprint;
+    private HashMap<String, String> corpusKeys;
+
+
+    /**
+     * Main constructor.
+     *
+     * @param directory The cache directory.
+     * @param configFile The configuration file of the text processing pipeline.
+     * @param component The name of the pipeline component in the configuration file.
+     */
+    public FeatureCache(String directory, URL configFile, String component) {
+        cacheDirectory = new File(directory);
+        if (!cacheDirectory.isDirectory() && !cacheDirectory.mkdirs()) {
+            System.out.println("FeatureCache: the cache directory " + directory + " cannot be created!");
+        }
+        corpusKeys = new HashMap<String, String>();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            InputStream config = configFile.openStream();
+            updateDigest(digest, config);
+            config.close();
+            digest.update(component.getBytes("UTF-8"));
+            pipelineFingerprint = digest.digest();
+        } catch (Exception e) {
+            System.out.println("FeatureCache: the pipeline configuration cannot be fingerprinted!");
+            e.printStackTrace();
+            pipelineFingerprint = null;
+        }
+    }
+
+
+    /**
+     * Function to check if the features of a corpus file are available in the cache.
+     *
+     * @param corpusFile The corpus file.
+     *
+     * @return True if the features are cached.
+     */
+    public boolean contains(String corpusFile) {
+        String key = getKey(corpusFile);
+        if (key == null) {
+            return false;
+        }
+        boolean found = false;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+                getCacheFile(corpusFile, key))));
+            found = readHeader(in, key);
+            in.close();
+        } catch (IOException e) {
+            found = false;
+        }
+        return found;
+    }
+
+
+    /**
+     * Function to load the cached features of a corpus file.
+     * The FeatureBoxes and their categories are appended to the given lists.
+     *
+     * @param corpusFile The corpus file.
+     * @param texts The list of features.
+     * @param categories The list of categories.
+     *
+     * @return True if the features have been loaded from the cache.
+     */
+    public boolean load(String corpusFile, ArrayList<FeatureBox> texts, ArrayList<String> categories) {
+        String key = getKey(corpusFile);
+        if (key == null) {
+            return false;
+        }
+        File cacheFile = getCacheFile(corpusFile, key);
+        if (!cacheFile.isFile()) {
+            return false;
+        }
+        ArrayList<FeatureBox> loadedTexts;
+        ArrayList<String> loadedCategories;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+            if (!readHeader(in, key)) {
+                in.close();
+                return false;
+            }
+            int numberOfInstances = in.readInt();
+            loadedTexts = new ArrayList<FeatureBox>(numberOfInstances);
+            loadedCategories = new ArrayList<String>(numberOfInstances);
+            for (int instance = 0; instance < numberOfInstances; instance++) {
+                loadedCategories.add(readString(in));
+                loadedTexts.add(readFeatureBox(in));
+            }
+            in.close();
+        } catch (IOException e) {
+            System.out.println("FeatureCache: the cache file " + cacheFile.getPath() + " is corrupt!");
+            e.printStackTrace();
+            return false;
+        }
+        texts.addAll(loadedTexts);
+        categories.addAll(loadedCategories);
+        return true;
+    }
+
+
+    /**
+     * Method to save the features of a corpus file into the cache.
+     * The cache file is first written to a temporary file and then renamed, so
+     * an interrupted run never leaves a truncated cache behind.
+     *
+     * @param corpusFile The corpus file.
+     * @param texts The features of the corpus instances.
+     * @param categories The categories of the corpus instances.
+     */
+    public void save(String corpusFile, ArrayList<FeatureBox> texts, ArrayList<String> categories) {
+        String key = getKey(corpusFile);
+        if (key == null) {
+            return;
+        }
+        File cacheFile = getCacheFile(corpusFile, key);
+        File tempFile = new File(cacheFile.getPath() + ".tmp");
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, key);
+            out.writeInt(texts.size());
+            for (int instance = 0; instance < texts.size(); instance++) {
+                writeString(out, categories.get(instance));
+                writeFeatureBox(out, texts.get(instance));
+            }
+            out.close();
+            cacheFile.delete();
+            if (!tempFile.renameTo(cacheFile)) {
+                System.out.println("FeatureCache: the cache file " + cacheFile.getPath() + " cannot be written!");
+                tempFile.delete();
+            }
+        } catch (IOException e) {
+            System.out.println("FeatureCache: the cache file " + cacheFile.getPath() + " cannot be written!");
+            e.printStackTrace();
+            tempFile.delete();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the cache key of a corpus file, i.e., the hash of its
+     * contents together with the pipeline fingerprint.
+     * The keys are computed once per corpus file.
+     *
+     * @param corpusFile The corpus file.
+     *
+     * @return The cache key in hexadecimal, or null if it cannot be computed.
+     */
+    private String getKey(String corpusFile) {
+        if (pipelineFingerprint == null) {
+            return null;
+        }
+        String key = corpusKeys.get(corpusFile);
+        if (key == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                InputStream corpus = new FileInputStream(corpusFile);
+                updateDigest(digest, corpus);
+                corpus.close();
+                digest.update(pipelineFingerprint);
+                byte[] hash = digest.digest();
+                StringBuilder hex = new StringBuilder(2 * hash.length);
+                for (int i = 0; i < hash.length; i++) {
+                    hex.append(Character.forDigit((hash[i] >> 4) & 0xf, 16));
+                    hex.append(Character.forDigit(hash[i] & 0xf, 16));
+                }
+                key = hex.toString();
+                corpusKeys.put(corpusFile, key);
+            } catch (Exception e) {
+                System.out.println("FeatureCache: the corpus file " + corpusFile + " cannot be hashed!");
+                e.printStackTrace();
+            }
+        }
+        return key;
+    }
+
+
+    /**
+     * Function to retrieve the cache file of a corpus file.
+     *
+     * @param corpusFile The corpus file.
+     * @param key The cache key of the corpus file.
+     *
+     * @return The cache file.
+     */
+    private File getCacheFile(String corpusFile, String key) {
+        return new File(cacheDirectory, new File(corpusFile).getName() + "." + key.substring(0, 16) + ".fbc");
+    }
+
+
+    /**
+     * Method to feed a digest with the contents of a stream.
+     *
+     * @param digest The digest.
+     * @param in The input stream.
+     */
+    private void updateDigest(MessageDigest digest, InputStream in) throws IOException {
+        byte[] buffer = new byte[65536];
+        int read = in.read(buffer);
+        while (read != -1) {
+            digest.update(buffer, 0, read);
+            read = in.read(buffer);
+        }
+    }
+
+
+    /**
+     * Function to check the header of a cache file.
+     *
+     * @param in The input stream.
+     * @param key The expected cache key.
+     *
+     * @return True if the header is correct.
+     */
+    private boolean readHeader(DataInputStream in, String key) throws IOException {
+        return (in.readInt() == MAGIC) && (in.readInt() == VERSION) && readString(in).equals(key);
+    }
+
+
+    /**
+     * Method to write a FeatureBox.
+     *
+     * @param out The output stream.
+     * @param fbox The FeatureBox.
+     */
+    private void writeFeatureBox(DataOutputStream out, FeatureBox fbox) throws IOException {
+        int flags = 0;
+        if (fbox.containsEmotionalDimensions()) {
+            flags |= EMOTIONAL_DIMENSIONS;
+        }
+        if (fbox.containsSynonyms()) {
+            flags |= SYNONYMS;
+        }
+        if (fbox.getNegation()) {
+            flags |= NEGATION;
+        }
+        out.writeByte(flags);
+        out.writeInt(fbox.getNumberOfEmotionalDimensions());
+        if (fbox.containsEmotionalDimensions()) {
+            out.writeFloat(fbox.getValence());
+            out.writeFloat(fbox.getActivation());
+            out.writeFloat(fbox.getControl());
+        }
+        writeString(out, fbox.getText());
+        writeString(out, fbox.getWords());
+        writeString(out, fbox.getPOSTags());
+        writeString(out, fbox.getStems());
+        if (fbox.containsSynonyms()) {
+            writeString(out, fbox.getSynonyms());
+            writeString(out, fbox.getStemmedSynonyms());
+        }
+    }
+
+
+    /**
+     * Function to read a FeatureBox.
+     *
+     * @param in The input stream.
+     *
+     * @return The FeatureBox.
+     */
+    private FeatureBox readFeatureBox(DataInputStream in) throws IOException {
+        FeatureBox fbox = new FeatureBox();
+        int flags = in.readByte();
+        fbox.setNumberOfEmotionalDimensions(in.readInt());
+        if ((flags & EMOTIONAL_DIMENSIONS) != 0) {
+            fbox.setValence(in.readFloat());
+            fbox.setActivation(in.readFloat());
+            fbox.setControl(in.readFloat());
+        }
+        fbox.setText(readString(in));
+        fbox.setWords(readString(in));
+        fbox.setPOSTags(readString(in));
+        fbox.setStems(readString(in));
+        if ((flags & SYNONYMS) != 0) {
+            fbox.setSynonyms(readString(in));
+            fbox.setStemmedSynonyms(readString(in));
+        }
+        fbox.setNegation((flags & NEGATION) != 0);
+        return fbox;
+    }
+
+
+    /**
+     * Method to write a string, which may be longer than what writeUTF allows.
+     *
+     * @param out The output stream.
+     * @param str The string.
+     */
+    private void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+
+    /**
+     * Function to read a string.
+     *
+     * @param in The input stream.
+     *
+     * @return The string.
+     */
+    private String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+}
@@ -0,0 +1,720 @@
+/*
+ * File    : HyperParameterSearch.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2011 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier.eval;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.lang.Math;
+import java.net.URL;
+
+import emolib.classifier.Classifier;
+import emolib.classifier.FeatureBox;
+import emolib.AffectiveTagger;
+import emolib.util.conf.ConfigurationManager;
+import emolib.classifier.machinelearning.*;
+
+/**
+ * The <i>HyperParameterSearch</i> class tunes the learning settings of the
+ * RiskWeightedNaiveBayes (momentum and threshold of the gradient descent
+ * learning rule), the RiskLogReg and the OrdinalLogReg (learning rate and
+ * minimum improvement) on a held-out split of the input dataset.
+ *
+ * <p>
+ * The candidate configurations are either the whole grid of values or a number
+ * of random draws within its range (log-uniform for positive parameters), and they
+ * are trained and scored (macroaveraged F1) concurrently on a pool of threads.
+ * Unpromising runs are stopped early by successive halving: all the candidates are
+ * first trained with a small budget (epochs of the gradient descent, or loss cost
+ * vector repetitions for the RiskWeightedNaiveBayes), and only the best third is
+ * trained again with a three times larger budget, up to the default one of the
+ * classifier.
+ * </p>
+ * <p>
+ * The features of the corpus are extracted only once with the EmoLib pipeline
+ * (see KFoldXValidation). The weighted training vectors of the logistic models, and
+ * the Naive Bayes and its training posteriors for the RiskWeightedNaiveBayes, are
+ * prepared only once and shared by all the candidates. A candidate that fails, or
+ * that leaves an example unclassified, is scored accordingly instead of stopping
+ * the search.
+ * The <i>HyperParameterSearch</i> class seeks the <i>kfoldcv</i> component in the
+ * XML config file.
+ * </p>
+ *
+ * @see emolib.classifier.eval.KFoldXValidation
+ */
+public class HyperParameterSearch {
+
+    // Budget growth factor between rungs (and fraction of survivors)
+    private final static int HALVING_FACTOR = 3;
+
+    private String classifierType;
+    private String searchStrategy;
+    private int numberOfRandomCandidates;
+    private int numberOfThreads;
+    private int numberOfRungs;
+    private int heldOutPeriod;
+    private long seed;
+
+    // Dataset
+    private ArrayList<FeatureBox> inputTexts;
+    private ArrayList<String> inputCategories;
+    private ArrayList<String> basicCategories;
+    private ArrayList<FeatureBox> trainTexts;
+    private ArrayList<String> trainCategories;
+    private ArrayList<FeatureBox> heldOutTexts;
+    private ArrayList<String> heldOutCategories;
+
+    // Hyper-parameter space
+    private String[] parameterNames;
+    private double[][] parameterGrid;
+    private int maxBudget;
+
+    // Shared feature extraction
+    private RiskWeightedNaiveBayes sharedRiskWeightedNaiveBayes;
+    private RiskLogReg sharedRiskLogReg;
+    private OrdinalLogReg sharedOrdinalLogReg;
+
+    // Results
+    private double[] bestConfiguration;
+    private float bestScore;
+
+
+    /**
+     * Main constructor of the HyperParameterSearch.
+     *
+     * @param type The classifier to tune: RWNB, RLR or OLR.
+     */
+    public HyperParameterSearch(String type) {
+        classifierType = type;
+        searchStrategy = "grid";
+        numberOfRandomCandidates = 20;
+        numberOfThreads = Runtime.getRuntime().availableProcessors();
+        numberOfRungs = 3;
+        heldOutPeriod = 5;
+        seed = 1;
+        inputTexts = null;
+        inputCategories = null;
+        basicCategories = null;
+        sharedRiskWeightedNaiveBayes = null;
+        sharedRiskLogReg = null;
+        sharedOrdinalLogReg = null;
+        bestConfiguration = null;
+        bestScore = Float.NaN;
+        if (type.equals("RWNB")) {
+            parameterNames = new String[] {"momentum", "threshold"};
+            parameterGrid = new double[][] {{0, 0.1, 0.3, 0.5, 0.9}, {1e-4, 1e-6, 1e-8}};
+            maxBudget = 10;
+        } else if (type.equals("RLR")) {
+            parameterNames = new String[] {"learning_rate", "min_improvement"};
+            parameterGrid = new double[][] {{1e-2, 1e-3, 1e-4, 1e-5}, {1e-3, 1e-4, 1e-5}};
+            maxBudget = 10;
+        } else if (type.equals("OLR")) {
+            parameterNames = new String[] {"learning_rate", "min_improvement"};
+            parameterGrid = new double[][] {{1e-1, 1e-2, 1e-3}, {1e-2, 1e-3, 1e-4}};
+            maxBudget = 1000;
+        } else {
+            System.out.println("HyperParameterSearch: unknown classifier " + type + "!");
+            parameterNames = new String[0];
+            parameterGrid = new double[0][];
+            maxBudget = 1;
+        }
+    }
+
+
+    /**
+     * Method to set the search strategy: "grid" or "random".
+     *
+     * @param strategy The search strategy.
+     */
+    public void setSearchStrategy(String strategy) {
+        if (strategy.equals("grid") || strategy.equals("random")) {
+            searchStrategy = strategy;
+        } else {
+            System.out.println("HyperParameterSearch: unknown search strategy!");
+        }
+    }
+
+
+    /**
+     * Method to set the number of candidates of the random search.
+     *
+     * @param numCandidates The number of candidates.
+     */
+    public void setNumberOfRandomCandidates(int numCandidates) {
+        numberOfRandomCandidates = numCandidates;
+    }
+
+
+    /**
+     * Method to set the number of threads that evaluate the candidates.
+     *
+     * @param threads The number of threads.
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads > 0) {
+            numberOfThreads = threads;
+        } else {
+            System.out.println("HyperParameterSearch: the number of threads must be positive!");
+        }
+    }
+
+
+    /**
+     * Method to set the number of successive halving rungs.
+     * With one rung, all the candidates are trained with the full budget.
+     *
+     * @param rungs The number of rungs.
+     */
+    public void setNumberOfRungs(int rungs) {
+        if (rungs > 0) {
+            numberOfRungs = rungs;
+        } else {
+            System.out.println("HyperParameterSearch: the number of rungs must be positive!");
+        }
+    }
+
+
+    /**
+     * Method to set the period of the held-out examples, i.e., one example out
+     * of this period is held out for scoring (5 means 20% of the dataset).
+     *
+     * @param period The held-out period.
+     */
+    public void setHeldOutPeriod(int period) {
+        if (period > 1) {
+            heldOutPeriod = period;
+        } else {
+            System.out.println("HyperParameterSearch: the held-out period must be greater than one!");
+        }
+    }
+
+
+    /**
+     * Method to set the seed of the random search.
+     *
+     * @param randomSeed The seed.
+     */
+    public void setSeed(long randomSeed) {
+        seed = randomSeed;
+    }
+
+
+    /**
+     * Method to set the dataset.
+     *
+     * @param texts The features of the examples.
+     * @param categories The categories of the examples.
+     * @param basicCats The basic categories of the system.
+     */
+    public void setDataset(ArrayList<FeatureBox> texts, ArrayList<String> categories,
+        ArrayList<String> basicCats) {
+        inputTexts = texts;
+        inputCategories = categories;
+        basicCategories = basicCats;
+    }
+
+
+    /**
+     * Function to retrieve the best configuration found.
+     *
+     * @return The values of the hyper-parameters, in the order of their names.
+     */
+    public double[] getBestConfiguration() {
+        return bestConfiguration;
+    }
+
+
+    /**
+     * Function to retrieve the held-out score of the best configuration.
+     *
+     * @return The macroaveraged F1.
+     */
+    public float getBestScore() {
+        return bestScore;
+    }
+
+
+    /**
+     * Function to retrieve the names of the hyper-parameters.
+     *
+     * @return The names of the hyper-parameters.
+     */
+    public String[] getParameterNames() {
+        return parameterNames;
+    }
+
+
+    /**
+     * Method to run the search.
+     */
+    public void search() {
+        splitDataset();
+        prepareSharedFeatures();
+        ArrayList<double[]> candidates = generateCandidates();
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            float[] scores = null;
+            int budget;
+            for (int rung = 0; rung < numberOfRungs; rung++) {
+                budget = Math.max(1, (int)Math.ceil((double)maxBudget /
+                    Math.pow(HALVING_FACTOR, numberOfRungs - 1 - rung)));
+                System.out.println("HyperParameterSearch: rung " + rung + ", " + candidates.size() +
+                    " candidates, budget " + budget);
+                scores = evaluateCandidates(executor, candidates, budget);
+                for (int cand = 0; cand < candidates.size(); cand++) {
+                    System.out.println("\t" + toString(candidates.get(cand)) + " : F_1 = " + scores[cand]);
+                }
+                if (rung < (numberOfRungs - 1)) {
+                    candidates = selectPromising(candidates, scores);
+                }
+            }
+            int[] order = rankScores(scores);
+            bestConfiguration = candidates.get(order[0]);
+            bestScore = scores[order[0]];
+            System.out.println("HyperParameterSearch: best configuration: " + toString(bestConfiguration) +
+                " : F_1 = " + bestScore);
+        } catch (Exception e) {
+            System.out.println("HyperParameterSearch: a problem occurred while evaluating the candidates!");
+            e.printStackTrace();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Method to split the dataset into the training and the held-out parts.
+     * The held-out examples are taken periodically, so that a stratified
+     * dataset remains balanced.
+     */
+    private void splitDataset() {
+        trainTexts = new ArrayList<FeatureBox>();
+        trainCategories = new ArrayList<String>();
+        heldOutTexts = new ArrayList<FeatureBox>();
+        heldOutCategories = new ArrayList<String>();
+        for (int ex = 0; ex < inputTexts.size(); ex++) {
+            if ((ex % heldOutPeriod) == (heldOutPeriod - 1)) {
+                heldOutTexts.add(inputTexts.get(ex));
+                heldOutCategories.add(inputCategories.get(ex));
+            } else {
+                trainTexts.add(inputTexts.get(ex));
+                trainCategories.add(inputCategories.get(ex));
+            }
+        }
+    }
+
+
+    /**
+     * Method to prepare the features that are shared by all the candidates.
+     */
+    private void prepareSharedFeatures() {
+        if (classifierType.equals("RWNB")) {
+            sharedRiskWeightedNaiveBayes = new RiskWeightedNaiveBayes();
+            feedExamples(sharedRiskWeightedNaiveBayes);
+            sharedRiskWeightedNaiveBayes.prepareFeatures();
+        } else if (classifierType.equals("RLR")) {
+            sharedRiskLogReg = new RiskLogReg();
+            feedExamples(sharedRiskLogReg);
+            sharedRiskLogReg.prepareFeatures();
+        } else if (classifierType.equals("OLR")) {
+            sharedOrdinalLogReg = new OrdinalLogReg();
+            feedExamples(sharedOrdinalLogReg);
+            sharedOrdinalLogReg.prepareFeatures();
+        }
+    }
+
+
+    /**
+     * Function to generate the candidate configurations.
+     *
+     * @return The candidates.
+     */
+    private ArrayList<double[]> generateCandidates() {
+        ArrayList<double[]> candidates = new ArrayList<double[]>();
+        if (searchStrategy.equals("grid")) {
+            int[] position = new int[parameterGrid.length];
+            double[] config;
+            boolean done = (parameterGrid.length == 0);
+            while (!done) {
+                config = new double[parameterGrid.length];
+                for (int param = 0; param < parameterGrid.length; param++) {
+                    config[param] = parameterGrid[param][position[param]];
+                }
+                candidates.add(config);
+                // Next position of the grid
+                done = true;
+                for (int param = parameterGrid.length - 1; param >= 0; param--) {
+                    position[param]++;
+                    if (position[param] < parameterGrid[param].length) {
+                        done = false;
+                        break;
+                    }
+                    position[param] = 0;
+                }
+            }
+        } else {
+            Random random = new Random(seed);
+            double[] config;
+            double min, max;
+            for (int cand = 0; cand < numberOfRandomCandidates; cand++) {
+                config = new double[parameterGrid.length];
+                for (int param = 0; param < parameterGrid.length; param++) {
+                    min = parameterGrid[param][0];
+                    max = parameterGrid[param][0];
+                    for (int val = 1; val < parameterGrid[param].length; val++) {
+                        min = Math.min(min, parameterGrid[param][val]);
+                        max = Math.max(max, parameterGrid[param][val]);
+                    }
+                    if (min > 0) {
+                        config[param] = Math.exp(Math.log(min) + random.nextDouble() *
+                            (Math.log(max) - Math.log(min)));
+                    } else {
+                        config[param] = min + random.nextDouble() * (max - min);
+                    }
+                }
+                candidates.add(config);
+            }
+        }
+        return candidates;
+    }
+
+
+    /**
+     * Function to evaluate the candidates concurrently.
+     *
+     * @param executor The thread pool.
+     * @param candidates The candidates.
+     * @param budget The training budget.
+     *
+     * @return The held-out scores of the candidates.
+     */
+    private float[] evaluateCandidates(ExecutorService executor, ArrayList<double[]> candidates,
+        final int budget) throws Exception {
+        ArrayList<Future<Float>> tasks = new ArrayList<Future<Float>>();
+        for (int cand = 0; cand < candidates.size(); cand++) {
+            final double[] config = candidates.get(cand);
+            tasks.add(executor.submit(new Callable<Float>() {
+                public Float call() {
+                    try {
+                        return new Float(evaluate(config, budget));
+                    } catch (RuntimeException e) {
+                        System.out.println("HyperParameterSearch: the candidate " + HyperParameterSearch.this.
+                            toString(config) + " failed!");
+                        e.printStackTrace();
+                        return new Float(Float.NaN);
+                    }
+                }
+            }));
+        }
+        float[] scores = new float[candidates.size()];
+        for (int cand = 0; cand < tasks.size(); cand++) {
+            scores[cand] = tasks.get(cand).get().floatValue();
+        }
+        return scores;
+    }
+
+
+    /**
+     * Function to keep the most promising candidates, i.e., the best third.
+     *
+     * @param candidates The candidates.
+     * @param scores The scores of the candidates.
+     *
+     * @return The promising candidates.
+     */
+    private ArrayList<double[]> selectPromising(ArrayList<double[]> candidates, float[] scores) {
+        int[] order = rankScores(scores);
+        int numSurvivors = Math.max(1, (candidates.size() + HALVING_FACTOR - 1) / HALVING_FACTOR);
+        ArrayList<double[]> survivors = new ArrayList<double[]>(numSurvivors);
+        for (int cand = 0; cand < numSurvivors; cand++) {
+            survivors.add(candidates.get(order[cand]));
+        }
+        return survivors;
+    }
+
+
+    /**
+     * Function to rank the scores in descending order (NaNs go last, and ties
+     * keep the order of the candidates).
+     *
+     * @param scores The scores.
+     *
+     * @return The indices of the scores in descending order.
+     */
+    private int[] rankScores(float[] scores) {
+        int[] order = new int[scores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        int temp;
+        for (int i = 1; i < order.length; i++) {
+            for (int j = i; (j > 0) && isBetter(scores[order[j]], scores[order[j - 1]]); j--) {
+                temp = order[j];
+                order[j] = order[j - 1];
+                order[j - 1] = temp;
+            }
+        }
+        return order;
+    }
+
+
+    /**
+     * Function to compare two scores.
+     *
+     * @param score One score.
+     * @param other The other score.
+     *
+     * @return True if the first score is strictly better.
+     */
+    private boolean isBetter(float score, float other) {
+        if (Float.isNaN(score)) {
+            return false;
+        } else if (Float.isNaN(other)) {
+            return true;
+        } else {
+            return score > other;
+        }
+    }
+
+
+    /**
+     * Function to train a candidate and score it on the held-out examples.
+     *
+     * @param config The configuration.
+     * @param budget The training budget.
+     *
+     * @return The macroaveraged F1.
+     */
+    private float evaluate(double[] config, int budget) {
+        Classifier candidate = createCandidate(config, budget);
+        if (candidate == null) {
+            return Float.NaN;
+        }
+        feedExamples(candidate);
+        candidate.train();
+        String[] predictions = new String[heldOutTexts.size()];
+        for (int ex = 0; ex < heldOutTexts.size(); ex++) {
+            predictions[ex] = candidate.getCategory(heldOutTexts.get(ex));
+        }
+        return getMacroF1(predictions);
+    }
+
+
+    /**
+     * Function to create a candidate classifier.
+     *
+     * @param config The configuration.
+     * @param budget The training budget.
+     *
+     * @return The classifier.
+     */
+    private Classifier createCandidate(double[] config, int budget) {
+        Classifier candidate = null;
+        if (classifierType.equals("RWNB")) {
+            RiskWeightedNaiveBayes rWNB = new RiskWeightedNaiveBayes();
+            rWNB.shareFeatures(sharedRiskWeightedNaiveBayes);
+            rWNB.setLearningProcedure("three_sentiment_gradient_descent");
+            rWNB.setMomentum((float)config[0]);
+            rWNB.setThreshold((float)config[1]);
+            rWNB.setRepetitions(budget);
+            candidate = rWNB;
+        } else if (classifierType.equals("RLR")) {
+            RiskLogReg rlogR = new RiskLogReg();
+            rlogR.shareFeatures(sharedRiskLogReg);
+            rlogR.setLearningRate(config[0]);
+            rlogR.setMinImprovement(config[1]);
+            rlogR.setMaxEpochs(budget);
+            candidate = rlogR;
+        } else if (classifierType.equals("OLR")) {
+            OrdinalLogReg oLR = new OrdinalLogReg();
+            oLR.shareFeatures(sharedOrdinalLogReg);
+            oLR.setLearningRate(config[0]);
+            oLR.setMinImprovement(config[1]);
+            oLR.setMaxEpochs(budget);
+            candidate = oLR;
+        }
+        return candidate;
+    }
+
+
+    /**
+     * Method to feed the training examples to a classifier.
+     *
+     * @param theClassifier The classifier.
+     */
+    private void feedExamples(Classifier theClassifier) {
+        for (int ex = 0; ex < trainTexts.size(); ex++) {
+            theClassifier.inputTrainingExample(trainTexts.get(ex), trainCategories.get(ex));
+        }
+    }
+
+
+    /**
+     * Function to compute the macroaveraged F1 of the held-out predictions,
+     * as in KFoldXValidation. A category that is never predicted scores a
+     * null precision, so that the candidates can always be ranked. An example
+     * without prediction counts as misclassified.
+     *
+     * @param predictions The predicted categories.
+     *
+     * @return The macroaveraged F1.
+     */
+    private float getMacroF1(String[] predictions) {
+        float precision = 0;
+        float recall = 0;
+        float truePositives, classifierScore, expertScore;
+        String presentCategory;
+        float nBasicCategories = basicCategories.size();
+        for (int cat = 0; cat < basicCategories.size(); cat++) {
+            presentCategory = basicCategories.get(cat);
+            truePositives = 0;
+            classifierScore = 0;
+            expertScore = 0;
+            for (int ex = 0; ex < predictions.length; ex++) {
+                if (presentCategory.equals(predictions[ex])) {
+                    classifierScore++;
+                    if (heldOutCategories.get(ex).equals(presentCategory)) {
+                        truePositives++;
+                    }
+                }
+                if (heldOutCategories.get(ex).equals(presentCategory)) {
+                    expertScore++;
+                }
+            }
+            if (classifierScore > 0) {
+                precision += truePositives / classifierScore / nBasicCategories;
+            }
+            if (expertScore > 0) {
+                recall += truePositives / expertScore / nBasicCategories;
+            }
+        }
+        if ((precision + recall) > 0) {
+            return 2 * precision * recall / (precision + recall);
+        } else {
+            return 0;
+        }
+    }
+
+
+    /**
+     * Function to describe a configuration.
+     *
+     * @param config The configuration.
+     *
+     * @return The description.
+     */
+    private String toString(double[] config) {
+        String description = "";
+        for (int param = 0; param < config.length; param++) {
+            if (param > 0) {
+                description += ", ";
+            }
+            description += parameterNames[param] + "=" + config[param];
+        }
+        return description;
+    }
+
+
+    /**
+     * Prints the synopsis.
+     */
+    public static void printSynopsis() {
+        System.out.println("HyperParameterSearch usage:");
+        System.out.println("\tjava " + "[-Xmx256m] -cp EmoLib-X.Y.Z.jar emolib.classifier.eval.HyperParameterSearch");
+        System.out.println("\t\t-id INPUT_DATASET");
+        System.out.println("\t\t-bc CATEGORY_1-CATEGORY_2[-CATEGORY_N]");
+        System.out.println("\t\t-cf CONFIGURATION_FILE");
+        System.out.println("\t\t-c CLASSIFIER");
+        System.out.println("\t\t[-s grid|random] (default grid)");
+        System.out.println("\t\t[-n NUMBER_OF_RANDOM_CANDIDATES] (default 20)");
+        System.out.println("\t\t[-t NUMBER_OF_THREADS] (default all the processors)");
+        System.out.println("\t\t[-r NUMBER_OF_RUNGS] (default 3, 1 disables early stopping)");
+        System.out.println("\t\t[-ho HELD_OUT_PERIOD] (default 5, i.e., 20% held out)");
+        System.out.println("\t\t[-fc FEATURE_CACHE_DIRECTORY]");
+        System.out.println("");
+        System.out.println("The available classifiers are:");
+        System.out.println("\tRWNB: Risk Weighted Naive Bayes with Gradient Descent learning rule " +
+            "(momentum, threshold)");
+        System.out.println("\tRLR: Risk-weighted Logistic Regression (learning rate, min improvement)");
+        System.out.println("\tOLR: Ordinal Logistic Regression (learning rate, min improvement)");
+        System.out.println("");
+    }
+
+
+    /**
+     * The main method of the HyperParameterSearch application.
+     *
+     * @param args The input arguments.
+     */
+    public static void main(String[] args) throws Exception {
+        if ((args.length > 1) && ((args.length % 2) == 0)) {
+            KFoldXValidation loader = new KFoldXValidation();
+            String[] params = (String[])args.clone();
+            if ((loader.indexOf("-id", params) == -1) || (loader.indexOf("-bc", params) == -1) ||
+            (loader.indexOf("-cf", params) == -1) || (loader.indexOf("-c", params) == -1)) {
+                System.out.println("HyperParameterSearch: Please enter the correct parameters!");
+                System.out.println("");
+                printSynopsis();
+                System.exit(1);
+            }
+            HyperParameterSearch tuner = new HyperParameterSearch(params[loader.indexOf("-c", params) + 1]);
+            if (loader.indexOf("-s", params) != -1) {
+                tuner.setSearchStrategy(params[loader.indexOf("-s", params) + 1]);
+            }
+            if (loader.indexOf("-n", params) != -1) {
+                tuner.setNumberOfRandomCandidates(Integer.parseInt(params[loader.indexOf("-n", params) + 1]));
+            }
+            if (loader.indexOf("-t", params) != -1) {
+                tuner.setNumberOfThreads(Integer.parseInt(params[loader.indexOf("-t", params) + 1]));
+            }
+            if (loader.indexOf("-r", params) != -1) {
+                tuner.setNumberOfRungs(Integer.parseInt(params[loader.indexOf("-r", params) + 1]));
+            }
+            if (loader.indexOf("-ho", params) != -1) {
+                tuner.setHeldOutPeriod(Integer.parseInt(params[loader.indexOf("-ho", params) + 1]));
+            }
+            loader.setBasicCategories(params[loader.indexOf("-bc", params) + 1]);
+            long start = System.currentTimeMillis();
+            URL configFile = new File(params[loader.indexOf("-cf", params) + 1]).toURI().toURL();
+            String corpusFile = params[loader.indexOf("-id", params) + 1];
+            FeatureCache featureCache = null;
+            if (loader.indexOf("-fc", params) != -1) {
+                featureCache = new FeatureCache(params[loader.indexOf("-fc", params) + 1], configFile, "kfoldcv");
+            }
+            if ((featureCache == null) || !featureCache.contains(corpusFile)) {
+                System.out.print("Loading resources for EmoLib... ");
+                ConfigurationManager confMgr = new ConfigurationManager(configFile);
+                loader.setTextProcessingPipeline((AffectiveTagger)confMgr.lookup("kfoldcv"));
+                System.out.println("OK");
+            }
+            System.out.print("Loading corpus examples... ");
+            loader.inputDataset(corpusFile, false, featureCache);
+            System.out.println("OK");
+            tuner.setDataset(loader.getInputTexts(), loader.getInputCategories(), loader.getBasicCategories());
+            tuner.search();
+            System.out.println("Elapsed time: " + (System.currentTimeMillis() - start) / 1000 + "sec.");
+        } else {
+            printSynopsis();
+        }
+    }
+
+}
+
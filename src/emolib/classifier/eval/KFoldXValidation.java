@@ -20,6 +20,10 @@ import java.io.*;
 import java.util.ArrayList;
 import java.lang.Math;
 import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
@@ -30,6 +34,9 @@ import emolib.util.conf.ConfigurationManager;
 import emolib.classifier.heuristic.*;
 import emolib.classifier.machinelearning.*;
 
+import org.junit.Test;
+import org.junit.Assert;
+
 
 /**
  * The <i>KFoldXValidation</i> class performs the k-fold cross-validation
@@ -79,6 +86,9 @@ public class KFoldXValidation {
 
     private AffectiveTagger textProcPipe;
 
+    private int numberOfThreads;
+    private boolean parallelClassification;
+
 
     /**
      * Void constructor.
@@ -97,6 +107,8 @@ public class KFoldXValidation {
             globalFone.add(new Float("0"));
         }
         textProcPipe = null;
+        numberOfThreads = 1;
+        parallelClassification = false;
     }
 
 
@@ -110,6 +122,34 @@ public class KFoldXValidation {
     }
 
 
+    /**
+     * Method to set the number of threads of the evaluation.
+     * With more than one thread, the folds are evaluated concurrently (see
+     * evaluate with the specification of the classifier).
+     *
+     * @param threads The number of threads.
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads > 0) {
+            numberOfThreads = threads;
+        } else {
+            System.out.println("KFoldXValidation: the number of threads must be positive!");
+        }
+    }
+
+
+    /**
+     * Method to classify the test examples of each fold concurrently too.
+     * This requires the getCategory method of the classifier to be thread-safe.
+     * It has no effect with a single thread (see setNumberOfThreads).
+     *
+     * @param flag The parallel classification flag.
+     */
+    public void setParallelClassification(boolean flag) {
+        parallelClassification = flag;
+    }
+
+
     /**
      * Method to set the text processing pipeline.
      *
@@ -156,11 +196,7 @@ public class KFoldXValidation {
      */
     public void inputInstance(String inputInstance) {
         String[] instanceParameters = inputInstance.split(" ");
-        String temp = instanceParameters[0];
-        for (int i = 1; i < instanceParameters.length - 1; i++) {
-            temp += " " + instanceParameters[i];
-        }
-        inputText.add(getFeatures(temp));
+        inputText.add(getFeatures(joinText(instanceParameters)));
         inputCategories.add(new String(instanceParameters[instanceParameters.length - 1]));
     }
 
@@ -175,12 +211,97 @@ public class KFoldXValidation {
      */
     public void inputFixedInstance(String inputFixedInstance) {
         String[] instanceParameters = inputFixedInstance.split(" ");
-        String temp = instanceParameters[0];
+        inputFixedText.add(getFeatures(joinText(instanceParameters)));
+        inputFixedCategories.add(new String(instanceParameters[instanceParameters.length - 1]));
+    }
+
+
+    /**
+     * Method to include all the instances of a corpus file.
+     * If a feature cache is given, the features are loaded from it when available,
+     * otherwise they are extracted with the text processing pipeline and then saved
+     * into the cache for later runs.
+     *
+     * @param corpusFile The corpus file.
+     * @param fixed True to include the instances as fixed instances.
+     * @param featureCache The feature cache, or null.
+     */
+    public void inputDataset(String corpusFile, boolean fixed, FeatureCache featureCache) throws IOException {
+        ArrayList<FeatureBox> texts;
+        ArrayList<String> categories;
+        if (fixed) {
+            texts = inputFixedText;
+            categories = inputFixedCategories;
+        } else {
+            texts = inputText;
+            categories = inputCategories;
+        }
+        if ((featureCache != null) && featureCache.load(corpusFile, texts, categories)) {
+            return;
+        }
+        int firstInstance = texts.size();
+        BufferedReader corpus = new BufferedReader(new FileReader(corpusFile));
+        String line = corpus.readLine();
+        while (line != null) {
+            if (fixed) {
+                inputFixedInstance(line);
+            } else {
+                inputInstance(line);
+            }
+            line = corpus.readLine();
+        }
+        corpus.close();
+        if (featureCache != null) {
+            featureCache.save(corpusFile, new ArrayList<FeatureBox>(texts.subList(firstInstance, texts.size())),
+                new ArrayList<String>(categories.subList(firstInstance, categories.size())));
+        }
+    }
+
+
+    /**
+     * Function to retrieve the features of the input corpus instances.
+     *
+     * @return The features of the input instances.
+     */
+    public ArrayList<FeatureBox> getInputTexts() {
+        return inputText;
+    }
+
+
+    /**
+     * Function to retrieve the categories of the input corpus instances.
+     *
+     * @return The categories of the input instances.
+     */
+    public ArrayList<String> getInputCategories() {
+        return inputCategories;
+    }
+
+
+    /**
+     * Function to retrieve the basic categories of the system.
+     *
+     * @return The basic categories.
+     */
+    public ArrayList<String> getBasicCategories() {
+        return basicCategories;
+    }
+
+
+    /**
+     * Function to join the words of an instance, i.e., all but the last one,
+     * which is the category.
+     *
+     * @param instanceParameters The words of the instance.
+     *
+     * @return The text of the instance.
+     */
+    private String joinText(String[] instanceParameters) {
+        StringBuilder text = new StringBuilder(instanceParameters[0]);
         for (int i = 1; i < instanceParameters.length - 1; i++) {
-            temp += " " + instanceParameters[i];
+            text.append(' ').append(instanceParameters[i]);
         }
-        inputFixedText.add(getFeatures(temp));
-        inputFixedCategories.add(new String(instanceParameters[instanceParameters.length - 1]));
+        return text.toString();
     }
 
 
@@ -201,44 +322,44 @@ public class KFoldXValidation {
         fbox.setActivation(data.getEmotionalActivation());
         fbox.setControl(data.getEmotionalControl());
         // Lexical feats
-        String words = "";
-        String postags = "";
-        String stems = "";
-        String synonyms = "";
-        String stemmedsynonyms = "";
+        StringBuilder words = new StringBuilder();
+        StringBuilder postags = new StringBuilder();
+        StringBuilder stems = new StringBuilder();
+        StringBuilder synonyms = new StringBuilder();
+        StringBuilder stemmedsynonyms = new StringBuilder();
         boolean negation = false;
         for (int word = 0; word < data.getNumberOfWords(); word++) {
             wdata = data.getWordData(word);
-            words += " " + wdata.getWord();
+            words.append(' ').append(wdata.getWord());
             // It is not considered if other POS such as determiners, possessives, etc. could be
             // labelled as nouns, adjectives..., only the words that do not pertain to such POS tags,
             // i.e. OTRO.
             if (wdata.hasEmotionalContent()) {
                 if (wdata.isNoun()) {
-                    postags += " NOMBRE";
+                    postags.append(" NOMBRE");
                 } else if (wdata.isAdjective()) {
-                    postags += " ADJETIVO";
+                    postags.append(" ADJETIVO");
                 } else if (wdata.isVerb()) {
-                    postags += " VERBO";
+                    postags.append(" VERBO");
                 } else if (wdata.isAdverb()) {
-                    postags += " ADVERBIO";
+                    postags.append(" ADVERBIO");
                 } else {
-                    postags += " " + wdata.getWordClass();
+                    postags.append(' ').append(wdata.getWordClass());
                 }
             } else {
-                postags += " " + wdata.getWordClass();
+                postags.append(' ').append(wdata.getWordClass());
             }
-            stems += " " + wdata.getWordStem();
+            stems.append(' ').append(wdata.getWordStem());
             if (wdata.containsSynonyms()) {
                 ArrayList syns = wdata.getSense();
                 for (int syn = 0; syn < syns.size(); syn++) {
-                    synonyms += " " + (String)syns.get(syn);
+                    synonyms.append(' ').append((String)syns.get(syn));
                 }
             }
             if (wdata.containsStemmedSynonyms()) {
                 ArrayList ssyns = wdata.getStemmedWordSense();
                 for (int ssyn = 0; ssyn < ssyns.size(); ssyn++) {
-                    stemmedsynonyms += " " + (String)ssyns.get(ssyn);
+                    stemmedsynonyms.append(' ').append((String)ssyns.get(ssyn));
                 }
             }
             if (wdata.isNegationAdverb()) {
@@ -249,12 +370,12 @@ public class KFoldXValidation {
                 }
             }
         }
-        fbox.setWords(words.replaceAll("  ", " ").trim());
-        fbox.setPOSTags(postags.replaceAll("  ", " ").trim());
-        fbox.setStems(stems.replaceAll("  ", " ").trim());
-        if (!synonyms.equals("")) {
-            fbox.setSynonyms(synonyms.replaceAll("  ", " ").trim());
-            fbox.setStemmedSynonyms(stemmedsynonyms.replaceAll("  ", " ").trim());
+        fbox.setWords(words.toString().replaceAll("  ", " ").trim());
+        fbox.setPOSTags(postags.toString().replaceAll("  ", " ").trim());
+        fbox.setStems(stems.toString().replaceAll("  ", " ").trim());
+        if (synonyms.length() > 0) {
+            fbox.setSynonyms(synonyms.toString().replaceAll("  ", " ").trim());
+            fbox.setStemmedSynonyms(stemmedsynonyms.toString().replaceAll("  ", " ").trim());
         }
         fbox.setNegation(negation);
         //
@@ -272,7 +393,214 @@ public class KFoldXValidation {
      * @param theClassifier The classifier.
      */
     public void evaluate(Classifier theClassifier) {
-        // Define the k+1 fold boundaries.
+        ArrayList<Integer> foldBounds = getFoldBounds();
+        // Begin the k-fold iterations.
+        for (int kCounter = 0; kCounter < nFolds; kCounter++) {
+            evaluateFold(kCounter, theClassifier, foldBounds, System.out, null);
+        }
+        printResults();
+    }
+
+
+    /**
+     * Method to evaluate the dataset with a classifier given by its specification
+     * (see createClassifier).
+     * If the number of threads is greater than one, the folds are evaluated
+     * concurrently, each with its own instance of the classifier, and their outputs
+     * are shown in fold order. The results are the same as with the serial evaluation.
+     *
+     * @param classifierSpec The specification of the classifier.
+     * @param numDims The number of emotional dimensions, for the classifiers that need it.
+     */
+    public void evaluate(String classifierSpec, String numDims) {
+        if (numberOfThreads == 1) {
+            evaluate(createClassifier(classifierSpec, numDims));
+            return;
+        }
+        Classifier[] foldClassifiers = createFoldClassifiers(classifierSpec, numDims);
+        ExecutorService foldPool = Executors.newFixedThreadPool(Math.min(numberOfThreads, nFolds));
+        ExecutorService classificationPool = createClassificationPool();
+        try {
+            printFoldOutputs(submitFolds(foldPool, foldClassifiers, classificationPool));
+        } catch (Exception e) {
+            System.out.println("KFoldXValidation: the parallel evaluation failed!");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            foldPool.shutdown();
+            if (classificationPool != null) {
+                classificationPool.shutdown();
+            }
+        }
+        printResults();
+    }
+
+
+    /**
+     * Method to evaluate several classifiers on the same fold splits, e.g., to compare
+     * different classifiers or configurations of the same classifier.
+     * The features are extracted only once and all the folds of all the classifiers
+     * are evaluated concurrently on the same pool of threads. The results of each
+     * classifier are shown in order, followed by a comparative table.
+     *
+     * @param classifierSpecs The specifications of the classifiers (see createClassifier).
+     * @param numDims The number of emotional dimensions, for the classifiers that need it.
+     */
+    public void sweep(String[] classifierSpecs, String numDims) {
+        // Each classifier accumulates its results in its own validator.
+        KFoldXValidation[] validators = new KFoldXValidation[classifierSpecs.length];
+        Classifier[][] foldClassifiers = new Classifier[classifierSpecs.length][];
+        for (int spec = 0; spec < classifierSpecs.length; spec++) {
+            validators[spec] = createSibling();
+            foldClassifiers[spec] = createFoldClassifiers(classifierSpecs[spec], numDims);
+        }
+        ExecutorService foldPool = Executors.newFixedThreadPool(Math.min(numberOfThreads,
+            nFolds * classifierSpecs.length));
+        ExecutorService classificationPool = createClassificationPool();
+        ArrayList<ArrayList<Future<ByteArrayOutputStream>>> foldOutputs =
+            new ArrayList<ArrayList<Future<ByteArrayOutputStream>>>(classifierSpecs.length);
+        try {
+            for (int spec = 0; spec < classifierSpecs.length; spec++) {
+                foldOutputs.add(validators[spec].submitFolds(foldPool, foldClassifiers[spec], classificationPool));
+            }
+            for (int spec = 0; spec < classifierSpecs.length; spec++) {
+                System.out.println("KFoldXValidation: classifier: " + classifierSpecs[spec]);
+                printFoldOutputs(foldOutputs.get(spec));
+                validators[spec].printResults();
+                System.out.println("");
+            }
+        } catch (Exception e) {
+            System.out.println("KFoldXValidation: the evaluation sweep failed!");
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            foldPool.shutdown();
+            if (classificationPool != null) {
+                classificationPool.shutdown();
+            }
+        }
+        // Comparative table: mean +/- std
+        System.out.println("Comparative results:");
+        System.out.println("Classifier\tPrecision\tRecall\tF1");
+        for (int spec = 0; spec < classifierSpecs.length; spec++) {
+            KFoldXValidation validator = validators[spec];
+            float meanPrecision = calcMean(validator.globalPrecision);
+            float meanRecall = calcMean(validator.globalRecall);
+            float meanFone = calcMean(validator.globalFone);
+            System.out.println(classifierSpecs[spec] + "\t" +
+                meanPrecision + " +/- " + calcStandardDeviation(validator.globalPrecision, meanPrecision) + "\t" +
+                meanRecall + " +/- " + calcStandardDeviation(validator.globalRecall, meanRecall) + "\t" +
+                meanFone + " +/- " + calcStandardDeviation(validator.globalFone, meanFone));
+        }
+    }
+
+
+    /**
+     * Function to create a validator that shares the dataset and the settings of
+     * this one, but keeps its own effectiveness estimates.
+     *
+     * @return The new validator.
+     */
+    private KFoldXValidation createSibling() {
+        KFoldXValidation sibling = new KFoldXValidation();
+        sibling.nFolds = nFolds;
+        sibling.inputText = inputText;
+        sibling.inputCategories = inputCategories;
+        sibling.fixedDataset = fixedDataset;
+        sibling.inputFixedText = inputFixedText;
+        sibling.inputFixedCategories = inputFixedCategories;
+        sibling.basicCategories = basicCategories;
+        sibling.textProcPipe = textProcPipe;
+        sibling.numberOfThreads = numberOfThreads;
+        sibling.parallelClassification = parallelClassification;
+        return sibling;
+    }
+
+
+    /**
+     * Function to create one classifier for each fold.
+     * The classifiers are created beforehand because some of them load their resources.
+     *
+     * @param classifierSpec The specification of the classifier.
+     * @param numDims The number of emotional dimensions, for the classifiers that need it.
+     *
+     * @return The classifiers.
+     */
+    private Classifier[] createFoldClassifiers(String classifierSpec, String numDims) {
+        Classifier[] foldClassifiers = new Classifier[nFolds];
+        for (int kCounter = 0; kCounter < nFolds; kCounter++) {
+            foldClassifiers[kCounter] = createClassifier(classifierSpec, numDims);
+        }
+        return foldClassifiers;
+    }
+
+
+    /**
+     * Function to create the pool that classifies the test examples, if requested.
+     * A separate pool prevents the folds from waiting on themselves.
+     *
+     * @return The classification pool, or null.
+     */
+    private ExecutorService createClassificationPool() {
+        if (parallelClassification) {
+            return Executors.newFixedThreadPool(numberOfThreads);
+        } else {
+            return null;
+        }
+    }
+
+
+    /**
+     * Function to submit the evaluation of all the folds to a pool of threads.
+     * The output of each fold is buffered. Each classifier is released once its
+     * fold is evaluated.
+     *
+     * @param foldPool The pool of threads for the folds.
+     * @param foldClassifiers The classifier of each fold.
+     * @param classificationPool The pool to classify the test examples, or null.
+     *
+     * @return The outputs of the folds.
+     */
+    private ArrayList<Future<ByteArrayOutputStream>> submitFolds(ExecutorService foldPool,
+            final Classifier[] foldClassifiers, final ExecutorService classificationPool) {
+        final ArrayList<Integer> foldBounds = getFoldBounds();
+        ArrayList<Future<ByteArrayOutputStream>> foldOutputs =
+            new ArrayList<Future<ByteArrayOutputStream>>(nFolds);
+        for (int kCounter = 0; kCounter < nFolds; kCounter++) {
+            final int fold = kCounter;
+            foldOutputs.add(foldPool.submit(new Callable<ByteArrayOutputStream>() {
+                public ByteArrayOutputStream call() {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                    PrintStream out = new PrintStream(buffer, true);
+                    evaluateFold(fold, foldClassifiers[fold], foldBounds, out, classificationPool);
+                    foldClassifiers[fold] = null;
+                    out.close();
+                    return buffer;
+                }
+            }));
+        }
+        return foldOutputs;
+    }
+
+
+    /**
+     * Method to show the buffered outputs of the folds in fold order.
+     *
+     * @param foldOutputs The outputs of the folds.
+     */
+    private void printFoldOutputs(ArrayList<Future<ByteArrayOutputStream>> foldOutputs) throws Exception {
+        for (int kCounter = 0; kCounter < foldOutputs.size(); kCounter++) {
+            System.out.print(foldOutputs.get(kCounter).get().toString());
+        }
+    }
+
+
+    /**
+     * Function to define the k+1 fold boundaries.
+     *
+     * @return The fold boundaries.
+     */
+    private ArrayList<Integer> getFoldBounds() {
         ArrayList<Integer> foldBounds = new ArrayList<Integer>(nFolds + 1);
         foldBounds.add(new Integer(0));
         int increment = inputCategories.size() / nFolds;
@@ -280,138 +608,206 @@ public class KFoldXValidation {
             foldBounds.add(new Integer(increment + incrCounter * increment));
         }
         foldBounds.add(new Integer(inputCategories.size()));
-        // Begin the k-fold iterations.
-        ArrayList<FeatureBox> trainTexts;
-        ArrayList<String> trainCategories;
-        ArrayList<FeatureBox> testTexts;
-        ArrayList<String> testCategories;
+        return foldBounds;
+    }
+
+
+    /**
+     * Method to train and test the classifier with one fold.
+     * Each fold only updates its own position of the global effectiveness estimates,
+     * so different folds may be evaluated concurrently with different classifiers.
+     *
+     * @param kCounter The fold number.
+     * @param theClassifier The classifier.
+     * @param foldBounds The fold boundaries.
+     * @param out The stream where the partial results are shown.
+     * @param classificationPool The pool to classify the test examples, or null.
+     */
+    private void evaluateFold(int kCounter, Classifier theClassifier, ArrayList<Integer> foldBounds,
+            PrintStream out, ExecutorService classificationPool) {
+        out.println("KFoldXValidation: fold number: " + kCounter);
+        ArrayList<FeatureBox> trainTexts = new ArrayList<FeatureBox>();
+        ArrayList<String> trainCategories = new ArrayList<String>();
+        ArrayList<FeatureBox> testTexts = new ArrayList<FeatureBox>();
+        ArrayList<String> testCategories = new ArrayList<String>();
         int opInterval, categoryCounter;
-        for (int kCounter = 0; kCounter < nFolds; kCounter++) {
-            System.out.println("KFoldXValidation: fold number: " + kCounter);
-            trainTexts = new ArrayList<FeatureBox>();
-            trainCategories = new ArrayList<String>();
-            testTexts = new ArrayList<FeatureBox>();
-            testCategories = new ArrayList<String>();
-            // Training and testing datasets creation.
-            createSubDataset(foldBounds.get(kCounter).intValue(),
-                foldBounds.get(kCounter + 1).intValue() - 1, inputText, testTexts);
-            createSubDataset(foldBounds.get(kCounter).intValue(),
-                foldBounds.get(kCounter + 1).intValue() - 1, inputCategories, testCategories);
-            for (opInterval = 0; opInterval < kCounter; opInterval++) {
-                createSubDataset(foldBounds.get(opInterval).intValue(),
-                    foldBounds.get(opInterval + 1).intValue() - 1, inputText, trainTexts);
-                createSubDataset(foldBounds.get(opInterval).intValue(),
-                    foldBounds.get(opInterval + 1).intValue() - 1, inputCategories, trainCategories);
-            }
-            for (opInterval = (kCounter + 1); opInterval < nFolds; opInterval++) {
-                createSubDataset(foldBounds.get(opInterval).intValue(),
-                    foldBounds.get(opInterval + 1).intValue() - 1, inputText, trainTexts);
-                createSubDataset(foldBounds.get(opInterval).intValue(),
-                    foldBounds.get(opInterval + 1).intValue() - 1, inputCategories, trainCategories);
-            }
-            // Time to train the classifier.
-            theClassifier.resetExamples();
-            for (opInterval = 0; opInterval < trainTexts.size(); opInterval++) {
-                theClassifier.inputTrainingExample(trainTexts.get(opInterval), trainCategories.get(opInterval));
-            }
-            if (fixedDataset) {
-                for (int numfix = 0; numfix < inputFixedCategories.size(); numfix++) {
-                    theClassifier.inputTrainingExample(inputFixedText.get(numfix), inputFixedCategories.get(numfix));
-                }
+        // Training and testing datasets creation.
+        createSubDataset(foldBounds.get(kCounter).intValue(),
+            foldBounds.get(kCounter + 1).intValue() - 1, inputText, testTexts);
+        createSubDataset(foldBounds.get(kCounter).intValue(),
+            foldBounds.get(kCounter + 1).intValue() - 1, inputCategories, testCategories);
+        for (opInterval = 0; opInterval < kCounter; opInterval++) {
+            createSubDataset(foldBounds.get(opInterval).intValue(),
+                foldBounds.get(opInterval + 1).intValue() - 1, inputText, trainTexts);
+            createSubDataset(foldBounds.get(opInterval).intValue(),
+                foldBounds.get(opInterval + 1).intValue() - 1, inputCategories, trainCategories);
+        }
+        for (opInterval = (kCounter + 1); opInterval < nFolds; opInterval++) {
+            createSubDataset(foldBounds.get(opInterval).intValue(),
+                foldBounds.get(opInterval + 1).intValue() - 1, inputText, trainTexts);
+            createSubDataset(foldBounds.get(opInterval).intValue(),
+                foldBounds.get(opInterval + 1).intValue() - 1, inputCategories, trainCategories);
+        }
+        // Time to train the classifier.
+        theClassifier.resetExamples();
+        for (opInterval = 0; opInterval < trainTexts.size(); opInterval++) {
+            theClassifier.inputTrainingExample(trainTexts.get(opInterval), trainCategories.get(opInterval));
+        }
+        if (fixedDataset) {
+            for (int numfix = 0; numfix < inputFixedCategories.size(); numfix++) {
+                theClassifier.inputTrainingExample(inputFixedText.get(numfix), inputFixedCategories.get(numfix));
             }
-            theClassifier.train();
-            // Time to test the classifier.
-            ArrayList<String> classificationResult = new ArrayList<String>();
-            String presentCategory = "";
-            float localPrecision, localRecall;
-            float truePositives = 0;
-            float classifierScore = 0;
-            float expertScore = 0;
-            int numTestInstances = 0;
-            //
-            // The results are obtained here
-            numTestInstances = testTexts.size();
+        }
+        theClassifier.train();
+        // Time to test the classifier.
+        ArrayList<String> classificationResult;
+        String presentCategory = "";
+        float localPrecision, localRecall;
+        float truePositives = 0;
+        float classifierScore = 0;
+        float expertScore = 0;
+        int numTestInstances = 0;
+        //
+        // The results are obtained here
+        numTestInstances = testTexts.size();
+        out.println("Results: ---------------------------------_");
+        if (classificationPool == null) {
+            classificationResult = new ArrayList<String>();
             String aaau;
-            System.out.println("Results: ---------------------------------_");
             for (opInterval = 0; opInterval < testTexts.size(); opInterval++) {
                 aaau = theClassifier.getCategory(testTexts.get(opInterval));
-                System.out.println(aaau);
                 classificationResult.add(aaau);
             }
+        } else {
+            classificationResult = classifyConcurrently(theClassifier, testTexts, classificationPool);
+        }
+        for (opInterval = 0; opInterval < classificationResult.size(); opInterval++) {
+            out.println(classificationResult.get(opInterval));
+        }
 
-            // The macroaveraged effectiveness rates are computed here
-            // This process could be more effectively implemented :)
-            for (categoryCounter = 0; categoryCounter < basicCategories.size(); categoryCounter++) {
-                presentCategory = basicCategories.get(categoryCounter);
-                truePositives = 0;
-                classifierScore = 0;
-                expertScore = 0;
-                for (opInterval = 0; opInterval < numTestInstances; opInterval++) {
-                    if (classificationResult.get(opInterval).equals(testCategories.get(opInterval)) &&
-                    classificationResult.get(opInterval).equals(presentCategory)) {
-                        truePositives = truePositives + 1;
-                    }
-                    if (classificationResult.get(opInterval).equals(presentCategory)) {
-                        classifierScore = classifierScore + 1;
-                    }
-                    if (testCategories.get(opInterval).equals(presentCategory)) {
-                        expertScore = expertScore + 1;
+        // The macroaveraged effectiveness rates are computed here
+        // This process could be more effectively implemented :)
+        for (categoryCounter = 0; categoryCounter < basicCategories.size(); categoryCounter++) {
+            presentCategory = basicCategories.get(categoryCounter);
+            truePositives = 0;
+            classifierScore = 0;
+            expertScore = 0;
+            for (opInterval = 0; opInterval < numTestInstances; opInterval++) {
+                if (classificationResult.get(opInterval).equals(testCategories.get(opInterval)) &&
+                classificationResult.get(opInterval).equals(presentCategory)) {
+                    truePositives = truePositives + 1;
+                }
+                if (classificationResult.get(opInterval).equals(presentCategory)) {
+                    classifierScore = classifierScore + 1;
+                }
+                if (testCategories.get(opInterval).equals(presentCategory)) {
+                    expertScore = expertScore + 1;
+                }
+            }
+            localPrecision = truePositives / classifierScore;
+            localRecall = truePositives / expertScore;
+            // Update the global effectiveness estimates.
+            float nBasicCategories = basicCategories.size();
+            globalPrecision.set(kCounter, new Float(globalPrecision.get(kCounter).floatValue() +
+                localPrecision / nBasicCategories));
+            globalRecall.set(kCounter, new Float(globalRecall.get(kCounter).floatValue() + localRecall /
+                nBasicCategories));
+        }
+        globalFone.set(kCounter, new Float(2 *
+            globalPrecision.get(kCounter).floatValue() *
+            globalRecall.get(kCounter).floatValue() /
+            (globalPrecision.get(kCounter).floatValue() +
+            globalRecall.get(kCounter).floatValue())));
+        out.println("\tF_1 = " + globalFone.get(kCounter).floatValue());
+    }
+
+
+    /**
+     * Function to classify the test examples concurrently, in as many chunks as threads.
+     *
+     * @param theClassifier The trained classifier.
+     * @param testTexts The test examples.
+     * @param classificationPool The pool of threads.
+     *
+     * @return The categories, in the order of the test examples.
+     */
+    private ArrayList<String> classifyConcurrently(final Classifier theClassifier,
+            final ArrayList<FeatureBox> testTexts, ExecutorService classificationPool) {
+        int chunkSize = (testTexts.size() + numberOfThreads - 1) / numberOfThreads;
+        ArrayList<Future<ArrayList<String>>> chunks = new ArrayList<Future<ArrayList<String>>>();
+        for (int first = 0; first < testTexts.size(); first += chunkSize) {
+            final int lower = first;
+            final int upper = Math.min(first + chunkSize, testTexts.size());
+            chunks.add(classificationPool.submit(new Callable<ArrayList<String>>() {
+                public ArrayList<String> call() {
+                    ArrayList<String> categories = new ArrayList<String>(upper - lower);
+                    for (int example = lower; example < upper; example++) {
+                        categories.add(theClassifier.getCategory(testTexts.get(example)));
                     }
+                    return categories;
                 }
-                localPrecision = truePositives / classifierScore;
-                localRecall = truePositives / expertScore;
-                // Update the global effectiveness estimates.
-                float nBasicCategories = basicCategories.size();
-                globalPrecision.set(kCounter, new Float(globalPrecision.get(kCounter).floatValue() +
-                    localPrecision / nBasicCategories));
-                globalRecall.set(kCounter, new Float(globalRecall.get(kCounter).floatValue() + localRecall /
-                    nBasicCategories));
+            }));
+        }
+        ArrayList<String> classificationResult = new ArrayList<String>(testTexts.size());
+        try {
+            for (int chunk = 0; chunk < chunks.size(); chunk++) {
+                classificationResult.addAll(chunks.get(chunk).get());
             }
-            globalFone.set(kCounter, new Float(2 *
-                globalPrecision.get(kCounter).floatValue() *
-                globalRecall.get(kCounter).floatValue() /
-                (globalPrecision.get(kCounter).floatValue() +
-                globalRecall.get(kCounter).floatValue())));
-            System.out.println("\tF_1 = " + globalFone.get(kCounter).floatValue());
-        }
-        // Show the results.
-        // Overall results: mean +/- std
+        } catch (Exception e) {
+            System.out.println("KFoldXValidation: the parallel classification failed!");
+            e.printStackTrace();
+            System.exit(1);
+        }
+        return classificationResult;
+    }
+
+
+    /**
+     * Method to show the overall results: mean +/- std.
+     */
+    private void printResults() {
         System.out.println("");
-        float meanPrecision = 0;
-        int correctFolds = 0;
         for (int i = 0; i < globalPrecision.size(); i++) {
             System.out.println("Precision " + i + " : " + globalPrecision.get(i).floatValue());
-            if (!globalPrecision.get(i).isNaN()) {
-                meanPrecision = meanPrecision + globalPrecision.get(i).floatValue();
-                correctFolds++;
-            }
         }
-        System.out.println("Overall precision: " + meanPrecision / correctFolds + " +/- " +
-            calcStandardDeviation(globalPrecision, meanPrecision / correctFolds));
+        float meanPrecision = calcMean(globalPrecision);
+        System.out.println("Overall precision: " + meanPrecision + " +/- " +
+            calcStandardDeviation(globalPrecision, meanPrecision));
         System.out.println("");
-        float meanRecall = 0;
-        correctFolds = 0;
         for (int i = 0; i < globalRecall.size(); i++) {
             System.out.println("Recall " + i + " : " + globalRecall.get(i).floatValue());
-            if (!globalRecall.get(i).isNaN()) {
-                meanRecall = meanRecall + globalRecall.get(i).floatValue();
-                correctFolds++;
-            }
         }
-        System.out.println("Overall recall: " + meanRecall / correctFolds + " +/- " +
-            calcStandardDeviation(globalRecall, meanRecall / correctFolds));
+        float meanRecall = calcMean(globalRecall);
+        System.out.println("Overall recall: " + meanRecall + " +/- " +
+            calcStandardDeviation(globalRecall, meanRecall));
         System.out.println("");
-        float meanFone = 0;
-        correctFolds = 0;
         for (int i = 0; i < globalFone.size(); i++) {
             System.out.println("F1 " + i + " : " + globalFone.get(i).floatValue());
-            if (!globalFone.get(i).isNaN()) {
-                meanFone = meanFone + globalFone.get(i).floatValue();
+        }
+        float meanFone = calcMean(globalFone);
+        System.out.println("Overall F1: " + meanFone + " +/- " +
+            calcStandardDeviation(globalFone, meanFone));
+    }
+
+
+    /**
+     * Function to calculate the mean of an input set, without the NaN values
+     * (e.g., of the folds where some category is never predicted).
+     *
+     * @param input_set The input set.
+     *
+     * @return The mean of the input set.
+     */
+    private float calcMean(ArrayList<Float> input_set) {
+        float the_sum = 0;
+        int correctFolds = 0;
+        for (int i = 0; i < input_set.size(); i++) {
+            if (!input_set.get(i).isNaN()) {
+                the_sum = the_sum + input_set.get(i).floatValue();
                 correctFolds++;
             }
         }
-        System.out.println("Overall F1: " + meanFone / correctFolds + " +/- " +
-            calcStandardDeviation(globalFone, meanFone / correctFolds));
+        return the_sum / correctFolds;
     }
 
 
@@ -466,7 +862,13 @@ public class KFoldXValidation {
         System.out.println("\t\t[-fd FIXED_DATASET]");
         System.out.println("\t\t-bc CATEGORY_1-CATEGORY_2[-CATEGORY_N]");
         System.out.println("\t\t-cf CONFIGURATION_FILE");
-        System.out.println("\t\t-c CLASSIFIER");
+        System.out.println("\t\t-c CLASSIFIER[,CLASSIFIER_2,...,CLASSIFIER_N]");
+        System.out.println("\t\t[-t NUMBER_OF_THREADS]");
+        System.out.println("\t\t[-pc true|false]");
+        System.out.println("\t\t[-fc FEATURE_CACHE_DIRECTORY]");
+        System.out.println("");
+        System.out.println("A comma-separated list of classifiers is evaluated on the same folds");
+        System.out.println("and the results are summarised in a comparative table.");
         System.out.println("");
         System.out.println("The available classifiers are:");
         System.out.println("\t{5,3}IKE: Five Intervals or Three Intervals (in English), i.e. the sentiments");
@@ -483,6 +885,7 @@ public class KFoldXValidation {
         System.out.println("\t\twPOS: with with POS tags");
         System.out.println("\t\twSYN: with synonyms");
         System.out.println("\t\twSTEM: with stems (instead of the whole words)");
+        System.out.println("\t\twRSVD: with the randomized SVD on the sparse term-document matrix");
         //
         System.out.println("\tWSVM: Weka Support Vector Machine (binary attributes," +
             " linear kernel, intercept)");
@@ -508,6 +911,8 @@ public class KFoldXValidation {
             "(k selected terms)");
         System.out.println("\t\twFSTF-k: with Term Frequency feat. sel. " +
             "(k selected terms)");
+        System.out.println("\t\twHASH-k: with hashed features " +
+            "(2^k buckets, no vocabulary)");
         //
         System.out.println("\tARNR: Associative Relational Network - Reduced (only words are considered + " +
             "freq weights + cosine distributional similarity measure)");
@@ -534,6 +939,8 @@ public class KFoldXValidation {
             "(k selected terms)");
         System.out.println("\t\twFSTF-k: with Term Frequency feat. sel. " +
             "(k selected terms)");
+        System.out.println("\t\twHASH-k: with hashed features " +
+            "(2^k buckets, no vocabulary)");
         System.out.println("\tWMNB: Weka Multinomial Naive Bayes");
         System.out.println("\t\twMI-k: with Mutual Information " +
             "(k selected terms)");
@@ -573,6 +980,8 @@ public class KFoldXValidation {
             "(k selected terms)");
         System.out.println("\t\twFSTF-k: with Term Frequency feat. sel. " +
             "(k selected terms)");
+        System.out.println("\t\twHASH-k: with hashed features " +
+            "(2^k buckets, no vocabulary)");
         //
         System.out.println("\tSHCAwARNR: Sentiment Hierarchical Cluster Analysis with Associative " +
             "Relational Network - Reduced");
@@ -612,6 +1021,326 @@ public class KFoldXValidation {
     }
 
 
+    /**
+     * Function to create a classifier from its specification, i.e., its name
+     * and its options separated by a "w" (see printSynopsis).
+     *
+     * @param classifierSpec The specification of the classifier.
+     * @param numDims The number of emotional dimensions, for the classifiers that need it.
+     *
+     * @return The classifier.
+     */
+    public Classifier createClassifier(String classifierSpec, String numDims) {
+        Classifier theClassifier = null;
+        String[] classif = classifierSpec.split("w");
+        if (classif[0].equals("5IKE")) {
+            FiveIntervalsKE five_intervals_ke = new FiveIntervalsKE();
+            theClassifier = five_intervals_ke;
+        } else if (classif[0].equals("3IKE")) {
+            ThreeIntervalsKE three_intervals_ke = new ThreeIntervalsKE();
+            theClassifier = three_intervals_ke;
+        } else if (classif[0].equals("7NN")) {
+            KNearestNeighbour knn = new KNearestNeighbour();
+            knn.setNumberOfNeighbours(7);
+            knn.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = knn;
+        } else if (classif[0].equals("3NN")) {
+            KNearestNeighbour knn = new KNearestNeighbour();
+            knn.setNumberOfNeighbours(3);
+            knn.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = knn;
+        } else if (classif[0].equals("5NN")) {
+            KNearestNeighbour knn = new KNearestNeighbour();
+            knn.setNumberOfNeighbours(5);
+            knn.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = knn;
+        } else if (classif[0].equals("NN")) {
+            KNearestNeighbour knn = new KNearestNeighbour();
+            knn.setNumberOfNeighbours(1);
+            knn.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = knn;
+        } else if (classif[0].equals("NC")) {
+            NearestCentroid nC = new NearestCentroid();
+            nC.setNumberOfEmotionalDimensions(2);
+            theClassifier = nC;
+        } else if (classif[0].equals("NB")) {
+            NaiveBayes nB = new NaiveBayes();
+            nB.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = nB;
+        } else if (classif[0].equals("NBP")) {
+            NaiveBayes nB = new NaiveBayes();
+            nB.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            nB.setAccountForPriors(true);
+            theClassifier = nB;
+        } else if (classif[0].equals("RWNB")) {
+            RiskWeightedNaiveBayes rWNB = new RiskWeightedNaiveBayes();
+            rWNB.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            theClassifier = rWNB;
+        } else if (classif[0].equals("RWNBgd")) {
+            RiskWeightedNaiveBayes rWNB = new RiskWeightedNaiveBayes();
+            rWNB.setNumberOfEmotionalDimensions(Integer.valueOf(numDims).intValue());
+            rWNB.setLearningProcedure("three_sentiment_gradient_descent");
+            theClassifier = rWNB;
+        } else if (classif[0].equals("LSA")) {
+            LSA lsa = new LSA();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].equals("COF")) {
+                    lsa.setCOF(true);
+                } else if (classif[opts].equals("ITF")) {
+                    lsa.setTermWeighingMeasure("itf");
+                } else if (classif[opts].equals("LTFRF")) {
+                    lsa.setTermWeighingMeasure("ltfrf");
+                } else if (classif[opts].equals("POS")) {
+                    lsa.setPOS(true);
+                } else if (classif[opts].equals("STEM")) {
+                    lsa.setStemming(true);
+                } else if (classif[opts].equals("SYN")) {
+                    lsa.setSynonyms(true);
+                } else if (classif[opts].equals("RSVD")) {
+                    lsa.setSVDEngine("randomized");
+                } else {
+                    System.out.println("KFoldXValidation: error in the specification of LSA " +
+                        "parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = lsa;
+        } else if (classif[0].equals("WSVM")) {
+            SupportVectorMachine svm = new SupportVectorMachine();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].startsWith("MI-")) {
+                    String[] miChunk = classif[opts].split("-");
+                    svm.setMI(true, Integer.parseInt(miChunk[1]));
+                } else if (classif[opts].startsWith("CHI2-")) {
+                    String[] chi2Chunk = classif[opts].split("-");
+                    svm.setChi2(true, Integer.parseInt(chi2Chunk[1]));
+                } else if (classif[opts].startsWith("FSTF-")) {
+                    String[] tfChunk = classif[opts].split("-");
+                    svm.setTF(true, Integer.parseInt(tfChunk[1]));
+                } else if (classif[opts].startsWith("HASH-")) {
+                    String[] hashChunk = classif[opts].split("-");
+                    svm.setFeatureHashing(true, Integer.parseInt(hashChunk[1]));
+                } else if (classif[opts].equals("TF")) {
+                    svm.setTermWeighingMeasure("tf");
+                } else if (classif[opts].equals("COF")) {
+                    svm.setCOF(true);
+                } else if (classif[opts].equals("ITF")) {
+                    svm.setTermWeighingMeasure("itf");
+                } else if (classif[opts].equals("TFRF")) {
+                    svm.setTermWeighingMeasure("tfrf");
+                } else if (classif[opts].equals("LTFRF")) {
+                    svm.setTermWeighingMeasure("ltfrf");
+                } else if (classif[opts].equals("POS")) {
+                    svm.setPOS(true);
+                } else if (classif[opts].equals("STEM")) {
+                    svm.setStemming(true);
+                } else if (classif[opts].equals("SYN")) {
+                    svm.setSynonyms(true);
+                } else if (classif[opts].equals("EMO")) {
+                    svm.setEmotionDims(true);
+                } else if (classif[opts].equals("NEG")) {
+                    svm.setNegation(true);
+                } else if (classif[opts].equals("RBF")) {
+                    svm.setRBF(true);
+                } else if (classif[opts].equals("K2")) {
+                    svm.setExponent((double)2);
+                } else if (classif[opts].equals("NPK")) {
+                    svm.setNormalisedPolyK(true);
+                } else if (classif[opts].equals("NPK2")) {
+                    svm.setNormalisedPolyK(true);
+                    svm.setExponent((double)2);
+                } else if (classif[opts].equals("LOT")) {
+                    svm.setLowerOrderTerms(true);
+                } else if (classif[opts].equals("NOINT")) {
+                    svm.setIntercept(false);
+                } else {
+                    System.out.println("KFoldXValidation: error in the specification of WSVM parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = svm;
+        } else if (classif[0].equals("ARNR")) {
+            ARNReduced arnR = new ARNReduced();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].equals("COF")) {
+                    arnR.setCOF(true);
+                } else if (classif[opts].equals("POS")) {
+                    arnR.setPOS(true);
+                } else if (classif[opts].equals("SYN")) {
+                    arnR.setSynonyms(true);
+                } else if (classif[opts].equals("STEM")) {
+                    arnR.setStems(true);
+                } else if (classif[opts].equals("BIN")) {
+                    arnR.setTermWeighingMeasure("binary");
+                } else if (classif[opts].equals("ITF")) {
+                    arnR.setTermWeighingMeasure("itf");
+                } else if (classif[opts].equals("TFRF")) {
+                    arnR.setTermWeighingMeasure("tfrf");
+                } else if (classif[opts].equals("LTFRF")) {
+                    arnR.setTermWeighingMeasure("ltfrf");
+                } else if (classif[opts].equals("MDN2")) {
+                    arnR.setSimilarityMeasure("matrixdifnorm2");
+                } else if (classif[opts].equals("MCD")) {
+                    arnR.setSimilarityMeasure("cosMatrix");
+                } else if (classif[opts].equals("DOT")) {
+                    arnR.setSimilarityMeasure("dotprod");
+                } else {
+                    System.out.println("KFoldXValidation: error in the specification of ARNR parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = arnR;
+        } else if (classif[0].equals("TASS2L")) {
+            TASS2Levels tass = new TASS2Levels();
+            theClassifier = tass;
+        } else if (classif[0].equals("WMNB")) {
+            WekaMultinomialNB wMNB = new WekaMultinomialNB();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].startsWith("MI-")) {
+                    String[] miChunk = classif[opts].split("-");
+                    wMNB.setMI(true, Integer.parseInt(miChunk[1]));
+                } else if (classif[opts].startsWith("CHI2-")) {
+                    String[] chi2Chunk = classif[opts].split("-");
+                    wMNB.setChi2(true, Integer.parseInt(chi2Chunk[1]));
+                } else if (classif[opts].startsWith("FSTF-")) {
+                    String[] tfChunk = classif[opts].split("-");
+                    wMNB.setTF(true, Integer.parseInt(tfChunk[1]));
+                } else if (classif[opts].equals("ITF")) {
+                    wMNB.setTermWeighingMeasure("itf");
+                } else if (classif[opts].equals("LTFRF")) {
+                    wMNB.setTermWeighingMeasure("ltfrf");
+                } else if (classif[opts].equals("COF")) {
+                    wMNB.setCOF(true);
+                } else if (classif[opts].equals("POS")) {
+                    wMNB.setPOS(true);
+                } else if (classif[opts].equals("STEM")) {
+                    wMNB.setStemming(true);
+                } else if (classif[opts].equals("SYN")) {
+                    wMNB.setSynonyms(true);
+                } else if (classif[opts].equals("EMO")) {
+                    wMNB.setEmotionDims(true);
+                } else if (classif[opts].equals("NEG")) {
+                    wMNB.setNegation(true);
+                } else {
+                    System.out.println("KFoldXValidation: error in the " +
+                        "specification of WMNB parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = wMNB;
+        } else if (classif[0].equals("MNB")) {
+            MultinomialNB mNB = new MultinomialNB();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].startsWith("MI-")) {
+                    String[] miChunk = classif[opts].split("-");
+                    mNB.setMI(true, Integer.parseInt(miChunk[1]));
+                } else if (classif[opts].startsWith("CHI2-")) {
+                    String[] chi2Chunk = classif[opts].split("-");
+                    mNB.setChi2(true, Integer.parseInt(chi2Chunk[1]));
+                } else if (classif[opts].startsWith("FSTF-")) {
+                    String[] tfChunk = classif[opts].split("-");
+                    mNB.setTF(true, Integer.parseInt(tfChunk[1]));
+                } else if (classif[opts].startsWith("HASH-")) {
+                    String[] hashChunk = classif[opts].split("-");
+                    mNB.setFeatureHashing(true, Integer.parseInt(hashChunk[1]));
+                } else if (classif[opts].equals("COF")) {
+                    mNB.setCOF(true);
+                } else if (classif[opts].equals("POS")) {
+                    mNB.setPOS(true);
+                } else if (classif[opts].equals("STEM")) {
+                    mNB.setStemming(true);
+                } else if (classif[opts].equals("SYN")) {
+                    mNB.setSynonyms(true);
+                } else {
+                    System.out.println("KFoldXValidation: error in the " +
+                        "specification of MNB parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = mNB;
+        } else if (classif[0].equals("BNB")) {
+            BernoulliNB bNB = new BernoulliNB();
+            theClassifier = bNB;
+        } else if (classif[0].equals("OLR")) {
+            OrdinalLogReg oLR = new OrdinalLogReg();
+            theClassifier = oLR;
+        } else if (classif[0].equals("RLR")) {
+            RiskLogReg rlogR = new RiskLogReg();
+            theClassifier = rlogR;
+        } else if (classif[0].equals("LOGR")) {
+            Logistic logR = new Logistic();
+            for (int opts = 1; opts < classif.length; opts++) {
+                if (classif[opts].equals("COF")) {
+                    logR.setCOF(true);
+                } else if (classif[opts].startsWith("HASH-")) {
+                    String[] hashChunk = classif[opts].split("-");
+                    logR.setFeatureHashing(true, Integer.parseInt(hashChunk[1]));
+                } else if (classif[opts].equals("ITF")) {
+                    logR.setTermWeighingMeasure("itf");
+                } else if (classif[opts].equals("TFRF")) {
+                    logR.setTermWeighingMeasure("tfrf");
+                } else if (classif[opts].equals("LTFRF")) {
+                    logR.setTermWeighingMeasure("ltfrf");
+                } else if (classif[opts].equals("CRRF")) {
+                    logR.setTermWeighingMeasure("crrf");
+                } else if (classif[opts].equals("POS")) {
+                    logR.setPOS(true);
+                } else if (classif[opts].equals("STEM")) {
+                    logR.setStemming(true);
+                } else if (classif[opts].equals("SYN")) {
+                    logR.setSynonyms(true);
+                } else if (classif[opts].equals("EMO")) {
+                    logR.setEmotionDims(true);
+                } else if (classif[opts].equals("NEG")) {
+                    logR.setNegation(true);
+                } else if (classif[opts].equals("NOINT")) {
+                    logR.setIntercept(false);
+                } else {
+                    System.out.println("KFoldXValidation: error in the specification of Logistic Regression " +
+                        "parameters!");
+                    printSynopsis();
+                    System.exit(1);
+                }
+            }
+            theClassifier = logR;
+        } else if (classif[0].equals("SHCAwARNRwCOF")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNRwCOF");
+            theClassifier = hARNR;
+        } else if (classif[0].equals("SHCAwARNR")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNR");
+            theClassifier = hARNR;
+        } else if (classif[0].equals("SHCAwARNRwITF")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNRwITF");
+            theClassifier = hARNR;
+        } else if (classif[0].equals("SHCAwARNRwITFwCOF")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNRwITFwCOF");
+            theClassifier = hARNR;
+        } else if (classif[0].equals("SHCAwARNRwLTFRF")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNRwLTFRF");
+            theClassifier = hARNR;
+        } else if (classif[0].equals("SHCAwARNRwLTFRFwCOF")) {
+            HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
+            hARNR.setTypeOfARN("ARNRwLTFRFwCOF");
+            theClassifier = hARNR;
+        } else {
+            System.out.println("KFoldXValidation: Please enter a valid classifier!");
+            System.out.println("");
+            System.exit(1);
+        }
+        return theClassifier;
+    }
+
+
     /**
      * The main method of the KFoldXValidation application.
      *
@@ -626,336 +1355,58 @@ public class KFoldXValidation {
             // Setting parameters
             validator.setNumberOfFolds(Integer.parseInt(params[validator.indexOf("-nf", params) + 1]));
             validator.setBasicCategories(params[validator.indexOf("-bc", params) + 1]);
+            if (validator.indexOf("-t", params) != -1) {
+                validator.setNumberOfThreads(Integer.parseInt(params[validator.indexOf("-t", params) + 1]));
+            }
+            if (validator.indexOf("-pc", params) != -1) {
+                validator.setParallelClassification(Boolean.valueOf(params[validator.indexOf("-pc",
+                    params) + 1]).booleanValue());
+                if (validator.parallelClassification && (validator.numberOfThreads == 1)) {
+                    System.out.println("KFoldXValidation: -pc has no effect with a single thread " +
+                        "(see -t), the test examples are classified serially!");
+                }
+            }
             // Presentation
             System.out.println("");
             System.out.println(params[validator.indexOf("-nf", params) + 1] + "-fold Cross Validation " +
                 "procedure");
             System.out.println("***");
-            System.out.print("Loading resources for EmoLib... ");
             long start = System.currentTimeMillis();
-            // Time to construct the classifier
             URL configFile = new File(params[validator.indexOf("-cf", params) + 1]).toURI().toURL();
-            ConfigurationManager confMgr = new ConfigurationManager(configFile);
-            AffectiveTagger textProcPipeline = (AffectiveTagger)confMgr.lookup("kfoldcv");
-            validator.setTextProcessingPipeline(textProcPipeline);
-            System.out.println("OK");
-            System.out.print("Loading corpus examples... ");
-            BufferedReader originalFile = new BufferedReader(new FileReader(params[validator.indexOf("-id",
-                params) + 1]));
-            String lineOriginalFile = originalFile.readLine();
-            while (lineOriginalFile != null) {
-                validator.inputInstance(lineOriginalFile);
-                lineOriginalFile = originalFile.readLine();
+            String corpusFile = params[validator.indexOf("-id", params) + 1];
+            String fixedFile = null;
+            if (validator.indexOf("-fd", params) != -1) {
+                fixedFile = params[validator.indexOf("-fd", params) + 1];
+            }
+            FeatureCache featureCache = null;
+            if (validator.indexOf("-fc", params) != -1) {
+                featureCache = new FeatureCache(params[validator.indexOf("-fc", params) + 1], configFile, "kfoldcv");
+            }
+            // The pipeline is only needed if some features are not cached
+            if ((featureCache == null) || !featureCache.contains(corpusFile) ||
+            ((fixedFile != null) && !featureCache.contains(fixedFile))) {
+                System.out.print("Loading resources for EmoLib... ");
+                ConfigurationManager confMgr = new ConfigurationManager(configFile);
+                AffectiveTagger textProcPipeline = (AffectiveTagger)confMgr.lookup("kfoldcv");
+                validator.setTextProcessingPipeline(textProcPipeline);
+                System.out.println("OK");
             }
-            originalFile.close();
+            System.out.print("Loading corpus examples... ");
+            validator.inputDataset(corpusFile, false, featureCache);
             // Check if a fixed dataset is given for evaluation
-            if (validator.indexOf("-fd", params) != -1) {
+            if (fixedFile != null) {
                 validator.setFixedDataset();
-                BufferedReader fixedDB = new BufferedReader(new FileReader(params[validator.indexOf("-fd",
-                    params) + 1]));
-                String lineFixedDB = fixedDB.readLine();
-                while (lineFixedDB != null) {
-                    validator.inputFixedInstance(lineFixedDB);
-                    lineFixedDB = fixedDB.readLine();
-                }
+                validator.inputDataset(fixedFile, true, featureCache);
             }
             System.out.println("OK");
             System.out.println("Starting evaluation...");
             System.out.println("***");
             // Classifier selection and evaluation
-            String[] classif = params[validator.indexOf("-c", params) + 1].split("w");
-            if (classif[0].equals("5IKE")) {
-                FiveIntervalsKE five_intervals_ke = new FiveIntervalsKE();
-                validator.evaluate(five_intervals_ke);
-            } else if (classif[0].equals("3IKE")) {
-                ThreeIntervalsKE three_intervals_ke = new ThreeIntervalsKE();
-                validator.evaluate(three_intervals_ke);
-            } else if (classif[0].equals("7NN")) {
-                KNearestNeighbour knn = new KNearestNeighbour();
-                knn.setNumberOfNeighbours(7);
-                knn.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(knn);
-            } else if (classif[0].equals("3NN")) {
-                KNearestNeighbour knn = new KNearestNeighbour();
-                knn.setNumberOfNeighbours(3);
-                knn.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(knn);
-            } else if (classif[0].equals("5NN")) {
-                KNearestNeighbour knn = new KNearestNeighbour();
-                knn.setNumberOfNeighbours(5);
-                knn.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(knn);
-            } else if (classif[0].equals("NN")) {
-                KNearestNeighbour knn = new KNearestNeighbour();
-                knn.setNumberOfNeighbours(1);
-                knn.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(knn);
-            } else if (classif[0].equals("NC")) {
-                NearestCentroid nC = new NearestCentroid();
-                nC.setNumberOfEmotionalDimensions(2);
-                validator.evaluate(nC);
-            } else if (classif[0].equals("NB")) {
-                NaiveBayes nB = new NaiveBayes();
-                nB.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(nB);
-            } else if (classif[0].equals("NBP")) {
-                NaiveBayes nB = new NaiveBayes();
-                nB.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                nB.setAccountForPriors(true);
-                validator.evaluate(nB);
-            } else if (classif[0].equals("RWNB")) {
-                RiskWeightedNaiveBayes rWNB = new RiskWeightedNaiveBayes();
-                rWNB.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                validator.evaluate(rWNB);
-            } else if (classif[0].equals("RWNBgd")) {
-                RiskWeightedNaiveBayes rWNB = new RiskWeightedNaiveBayes();
-                rWNB.setNumberOfEmotionalDimensions(Integer.valueOf(args[1]).intValue());
-                rWNB.setLearningProcedure("three_sentiment_gradient_descent");
-                validator.evaluate(rWNB);
-            } else if (classif[0].equals("LSA")) {
-                LSA lsa = new LSA();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].equals("COF")) {
-                        lsa.setCOF(true);
-                    } else if (classif[opts].equals("ITF")) {
-                        lsa.setTermWeighingMeasure("itf");
-                    } else if (classif[opts].equals("LTFRF")) {
-                        lsa.setTermWeighingMeasure("ltfrf");
-                    } else if (classif[opts].equals("POS")) {
-                        lsa.setPOS(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        lsa.setStemming(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        lsa.setSynonyms(true);
-                    } else {
-                        System.out.println("KFoldXValidation: error in the specification of LSA " +
-                            "parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(lsa);
-            } else if (classif[0].equals("WSVM")) {
-                SupportVectorMachine svm = new SupportVectorMachine();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].startsWith("MI-")) {
-                        String[] miChunk = classif[opts].split("-");
-                        svm.setMI(true, Integer.parseInt(miChunk[1]));
-                    } else if (classif[opts].startsWith("CHI2-")) {
-                        String[] chi2Chunk = classif[opts].split("-");
-                        svm.setChi2(true, Integer.parseInt(chi2Chunk[1]));
-                    } else if (classif[opts].startsWith("FSTF-")) {
-                        String[] tfChunk = classif[opts].split("-");
-                        svm.setTF(true, Integer.parseInt(tfChunk[1]));
-                    } else if (classif[opts].equals("TF")) {
-                        svm.setTermWeighingMeasure("tf");
-                    } else if (classif[opts].equals("COF")) {
-                        svm.setCOF(true);
-                    } else if (classif[opts].equals("ITF")) {
-                        svm.setTermWeighingMeasure("itf");
-                    } else if (classif[opts].equals("TFRF")) {
-                        svm.setTermWeighingMeasure("tfrf");
-                    } else if (classif[opts].equals("LTFRF")) {
-                        svm.setTermWeighingMeasure("ltfrf");
-                    } else if (classif[opts].equals("POS")) {
-                        svm.setPOS(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        svm.setStemming(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        svm.setSynonyms(true);
-                    } else if (classif[opts].equals("EMO")) {
-                        svm.setEmotionDims(true);
-                    } else if (classif[opts].equals("NEG")) {
-                        svm.setNegation(true);
-                    } else if (classif[opts].equals("RBF")) {
-                        svm.setRBF(true);
-                    } else if (classif[opts].equals("K2")) {
-                        svm.setExponent((double)2);
-                    } else if (classif[opts].equals("NPK")) {
-                        svm.setNormalisedPolyK(true);
-                    } else if (classif[opts].equals("NPK2")) {
-                        svm.setNormalisedPolyK(true);
-                        svm.setExponent((double)2);
-                    } else if (classif[opts].equals("LOT")) {
-                        svm.setLowerOrderTerms(true);
-                    } else if (classif[opts].equals("NOINT")) {
-                        svm.setIntercept(false);
-                    } else {
-                        System.out.println("KFoldXValidation: error in the specification of WSVM parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(svm);
-            } else if (classif[0].equals("ARNR")) {
-                ARNReduced arnR = new ARNReduced();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].equals("COF")) {
-                        arnR.setCOF(true);
-                    } else if (classif[opts].equals("POS")) {
-                        arnR.setPOS(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        arnR.setSynonyms(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        arnR.setStems(true);
-                    } else if (classif[opts].equals("BIN")) {
-                        arnR.setTermWeighingMeasure("binary");
-                    } else if (classif[opts].equals("ITF")) {
-                        arnR.setTermWeighingMeasure("itf");
-                    } else if (classif[opts].equals("TFRF")) {
-                        arnR.setTermWeighingMeasure("tfrf");
-                    } else if (classif[opts].equals("LTFRF")) {
-                        arnR.setTermWeighingMeasure("ltfrf");
-                    } else if (classif[opts].equals("MDN2")) {
-                        arnR.setSimilarityMeasure("matrixdifnorm2");
-                    } else if (classif[opts].equals("MCD")) {
-                        arnR.setSimilarityMeasure("cosMatrix");
-                    } else if (classif[opts].equals("DOT")) {
-                        arnR.setSimilarityMeasure("dotprod");
-                    } else {
-                        System.out.println("KFoldXValidation: error in the specification of ARNR parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(arnR);
-            } else if (classif[0].equals("TASS2L")) {
-                TASS2Levels tass = new TASS2Levels();
-                validator.evaluate(tass);
-            } else if (classif[0].equals("WMNB")) {
-                WekaMultinomialNB wMNB = new WekaMultinomialNB();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].startsWith("MI-")) {
-                        String[] miChunk = classif[opts].split("-");
-                        wMNB.setMI(true, Integer.parseInt(miChunk[1]));
-                    } else if (classif[opts].startsWith("CHI2-")) {
-                        String[] chi2Chunk = classif[opts].split("-");
-                        wMNB.setChi2(true, Integer.parseInt(chi2Chunk[1]));
-                    } else if (classif[opts].startsWith("FSTF-")) {
-                        String[] tfChunk = classif[opts].split("-");
-                        wMNB.setTF(true, Integer.parseInt(tfChunk[1]));
-                    } else if (classif[opts].equals("ITF")) {
-                        wMNB.setTermWeighingMeasure("itf");
-                    } else if (classif[opts].equals("LTFRF")) {
-                        wMNB.setTermWeighingMeasure("ltfrf");
-                    } else if (classif[opts].equals("COF")) {
-                        wMNB.setCOF(true);
-                    } else if (classif[opts].equals("POS")) {
-                        wMNB.setPOS(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        wMNB.setStemming(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        wMNB.setSynonyms(true);
-                    } else if (classif[opts].equals("EMO")) {
-                        wMNB.setEmotionDims(true);
-                    } else if (classif[opts].equals("NEG")) {
-                        wMNB.setNegation(true);
-                    } else {
-                        System.out.println("KFoldXValidation: error in the " +
-                            "specification of WMNB parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(wMNB);
-            } else if (classif[0].equals("MNB")) {
-                MultinomialNB mNB = new MultinomialNB();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].startsWith("MI-")) {
-                        String[] miChunk = classif[opts].split("-");
-                        mNB.setMI(true, Integer.parseInt(miChunk[1]));
-                    } else if (classif[opts].startsWith("CHI2-")) {
-                        String[] chi2Chunk = classif[opts].split("-");
-                        mNB.setChi2(true, Integer.parseInt(chi2Chunk[1]));
-                    } else if (classif[opts].startsWith("FSTF-")) {
-                        String[] tfChunk = classif[opts].split("-");
-                        mNB.setTF(true, Integer.parseInt(tfChunk[1]));
-                    } else if (classif[opts].equals("COF")) {
-                        mNB.setCOF(true);
-                    } else if (classif[opts].equals("POS")) {
-                        mNB.setPOS(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        mNB.setStemming(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        mNB.setSynonyms(true);
-                    } else {
-                        System.out.println("KFoldXValidation: error in the " +
-                            "specification of MNB parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(mNB);
-            } else if (classif[0].equals("BNB")) {
-                BernoulliNB bNB = new BernoulliNB();
-                validator.evaluate(bNB);
-            } else if (classif[0].equals("OLR")) {
-                OrdinalLogReg oLR = new OrdinalLogReg();
-                validator.evaluate(oLR);
-            } else if (classif[0].equals("RLR")) {
-                RiskLogReg rlogR = new RiskLogReg();
-                validator.evaluate(rlogR);
-            } else if (classif[0].equals("LOGR")) {
-                Logistic logR = new Logistic();
-                for (int opts = 1; opts < classif.length; opts++) {
-                    if (classif[opts].equals("COF")) {
-                        logR.setCOF(true);
-                    } else if (classif[opts].equals("ITF")) {
-                        logR.setTermWeighingMeasure("itf");
-                    } else if (classif[opts].equals("TFRF")) {
-                        logR.setTermWeighingMeasure("tfrf");
-                    } else if (classif[opts].equals("LTFRF")) {
-                        logR.setTermWeighingMeasure("ltfrf");
-                    } else if (classif[opts].equals("CRRF")) {
-                        logR.setTermWeighingMeasure("crrf");
-                    } else if (classif[opts].equals("POS")) {
-                        logR.setPOS(true);
-                    } else if (classif[opts].equals("STEM")) {
-                        logR.setStemming(true);
-                    } else if (classif[opts].equals("SYN")) {
-                        logR.setSynonyms(true);
-                    } else if (classif[opts].equals("EMO")) {
-                        logR.setEmotionDims(true);
-                    } else if (classif[opts].equals("NEG")) {
-                        logR.setNegation(true);
-                    } else if (classif[opts].equals("NOINT")) {
-                        logR.setIntercept(false);
-                    } else {
-                        System.out.println("KFoldXValidation: error in the specification of Logistic Regression " +
-                            "parameters!");
-                        validator.printSynopsis();
-                        System.exit(1);
-                    }
-                }
-                validator.evaluate(logR);
-            } else if (classif[0].equals("SHCAwARNRwCOF")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNRwCOF");
-                validator.evaluate(hARNR);
-            } else if (classif[0].equals("SHCAwARNR")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNR");
-                validator.evaluate(hARNR);
-            } else if (classif[0].equals("SHCAwARNRwITF")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNRwITF");
-                validator.evaluate(hARNR);
-            } else if (classif[0].equals("SHCAwARNRwITFwCOF")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNRwITFwCOF");
-                validator.evaluate(hARNR);
-            } else if (classif[0].equals("SHCAwARNRwLTFRF")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNRwLTFRF");
-                validator.evaluate(hARNR);
-            } else if (classif[0].equals("SHCAwARNRwLTFRFwCOF")) {
-                HierarchicalARNReduced hARNR = new HierarchicalARNReduced();
-                hARNR.setTypeOfARN("ARNRwLTFRFwCOF");
-                validator.evaluate(hARNR);
+            String[] classifierSpecs = params[validator.indexOf("-c", params) + 1].split(",");
+            if (classifierSpecs.length > 1) {
+                validator.sweep(classifierSpecs, args[1]);
             } else {
-                System.out.println("KFoldXValidation: Please enter a valid classifier!");
-                System.out.println("");
-                System.exit(1);
+                validator.evaluate(classifierSpecs[0], args[1]);
             }
             System.out.println("");
             long elapsedTime = (System.currentTimeMillis() - start) / 1000;
@@ -985,5 +1436,74 @@ public class KFoldXValidation {
         }
     }
 
-}
 
+    /**
+     * Functionality test of the feature cache.
+     */
+    @Test public void featureCacheRoundTrip() throws Exception {
+        File directory = File.createTempFile("emolib", ".fbc");
+        directory.delete();
+        File config = new File(directory, "config.xml");
+        File corpus = new File(directory, "corpus.txt");
+        directory.mkdirs();
+        PrintWriter out = new PrintWriter(new FileWriter(config));
+        out.println("<config/>");
+        out.close();
+        out = new PrintWriter(new FileWriter(corpus));
+        out.println("POS I love reading books .");
+        out.close();
+        //
+        FeatureBox feat = new FeatureBox("I love reading books .");
+        feat.setWords("I love reading books .");
+        feat.setPOSTags("PRP VBP VBG NNS .");
+        feat.setStems("I love read book .");
+        feat.setSynonyms("adore");
+        feat.setStemmedSynonyms("ador");
+        feat.setNegation(true);
+        feat.setNumberOfEmotionalDimensions(3);
+        feat.setValence(7.5f);
+        feat.setActivation(5.25f);
+        feat.setControl(6.0f);
+        ArrayList<FeatureBox> texts = new ArrayList<FeatureBox>();
+        ArrayList<String> categories = new ArrayList<String>();
+        texts.add(feat);
+        categories.add("POS");
+        texts.add(new FeatureBox("neutral text"));
+        categories.add("NEU");
+        //
+        FeatureCache cache = new FeatureCache(directory.getPath(), config.toURI().toURL(), "textAnalyser");
+        Assert.assertFalse(cache.contains(corpus.getPath()));
+        cache.save(corpus.getPath(), texts, categories);
+        Assert.assertTrue(cache.contains(corpus.getPath()));
+        //
+        ArrayList<FeatureBox> loadedTexts = new ArrayList<FeatureBox>();
+        ArrayList<String> loadedCategories = new ArrayList<String>();
+        cache = new FeatureCache(directory.getPath(), config.toURI().toURL(), "textAnalyser");
+        Assert.assertTrue(cache.load(corpus.getPath(), loadedTexts, loadedCategories));
+        Assert.assertEquals(categories, loadedCategories);
+        FeatureBox loaded = loadedTexts.get(0);
+        Assert.assertEquals(feat.getText(), loaded.getText());
+        Assert.assertEquals(feat.getWords(), loaded.getWords());
+        Assert.assertEquals(feat.getPOSTags(), loaded.getPOSTags());
+        Assert.assertEquals(feat.getStems(), loaded.getStems());
+        Assert.assertEquals(feat.getSynonyms(), loaded.getSynonyms());
+        Assert.assertEquals(feat.getStemmedSynonyms(), loaded.getStemmedSynonyms());
+        Assert.assertTrue(loaded.getNegation());
+        Assert.assertEquals(3, loaded.getNumberOfEmotionalDimensions());
+        Assert.assertEquals(7.5f, loaded.getValence(), 0.0);
+        Assert.assertEquals(5.25f, loaded.getActivation(), 0.0);
+        Assert.assertEquals(6.0f, loaded.getControl(), 0.0);
+        Assert.assertFalse(loadedTexts.get(1).containsSynonyms());
+        Assert.assertFalse(loadedTexts.get(1).getNegation());
+        // Another pipeline component doesn't find the features.
+        cache = new FeatureCache(directory.getPath(), config.toURI().toURL(), "otherAnalyser");
+        Assert.assertFalse(cache.contains(corpus.getPath()));
+        //
+        File[] files = directory.listFiles();
+        for (int numFile = 0; numFile < files.length; numFile++) {
+            files[numFile].delete();
+        }
+        directory.delete();
+    }
+
+}
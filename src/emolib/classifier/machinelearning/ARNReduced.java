@@ -26,6 +26,7 @@ import emolib.util.conf.*;
 import emolib.util.proc.*;
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
 
 //import org.jdom.*;
 //import org.jdom.output.*;
@@ -107,6 +108,7 @@ public class ARNReduced extends Classifier {
     private int numSelFeats;
     private ArrayList<Graph> categoryGraph;
     private Graph fullGraph;
+    private HashMap<String, Integer> vocabularyIndex;
     //
     private HashMap<String, Integer> soleCategories;
     private String[] categoryRanking;
@@ -943,6 +945,7 @@ public class ARNReduced extends Classifier {
         numSelFeats = 0;
         categoryGraph = new ArrayList<Graph>();
         fullGraph = new Graph();
+        vocabularyIndex = new HashMap<String, Integer>();
         categoryRanking = new String[]{"NEG", "NEU", "POS"};
     }
 
@@ -1831,6 +1834,108 @@ public class ARNReduced extends Classifier {
     }
 
 
+    /**
+     * Function to build the sparse vector of weighted terms given by the
+     * input terms.
+     * It is equivalent to weighting the full graph (see buildFullGraph) and
+     * exporting its weighed vector, but only the terms observed in the input
+     * text are dealt with, so its cost does not depend on the size of
+     * the vocabulary. The indices of the vector correspond to the positions
+     * of the terms in the vocabulary graph.
+     *
+     * @param input The input text graph.
+     * @param cat The given category for supervised term weighting methods.
+     *
+     * @return The sparse vector of weighed measures.
+     */
+    public SparseVector buildSparseVector(Graph input, int cat) {
+        Graph observedGraph = new Graph();
+        int[] observedIndices = new int[input.getNumberOfElements()];
+        int numObserved = 0;
+        int vocIndex;
+        GraphElement temp;
+        for (int i = 0; i < input.getNumberOfElements(); i++) {
+            temp = input.getElement(i);
+            vocIndex = getVocabularyIndex(temp);
+            if (vocIndex >= 0) {
+                observedGraph.addElement(temp.cloneElement());
+                observedIndices[numObserved] = vocIndex;
+                numObserved++;
+            }
+        }
+        // The unobserved terms have a null TF, which always leads to a null
+        // weight, and the total sum of TFs is the same as the full graph's.
+        applyTermWeighing(observedGraph, cat);
+        int numValues = 0;
+        for (int i = 0; i < numObserved; i++) {
+            if (observedGraph.getElement(i).getWeighedMeasure() != 0) {
+                numValues++;
+            }
+        }
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
+        numValues = 0;
+        for (int i = 0; i < numObserved; i++) {
+            if (observedGraph.getElement(i).getWeighedMeasure() != 0) {
+                indices[numValues] = observedIndices[i];
+                values[numValues] = observedGraph.getElement(i).getWeighedMeasure();
+                numValues++;
+            }
+        }
+        //
+        return new SparseVector(indices, values, fullGraph.getNumberOfElements());
+    }
+
+
+    /**
+     * Function to retrieve the position of the given element in the
+     * vocabulary graph.
+     *
+     * @param elem The element to look up.
+     *
+     * @return The position of the element, or -1 if it is out of the vocabulary.
+     */
+    public int getVocabularyIndex(GraphElement elem) {
+        Integer vocIndex = vocabularyIndex.get(getElementKey(elem));
+        if (vocIndex == null) {
+            return -1;
+        } else {
+            return vocIndex.intValue();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the hash key of a graph element.
+     * Words never contain blank spaces, so links can't be mistaken for
+     * nodes.
+     *
+     * @param elem The graph element.
+     *
+     * @return The key of the element.
+     */
+    private String getElementKey(GraphElement elem) {
+        if (elem.isNode()) {
+            return elem.getTerm();
+        } else {
+            return elem.getLeftTerm() + " " + elem.getRightTerm();
+        }
+    }
+
+
+    /**
+     * Method to index the terms of the vocabulary graph by their position.
+     * It has to be called every time the vocabulary changes.
+     */
+    private void indexVocabulary() {
+        vocabularyIndex = new HashMap<String, Integer>();
+        for (int t = 0; t < fullGraph.getNumberOfElements(); t++) {
+            vocabularyIndex.put(getElementKey(fullGraph.getElement(t)),
+                new Integer(t));
+        }
+    }
+
+
     /**
      * Function to build an emotion graph, a structure with the terms defined by the
      * input text and the term frequencies given by an emotion class.
@@ -2019,6 +2124,7 @@ public class ARNReduced extends Classifier {
         if (featSelMI || featSelChi2 || featSelTF) {
             globalFeatSel();
         }
+        indexVocabulary();
     }
 
 
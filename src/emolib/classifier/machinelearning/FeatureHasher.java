@@ -0,0 +1,322 @@
+/*
+ * File    : FeatureHasher.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier.machinelearning;
+
+import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
+
+import java.util.Arrays;
+
+/**
+ * The <i>FeatureHasher</i> class is a vectoriser of the lexical features
+ * of a text that maps them into a feature space of fixed size by means of
+ * a hash function (the so-called "hashing trick").
+ *
+ * <p>
+ * The same lexical features as the ones considered by the ARN-R are
+ * extracted (words or stems, optionally tagged with their POS, bigrams
+ * and synonyms), but instead of being looked up in a vocabulary built
+ * from the training examples, each feature is directly hashed with the
+ * MurmurHash3 (32 bit) function into one of the 2^k buckets of the feature
+ * space. Therefore, no vocabulary needs to be built, stored or searched,
+ * the memory footprint of the models does not depend on the size of the
+ * corpus, and unseen examples can be vectorised right away. The price to
+ * pay is that different features may eventually collide into the same
+ * bucket, which is unlikely if the space is large enough.
+ * </p>
+ * <p>
+ * Only the unsupervised term weighting schemes are available, i.e., "tf"
+ * (default), "ltf" and "binary", since the supervised ones require the
+ * category-wise statistics of the vocabulary.
+ * </p>
+ *
+ * @see emolib.classifier.machinelearning.ARNReduced
+ */
+public class FeatureHasher {
+
+    private int numberOfBits;
+    private int bucketMask;
+    private String termWeighingMeasure;
+    private boolean assessCOF;
+    private boolean assessPOS;
+    private boolean assessStems;
+    private boolean assessSyns;
+
+
+    /**
+     * Main constructor.
+     * The feature space has 2^18 buckets by default.
+     */
+    public FeatureHasher() {
+        setNumberOfBits(18);
+        termWeighingMeasure = "tf";
+        assessCOF = false;
+        assessPOS = false;
+        assessStems = false;
+        assessSyns = false;
+    }
+
+
+    /**
+     * Function to build the sparse vector of weighted hashed features of
+     * the given text.
+     *
+     * @param inputFeatures The features of the text.
+     *
+     * @return The sparse vector, in a space of 2^k dimensions.
+     */
+    public SparseVector buildSparseVector(FeatureBox inputFeatures) {
+        String[] wordChunks;
+        if (assessStems) {
+            wordChunks = inputFeatures.getStems().split(" ");
+        } else {
+            wordChunks = inputFeatures.getWords().split(" ");
+        }
+        String[] posChunks = null;
+        if (assessPOS) {
+            posChunks = inputFeatures.getPOSTags().split(" ");
+        }
+        String[] synsChunks = null;
+        // No COF with synonyms, as they are not directly observed in the text.
+        if (assessSyns && inputFeatures.containsSynonyms()) {
+            if (assessStems) {
+                synsChunks = inputFeatures.getStemmedSynonyms().split(" ");
+            } else {
+                synsChunks = inputFeatures.getSynonyms().split(" ");
+            }
+        }
+        int numFeats = wordChunks.length;
+        if (assessCOF) {
+            numFeats += wordChunks.length - 1;
+        }
+        if (synsChunks != null) {
+            numFeats += synsChunks.length;
+        }
+        int[] buckets = new int[numFeats];
+        int pos = 0;
+        String previous = null;
+        String term;
+        for (int i = 0; i < wordChunks.length; i++) {
+            if (assessPOS) {
+                term = wordChunks[i] + "_" + posChunks[i];
+            } else {
+                term = wordChunks[i];
+            }
+            buckets[pos] = getBucket(term);
+            pos++;
+            if (assessCOF && (previous != null)) {
+                // Same key as the links of the ARN-R vocabulary.
+                buckets[pos] = getBucket(previous + " " + term);
+                pos++;
+            }
+            previous = term;
+        }
+        if (synsChunks != null) {
+            for (int i = 0; i < synsChunks.length; i++) {
+                if (assessPOS) {
+                    buckets[pos] = getBucket(synsChunks[i] + "_NOMBRE");
+                } else {
+                    buckets[pos] = getBucket(synsChunks[i]);
+                }
+                pos++;
+            }
+        }
+        // Collisions and repeated features are merged into term frequencies.
+        Arrays.sort(buckets);
+        int numValues = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            if ((i == 0) || (buckets[i] != buckets[i - 1])) {
+                numValues++;
+            }
+        }
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
+        int v = -1;
+        for (int i = 0; i < buckets.length; i++) {
+            if ((i == 0) || (buckets[i] != buckets[i - 1])) {
+                v++;
+                indices[v] = buckets[i];
+            }
+            values[v]++;
+        }
+        applyTermWeighing(values);
+        //
+        return new SparseVector(indices, values, getDimension());
+    }
+
+
+    /**
+     * Method to weigh the term frequencies of the hashed features.
+     *
+     * @param values The term frequencies, which are replaced by their weights.
+     */
+    private void applyTermWeighing(float[] values) {
+        if (termWeighingMeasure.equals("ltf")) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (float)Math.log((double)1 + (double)values[i]);
+            }
+        } else if (termWeighingMeasure.equals("binary")) {
+            Arrays.fill(values, (float)1);
+        }
+    }
+
+
+    /**
+     * Function to retrieve the bucket of the feature space where a feature
+     * is hashed into.
+     *
+     * @param feature The feature.
+     *
+     * @return The bucket index.
+     */
+    public int getBucket(String feature) {
+        return murmurHash(feature) & bucketMask;
+    }
+
+
+    /**
+     * Implementation of the MurmurHash3 (x86, 32 bit) function over the
+     * UTF-16 code units of the given string, which are read in pairs.
+     *
+     * @param feature The string to hash.
+     *
+     * @return The hash code.
+     */
+    private int murmurHash(String feature) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int h1 = 0x9747b28c;
+        int len = feature.length();
+        int k1;
+        int i = 1;
+        for (; i < len; i += 2) {
+            k1 = feature.charAt(i - 1) | (feature.charAt(i) << 16);
+            k1 *= c1;
+            k1 = Integer.rotateLeft(k1, 15);
+            k1 *= c2;
+            h1 ^= k1;
+            h1 = Integer.rotateLeft(h1, 13);
+            h1 = h1 * 5 + 0xe6546b64;
+        }
+        if ((len & 1) == 1) {
+            k1 = feature.charAt(len - 1);
+            k1 *= c1;
+            k1 = Integer.rotateLeft(k1, 15);
+            k1 *= c2;
+            h1 ^= k1;
+        }
+        h1 ^= len * 2;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+
+
+    /**
+     * Function to retrieve the dimension of the feature space.
+     *
+     * @return The number of buckets, i.e., 2^k.
+     */
+    public int getDimension() {
+        return bucketMask + 1;
+    }
+
+
+    /**
+     * Function to retrieve the number of bits of the feature space.
+     *
+     * @return The number of bits, i.e., k.
+     */
+    public int getNumberOfBits() {
+        return numberOfBits;
+    }
+
+
+    /**
+     * Method to set the size of the feature space, i.e., 2^k buckets.
+     *
+     * @param bits The number of bits, k (between 1 and 30).
+     */
+    public void setNumberOfBits(int bits) {
+        if ((bits < 1) || (bits > 30)) {
+            System.out.println("FeatureHasher: the number of bits must be between 1 and 30!");
+        } else {
+            numberOfBits = bits;
+            bucketMask = (1 << bits) - 1;
+        }
+    }
+
+
+    /**
+     * Method to set the TW method.
+     * Only the unsupervised measures "tf", "ltf" and "binary" are available.
+     *
+     * @param twm The TW method.
+     */
+    public void setTermWeighingMeasure(String twm) {
+        if (twm.equals("tf") || twm.equals("ltf") || twm.equals("binary")) {
+            termWeighingMeasure = twm;
+        } else {
+            System.out.println("FeatureHasher: the term weighing measure " + twm +
+                " is not available with feature hashing, using " + termWeighingMeasure + "!");
+        }
+    }
+
+
+    /**
+     * Method to consider bigram frequencies.
+     *
+     * @param cof The COF flag.
+     */
+    public void setCOF(boolean cof) {
+        assessCOF = cof;
+    }
+
+
+    /**
+     * Method to consider POS tags.
+     *
+     * @param pos The POS flag.
+     */
+    public void setPOS(boolean pos) {
+        assessPOS = pos;
+    }
+
+
+    /**
+     * Method to consider stems.
+     *
+     * @param stems The stemming flag.
+     */
+    public void setStems(boolean stems) {
+        assessStems = stems;
+    }
+
+
+    /**
+     * Method to consider synonyms.
+     *
+     * @param syns The synonyms flag.
+     */
+    public void setSynonyms(boolean syns) {
+        assessSyns = syns;
+    }
+
+}
+
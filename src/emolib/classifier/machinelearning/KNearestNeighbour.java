@@ -17,12 +17,17 @@
 package emolib.classifier.machinelearning;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
 
 import emolib.util.conf.*;
 import emolib.util.proc.*;
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
 
+import org.junit.Test;
+import org.junit.Assert;
+
 /**
  * The <i>KNearestNeighbour</i> is an example-based classifier
  * that uses the k-Nearest Neighbour method.
@@ -34,6 +39,11 @@ import emolib.classifier.FeatureBox;
  * category according to the majority vote among these `k' elements.
  * The number of emotional dimensions of use has to be specified.
  * </p>
+ * <p>
+ * The examples are indexed with a k-d tree (built at training time, or
+ * with the first query), so that the nearest neighbours are searched in
+ * logarithmic time with a bounded max-heap.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
@@ -48,6 +58,10 @@ public class KNearestNeighbour extends Classifier {
     private int theK;
     private int numberOfEmotionalDimensions;
 
+    // k-d tree of the examples, replaced as a whole so that concurrent
+    // queries never see it half-built
+    private volatile Index theIndex;
+
 
     /* (non-Javadoc)
      * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
@@ -82,6 +96,7 @@ public class KNearestNeighbour extends Classifier {
      */
     public void setNumberOfEmotionalDimensions(int numDims) {
         numberOfEmotionalDimensions = numDims;
+        theIndex = null;
     }
 
 
@@ -105,94 +120,44 @@ public class KNearestNeighbour extends Classifier {
 
         // We cannot deal with more dimensions than we have
         if (numberOfEmotionalDimensions <= inputFeatures.getNumberOfEmotionalDimensions()) {
-            ArrayList<Float> distances = new ArrayList<Float>();
-            double calculatedDistance;
-            Float tempFloat;
-            double two = Double.parseDouble("2");
-
-            ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
-            ArrayList<String> exampleCategories = getListOfExampleCategories();
-
-            // It is supposed that if the program flow gets here, the input test features
-            // will have the same dimensions as the training features
-            int counter;
-            // All the examples are checked
-            for (counter = 0; counter < exampleFeatures.size(); counter++) {
-                calculatedDistance = 0;
-                // At least we have the valence
-                if (numberOfEmotionalDimensions >= 1) {
-                    tempFloat = new Float(inputFeatures.getValence() -
-                        exampleFeatures.get(counter).getValence());
-                    calculatedDistance += Math.pow(tempFloat.doubleValue(), two);
-                }
-                // At least we have the activation
-                if (numberOfEmotionalDimensions >= 2) {
-                    tempFloat = new Float(inputFeatures.getActivation() -
-                        exampleFeatures.get(counter).getActivation());
-                    calculatedDistance += Math.pow(tempFloat.doubleValue(), two);
-                }
-                // At least we have the control
-                if (numberOfEmotionalDimensions >= 3) {
-                    tempFloat = new Float(inputFeatures.getControl() -
-                        exampleFeatures.get(counter).getControl());
-                    calculatedDistance += Math.pow(tempFloat.doubleValue(), two);
-                }
-                calculatedDistance = Math.sqrt(calculatedDistance);
-                distances.add(new Float(Double.toString(calculatedDistance)));
-            }
-            // Search for the smallest distances (the nearest neighbors).
-            float smallestValue;
-            int smallestIndex;
-            int kIteration;
-            ArrayList<String> nearestCategories = new ArrayList<String>(theK);
-            ArrayList<String> categories = (ArrayList<String>)exampleCategories.clone();
-
-            if (theK < distances.size()) {
-                for (kIteration = 0; kIteration < theK; kIteration++) {
-                    smallestValue = distances.get(0).floatValue();
-                    smallestIndex = 0;
-                    for (counter = 1; counter < distances.size(); counter++) {
-                        if (distances.get(counter).floatValue() < smallestValue) {
-                            smallestValue = distances.get(counter).floatValue();
-                            smallestIndex = counter;
-                        }
-                    }
-                    nearestCategories.add(new String(categories.get(smallestIndex)));
-                    distances.remove(smallestIndex);
-                    categories.remove(smallestIndex);
-                }
+            Index index = theIndex;
+            if (index == null) {
+                index = buildIndex();
+            }
+            if (theK < index.categories.length) {
+                float[] query = new float[3];
+                query[0] = inputFeatures.getValence();
+                query[1] = inputFeatures.getActivation();
+                query[2] = inputFeatures.getControl();
+                // Bounded max-heap of the k nearest examples found so far
+                // (the root is the farthest one).
+                double[] heapDistances = new double[theK];
+                int[] heapExamples = new int[theK];
+                searchIndex(index, 0, index.categories.length, 0, query, heapDistances, heapExamples, 0);
+                sortNeighbours(index, heapDistances, heapExamples);
                 // Now we have an ordered list containing the 'k' smallest distances and
                 // their corresponding categories
                 // It's time to get the majority class
-                ArrayList<String> categoryToReturn = new ArrayList<String>(theK);
-                ArrayList<Integer> categoryScore = new ArrayList<Integer>(theK);
-                categoryToReturn.add(nearestCategories.get(0));
-                categoryScore.add(new Integer(1));
-                boolean found;
-                int arrayRunner;
-                for (kIteration = 1; kIteration < nearestCategories.size(); kIteration++) {
-                    found = false;
-                    for (arrayRunner = 0; arrayRunner < categoryToReturn.size(); arrayRunner++) {
-                        if (nearestCategories.get(kIteration).equals(categoryToReturn.get(arrayRunner))) {
-                            categoryScore.set(arrayRunner, new Integer(categoryScore.get(arrayRunner) + 1));
-                            found = true;
-                            break;
-                        }
-                    }
-                    if (!found) {
-                        categoryToReturn.add(nearestCategories.get(kIteration));
-                        categoryScore.add(new Integer(1));
+                int[] categoryScore = new int[index.categoryNames.size()];
+                int[] categoryToReturn = new int[theK];
+                int numCandidates = 0;
+                int cat;
+                for (int kIteration = 0; kIteration < theK; kIteration++) {
+                    cat = index.categories[heapExamples[kIteration]];
+                    if (categoryScore[cat] == 0) {
+                        categoryToReturn[numCandidates] = cat;
+                        numCandidates++;
                     }
+                    categoryScore[cat]++;
                 }
                 // Now the majority category has to be returned.
-                majorityCategory = categoryToReturn.get(0);
-                int majorityScore = categoryScore.get(0);
-                for (arrayRunner = 1; arrayRunner < categoryToReturn.size(); arrayRunner++) {
-                    if (categoryScore.get(arrayRunner) > majorityScore) {
-                        majorityScore = categoryScore.get(arrayRunner);
-                        majorityCategory = categoryToReturn.get(arrayRunner);
+                int majority = categoryToReturn[0];
+                for (int arrayRunner = 1; arrayRunner < numCandidates; arrayRunner++) {
+                    if (categoryScore[categoryToReturn[arrayRunner]] > categoryScore[majority]) {
+                        majority = categoryToReturn[arrayRunner];
                     }
                 }
+                majorityCategory = index.categoryNames.get(majority);
             } else {
                 System.out.println("KNearestNeighbour: `k' smaller than the number of training examples!");
                 System.exit(1);
@@ -205,12 +170,318 @@ public class KNearestNeighbour extends Classifier {
 
 
     /**
-     * Void method to train required by the Classifier class.
+     * Method to build the k-d tree of the training examples.
+     * The examples are stored in primitive arrays in the order of the
+     * tree, i.e., the root of each range is the element in the middle of
+     * it, and the left (right) subtree is the range before (after) it.
+     * The tree is only published once it is complete.
+     *
+     * @return The k-d tree.
+     */
+    private synchronized Index buildIndex() {
+        if (theIndex != null) {
+            return theIndex;
+        }
+        ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
+        ArrayList<String> exampleCategories = getListOfExampleCategories();
+        int numExamples = exampleFeatures.size();
+        Index index = new Index();
+        index.dims = Math.min(Math.max(numberOfEmotionalDimensions, 0), 3);
+        float[] points = new float[numExamples * 3];
+        int[] order = new int[numExamples];
+        FeatureBox presentFeats;
+        for (int counter = 0; counter < numExamples; counter++) {
+            presentFeats = exampleFeatures.get(counter);
+            points[counter * 3] = presentFeats.getValence();
+            points[counter * 3 + 1] = presentFeats.getActivation();
+            points[counter * 3 + 2] = presentFeats.getControl();
+            order[counter] = counter;
+        }
+        buildTree(order, points, 0, numExamples, 0, index.dims);
+        // Copy the examples in the order of the tree
+        index.points = new float[numExamples * 3];
+        index.categories = new int[numExamples];
+        index.order = order;
+        index.categoryNames = new ArrayList<String>();
+        HashMap<String, Integer> categoryHash = new HashMap<String, Integer>();
+        String presentCat;
+        for (int counter = 0; counter < numExamples; counter++) {
+            System.arraycopy(points, order[counter] * 3, index.points, counter * 3, 3);
+            presentCat = exampleCategories.get(order[counter]);
+            if (!categoryHash.containsKey(presentCat)) {
+                categoryHash.put(presentCat, new Integer(index.categoryNames.size()));
+                index.categoryNames.add(presentCat);
+            }
+            index.categories[counter] = categoryHash.get(presentCat).intValue();
+        }
+        theIndex = index;
+        return index;
+    }
+
+
+    /**
+     * Method to arrange a range of examples into a k-d tree.
+     * The splitting dimension cycles with the depth of the tree.
+     *
+     * @param order The indices of the examples.
+     * @param points The coordinates of the examples.
+     * @param lo The first position of the range.
+     * @param hi The position after the last one of the range.
+     * @param depth The depth of the range in the tree.
+     * @param dims The number of dimensions of the tree.
+     */
+    private void buildTree(int[] order, float[] points, int lo, int hi, int depth, int dims) {
+        if ((hi - lo > 1) && (dims > 0)) {
+            int axis = depth % dims;
+            int mid = (lo + hi) >>> 1;
+            selectMedian(order, points, lo, hi - 1, mid, axis);
+            buildTree(order, points, lo, mid, depth + 1, dims);
+            buildTree(order, points, mid + 1, hi, depth + 1, dims);
+        }
+    }
+
+
+    /**
+     * Method to place the n-th smallest example of a range (along a given
+     * dimension) in its position, with the smaller ones before it and the
+     * larger ones after it (Hoare's selection algorithm).
+     *
+     * @param order The indices of the examples.
+     * @param points The coordinates of the examples.
+     * @param left The first position of the range.
+     * @param right The last position of the range.
+     * @param nth The position to place.
+     * @param axis The dimension.
+     */
+    private void selectMedian(int[] order, float[] points, int left, int right, int nth, int axis) {
+        int i, j, aux;
+        float pivot;
+        while (left < right) {
+            pivot = points[order[(left + right) >>> 1] * 3 + axis];
+            i = left;
+            j = right;
+            while (i <= j) {
+                while (points[order[i] * 3 + axis] < pivot) {
+                    i++;
+                }
+                while (points[order[j] * 3 + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    aux = order[i];
+                    order[i] = order[j];
+                    order[j] = aux;
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j) {
+                right = j;
+            } else if (nth >= i) {
+                left = i;
+            } else {
+                break;
+            }
+        }
+    }
+
+
+    /**
+     * Function to search the k nearest examples in a range of the k-d tree.
+     * The subtree on the far side of the splitting plane is only visited if
+     * it may contain examples nearer than the farthest one found so far.
+     *
+     * @param index The k-d tree.
+     * @param lo The first position of the range.
+     * @param hi The position after the last one of the range.
+     * @param depth The depth of the range in the tree.
+     * @param query The coordinates of the query.
+     * @param heapDistances The squared distances of the heap.
+     * @param heapExamples The examples of the heap.
+     * @param heapSize The present size of the heap.
+     *
+     * @return The new size of the heap.
+     */
+    private int searchIndex(Index index, int lo, int hi, int depth, float[] query, double[] heapDistances,
+        int[] heapExamples, int heapSize) {
+        float[] indexPoints = index.points;
+        int indexDims = index.dims;
+        if (lo >= hi) {
+            return heapSize;
+        }
+        int mid = (lo + hi) >>> 1;
+        int base = mid * 3;
+        double distance = 0;
+        double diff;
+        // Unrolled squared Euclidean distance
+        if (indexDims >= 1) {
+            diff = (double)(query[0] - indexPoints[base]);
+            distance += diff * diff;
+        }
+        if (indexDims >= 2) {
+            diff = (double)(query[1] - indexPoints[base + 1]);
+            distance += diff * diff;
+        }
+        if (indexDims >= 3) {
+            diff = (double)(query[2] - indexPoints[base + 2]);
+            distance += diff * diff;
+        }
+        heapSize = offerNeighbour(index, distance, mid, heapDistances, heapExamples, heapSize);
+        double planeDiff = 0;
+        if (indexDims > 0) {
+            int axis = depth % indexDims;
+            planeDiff = (double)(query[axis] - indexPoints[base + axis]);
+        }
+        if (planeDiff < 0) {
+            heapSize = searchIndex(index, lo, mid, depth + 1, query, heapDistances, heapExamples, heapSize);
+            if ((heapSize < theK) || (planeDiff * planeDiff <= heapDistances[0])) {
+                heapSize = searchIndex(index, mid + 1, hi, depth + 1, query, heapDistances, heapExamples, heapSize);
+            }
+        } else {
+            heapSize = searchIndex(index, mid + 1, hi, depth + 1, query, heapDistances, heapExamples, heapSize);
+            if ((heapSize < theK) || (planeDiff * planeDiff <= heapDistances[0])) {
+                heapSize = searchIndex(index, lo, mid, depth + 1, query, heapDistances, heapExamples, heapSize);
+            }
+        }
+        return heapSize;
+    }
+
+
+    /**
+     * Function to offer an example to the bounded max-heap of neighbours.
+     * Ties in distance are broken by the training order of the examples,
+     * as the linear search does.
+     *
+     * @param index The k-d tree.
+     * @param distance The squared distance of the example.
+     * @param example The position of the example in the tree.
+     * @param heapDistances The squared distances of the heap.
+     * @param heapExamples The examples of the heap.
+     * @param heapSize The present size of the heap.
+     *
+     * @return The new size of the heap.
+     */
+    private int offerNeighbour(Index index, double distance, int example, double[] heapDistances,
+        int[] heapExamples, int heapSize) {
+        int pos, parent, child;
+        if (heapSize < theK) {
+            // Sift up
+            pos = heapSize;
+            while (pos > 0) {
+                parent = (pos - 1) >>> 1;
+                if (isFarther(index, distance, example, heapDistances[parent], heapExamples[parent])) {
+                    heapDistances[pos] = heapDistances[parent];
+                    heapExamples[pos] = heapExamples[parent];
+                    pos = parent;
+                } else {
+                    break;
+                }
+            }
+            heapDistances[pos] = distance;
+            heapExamples[pos] = example;
+            heapSize++;
+        } else if (isFarther(index, heapDistances[0], heapExamples[0], distance, example)) {
+            // Replace the root and sift down
+            pos = 0;
+            child = 1;
+            while (child < heapSize) {
+                if ((child + 1 < heapSize) && isFarther(index, heapDistances[child + 1], heapExamples[child + 1],
+                heapDistances[child], heapExamples[child])) {
+                    child++;
+                }
+                if (isFarther(index, heapDistances[child], heapExamples[child], distance, example)) {
+                    heapDistances[pos] = heapDistances[child];
+                    heapExamples[pos] = heapExamples[child];
+                    pos = child;
+                    child = 2 * pos + 1;
+                } else {
+                    break;
+                }
+            }
+            heapDistances[pos] = distance;
+            heapExamples[pos] = example;
+        }
+        return heapSize;
+    }
+
+
+    /**
+     * Function to compare two neighbours.
+     *
+     * @param index The k-d tree.
+     * @param distance1 The squared distance of the first neighbour.
+     * @param example1 The position of the first neighbour in the tree.
+     * @param distance2 The squared distance of the second neighbour.
+     * @param example2 The position of the second neighbour in the tree.
+     *
+     * @return True if the first neighbour is farther than the second one.
+     */
+    private boolean isFarther(Index index, double distance1, int example1, double distance2, int example2) {
+        if (distance1 != distance2) {
+            return distance1 > distance2;
+        } else {
+            return index.order[example1] > index.order[example2];
+        }
+    }
+
+
+    /**
+     * Method to sort the neighbours of the heap from the nearest to the
+     * farthest one (Insertion sort, since k is small).
+     *
+     * @param index The k-d tree.
+     * @param heapDistances The squared distances of the heap.
+     * @param heapExamples The examples of the heap.
+     */
+    private void sortNeighbours(Index index, double[] heapDistances, int[] heapExamples) {
+        double auxDistance;
+        int auxExample;
+        int j;
+        for (int i = 1; i < heapDistances.length; i++) {
+            auxDistance = heapDistances[i];
+            auxExample = heapExamples[i];
+            j = i - 1;
+            while ((j >= 0) && isFarther(index, heapDistances[j], heapExamples[j], auxDistance, auxExample)) {
+                heapDistances[j + 1] = heapDistances[j];
+                heapExamples[j + 1] = heapExamples[j];
+                j--;
+            }
+            heapDistances[j + 1] = auxDistance;
+            heapExamples[j + 1] = auxExample;
+        }
+    }
+
+
+    /**
+     * Method to train the classifier, i.e., to build the k-d tree of the
+     * training examples.
+     * If it is not invoked, the tree is built with the first query.
      */
     /* (non-Javadoc)
      * @see emolib.classifier.Classifier#trainingProcedure()
      */
     public void trainingProcedure() {
+        buildIndex();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.classifier.Classifier#inputTrainingExample(emolib.classifier.FeatureBox, java.lang.String)
+     */
+    @Override
+    public void inputTrainingExample(FeatureBox features, String cat) {
+        super.inputTrainingExample(features, cat);
+        theIndex = null;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.classifier.Classifier#resetExamples()
+     */
+    @Override
+    public void resetExamples() {
+        super.resetExamples();
+        theIndex = null;
     }
 
 
@@ -227,5 +498,120 @@ public class KNearestNeighbour extends Classifier {
     public void load(String path) {
     }
 
-}
 
+    /**
+     * The k-d tree of the training examples, kept in primitive arrays.
+     */
+    private static class Index {
+
+        private float[] points;
+        private int[] categories;
+        private int[] order;
+        private ArrayList<String> categoryNames;
+        private int dims;
+
+    }
+
+
+    /**
+     * Functionality test of the k-d tree against a linear scan of the examples.
+     */
+    @Test public void treeSearch() {
+        Random random = new Random(1);
+        String[] categories = {"NEG", "NEU", "POS", "SUR"};
+        int[] numNeighbours = {1, 3, 7};
+        for (int dims = 1; dims <= 3; dims++) {
+            KNearestNeighbour knn = new KNearestNeighbour();
+            knn.setNumberOfEmotionalDimensions(dims);
+            ArrayList<float[]> points = new ArrayList<float[]>();
+            ArrayList<String> labels = new ArrayList<String>();
+            for (int example = 0; example < 300; example++) {
+                float[] point = {9 * random.nextFloat(), 9 * random.nextFloat(), 9 * random.nextFloat()};
+                String label = categories[random.nextInt(categories.length)];
+                points.add(point);
+                labels.add(label);
+                knn.inputTrainingExample(createFeatures(point), label);
+                // The tree is rebuilt after new examples are input.
+                if (example == 150) {
+                    knn.train();
+                }
+            }
+            knn.train();
+            for (int k = 0; k < numNeighbours.length; k++) {
+                knn.setNumberOfNeighbours(numNeighbours[k]);
+                for (int query = 0; query < 200; query++) {
+                    float[] point = {9 * random.nextFloat(), 9 * random.nextFloat(), 9 * random.nextFloat()};
+                    Assert.assertEquals(linearScan(points, labels, point, dims, numNeighbours[k]),
+                        knn.getCategory(createFeatures(point)));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Function to classify a point with a linear scan of the examples, voting
+     * as the k-NN does: the ties go to the category of the nearest example.
+     *
+     * @param points The coordinates of the examples.
+     * @param labels The categories of the examples.
+     * @param query The point.
+     * @param dims The number of dimensions.
+     * @param k The number of neighbours.
+     *
+     * @return The majority category.
+     */
+    private String linearScan(ArrayList<float[]> points, ArrayList<String> labels, float[] query, int dims,
+        int k) {
+        double[] distances = new double[points.size()];
+        boolean[] taken = new boolean[points.size()];
+        for (int example = 0; example < points.size(); example++) {
+            for (int dim = 0; dim < dims; dim++) {
+                double diff = (double)(query[dim] - points.get(example)[dim]);
+                distances[example] += diff * diff;
+            }
+        }
+        ArrayList<String> candidates = new ArrayList<String>();
+        HashMap<String, Integer> scores = new HashMap<String, Integer>();
+        for (int neighbour = 0; neighbour < k; neighbour++) {
+            int nearest = -1;
+            for (int example = 0; example < points.size(); example++) {
+                if (!taken[example] && ((nearest == -1) || (distances[example] < distances[nearest]))) {
+                    nearest = example;
+                }
+            }
+            taken[nearest] = true;
+            String label = labels.get(nearest);
+            if (!scores.containsKey(label)) {
+                candidates.add(label);
+                scores.put(label, new Integer(0));
+            }
+            scores.put(label, new Integer(scores.get(label).intValue() + 1));
+        }
+        String majority = candidates.get(0);
+        for (int candidate = 1; candidate < candidates.size(); candidate++) {
+            if (scores.get(candidates.get(candidate)).intValue() > scores.get(majority).intValue()) {
+                majority = candidates.get(candidate);
+            }
+        }
+        return majority;
+    }
+
+
+    /**
+     * Function to create the features of an example.
+     *
+     * @param point The valence, activation and control.
+     *
+     * @return The features.
+     */
+    private FeatureBox createFeatures(float[] point) {
+        FeatureBox feat = new FeatureBox();
+        feat.setNumberOfEmotionalDimensions(3);
+        feat.setValence(point[0]);
+        feat.setActivation(point[1]);
+        feat.setControl(point[2]);
+        return feat;
+    }
+
+}
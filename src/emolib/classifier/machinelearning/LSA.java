@@ -18,13 +18,13 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
 
 import emolib.classifier.machinelearning.ARNReduced.Graph;
 
 import com.aliasi.matrix.SvdMatrix;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.HashMap;
 import java.lang.Math;
@@ -43,14 +43,24 @@ import org.junit.Assert;
  * (right singular vectors) and the query text vectors (obtained by
  * adding the observed term vectors, i.e., the left singular vectors)
  * is used to make decisions in the reduced latent space.
+ * The category vectors are scaled and normalised beforehand, so a query text is
+ * projected only once and then compared to all the categories with a dot product.
+ * Batches of texts are scored at once with a single matrix product
+ * (see getCategories).
  * </p>
  * <p>
  * The core implementation of this LSA classifier is based on
  * <a href="http://alias-i.com/lingpipe/index.html">LingPipe</a>.
  * The same term weighting schemes as the ones used in the ARN-R are considered.
  * </p>
+ * <p>
+ * Alternatively, the SVD can be computed with a randomized algorithm on a sparse
+ * term-document matrix (see SparseSVD), which is much faster and does not need
+ * the dense matrix in memory, so that large vocabularies can be handled.
+ * </p>
  *
  * @see emolib.classifier.machinelearning.ARNReduced
+ * @see emolib.classifier.machinelearning.SparseSVD
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
@@ -62,8 +72,13 @@ public class LSA extends Classifier {
     private double[][] theDocVectors;
     //
     private ArrayList<String> theTerms;
+    private HashMap<String, Integer> theTermRows;
     private ArrayList<String> theCategoryLabels;
-    private ArrayList<ArrayList<Double>> theCategoryVectors;
+    // Scaled and normalised category vectors, indexed as [category][factor]
+    private double[][] theCategoryVectors;
+    //
+    private String theSVDEngine;
+    private int numberOfFactors;
 
     // Term Weighting scheme core
     private ARNReduced theARNR;
@@ -83,6 +98,7 @@ public class LSA extends Classifier {
         theTWMeasure = "binary";
         theBigramFreq = false;
         theTerms = null;
+        theTermRows = null;
         theScales = null;
         theTermVectors = null;
         theDocVectors = null;
@@ -91,6 +107,8 @@ public class LSA extends Classifier {
         posTags = false;
         stemming = false;
         synonyms = false;
+        theSVDEngine = "gradient";
+        numberOfFactors = 2;
     }
 
 
@@ -98,70 +116,113 @@ public class LSA extends Classifier {
      * @see emolib.classifier.Classifier#getCategory(emolib.classifier.FeatureBox)
      */
     public String getCategory(FeatureBox inputFeatures) {
-        String mostProbableCategory = theCategoryLabels.get(0);
-        double similarity = getSimilarity(inputFeatures, mostProbableCategory);
+        if (theCategoryVectors == null) {
+            return null;
+        }
+        double[] inputVector = projectText(inputFeatures);
+        int mostProbableCategory = 0;
+        double similarity = getSimilarity(inputVector, 0);
+        double catSimilarity;
         for (int i = 1; i < theCategoryLabels.size(); i++) {
-            if (getSimilarity(inputFeatures, theCategoryLabels.get(i)) > similarity) {
-                mostProbableCategory = theCategoryLabels.get(i);
-                similarity = getSimilarity(inputFeatures, theCategoryLabels.get(i));
+            catSimilarity = getSimilarity(inputVector, i);
+            if (catSimilarity > similarity) {
+                mostProbableCategory = i;
+                similarity = catSimilarity;
             }
         }
         //
-        return mostProbableCategory;
+        return theCategoryLabels.get(mostProbableCategory);
     }
 
 
     /**
-     * Function to retrieve the similarity of a given text with a given category.
+     * Function to classify a batch of texts at once.
+     * The texts are projected onto the latent space and the resulting
+     * text-factor matrix is multiplied by the category-factor matrix.
      *
-     * @param inputText The given text.
-     * @param cat The given category.
+     * @param inputTexts The texts to classify.
      *
-     * @return The resulting similarity.
+     * @return The categories of the texts (null if the classifier is not trained).
      */
-    private double getSimilarity(FeatureBox inputText, String cat) {
-        double similarity = 0;
-        double[] inputVector;
-        ArrayList<String> inputTerms = theARNR.buildGraph(inputText).getArrayOfTerms();
-        for (int i = 0; i < theCategoryLabels.size(); i++) {
-            if (cat.equals(theCategoryLabels.get(i))) {
-                inputVector = new double[theScales.length];
-                Arrays.fill(inputVector, 0.0);
-                for (int term = 0; term < inputTerms.size(); term++) {
-                    addTermVector(inputTerms.get(term), inputVector);
+    public String[] getCategories(ArrayList<FeatureBox> inputTexts) {
+        if (theCategoryVectors == null) {
+            return new String[inputTexts.size()];
+        }
+        int numFactors = theScales.length;
+        int numCategories = theCategoryLabels.size();
+        double[][] textVectors = new double[inputTexts.size()][];
+        for (int text = 0; text < inputTexts.size(); text++) {
+            textVectors[text] = projectText(inputTexts.get(text));
+        }
+        // Text-category similarities, indexed as [text][category]
+        double[][] similarities = new double[inputTexts.size()][numCategories];
+        double[] textVector;
+        double[] textSimilarities;
+        double[] catVector;
+        for (int text = 0; text < textVectors.length; text++) {
+            textVector = textVectors[text];
+            textSimilarities = similarities[text];
+            for (int cat = 0; cat < numCategories; cat++) {
+                catVector = theCategoryVectors[cat];
+                for (int k = 0; k < numFactors; k++) {
+                    textSimilarities[cat] += textVector[k] * catVector[k];
                 }
-                // here
-                ArrayList<Double> categoryVector = theCategoryVectors.get(i);
-                double[] catVector = new double[categoryVector.size()];
-                for (int j = 0; j < categoryVector.size(); j++) {
-                    catVector[j] = categoryVector.get(j).doubleValue();
+            }
+        }
+        String[] categories = new String[inputTexts.size()];
+        int mostProbableCategory;
+        for (int text = 0; text < categories.length; text++) {
+            mostProbableCategory = 0;
+            for (int cat = 1; cat < numCategories; cat++) {
+                if (similarities[text][cat] > similarities[text][mostProbableCategory]) {
+                    mostProbableCategory = cat;
                 }
-                similarity = cosine(inputVector, catVector);
-                break;
             }
+            categories[text] = theCategoryLabels.get(mostProbableCategory);
         }
-        //
-        return similarity;
+        return categories;
     }
 
 
     /**
-     * Function to create the weighted vector apt for this classifier.
+     * Function to project a given text onto the latent space.
+     * The observed term vectors are added up and scaled by the square root
+     * of the singular values.
      *
-     * @param lexvect The TW vector of lexical features.
-     * @param fbox All the feats.
+     * @param inputText The given text.
      *
-     * @return The weighted vector.
+     * @return The scaled text vector.
      */
-    private double[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
-        int offset = 0;
-        double[] weightedVector = new double[totalen];
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = (double)lexvect[i];
+    private double[] projectText(FeatureBox inputText) {
+        double[] inputVector = new double[theScales.length];
+        ArrayList<String> inputTerms = theARNR.buildGraph(inputText).getArrayOfTerms();
+        for (int term = 0; term < inputTerms.size(); term++) {
+            addTermVector(inputTerms.get(term), inputVector);
+        }
+        for (int k = 0; k < inputVector.length; k++) {
+            inputVector[k] *= Math.sqrt(theScales[k]);
         }
-        offset += lexvect.length;
-        return weightedVector;
+        return inputVector;
+    }
+
+
+    /**
+     * Function to retrieve the similarity of a given projected text with a
+     * given category. Since the category vectors are normalised, this is
+     * proportional to the cosine, which suffices to rank the categories.
+     *
+     * @param inputVector The scaled text vector.
+     * @param cat The index of the category.
+     *
+     * @return The resulting similarity.
+     */
+    private double getSimilarity(double[] inputVector, int cat) {
+        double similarity = 0;
+        double[] catVector = theCategoryVectors[cat];
+        for (int k = 0; k < inputVector.length; k++) {
+            similarity += inputVector[k] * catVector[k];
+        }
+        return similarity;
     }
 
 
@@ -196,27 +257,28 @@ public class LSA extends Classifier {
 
 
     /**
-     * Function to compute the cosine between two given vectors as a
-     * similarity measure.
+     * Method to set the SVD engine, i.e., "gradient" for the LingPipe
+     * gradient descent on the dense term-document matrix (default), or
+     * "randomized" for the randomized SVD on the sparse matrix.
      *
-     * @param xs The first vector.
-     * @param ys The second vector.
-     *
-     * @return The cosine between the two vectors.
+     * @param engine The SVD engine.
      */
-    private double cosine(double[] xs, double[] ys) {
-        double product = 0.0;
-        double xsLengthSquared = 0.0;
-        double ysLengthSquared = 0.0;
-        for (int k = 0; k < xs.length; ++k) {
-            double sqrtScale = Math.sqrt(theScales[k]);
-            double scaledXs = sqrtScale * xs[k];
-            double scaledYs = sqrtScale * ys[k];
-            xsLengthSquared += scaledXs * scaledXs;
-            ysLengthSquared += scaledYs * scaledYs;
-            product += scaledXs * scaledYs;
+    public void setSVDEngine(String engine) {
+        if (engine.equals("gradient") || engine.equals("randomized")) {
+            theSVDEngine = engine;
+        } else {
+            System.out.println("LSA: unknown SVD engine!");
         }
-        return product / Math.sqrt(xsLengthSquared * ysLengthSquared);
+    }
+
+
+    /**
+     * Method to set the number of factors of the latent semantic space.
+     *
+     * @param numFactors The number of factors.
+     */
+    public void setNumberOfFactors(int numFactors) {
+        numberOfFactors = numFactors;
     }
 
 
@@ -240,65 +302,99 @@ public class LSA extends Classifier {
         HashMap<String, Integer> categoryHash = theARNR.getCategoryHash();
         theCategoryLabels = theARNR.getCategoryList();
         // Terms
-        Graph tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(new FeatureBox("foo")));
-        theTerms = tempGraph.getArrayOfTerms();
-        // Time to build the term-document matrix, indexed as matrix[row][col]
-        // i.e., matrix[term][doc]
-        double[][] termDocMatrix = new double[theTerms.size()][exampleFeatures.size()];
-        float[] tmpVector;
-        double[] weightedVector;
+        theTerms = theARNR.getVocabularyGraph().getArrayOfTerms();
+        theTermRows = new HashMap<String, Integer>(2 * theTerms.size());
+        for (int row = 0; row < theTerms.size(); row++) {
+            // A repeated term keeps its first row, as indexOf did.
+            if (!theTermRows.containsKey(theTerms.get(row))) {
+                theTermRows.put(theTerms.get(row), new Integer(row));
+            }
+        }
+        // Time to build the term-document matrix, by columns (documents)
+        ArrayList<SparseVector> docVectors = new ArrayList<SparseVector>(exampleFeatures.size());
         for (int docNum = 0; docNum < exampleFeatures.size(); docNum++) {
-            tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(exampleFeatures.get(docNum)));
-            theARNR.applyTermWeighing(tempGraph, categoryHash.get(exampleCategories.get(docNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector, exampleFeatures.get(docNum));
-            for (int termNum = 0; termNum < weightedVector.length; termNum++) {
-                termDocMatrix[termNum][docNum] = weightedVector[termNum];
+            docVectors.add(theARNR.buildSparseVector(theARNR.buildGraph(exampleFeatures.get(docNum)),
+                categoryHash.get(exampleCategories.get(docNum)).intValue()));
+        }
+        if (theSVDEngine.equals("randomized")) {
+            SparseSVD matrix = new SparseSVD(docVectors, theTerms.size());
+            try {
+                matrix.decompose(numberOfFactors);
+            } catch (IllegalStateException e) {
+                System.out.println("LSA: the randomized SVD failed, the classifier is not trained!");
+                e.printStackTrace();
+                theScales = null;
+                theTermVectors = null;
+                theDocVectors = null;
+                theCategoryVectors = null;
+                return;
             }
+            // Final training results
+            theScales = matrix.singularValues();
+            theTermVectors = matrix.leftSingularVectors();
+            theDocVectors = matrix.rightSingularVectors();
+        } else {
+            // Dense matrix, indexed as matrix[row][col], i.e., matrix[term][doc]
+            double[][] termDocMatrix = new double[theTerms.size()][exampleFeatures.size()];
+            SparseVector weightedVector;
+            for (int docNum = 0; docNum < exampleFeatures.size(); docNum++) {
+                weightedVector = docVectors.get(docNum);
+                for (int v = 0; v < weightedVector.getNumberOfValues(); v++) {
+                    termDocMatrix[weightedVector.getIndex(v)][docNum] = (double)weightedVector.getValue(v);
+                }
+            }
+            // SVD decomposition parameters
+            int maxFactors = numberOfFactors;
+            double featureInit = 0.01;
+            double initialLearningRate = 0.005;
+            int annealingRate = 1000;
+            double regularization = 0.00;
+            double minImprovement = 0.0000;
+            int minEpochs = 10;
+            int maxEpochs = 50000;
+            //
+            SvdMatrix matrix = SvdMatrix.svd(termDocMatrix,
+                maxFactors,
+                featureInit,
+                initialLearningRate,
+                annealingRate,
+                regularization,
+                null,
+                minImprovement,
+                minEpochs,
+                maxEpochs);
+            // Final training results
+            theScales = matrix.singularValues();
+            theTermVectors = matrix.leftSingularVectors();
+            theDocVectors = matrix.rightSingularVectors();
         }
-        // SVD decomposition parameters
-        int maxFactors = 2;
-        double featureInit = 0.01;
-        double initialLearningRate = 0.005;
-        int annealingRate = 1000;
-        double regularization = 0.00;
-        double minImprovement = 0.0000;
-        int minEpochs = 10;
-        int maxEpochs = 50000;
-        //
-        SvdMatrix matrix = SvdMatrix.svd(termDocMatrix,
-            maxFactors,
-            featureInit,
-            initialLearningRate,
-            annealingRate,
-            regularization,
-            null,
-            minImprovement,
-            minEpochs,
-            maxEpochs);
-        // Final training results
-        theScales = matrix.singularValues();
-        theTermVectors = matrix.leftSingularVectors();
-        theDocVectors = matrix.rightSingularVectors();
         // Extraction of the category vectors
         ArrayList<Graph> listOfCatGraphs = theARNR.getCategoryGraphs();
+        Graph tempGraph;
         ArrayList<String> categoryTerms;
         double[] categoryVector;
-        ArrayList<Double> catV;
-        theCategoryVectors = new ArrayList<ArrayList<Double>>();
+        double norm;
+        theCategoryVectors = new double[theCategoryLabels.size()][];
         for (int catLabNum = 0; catLabNum < theCategoryLabels.size(); catLabNum++) {
             tempGraph = listOfCatGraphs.get(catLabNum);
             categoryTerms = tempGraph.getArrayOfTerms();
             categoryVector = new double[theScales.length];
-            Arrays.fill(categoryVector, 0.0);
             for (int term = 0; term < categoryTerms.size(); term++) {
                 addTermVector(categoryTerms.get(term), categoryVector);
             }
-            catV = new ArrayList<Double>();
-            for (int i = 0; i < categoryVector.length; i++) {
-                catV.add(new Double(categoryVector[i]));
+            // Scaled and normalised
+            norm = 0;
+            for (int k = 0; k < categoryVector.length; k++) {
+                categoryVector[k] *= Math.sqrt(theScales[k]);
+                norm += categoryVector[k] * categoryVector[k];
+            }
+            norm = Math.sqrt(norm);
+            if (norm > 0) {
+                for (int k = 0; k < categoryVector.length; k++) {
+                    categoryVector[k] /= norm;
+                }
             }
-            theCategoryVectors.add(catV);
+            theCategoryVectors[catLabNum] = categoryVector;
         }
     }
 
@@ -311,8 +407,9 @@ public class LSA extends Classifier {
      * @param categoryVector The category vector to be computed.
      */
     private void addTermVector(String term, double[] categoryVector) {
-        if (theTerms.contains(term)) {
-            int indexTerm = theTerms.indexOf(term);
+        Integer row = theTermRows.get(term);
+        if (row != null) {
+            int indexTerm = row.intValue();
             for (int dim = 0; dim < theScales.length; dim++) {
                 categoryVector[dim] += theTermVectors[indexTerm][dim];
             }
@@ -375,6 +472,7 @@ public class LSA extends Classifier {
         super.resetExamples();
         theARNR = null;
         theTerms = null;
+        theTermRows = null;
         theScales = null;
         theTermVectors = null;
         theDocVectors = null;
@@ -18,6 +18,8 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
+import emolib.classifier.OnlineClassifier;
 
 import emolib.classifier.machinelearning.ARNReduced.Graph;
 
@@ -35,14 +37,21 @@ import org.junit.Assert;
  * <p>
  * The same IR weighting schemes as the ones used in the ARN-R are 
  * considered.
+ * Alternatively, the features may be hashed into a feature space of fixed
+ * size (see FeatureHasher), thus avoiding the vocabulary altogether.
+ * In that case, the classifier can also be trained online with single
+ * SGD steps, and models can be merged by parameter averaging.
  * </p>
  *
+ * @see emolib.classifier.machinelearning.FeatureHasher
+ * @see emolib.classifier.OnlineClassifier
+ *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
-public class Logistic extends Classifier {
+public class Logistic extends Classifier implements OnlineClassifier {
 
     // Core
-    private ArrayList<ArrayList<Double>> theBetas;
+    private double[][] theBetas;
 
     // Term Weighting scheme core
     private ARNReduced arnR;
@@ -57,6 +66,13 @@ public class Logistic extends Classifier {
     //
     private HashMap<String, Integer> categoryHash;
 
+    // Feature hashing core
+    private boolean featureHashing;
+    private int hashingBits;
+    private FeatureHasher hasher;
+    private ArrayList<String> hashedCategories;
+    private int numSeenExamples;
+
 
     /**
      * Main constructor of this logistic regression classifier.
@@ -73,6 +89,11 @@ public class Logistic extends Classifier {
         synonyms = false;
         emotionDims = false;
         negation = false;
+        featureHashing = false;
+        hashingBits = 18;
+        hasher = null;
+        hashedCategories = null;
+        numSeenExamples = 0;
     }
 
 
@@ -81,18 +102,15 @@ public class Logistic extends Classifier {
      * FeatureBox)
      */
     public String getCategory(FeatureBox inputFeatures) {
+        if (featureHashing) {
+            return getHashedCategory(inputFeatures);
+        }
         Iterator categoryLabels = arnR.getCategoryList().iterator();
         String catLab = (String)categoryLabels.next();
         int catNum = categoryHash.get(catLab);
-        Graph tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-        arnR.applyTermWeighing(tempGraph, catNum);
-        float[] tmpVector = tempGraph.exportWeighedVector();
-        double[] weightedVector = createWeightedVector(tmpVector,
-            inputFeatures);
-        ArrayList<Double> wVector = new ArrayList<Double>();
-        for (int i = 0; i < weightedVector.length; i++) {
-            wVector.add(new Double(weightedVector[i]));
-        }
+        Graph inputGraph = arnR.buildGraph(inputFeatures);
+        SparseVector wVector = createWeightedVector(
+            arnR.buildSparseVector(inputGraph, catNum), inputFeatures);
         double probability = calcProbability(catNum, wVector);
         String newCatLab;
         int newCatNum;
@@ -100,14 +118,8 @@ public class Logistic extends Classifier {
         while (categoryLabels.hasNext()) {
             newCatLab = (String)categoryLabels.next();
             newCatNum = categoryHash.get(newCatLab);
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-            arnR.applyTermWeighing(tempGraph, newCatNum);
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector, inputFeatures);
-            wVector = new ArrayList<Double>();
-            for (int i = 0; i < weightedVector.length; i++) {
-                wVector.add(new Double(weightedVector[i]));
-            }
+            wVector = createWeightedVector(
+                arnR.buildSparseVector(inputGraph, newCatNum), inputFeatures);
             newProb = calcProbability(newCatNum, wVector);
             if (newProb > probability) {
                 probability = newProb;
@@ -119,49 +131,91 @@ public class Logistic extends Classifier {
     }
 
 
+    /**
+     * Function to classify a text with the hashed features.
+     * Since the hashed vector does not depend on the category, it is
+     * built only once.
+     *
+     * @param inputFeatures The features of the text.
+     *
+     * @return The category.
+     */
+    private String getHashedCategory(FeatureBox inputFeatures) {
+        SparseVector wVector = createWeightedVector(
+            hasher.buildSparseVector(inputFeatures), inputFeatures);
+        int maxCat = 0;
+        double probability = 0;
+        double newProb;
+        for (int cat = 0; cat < hashedCategories.size(); cat++) {
+            newProb = calcProbability(cat, wVector);
+            if ((cat == 0) || (newProb > probability)) {
+                probability = newProb;
+                maxCat = cat;
+            }
+        }
+        return hashedCategories.get(maxCat);
+    }
+
+
     /**
      * Function to create the weighted vector apt for this classifier.
      *
-     * @param lexvect The TW vector of lexical features.
+     * @param lexvect The TW sparse vector of lexical features.
      * @param fbox All the feats.
      *
-     * @return The weighted vector.
+     * @return The weighted sparse vector.
      */
-    private double[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
+    private SparseVector createWeightedVector(SparseVector lexvect,
+        FeatureBox fbox) {
+        int totalen = lexvect.getDimension();
+        int numValues = lexvect.getNumberOfValues();
         int offset = 0;
+        int pos = 0;
         if (interceptFeat) {
             totalen++;
+            numValues++;
         }
         if (emotionDims) {
             totalen += 3;
+            numValues += 3;
         }
         if (negation) {
             totalen++;
+            numValues++;
         }
-        double[] weightedVector = new double[totalen];
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
         if (interceptFeat) {
-            weightedVector[0] = (double)1;
+            indices[pos] = 0;
+            values[pos] = (float)1;
+            pos++;
             offset++;
         }
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = (double)lexvect[i];
+        for (int i = 0; i < lexvect.getNumberOfValues(); i++) {
+            indices[pos] = lexvect.getIndex(i) + offset;
+            values[pos] = lexvect.getValue(i);
+            pos++;
         }
-        offset += lexvect.length;
+        offset += lexvect.getDimension();
         if (emotionDims) {
-            weightedVector[offset] = (double)fbox.getValence();
-            weightedVector[offset + 1] = (double)fbox.getActivation();
-            weightedVector[offset + 2] = (double)fbox.getControl();
+            indices[pos] = offset;
+            values[pos] = fbox.getValence();
+            indices[pos + 1] = offset + 1;
+            values[pos + 1] = fbox.getActivation();
+            indices[pos + 2] = offset + 2;
+            values[pos + 2] = fbox.getControl();
+            pos += 3;
             offset += 3;
         }
         if (negation) {
+            indices[pos] = offset;
             if (fbox.getNegation()) {
-                weightedVector[offset] = (double)1;
+                values[pos] = (float)1;
             } else {
-                weightedVector[offset] = (double)0;
+                values[pos] = (float)0;
             }
         }
-        return weightedVector;
+        return new SparseVector(indices, values, totalen);
     }
 
 
@@ -174,39 +228,51 @@ public class Logistic extends Classifier {
     public void trainingProcedure() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
-        arnR = new ARNReduced();
-        setFeatureWeights();
-        Iterator exFeat = exampleFeatures.iterator();
-        Iterator exCat = exampleCategories.iterator();
-        while (exFeat.hasNext() && exCat.hasNext()) {
-            arnR.inputTrainingExample((FeatureBox)exFeat.next(),
-                (String)exCat.next());
+        if (featureHashing) {
+            hasher = new FeatureHasher();
+            hasher.setNumberOfBits(hashingBits);
+            setFeatureWeights();
+            categoryHash = new HashMap<String, Integer>();
+            hashedCategories = new ArrayList<String>();
+            for (int exNum = 0; exNum < exampleCategories.size(); exNum++) {
+                if (!categoryHash.containsKey(exampleCategories.get(exNum))) {
+                    categoryHash.put(exampleCategories.get(exNum),
+                        new Integer(hashedCategories.size()));
+                    hashedCategories.add(exampleCategories.get(exNum));
+                }
+            }
+        } else {
+            arnR = new ARNReduced();
+            setFeatureWeights();
+            Iterator exFeat = exampleFeatures.iterator();
+            Iterator exCat = exampleCategories.iterator();
+            while (exFeat.hasNext() && exCat.hasNext()) {
+                arnR.inputTrainingExample((FeatureBox)exFeat.next(),
+                    (String)exCat.next());
+            }
+            arnR.train();
+            categoryHash = arnR.getCategoryHash();
         }
-        arnR.train();
-        categoryHash = arnR.getCategoryHash();
         // Time to train the logistic regression
         int[] goldStandardCats = new int[exampleCategories.size()];
-        ArrayList<ArrayList<Double>> goldStandardFeats =
-            new ArrayList<ArrayList<Double>>();
+        ArrayList<SparseVector> goldStandardFeats =
+            new ArrayList<SparseVector>();
         //
-        Graph tempGraph;
-        double[] weightedVector;
-        float[] tmpVector;
         for (int exNum = 0; exNum < exampleFeatures.size(); exNum++) {
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(exampleFeatures.
-                get(exNum)));
-            arnR.applyTermWeighing(tempGraph,
-                categoryHash.get(exampleCategories.get(exNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector,
-                exampleFeatures.get(exNum));
-            goldStandardFeats.add(new ArrayList<Double>());
-            for (int f = 0; f < weightedVector.length; f++) {
-                goldStandardFeats.get(exNum).add(new Double(weightedVector[f]));
+            if (featureHashing) {
+                goldStandardFeats.add(createWeightedVector(
+                    hasher.buildSparseVector(exampleFeatures.get(exNum)),
+                    exampleFeatures.get(exNum)));
+            } else {
+                goldStandardFeats.add(createWeightedVector(arnR.buildSparseVector(
+                    arnR.buildGraph(exampleFeatures.get(exNum)),
+                    categoryHash.get(exampleCategories.get(exNum)).intValue()),
+                    exampleFeatures.get(exNum)));
             }
             goldStandardCats[exNum] = categoryHash.
                 get(exampleCategories.get(exNum)).intValue();
         }
+        numSeenExamples = exampleFeatures.size();
         estimateLogistic(goldStandardFeats, goldStandardCats,
             0.001, // learning rate
             0.001, // min improve
@@ -224,42 +290,18 @@ public class Logistic extends Classifier {
      * @param maxepochs The maximum number of epochs.
      */
     private void estimateLogistic(
-        ArrayList<ArrayList<Double>> feats,
+        ArrayList<SparseVector> feats,
         int[] cats,
         double lrate,
         double impr,
         int maxepochs) {
         // Initialisation
-        theBetas = new ArrayList<ArrayList<Double>>();
-        for (int c = 0; c < categoryHash.size(); c++) {
-            theBetas.add(new ArrayList<Double>());
-            for (int d = 0; d < feats.get(0).size(); d++) {
-                theBetas.get(c).add(new Double("0"));
-            }
-        }
-        double partition, exp, update, newErr;
+        theBetas = new double[categoryHash.size()][feats.get(0).getDimension()];
+        double newErr;
         double error = calcError(feats, cats);
         for (int epoch = 0; epoch < maxepochs; epoch++) {
             for (int ex = 0; ex < cats.length; ex++) {
-                partition = calcPartition(feats.get(ex));
-                for (int cat = 0; cat < (theBetas.size() - 1); cat++) {
-                    exp = calcExp(cat, feats.get(ex));
-                    for (int dim = 0; dim < feats.get(0).size(); dim++) {
-                        if (cat == cats[ex]) {
-                            update = 1;
-                        } else {
-                            update = 0;
-                        }
-                        update -= exp / partition;
-                        // The update corresponds to the derivative of
-                        // Err_l(beta,D)
-                        update *= (double)(-1) * feats.get(ex).get(dim).
-                            doubleValue();
-                        theBetas.get(cat).set(dim,
-                            new Double(theBetas.get(cat).get(dim).
-                            doubleValue() - lrate * update));
-                    }
-                }
+                descendGradient(feats.get(ex), cats[ex], lrate);
             }
             newErr = calcError(feats, cats);
             if (relDiff(newErr, error) < impr) {
@@ -271,6 +313,159 @@ public class Logistic extends Classifier {
     }
 
 
+    /**
+     * Method to perform a step of the Stochastic Gradient Descent with
+     * one example.
+     *
+     * @param example The features of the example.
+     * @param exCat The category of the example.
+     * @param lrate The learning rate.
+     */
+    private void descendGradient(SparseVector example, int exCat, double lrate) {
+        double partition, exp, update;
+        partition = calcPartition(example);
+        for (int cat = 0; cat < (theBetas.length - 1); cat++) {
+            exp = calcExp(cat, example);
+            // Null features yield null updates, so only the
+            // observed ones are visited.
+            for (int v = 0; v < example.getNumberOfValues(); v++) {
+                if (cat == exCat) {
+                    update = 1;
+                } else {
+                    update = 0;
+                }
+                update -= exp / partition;
+                // The update corresponds to the derivative of
+                // Err_l(beta,D)
+                update *= (double)(-1) * (double)example.getValue(v);
+                theBetas[cat][example.getIndex(v)] -= lrate * update;
+            }
+        }
+    }
+
+
+    /**
+     * Method to fold a new example into the model with a single step of the
+     * Stochastic Gradient Descent (with the same learning rate as in batch
+     * training).
+     * Online training is only available with feature hashing, since the
+     * vocabulary of the ARN-R cannot grow.
+     *
+     * @param features The input features.
+     * @param cat The category of the input example.
+     *
+     * @throws IllegalStateException If feature hashing is not set.
+     */
+    public void update(FeatureBox features, String cat) {
+        if (!featureHashing) {
+            throw new IllegalStateException("Logistic: online training requires feature hashing!");
+        }
+        if (hasher == null) {
+            initHashedModel();
+        }
+        SparseVector example = createWeightedVector(
+            hasher.buildSparseVector(features), features);
+        int exCat = getHashedCategoryIndex(cat, example.getDimension());
+        descendGradient(example, exCat, 0.001);
+        numSeenExamples++;
+    }
+
+
+    /**
+     * Method to merge another Logistic into this one.
+     * The parameters are averaged according to the number of examples seen
+     * by each model. Both models must hash the same features into the same
+     * space.
+     *
+     * @param otherModel The other Logistic.
+     *
+     * @throws IllegalStateException If feature hashing is not set.
+     * @throws IllegalArgumentException If the other model is not a Logistic with the same hashed features.
+     */
+    public void merge(OnlineClassifier otherModel) {
+        if (!featureHashing) {
+            throw new IllegalStateException("Logistic: merging requires feature hashing!");
+        }
+        if (!(otherModel instanceof Logistic)) {
+            throw new IllegalArgumentException("Logistic: only another Logistic can be merged!");
+        }
+        Logistic other = (Logistic)otherModel;
+        if (!other.featureHashing || (other.hasher == null) || (other.hashingBits != hashingBits) ||
+        !other.TWMeasure.equals(TWMeasure) || (other.bigramFreq != bigramFreq) ||
+        (other.interceptFeat != interceptFeat) || (other.posTags != posTags) ||
+        (other.stemming != stemming) || (other.synonyms != synonyms) ||
+        (other.emotionDims != emotionDims) || (other.negation != negation)) {
+            throw new IllegalArgumentException("Logistic: the models to merge don't share the same " +
+                "hashed features!");
+        }
+        if (hasher == null) {
+            initHashedModel();
+        }
+        int totalExamples = numSeenExamples + other.numSeenExamples;
+        if (other.numSeenExamples == 0) {
+            return;
+        }
+        double weight = (double)numSeenExamples / (double)totalExamples;
+        double otherWeight = (double)other.numSeenExamples / (double)totalExamples;
+        int cat;
+        int dimension = other.theBetas[0].length;
+        // The betas of the categories unknown to one model are null for it.
+        if (theBetas != null) {
+            for (cat = 0; cat < theBetas.length; cat++) {
+                for (int b = 0; b < dimension; b++) {
+                    theBetas[cat][b] *= weight;
+                }
+            }
+        }
+        for (int otherCat = 0; otherCat < other.theBetas.length; otherCat++) {
+            cat = getHashedCategoryIndex(other.hashedCategories.get(otherCat), dimension);
+            for (int b = 0; b < dimension; b++) {
+                theBetas[cat][b] += otherWeight * other.theBetas[otherCat][b];
+            }
+        }
+        numSeenExamples = totalExamples;
+    }
+
+
+    /**
+     * Method to initialise an empty model with the hashed features.
+     */
+    private void initHashedModel() {
+        hasher = new FeatureHasher();
+        hasher.setNumberOfBits(hashingBits);
+        setFeatureWeights();
+        categoryHash = new HashMap<String, Integer>();
+        hashedCategories = new ArrayList<String>();
+        theBetas = null;
+        numSeenExamples = 0;
+    }
+
+
+    /**
+     * Function to retrieve the index of a category of the hashed model.
+     * Null betas are created for the category if it is new.
+     *
+     * @param cat The category.
+     * @param dimension The dimension of the weighted vectors.
+     *
+     * @return The index of the category.
+     */
+    private int getHashedCategoryIndex(String cat, int dimension) {
+        if (!categoryHash.containsKey(cat)) {
+            int numCats = hashedCategories.size();
+            categoryHash.put(cat, new Integer(numCats));
+            hashedCategories.add(cat);
+            double[][] betas = new double[numCats + 1][];
+            if (theBetas != null) {
+                System.arraycopy(theBetas, 0, betas, 0, numCats);
+            }
+            betas[numCats] = new double[dimension];
+            theBetas = betas;
+        }
+        return categoryHash.get(cat).intValue();
+    }
+
+
     /**
      * Calculates the exponential.
      * Namely, exp(- lambda_c · x).
@@ -280,13 +475,8 @@ public class Logistic extends Classifier {
      *
      * @return The exponential.
      */
-    private double calcExp(int cat, ArrayList<Double> feats) {
-        double e = 0;
-        for (int i = 0; i < feats.size(); i++) {
-            e += theBetas.get(cat).get(i).doubleValue() *
-               feats.get(i).doubleValue();
-        }
-        return Math.exp(e);
+    private double calcExp(int cat, SparseVector feats) {
+        return Math.exp(feats.dotProduct(theBetas[cat]));
     }
 
 
@@ -298,9 +488,9 @@ public class Logistic extends Classifier {
      *
      * @return The partition function.
      */
-    private double calcPartition(ArrayList<Double> feats) {
+    private double calcPartition(SparseVector feats) {
         double p = 0;
-        for (int c = 0; c < theBetas.size(); c++) {
+        for (int c = 0; c < theBetas.length; c++) {
             p += calcExp(c, feats);
         }
         return p;
@@ -315,7 +505,7 @@ public class Logistic extends Classifier {
      *
      * @return The probability.
      */
-    private double calcProbability(int cat, ArrayList<Double> feats) {
+    private double calcProbability(int cat, SparseVector feats) {
         return calcExp(cat, feats) / calcPartition(feats);
     }
 
@@ -329,7 +519,7 @@ public class Logistic extends Classifier {
      *
      * @return The error.
      */
-    private double calcError(ArrayList<ArrayList<Double>> feats, int[] cats) {
+    private double calcError(ArrayList<SparseVector> feats, int[] cats) {
         double error = 0;
         for (int ex = 0; ex < cats.length; ex++) {
             error -= Math.log(calcProbability(cats[ex], feats.get(ex)));
@@ -353,15 +543,37 @@ public class Logistic extends Classifier {
 
     /**
      * Method to set the feature weights of the logistic regression.
-     * It is required that the private reference to the ARN-R is 
-     * initialised.
+     * It is required that the private reference to the ARN-R (or to the
+     * feature hasher, if hashing is used) is initialised.
      */
     private void setFeatureWeights() {
-        arnR.setTermWeighingMeasure(TWMeasure);
-        arnR.setCOF(bigramFreq);
-        arnR.setPOS(posTags);
-        arnR.setStems(stemming);
-        arnR.setSynonyms(synonyms);
+        if (featureHashing) {
+            hasher.setTermWeighingMeasure(TWMeasure);
+            hasher.setCOF(bigramFreq);
+            hasher.setPOS(posTags);
+            hasher.setStems(stemming);
+            hasher.setSynonyms(synonyms);
+        } else {
+            arnR.setTermWeighingMeasure(TWMeasure);
+            arnR.setCOF(bigramFreq);
+            arnR.setPOS(posTags);
+            arnR.setStems(stemming);
+            arnR.setSynonyms(synonyms);
+        }
+    }
+
+
+    /**
+     * Method to hash the features into a space of fixed size instead of
+     * building the vocabulary with the ARN-R.
+     * Only the "tf", "ltf" and "binary" TW methods are available then.
+     *
+     * @param hashing The feature hashing flag.
+     * @param numBits The number of bits of the feature space, i.e., 2^k buckets.
+     */
+    public void setFeatureHashing(boolean hashing, int numBits) {
+        featureHashing = hashing;
+        hashingBits = numBits;
     }
 
 
@@ -468,6 +680,9 @@ public class Logistic extends Classifier {
         theBetas = null;
         arnR = null;
         categoryHash = null;
+        hasher = null;
+        hashedCategories = null;
+        numSeenExamples = 0;
     }
 
 
@@ -18,6 +18,8 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
+import emolib.classifier.OnlineClassifier;
 
 import emolib.classifier.machinelearning.ARNReduced.Graph;
 import emolib.classifier.machinelearning.ARNReduced.GraphElement;
@@ -47,6 +49,10 @@ import java.lang.Math;
  * 2008).
  * The same term weighting schemes as the ones used in the ARN-R are 
  * considered.
+ * Alternatively, the features may be hashed into a feature space of fixed
+ * size (see FeatureHasher), thus avoiding the vocabulary altogether.
+ * In that case, the classifier can also be trained online, since the
+ * model just consists of bucket counts.
  * </p>
  * <p>
  * --<br>
@@ -55,10 +61,12 @@ import java.lang.Math;
  * </p>
  *
  * @see emolib.classifier.machinelearning.ARNReduced
+ * @see emolib.classifier.machinelearning.FeatureHasher
+ * @see emolib.classifier.OnlineClassifier
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
-public class MultinomialNB extends Classifier {
+public class MultinomialNB extends Classifier implements OnlineClassifier {
 
     // Core
     private ArrayList<ArrayList<Double>> theProbs;
@@ -81,6 +89,15 @@ public class MultinomialNB extends Classifier {
     private ArrayList<Graph> categoryGraph;
     private Graph vocabularyGraph;
 
+    // Feature hashing core
+    private boolean featureHashing;
+    private int hashingBits;
+    private FeatureHasher hasher;
+    private ArrayList<String> hashedCategories;
+    private double[][] hashedCounts;
+    private double[] hashedTotals;
+    private int numObservedBuckets;
+
 
     /**
      * Main constructor of this exponential regression classifier.
@@ -100,6 +117,13 @@ public class MultinomialNB extends Classifier {
         chiSquare = false;
         termFreq = false;
         numFeatSel = 0;
+        featureHashing = false;
+        hashingBits = 18;
+        hasher = null;
+        hashedCategories = null;
+        hashedCounts = null;
+        hashedTotals = null;
+        numObservedBuckets = 0;
     }
 
 
@@ -108,6 +132,9 @@ public class MultinomialNB extends Classifier {
      * FeatureBox)
      */
     public String getCategory(FeatureBox inputFeatures) {
+        if (featureHashing) {
+            return getHashedCategory(inputFeatures);
+        }
         // APPLY MULTINOMIALNB (C,V,prior,condprob,d)
         int maxCat = 0;
         double maxScore = 0;
@@ -144,6 +171,64 @@ public class MultinomialNB extends Classifier {
     }
 
 
+    /**
+     * Function to classify a text with the hashed features.
+     * Same algorithm as getCategory, but only the buckets that have been
+     * observed in training are considered, like the vocabulary terms.
+     *
+     * @param inputFeatures The features of the text.
+     *
+     * @return The category.
+     */
+    private String getHashedCategory(FeatureBox inputFeatures) {
+        SparseVector W = hasher.buildSparseVector(inputFeatures);
+        int maxCat = 0;
+        double maxScore = 0;
+        double score, denominator;
+        int t;
+        double N = 0;
+        for (int c = 0; c < hashedTotals.length; c++) {
+            N += hashedTotals[c];
+        }
+        for (int c = 0; c < hashedCategories.size(); c++) {
+            score = Math.log(hashedTotals[c] / N);
+            denominator = hashedTotals[c] + (double)numObservedBuckets;
+            for (int v = 0; v < W.getNumberOfValues(); v++) {
+                t = W.getIndex(v);
+                if (isObservedBucket(t)) {
+                    score += Math.log((hashedCounts[c][t] + 1) / denominator) *
+                        (double)W.getValue(v);
+                }
+            }
+            if ((c == 0) || (score > maxScore)) {
+                maxScore = score;
+                maxCat = c;
+            }
+        }
+        return hashedCategories.get(maxCat);
+    }
+
+
+    /**
+     * Function to check if a bucket of the hashed feature space has been
+     * observed in training.
+     *
+     * @param t The bucket.
+     *
+     * @return True if the bucket has been observed.
+     */
+    private boolean isObservedBucket(int t) {
+        boolean observed = false;
+        for (int c = 0; c < hashedCounts.length; c++) {
+            if (hashedCounts[c][t] > 0) {
+                observed = true;
+                break;
+            }
+        }
+        return observed;
+    }
+
+
     /**
      * Training method based on the algorithm in (Manning, et al.,
      * 2008).
@@ -155,6 +240,10 @@ public class MultinomialNB extends Classifier {
     public void trainingProcedure() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
+        if (featureHashing) {
+            trainHashedProcedure(exampleFeatures, exampleCategories);
+            return;
+        }
         arnR = new ARNReduced();
         setFeatureWeights();
         Iterator exFeat = exampleFeatures.iterator();
@@ -203,6 +292,153 @@ public class MultinomialNB extends Classifier {
     }
 
 
+    /**
+     * Training method with the hashed features.
+     * The term counts of each category are accumulated in the buckets of
+     * the feature space, which play the role of the vocabulary.
+     *
+     * @param exampleFeatures The features of the examples.
+     * @param exampleCategories The categories of the examples.
+     */
+    private void trainHashedProcedure(ArrayList<FeatureBox> exampleFeatures,
+        ArrayList<String> exampleCategories) {
+        initHashedModel();
+        for (int ex = 0; ex < exampleFeatures.size(); ex++) {
+            addHashedCounts(hasher.buildSparseVector(exampleFeatures.get(ex)),
+                exampleCategories.get(ex));
+        }
+    }
+
+
+    /**
+     * Method to initialise an empty model with the hashed features.
+     */
+    private void initHashedModel() {
+        hasher = new FeatureHasher();
+        hasher.setNumberOfBits(hashingBits);
+        hasher.setCOF(bigramFreq);
+        hasher.setPOS(posTags);
+        hasher.setStems(stemming);
+        hasher.setSynonyms(synonyms);
+        hashedCategories = new ArrayList<String>();
+        hashedCounts = new double[0][];
+        hashedTotals = new double[0];
+        numObservedBuckets = 0;
+    }
+
+
+    /**
+     * Method to accumulate the term counts of a text into the buckets of
+     * its category.
+     * The category is created if it is new.
+     *
+     * @param W The hashed term frequencies of the text.
+     * @param cat The category.
+     */
+    private void addHashedCounts(SparseVector W, String cat) {
+        int c = getHashedCategoryIndex(cat);
+        int t;
+        for (int v = 0; v < W.getNumberOfValues(); v++) {
+            t = W.getIndex(v);
+            if (!isObservedBucket(t)) {
+                numObservedBuckets++;
+            }
+            hashedCounts[c][t] += (double)W.getValue(v);
+            hashedTotals[c] += (double)W.getValue(v);
+        }
+    }
+
+
+    /**
+     * Function to retrieve the index of a category of the hashed model.
+     * The bucket counts of the category are created if it is new.
+     *
+     * @param cat The category.
+     *
+     * @return The index of the category.
+     */
+    private int getHashedCategoryIndex(String cat) {
+        int c = hashedCategories.indexOf(cat);
+        if (c == -1) {
+            c = hashedCategories.size();
+            hashedCategories.add(cat);
+            double[][] counts = new double[c + 1][];
+            System.arraycopy(hashedCounts, 0, counts, 0, c);
+            counts[c] = new double[hasher.getDimension()];
+            hashedCounts = counts;
+            double[] totals = new double[c + 1];
+            System.arraycopy(hashedTotals, 0, totals, 0, c);
+            hashedTotals = totals;
+        }
+        return c;
+    }
+
+
+    /**
+     * Method to fold a new example into the model.
+     * Online training is only available with feature hashing, since the
+     * vocabulary of the ARN-R cannot grow.
+     *
+     * @param features The input features.
+     * @param cat The category of the input example.
+     *
+     * @throws IllegalStateException If feature hashing is not set.
+     */
+    public void update(FeatureBox features, String cat) {
+        if (!featureHashing) {
+            throw new IllegalStateException("MultinomialNB: online training requires feature hashing!");
+        }
+        if (hasher == null) {
+            initHashedModel();
+        }
+        addHashedCounts(hasher.buildSparseVector(features), cat);
+    }
+
+
+    /**
+     * Method to merge the bucket counts of another MultinomialNB into this one.
+     * Both models must hash the same features into the same space.
+     *
+     * @param otherModel The other MultinomialNB.
+     *
+     * @throws IllegalStateException If feature hashing is not set.
+     * @throws IllegalArgumentException If the other model is not a MultinomialNB with the same hashed
+     * features.
+     */
+    public void merge(OnlineClassifier otherModel) {
+        if (!featureHashing) {
+            throw new IllegalStateException("MultinomialNB: merging requires feature hashing!");
+        }
+        if (!(otherModel instanceof MultinomialNB)) {
+            throw new IllegalArgumentException("MultinomialNB: only another MultinomialNB can be merged!");
+        }
+        MultinomialNB other = (MultinomialNB)otherModel;
+        if (!other.featureHashing || (other.hasher == null) ||
+        (other.hashingBits != hashingBits) || (other.bigramFreq != bigramFreq) ||
+        (other.posTags != posTags) || (other.stemming != stemming) ||
+        (other.synonyms != synonyms)) {
+            throw new IllegalArgumentException("MultinomialNB: the models to merge don't share the same " +
+                "hashed features!");
+        }
+        if (hasher == null) {
+            initHashedModel();
+        }
+        int c;
+        for (int otherC = 0; otherC < other.hashedCategories.size(); otherC++) {
+            c = getHashedCategoryIndex(other.hashedCategories.get(otherC));
+            for (int t = 0; t < hasher.getDimension(); t++) {
+                if (other.hashedCounts[otherC][t] > 0) {
+                    if (!isObservedBucket(t)) {
+                        numObservedBuckets++;
+                    }
+                    hashedCounts[c][t] += other.hashedCounts[otherC][t];
+                }
+            }
+            hashedTotals[c] += other.hashedTotals[otherC];
+        }
+    }
+
+
     /**
      * Method to set the feature weights of the regression.
      * It is required that the private reference to the ARN-R is 
@@ -219,6 +455,20 @@ public class MultinomialNB extends Classifier {
     }
 
 
+    /**
+     * Method to hash the features into a space of fixed size instead of
+     * building the vocabulary with the ARN-R.
+     * Feature selection is not available with feature hashing.
+     *
+     * @param hashing The feature hashing flag.
+     * @param numBits The number of bits of the feature space, i.e., 2^k buckets.
+     */
+    public void setFeatureHashing(boolean hashing, int numBits) {
+        featureHashing = hashing;
+        hashingBits = numBits;
+    }
+
+
     /**
      * Set the Mutual Information feature selection.
      *
@@ -338,6 +588,11 @@ public class MultinomialNB extends Classifier {
         theProbs = null;
         thePriors = null;
         arnR = null;
+        hasher = null;
+        hashedCategories = null;
+        hashedCounts = null;
+        hashedTotals = null;
+        numObservedBuckets = 0;
     }
 
 }
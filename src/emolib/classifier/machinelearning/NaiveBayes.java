@@ -28,6 +28,10 @@ import emolib.util.conf.*;
 import emolib.util.proc.*;
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.OnlineClassifier;
+
+import org.junit.Test;
+import org.junit.Assert;
 
 //import org.jdom.*;
 //import org.jdom.output.*;
@@ -42,10 +46,23 @@ import emolib.classifier.FeatureBox;
  * and models their distribution according to a given density form, e.g.,
  * the Gaussian/normal.
  * </p>
+ * <p>
+ * The Gaussian NaiveBayes can also be trained online, since the class-wise
+ * counts, means and sums of squared deviations are kept and updated with
+ * Welford's method (or with Chan's method when merging two models).
+ * </p>
+ * <p>
+ * The Gaussian likelihoods are scored in closed form: the log-normaliser and the
+ * inverse variance of each class are precomputed at training time, so all the
+ * class log-posteriors are obtained in a single pass over primitive arrays, and
+ * they are normalised with the log-sum-exp trick.
+ * </p>
+ *
+ * @see emolib.classifier.OnlineClassifier
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
-public class NaiveBayes extends Classifier {
+public class NaiveBayes extends Classifier implements OnlineClassifier {
 
     /**
      * Property to determine the number of emotional dimensions the NaiveBayes deals with.
@@ -76,6 +93,18 @@ public class NaiveBayes extends Classifier {
     private ArrayList<Float> priors;
     private ArrayList<String> emotionCategories;
 
+    // Sufficient statistics for online training
+    private ArrayList<Integer> classCounts;
+    private ArrayList<double[]> classMeans;
+    private ArrayList<double[]> classSquares;
+
+    // Closed-form scoring parameters, indexed as [class * 3 + dimension]
+    private double[] scoringMeans;
+    private double[] scoringPrecisions;
+    private double[] scoringNormalisers;
+    private double[] scoringLogPriors;
+    private boolean gaussianScoring;
+
     private String classConditionalDensityType;
 
 
@@ -123,9 +152,13 @@ public class NaiveBayes extends Classifier {
         likelihoodControls = new ArrayList<ClassConditionalDensity>();
         priors = new ArrayList<Float>();
         emotionCategories = new ArrayList<String>();
+        classCounts = new ArrayList<Integer>();
+        classMeans = new ArrayList<double[]>();
+        classSquares = new ArrayList<double[]>();
         numberOfEmotionalDimensions = 3;
         accountPriors = false;
         classConditionalDensityType = "gaussian";
+        scoringNormalisers = null;
     }
 
 
@@ -136,6 +169,7 @@ public class NaiveBayes extends Classifier {
      */
     public void setNumberOfEmotionalDimensions(int numDims) {
         numberOfEmotionalDimensions = numDims;
+        invalidateScoring();
     }
 
 
@@ -146,6 +180,7 @@ public class NaiveBayes extends Classifier {
      */
     public void setAccountForPriors(boolean flag) {
         accountPriors = flag;
+        invalidateScoring();
     }
 
 
@@ -158,6 +193,7 @@ public class NaiveBayes extends Classifier {
      */
     public void setTypeOfLikelihoodDistribution(String type) {
         classConditionalDensityType = type;
+        invalidateScoring();
     }
 
 
@@ -176,30 +212,36 @@ public class NaiveBayes extends Classifier {
 
     /**
      * Function to retrieve the likelihood distributions for valence from this NB.
+     * The list may be modified, so the scoring parameters are recomputed.
      *
      * @return The array of likelihood distributions for valence.
      */
     public ArrayList<ClassConditionalDensity> getLikelihoodValences() {
+        invalidateScoring();
         return likelihoodValences;
     }
 
 
     /**
      * Function to retrieve the likelihood distributions for activation from this NB.
+     * The list may be modified, so the scoring parameters are recomputed.
      *
      * @return The array of likelihood distributions for activation.
      */
     public ArrayList<ClassConditionalDensity> getLikelihoodActivations() {
+        invalidateScoring();
         return likelihoodActivations;
     }
 
 
     /**
      * Function to retrieve the likelihood distributions for control from this NB.
+     * The list may be modified, so the scoring parameters are recomputed.
      *
      * @return The array of likelihood distributions for control.
      */
     public ArrayList<ClassConditionalDensity> getLikelihoodControls() {
+        invalidateScoring();
         return likelihoodControls;
     }
 
@@ -217,54 +259,70 @@ public class NaiveBayes extends Classifier {
      */
     public float getPosteriorProbability(String theClass, FeatureBox theFeatures) {
         float posteriorProb = 0;
-        Float aux;
-        float allLikelihoods, value;
-        for (int emoClass = 0; emoClass < emotionCategories.size(); emoClass++) {
-            if (theClass.equals(emotionCategories.get(emoClass))) {
-                if (accountPriors) {
-                    aux = new Float(Math.log(priors.get(emoClass).doubleValue()));
+        int emoClass = emotionCategories.indexOf(theClass);
+        if (emoClass != -1) {
+            prepareScoring();
+            float val = theFeatures.getValence();
+            float act = theFeatures.getActivation();
+            float con = theFeatures.getControl();
+            // Log-sum-exp of the likelihoods computed on the fly
+            double maxLikelihood = Double.NEGATIVE_INFINITY;
+            double sumLikelihoods = 0;
+            double logLikelihood;
+            for (int i = 0; i < emotionCategories.size(); i++) {
+                logLikelihood = getLogLikelihood(i, val, act, con);
+                if (logLikelihood > maxLikelihood) {
+                    sumLikelihoods = sumLikelihoods * Math.exp(maxLikelihood - logLikelihood) + 1;
+                    maxLikelihood = logLikelihood;
                 } else {
-                    aux = new Float("0");
+                    sumLikelihoods += Math.exp(logLikelihood - maxLikelihood);
                 }
-                // This function outputs an actual probability function.
-                // At least we have the valence
-                if (numberOfEmotionalDimensions >= 1) {
-                    value = likelihoodValences.get(emoClass).getLikelihood(theFeatures.getValence());
-                    aux = new Float(aux.floatValue() + (float)Math.log((double)value));
-                }
-                // At least we have the activation
-                if (numberOfEmotionalDimensions >= 2) {
-                    value = likelihoodActivations.get(emoClass).getLikelihood(theFeatures.getActivation());
-                    aux = new Float(aux.floatValue() + (float)Math.log((double)value));
-                }
-                // At least we have the control
-                if (numberOfEmotionalDimensions >= 3) {
-                    value = likelihoodControls.get(emoClass).getLikelihood(theFeatures.getControl());
-                    aux = new Float(aux.floatValue() + (float)Math.log((double)value));
-                }
-                // Actual posterior probability. Baye's Theorem with logs unfoling.
-                allLikelihoods = 0;
-                float prev;
-                for (int i = 0; i < emotionCategories.size(); i++) {
-                    prev = 1;
-                    if (numberOfEmotionalDimensions >= 1) {
-                        prev *= likelihoodValences.get(i).getLikelihood(theFeatures.getValence());
-                    }
-                    if (numberOfEmotionalDimensions >= 2) {
-                        prev *= likelihoodActivations.get(i).getLikelihood(theFeatures.getActivation());
-                    }
-                    if (numberOfEmotionalDimensions >= 3) {
-                        prev *= likelihoodControls.get(i).getLikelihood(theFeatures.getControl());
-                    }
-                    allLikelihoods += prev;
-                }
-                posteriorProb = aux.floatValue() - (float)Math.log(allLikelihoods);
-                break;
+            }
+            // Actual posterior probability. Baye's Theorem with logs unfoling.
+            posteriorProb = (float)(getLogLikelihood(emoClass, val, act, con) -
+                (maxLikelihood + Math.log(sumLikelihoods)));
+            if (accountPriors) {
+                posteriorProb += (float)scoringLogPriors[emoClass];
             }
         }
+        return (float)Math.exp(posteriorProb);
+    }
 
-        aux = new Float(Math.exp(posteriorProb));
-        return aux.floatValue();
+
+    /**
+     * Method to retrieve the posterior probabilities of all the classes given
+     * a bunch of features, in the order of the emotion categories.
+     * This is cheaper than retrieving them one by one.
+     *
+     * @param theFeatures The features.
+     * @param posteriors The array to fill with the posterior probabilities P(c|x),
+     * which must be at least as long as the number of emotion categories.
+     */
+    public void getPosteriorProbabilities(FeatureBox theFeatures, double[] posteriors) {
+        prepareScoring();
+        float val = theFeatures.getValence();
+        float act = theFeatures.getActivation();
+        float con = theFeatures.getControl();
+        int numClasses = emotionCategories.size();
+        double maxLikelihood = Double.NEGATIVE_INFINITY;
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            posteriors[emoClass] = getLogLikelihood(emoClass, val, act, con);
+            if (posteriors[emoClass] > maxLikelihood) {
+                maxLikelihood = posteriors[emoClass];
+            }
+        }
+        double sumLikelihoods = 0;
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            sumLikelihoods += Math.exp(posteriors[emoClass] - maxLikelihood);
+        }
+        double logEvidence = maxLikelihood + Math.log(sumLikelihoods);
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            posteriors[emoClass] -= logEvidence;
+            if (accountPriors) {
+                posteriors[emoClass] += scoringLogPriors[emoClass];
+            }
+            posteriors[emoClass] = Math.exp(posteriors[emoClass]);
+        }
     }
 
 
@@ -273,18 +331,22 @@ public class NaiveBayes extends Classifier {
      */
     public String getCategory(FeatureBox inputFeatures) {
         String mostProbableCategory = "neutral";
-        ArrayList<Float> posteriors = new ArrayList<Float>();
         if (inputFeatures.getNumberOfEmotionalDimensions() >= numberOfEmotionalDimensions) {
-            for (int emoClass = 0; emoClass < emotionCategories.size(); emoClass++) {
-                posteriors.add(new Float(getPosteriorProbability(emotionCategories.get(emoClass),
-                inputFeatures)));
-            }
-            // Decide the most probable category
+            prepareScoring();
+            float val = inputFeatures.getValence();
+            float act = inputFeatures.getActivation();
+            float con = inputFeatures.getControl();
+            // Decide the most probable category. The evidence is common to all
+            // the classes, so the unnormalised log-posteriors suffice.
             mostProbableCategory = emotionCategories.get(0);
-            float probability = posteriors.get(0).floatValue();
-            for (int emoClass = 1; emoClass < posteriors.size(); emoClass++) {
-                if (posteriors.get(emoClass).floatValue() > probability) {
-                    probability = posteriors.get(emoClass).floatValue();
+            double logPosterior, probability = 0;
+            for (int emoClass = 0; emoClass < emotionCategories.size(); emoClass++) {
+                logPosterior = getLogLikelihood(emoClass, val, act, con);
+                if (accountPriors) {
+                    logPosterior += scoringLogPriors[emoClass];
+                }
+                if ((emoClass == 0) || (logPosterior > probability)) {
+                    probability = logPosterior;
                     mostProbableCategory = emotionCategories.get(emoClass);
                 }
             }
@@ -297,17 +359,117 @@ public class NaiveBayes extends Classifier {
     }
 
 
+    /**
+     * Function to compute the log-likelihood of a class.
+     *
+     * @param emoClass The index of the class.
+     * @param val The valence.
+     * @param act The activation.
+     * @param con The control.
+     *
+     * @return The log-likelihood log P(x|c).
+     */
+    private double getLogLikelihood(int emoClass, float val, float act, float con) {
+        double logLikelihood;
+        if (gaussianScoring) {
+            int base = emoClass * 3;
+            double diff = val - scoringMeans[base];
+            logLikelihood = scoringNormalisers[emoClass] - diff * diff * scoringPrecisions[base];
+            if (numberOfEmotionalDimensions >= 2) {
+                diff = act - scoringMeans[base + 1];
+                logLikelihood -= diff * diff * scoringPrecisions[base + 1];
+            }
+            if (numberOfEmotionalDimensions >= 3) {
+                diff = con - scoringMeans[base + 2];
+                logLikelihood -= diff * diff * scoringPrecisions[base + 2];
+            }
+        } else {
+            // Other densities are evaluated through their objects
+            logLikelihood = 0;
+            if (numberOfEmotionalDimensions >= 1) {
+                logLikelihood += Math.log((double)likelihoodValences.get(emoClass).getLikelihood(val));
+            }
+            if (numberOfEmotionalDimensions >= 2) {
+                logLikelihood += Math.log((double)likelihoodActivations.get(emoClass).getLikelihood(act));
+            }
+            if (numberOfEmotionalDimensions >= 3) {
+                logLikelihood += Math.log((double)likelihoodControls.get(emoClass).getLikelihood(con));
+            }
+        }
+        return logLikelihood;
+    }
+
+
+    /**
+     * Method to precompute the closed-form scoring parameters from the
+     * likelihoods and the priors. It does nothing if they are up to date.
+     */
+    private void prepareScoring() {
+        if (scoringNormalisers != null) {
+            return;
+        }
+        int numClasses = emotionCategories.size();
+        double[] means = new double[3 * numClasses];
+        double[] precisions = new double[3 * numClasses];
+        double[] normalisers = new double[numClasses];
+        double[] logPriors = new double[numClasses];
+        boolean gaussian = (numberOfEmotionalDimensions >= 1);
+        ClassConditionalDensity density;
+        double std;
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            if (priors.size() > emoClass) {
+                logPriors[emoClass] = Math.log(priors.get(emoClass).doubleValue());
+            }
+            for (int dim = 0; gaussian && (dim < numberOfEmotionalDimensions) && (dim < 3); dim++) {
+                if (dim == 0) {
+                    density = (likelihoodValences.size() > emoClass) ? likelihoodValences.get(emoClass) : null;
+                } else if (dim == 1) {
+                    density = (likelihoodActivations.size() > emoClass) ? likelihoodActivations.get(emoClass) :
+                        null;
+                } else {
+                    density = (likelihoodControls.size() > emoClass) ? likelihoodControls.get(emoClass) : null;
+                }
+                if (density instanceof Gaussian) {
+                    std = (double)((Gaussian)density).getStd();
+                    means[emoClass * 3 + dim] = (double)((Gaussian)density).getMean();
+                    precisions[emoClass * 3 + dim] = 0.5 / (std * std);
+                    normalisers[emoClass] -= Math.log(Math.sqrt(2 * Math.PI) * std);
+                } else {
+                    gaussian = false;
+                }
+            }
+        }
+        scoringMeans = means;
+        scoringPrecisions = precisions;
+        scoringLogPriors = logPriors;
+        gaussianScoring = gaussian;
+        scoringNormalisers = normalisers;
+    }
+
+
     /**
      * Function to retrieve the emotion categories.
      *
      * This is used for integration purposes. Normally NB is a basic classifier, prone to
      * be enhanced by dome method.
+     * The list may be modified, so the scoring parameters are recomputed.
      */
     public ArrayList<String> getEmotionCategories() {
+        invalidateScoring();
         return emotionCategories;
     }
 
 
+    /**
+     * Method to discard the closed-form scoring parameters, so that they are
+     * recomputed with the next classification. It must be called whenever the
+     * likelihoods, the priors, the categories or the settings change.
+     */
+    private void invalidateScoring() {
+        scoringNormalisers = null;
+    }
+
+
     /**
      * Void method to train required by the Classifier class.
      */
@@ -315,6 +477,7 @@ public class NaiveBayes extends Classifier {
      * @see emolib.classifier.Classifier#trainingProcedure()
      */
     public void trainingProcedure() {
+        invalidateScoring();
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
         Hashtable<String, Integer> soleCategories = new Hashtable<String, Integer>();
@@ -466,6 +629,33 @@ public class NaiveBayes extends Classifier {
             }
         }
 
+        // Keep the sufficient statistics for further online updates
+        double[] means, squares;
+        float numExamplesClass;
+        for (int numClass = 0; numClass < emotionCategories.size(); numClass++) {
+            means = new double[3];
+            squares = new double[3];
+            numExamplesClass = numberOfExamples.get(numClass).floatValue();
+            if (numberOfEmotionalDimensions >= 1) {
+                means[0] = meanValence.get(numClass).doubleValue();
+                squares[0] = Math.pow(stdValence.get(numClass).doubleValue(), 2) * (numExamplesClass - 1);
+            }
+            if (numberOfEmotionalDimensions >= 2) {
+                means[1] = meanActivation.get(numClass).doubleValue();
+                squares[1] = Math.pow(stdActivation.get(numClass).doubleValue(), 2) * (numExamplesClass - 1);
+            }
+            if (numberOfEmotionalDimensions >= 3) {
+                means[2] = meanControl.get(numClass).doubleValue();
+                squares[2] = Math.pow(stdControl.get(numClass).doubleValue(), 2) * (numExamplesClass - 1);
+            }
+            if (numExamplesClass < 2) {
+                squares = new double[3];
+            }
+            classCounts.add(numberOfExamples.get(numClass));
+            classMeans.add(means);
+            classSquares.add(squares);
+        }
+
         // Build the likelihood distributions
         for (int numClass = 0; numClass < emotionCategories.size(); numClass++) {
             if (classConditionalDensityType.equals("gaussian")) {
@@ -483,6 +673,189 @@ public class NaiveBayes extends Classifier {
                 }
             }
         }
+        invalidateScoring();
+        prepareScoring();
+    }
+
+
+    /**
+     * Method to fold a new example into the Gaussian likelihood of its category.
+     * The mean and the sum of squared deviations are updated with Welford's method.
+     *
+     * @param features The input emotional features.
+     * @param cat The category of the input example.
+     *
+     * @throws IllegalStateException If the likelihoods are not Gaussian.
+     */
+    public void update(FeatureBox features, String cat) {
+        if (!classConditionalDensityType.equals("gaussian")) {
+            throw new IllegalStateException("NaiveBayes: online training is only available with Gaussian " +
+                "likelihoods!");
+        }
+        int numClass = getClassStatistics(cat);
+        int numExamples = classCounts.get(numClass).intValue() + 1;
+        classCounts.set(numClass, new Integer(numExamples));
+        double[] means = classMeans.get(numClass);
+        double[] squares = classSquares.get(numClass);
+        double[] values = getValues(features);
+        double delta;
+        for (int dim = 0; dim < numberOfEmotionalDimensions; dim++) {
+            delta = values[dim] - means[dim];
+            means[dim] += delta / (double)numExamples;
+            squares[dim] += delta * (values[dim] - means[dim]);
+        }
+        refreshDensities(numClass);
+    }
+
+
+    /**
+     * Method to merge the likelihoods of another Gaussian NaiveBayes into this one.
+     * The statistics of the same category are pooled with Chan's method.
+     *
+     * @param otherModel The other NaiveBayes.
+     *
+     * @throws IllegalStateException If the likelihoods of this NaiveBayes are not Gaussian.
+     * @throws IllegalArgumentException If the other model is not a Gaussian NaiveBayes
+     * with the same number of emotional dimensions.
+     */
+    public void merge(OnlineClassifier otherModel) {
+        if (!classConditionalDensityType.equals("gaussian")) {
+            throw new IllegalStateException("NaiveBayes: merging is only available with Gaussian likelihoods!");
+        }
+        if (!(otherModel instanceof NaiveBayes)) {
+            throw new IllegalArgumentException("NaiveBayes: only another NaiveBayes can be merged!");
+        }
+        NaiveBayes other = (NaiveBayes)otherModel;
+        if ((other.numberOfEmotionalDimensions != numberOfEmotionalDimensions) ||
+        !other.classConditionalDensityType.equals("gaussian")) {
+            throw new IllegalArgumentException("NaiveBayes: the models to merge don't match!");
+        }
+        int numClass, numExamples, otherExamples, totalExamples;
+        double[] means, squares, otherMeans, otherSquares;
+        double delta;
+        for (int otherClass = 0; otherClass < other.emotionCategories.size(); otherClass++) {
+            numClass = getClassStatistics(other.emotionCategories.get(otherClass));
+            numExamples = classCounts.get(numClass).intValue();
+            otherExamples = other.classCounts.get(otherClass).intValue();
+            totalExamples = numExamples + otherExamples;
+            means = classMeans.get(numClass);
+            squares = classSquares.get(numClass);
+            otherMeans = other.classMeans.get(otherClass);
+            otherSquares = other.classSquares.get(otherClass);
+            for (int dim = 0; dim < numberOfEmotionalDimensions; dim++) {
+                delta = otherMeans[dim] - means[dim];
+                means[dim] += delta * (double)otherExamples / (double)totalExamples;
+                squares[dim] += otherSquares[dim] + delta * delta * (double)numExamples *
+                    (double)otherExamples / (double)totalExamples;
+            }
+            classCounts.set(numClass, new Integer(totalExamples));
+            refreshDensities(numClass);
+        }
+    }
+
+
+    /**
+     * Function to retrieve the index of the statistics of a category.
+     * Empty statistics are created if the category is new.
+     *
+     * @param cat The category.
+     *
+     * @return The index of the category.
+     */
+    private int getClassStatistics(String cat) {
+        int numClass = emotionCategories.indexOf(cat);
+        if (numClass == -1) {
+            numClass = emotionCategories.size();
+            emotionCategories.add(new String(cat));
+            classCounts.add(new Integer(0));
+            classMeans.add(new double[3]);
+            classSquares.add(new double[3]);
+            priors.add(new Float(0));
+            if (numberOfEmotionalDimensions >= 1) {
+                likelihoodValences.add(new Gaussian());
+            }
+            if (numberOfEmotionalDimensions >= 2) {
+                likelihoodActivations.add(new Gaussian());
+            }
+            if (numberOfEmotionalDimensions >= 3) {
+                likelihoodControls.add(new Gaussian());
+            }
+        }
+        return numClass;
+    }
+
+
+    /**
+     * Function to retrieve the emotion dimensions of an example as an array.
+     *
+     * @param features The features.
+     *
+     * @return The valence, activation and control.
+     */
+    private double[] getValues(FeatureBox features) {
+        double[] values = new double[3];
+        if (numberOfEmotionalDimensions >= 1) {
+            values[0] = (double)features.getValence();
+        }
+        if (numberOfEmotionalDimensions >= 2) {
+            values[1] = (double)features.getActivation();
+        }
+        if (numberOfEmotionalDimensions >= 3) {
+            values[2] = (double)features.getControl();
+        }
+        return values;
+    }
+
+
+    /**
+     * Method to rebuild the likelihoods of a category from its statistics,
+     * and the priors of all the categories.
+     *
+     * @param numClass The index of the category.
+     */
+    private void refreshDensities(int numClass) {
+        double numExamples = classCounts.get(numClass).doubleValue();
+        double[] means = classMeans.get(numClass);
+        double[] squares = classSquares.get(numClass);
+        if (numberOfEmotionalDimensions >= 1) {
+            likelihoodValences.set(numClass, new Gaussian((float)means[0],
+                getOnlineStd(squares[0], numExamples)));
+        }
+        if (numberOfEmotionalDimensions >= 2) {
+            likelihoodActivations.set(numClass, new Gaussian((float)means[1],
+                getOnlineStd(squares[1], numExamples)));
+        }
+        if (numberOfEmotionalDimensions >= 3) {
+            likelihoodControls.set(numClass, new Gaussian((float)means[2],
+                getOnlineStd(squares[2], numExamples)));
+        }
+        float totalExamples = 0;
+        for (int i = 0; i < classCounts.size(); i++) {
+            totalExamples += classCounts.get(i).floatValue();
+        }
+        for (int i = 0; i < classCounts.size(); i++) {
+            priors.set(i, new Float(classCounts.get(i).floatValue() / totalExamples));
+        }
+        invalidateScoring();
+    }
+
+
+    /**
+     * Function to compute the sample standard deviation of a category from its
+     * sum of squared deviations. The deviation of a single example is undefined
+     * (0/0), so the category is given the unit deviation of the standardised
+     * Gaussian until its second example arrives.
+     *
+     * @param squares The sum of squared deviations.
+     * @param numExamples The number of examples of the category.
+     *
+     * @return The standard deviation.
+     */
+    private float getOnlineStd(double squares, double numExamples) {
+        if (numExamples < 2) {
+            return 1;
+        }
+        return (float)Math.sqrt(squares / (numExamples - 1));
     }
 
 
@@ -511,7 +884,141 @@ public class NaiveBayes extends Classifier {
         likelihoodControls = new ArrayList<ClassConditionalDensity>();
         priors = new ArrayList<Float>();
         emotionCategories = new ArrayList<String>();
+        classCounts = new ArrayList<Integer>();
+        classMeans = new ArrayList<double[]>();
+        classSquares = new ArrayList<double[]>();
+        invalidateScoring();
     }
 
-}
 
+    /**
+     * Functionality test of the closed-form scoring against the likelihoods of
+     * the density objects.
+     */
+    @Test public void closedFormScoring() {
+        NaiveBayes nb = new NaiveBayes();
+        float[][] examples = {{2.0f, 6.0f, 4.0f}, {4.0f, 4.5f, 5.0f}, {3.0f, 7.0f, 3.0f},
+            {5.0f, 4.0f, 5.0f}, {6.5f, 6.0f, 6.0f}, {4.0f, 5.0f, 4.0f}, {5.5f, 3.0f, 5.5f},
+            {7.0f, 6.5f, 7.0f}, {6.0f, 5.0f, 5.0f}, {8.5f, 7.5f, 7.5f}, {6.5f, 4.0f, 6.0f},
+            {8.0f, 6.0f, 8.0f}};
+        String[] categories = {"NEG", "NEG", "NEG", "NEU", "NEU", "NEU", "NEU", "POS", "POS", "POS",
+            "POS", "POS"};
+        for (int example = 0; example < examples.length; example++) {
+            nb.inputTrainingExample(createFeatures(examples[example]), categories[example]);
+        }
+        nb.train();
+        double[] priors = {3.0 / 12, 4.0 / 12, 5.0 / 12};
+        float[][] tests = {{2.0f, 5.0f, 4.0f}, {5.0f, 5.0f, 5.0f}, {6.5f, 5.5f, 6.0f}, {4.0f, 6.0f, 3.0f}};
+        for (int test = 0; test < tests.length; test++) {
+            checkScoring(nb, createFeatures(tests[test]), null);
+        }
+        // The scoring parameters follow the settings and the online updates.
+        nb.setAccountForPriors(true);
+        for (int test = 0; test < tests.length; test++) {
+            checkScoring(nb, createFeatures(tests[test]), priors);
+        }
+        nb.setAccountForPriors(false);
+        for (int test = 0; test < tests.length; test++) {
+            checkScoring(nb, createFeatures(tests[test]), null);
+        }
+        nb.update(createFeatures(new float[]{6.0f, 6.0f, 6.0f}), "NEG");
+        for (int test = 0; test < tests.length; test++) {
+            checkScoring(nb, createFeatures(tests[test]), null);
+        }
+    }
+
+
+    /**
+     * Functionality test of the online training from scratch, where the first
+     * example of each category has no deviation yet.
+     */
+    @Test public void onlineFirstExamples() {
+        NaiveBayes nb = new NaiveBayes();
+        nb.update(createFeatures(new float[]{2.0f, 6.0f, 4.0f}), "NEG");
+        Assert.assertEquals(1.0f, ((Gaussian)nb.likelihoodValences.get(0)).getStd(), 0.0);
+        Assert.assertEquals("NEG", nb.getCategory(createFeatures(new float[]{8.0f, 6.0f, 7.0f})));
+        nb.update(createFeatures(new float[]{8.0f, 6.5f, 7.0f}), "POS");
+        double[] posteriors = new double[2];
+        nb.getPosteriorProbabilities(createFeatures(new float[]{5.0f, 6.0f, 5.0f}), posteriors);
+        Assert.assertFalse(Double.isNaN(posteriors[0]) || Double.isNaN(posteriors[1]));
+        Assert.assertEquals(1.0, posteriors[0] + posteriors[1], 1e-6);
+        Assert.assertEquals("NEG", nb.getCategory(createFeatures(new float[]{2.5f, 5.5f, 4.0f})));
+        Assert.assertEquals("POS", nb.getCategory(createFeatures(new float[]{7.5f, 6.5f, 6.5f})));
+        // The sample deviation is used from the second example on.
+        nb.update(createFeatures(new float[]{4.0f, 6.0f, 4.0f}), "NEG");
+        Assert.assertEquals((float)Math.sqrt(2.0), ((Gaussian)nb.likelihoodValences.get(0)).getStd(), 1e-6);
+        checkScoring(nb, createFeatures(new float[]{5.0f, 6.0f, 5.0f}), null);
+        //
+        boolean rejected = false;
+        try {
+            nb.merge(new NearestCentroid());
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        Assert.assertTrue(rejected);
+        NaiveBayes other = new NaiveBayes();
+        other.setNumberOfEmotionalDimensions(2);
+        rejected = false;
+        try {
+            nb.merge(other);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        Assert.assertTrue(rejected);
+    }
+
+
+    /**
+     * Method to check the scores of an example against the likelihoods of the
+     * density objects.
+     *
+     * @param nb The trained NB.
+     * @param feat The example.
+     * @param priors The prior probabilities, or null if they are not accounted.
+     */
+    private void checkScoring(NaiveBayes nb, FeatureBox feat, double[] priors) {
+        int numClasses = nb.emotionCategories.size();
+        double[] reference = new double[numClasses];
+        double evidence = 0;
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            reference[emoClass] = (double)nb.likelihoodValences.get(emoClass).getLikelihood(feat.getValence()) *
+                (double)nb.likelihoodActivations.get(emoClass).getLikelihood(feat.getActivation()) *
+                (double)nb.likelihoodControls.get(emoClass).getLikelihood(feat.getControl());
+            evidence += reference[emoClass];
+        }
+        double[] posteriors = new double[numClasses];
+        nb.getPosteriorProbabilities(feat, posteriors);
+        int best = 0;
+        for (int emoClass = 0; emoClass < numClasses; emoClass++) {
+            reference[emoClass] /= evidence;
+            if (priors != null) {
+                reference[emoClass] *= priors[emoClass];
+            }
+            Assert.assertEquals(reference[emoClass], posteriors[emoClass], 1e-4);
+            Assert.assertEquals(reference[emoClass],
+                nb.getPosteriorProbability(nb.emotionCategories.get(emoClass), feat), 1e-4);
+            if (reference[emoClass] > reference[best]) {
+                best = emoClass;
+            }
+        }
+        Assert.assertEquals(nb.emotionCategories.get(best), nb.getCategory(feat));
+    }
+
+
+    /**
+     * Function to create the features of an example.
+     *
+     * @param dimensions The valence, activation and control.
+     *
+     * @return The features.
+     */
+    private FeatureBox createFeatures(float[] dimensions) {
+        FeatureBox feat = new FeatureBox();
+        feat.setNumberOfEmotionalDimensions(3);
+        feat.setValence(dimensions[0]);
+        feat.setActivation(dimensions[1]);
+        feat.setControl(dimensions[2]);
+        return feat;
+    }
+
+}
@@ -17,7 +17,6 @@
 package emolib.classifier.machinelearning;
 
 import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.List;
 import java.io.*;
 
@@ -25,11 +24,15 @@ import emolib.util.conf.*;
 import emolib.util.proc.*;
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.OnlineClassifier;
 
 import org.jdom.*;
 import org.jdom.output.*;
 import org.jdom.input.*;
 
+import org.junit.Test;
+import org.junit.Assert;
+
 /**
  * The <i>NearestCentroid</i> is a Rocchio classifier operating in
  * the circumplex.
@@ -39,18 +42,28 @@ import org.jdom.input.*;
  * the arithmetic mean of each emotional dimension is computed in order to
  * provide the centroid corresponding to the class.
  * The core of this classifier is based on a 1-NN where the examples are the centroids
- * of the classes.
+ * of the classes, which are kept in a flat primitive array so that the
+ * classification of a query requires no memory allocation.
  * </p>
  * <p>
  * The NearestCentroid class includes a main method to train the classifier for
  * a future use. Its training dataset is a plain text file where each row represents
  * a training instance. The first numbers indicate the emotional dimensions while
  * the last one represents the affective category.
+ * The classifier can be saved either in XML or in a compact binary form (if the
+ * path ends with ".bin"), which is faster to load. When initialised from an XML
+ * file, the binary model alongside it (same path with the ".bin" extension) is
+ * preferred if it is up to date.
  * </p>
  * <p>
  * For more information about this classifier, please refer to (Trilla and Al&iacute;as, 2009).
  * </p>
  * <p>
+ * The NearestCentroid can also be trained online, since each centroid is just the
+ * running mean of the examples of its class (the number of examples is kept along
+ * with the centroids).
+ * </p>
+ * <p>
  * --<br>
  * (Trilla and Al&iacute;as, 2009) Trilla, A. and Al&iacute;as, F., "Sentiment classification in English
  * from sentence-level annotations of emotions regarding models of affect", In Proceedings of the
@@ -59,10 +72,11 @@ import org.jdom.input.*;
  * </p>
  *
  * @see emolib.classifier.machinelearning.KNearestNeighbour
+ * @see emolib.classifier.OnlineClassifier
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
-public class NearestCentroid extends Classifier {
+public class NearestCentroid extends Classifier implements OnlineClassifier {
 
     /**
      * Property to determine the number of emotional dimensions the NearestCentroid deals with.
@@ -79,11 +93,15 @@ public class NearestCentroid extends Classifier {
 
     private String externalFile;
 
-    private ArrayList<Float> centroidValences;
-    private ArrayList<Float> centroidActivations;
-    private ArrayList<Float> centroidControls;
-    private ArrayList<String> centroidCategories;
-    private KNearestNeighbour theNN;
+    // The centroids (valence, activation and control of each category, contiguously)
+    private float[] centroidValues;
+    private int[] centroidCounts;
+    private String[] centroidCategories;
+    private int numberOfCentroids;
+
+    // Binary model header
+    private final static int BINARY_MAGIC = 0x454d4e43;
+    private final static int BINARY_VERSION = 1;
 
 
     /* (non-Javadoc)
@@ -114,7 +132,14 @@ public class NearestCentroid extends Classifier {
             System.out.println("NearestCentroid: no external file has been provided!");
             System.exit(1);
         } else {
-            load(externalFile);
+            File binaryFile = new File(getBinaryPath(externalFile));
+            File xmlFile = new File(externalFile);
+            if (!binaryFile.getPath().equals(xmlFile.getPath()) && binaryFile.isFile() &&
+            (binaryFile.lastModified() >= xmlFile.lastModified())) {
+                load(binaryFile.getPath());
+            } else {
+                load(externalFile);
+            }
         }
     }
 
@@ -123,11 +148,10 @@ public class NearestCentroid extends Classifier {
      * Main constructor of this classifier.
      */
     public NearestCentroid() {
-        centroidValences = new ArrayList<Float>();
-        centroidActivations = new ArrayList<Float>();
-        centroidControls = new ArrayList<Float>();
-        centroidCategories = new ArrayList<String>();
-        theNN = new KNearestNeighbour();
+        centroidValues = new float[3 * 4];
+        centroidCounts = new int[4];
+        centroidCategories = new String[4];
+        numberOfCentroids = 0;
     }
 
 
@@ -138,7 +162,6 @@ public class NearestCentroid extends Classifier {
      */
     public void setNumberOfEmotionalDimensions(int numDims) {
         numberOfEmotionalDimensions = numDims;
-        theNN.setNumberOfEmotionalDimensions(numDims);
     }
 
 
@@ -146,7 +169,63 @@ public class NearestCentroid extends Classifier {
      * @see emolib.classifier.Classifier#getCategory(emolib.classifier.FeatureBox)
      */
     public String getCategory(FeatureBox inputFeatures) {
-        return theNN.getCategory(inputFeatures);
+        String nearestCategory = "";
+        // We cannot deal with more dimensions than we have
+        if (numberOfEmotionalDimensions <= inputFeatures.getNumberOfEmotionalDimensions()) {
+            float val = inputFeatures.getValence();
+            float act = inputFeatures.getActivation();
+            float con = inputFeatures.getControl();
+            float diff, distance;
+            float smallestDistance = Float.MAX_VALUE;
+            int nearest = 0;
+            int base = 0;
+            // Unrolled squared Euclidean distance
+            if (numberOfEmotionalDimensions >= 3) {
+                for (int numClass = 0; numClass < numberOfCentroids; numClass++) {
+                    diff = val - centroidValues[base];
+                    distance = diff * diff;
+                    diff = act - centroidValues[base + 1];
+                    distance += diff * diff;
+                    diff = con - centroidValues[base + 2];
+                    distance += diff * diff;
+                    if (distance < smallestDistance) {
+                        smallestDistance = distance;
+                        nearest = numClass;
+                    }
+                    base += 3;
+                }
+            } else if (numberOfEmotionalDimensions == 2) {
+                for (int numClass = 0; numClass < numberOfCentroids; numClass++) {
+                    diff = val - centroidValues[base];
+                    distance = diff * diff;
+                    diff = act - centroidValues[base + 1];
+                    distance += diff * diff;
+                    if (distance < smallestDistance) {
+                        smallestDistance = distance;
+                        nearest = numClass;
+                    }
+                    base += 3;
+                }
+            } else {
+                for (int numClass = 0; numClass < numberOfCentroids; numClass++) {
+                    diff = val - centroidValues[base];
+                    distance = diff * diff;
+                    if (distance < smallestDistance) {
+                        smallestDistance = distance;
+                        nearest = numClass;
+                    }
+                    base += 3;
+                }
+            }
+            if (numberOfCentroids > 0) {
+                nearestCategory = centroidCategories[nearest];
+            } else {
+                System.out.println("NearestCentroid: no centroids available!");
+            }
+        } else {
+            System.out.println("NearestCentroid: lack of emotional dimensions!");
+        }
+        return nearestCategory;
     }
 
 
@@ -156,78 +235,165 @@ public class NearestCentroid extends Classifier {
     public void trainingProcedure() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
-        Hashtable<String, Integer> soleCategories = new Hashtable<String, Integer>();
-        int categoryOrder = 0;
         int presentClassNumber;
-        String presentCat;
-        FeatureBox presentFeats;
-        ArrayList<Integer> numberOfExamples = new ArrayList<Integer>();
-        Float tempFloat;
 
+        // The centroids are rebuilt from scratch
+        numberOfCentroids = 0;
+        // Add up the emotion dimensions
         for (int num_examples = 0; num_examples < exampleFeatures.size(); num_examples++) {
-            presentCat = exampleCategories.get(num_examples);
-            presentFeats = exampleFeatures.get(num_examples);
-            if (!soleCategories.containsKey(presentCat)) {
-                soleCategories.put(presentCat, new Integer(categoryOrder));
-                centroidCategories.add(new String(presentCat));
-                presentClassNumber = categoryOrder;
-                categoryOrder++;
-                numberOfExamples.add(new Integer(1));
-            } else {
-                presentClassNumber = soleCategories.get(presentCat).intValue();
-                numberOfExamples.set(presentClassNumber,
-                    new Integer(numberOfExamples.get(presentClassNumber).intValue() + 1));
-            }
-            // At least we have the valence
-            if (numberOfEmotionalDimensions >= 1) {
-                if (centroidValences.size() > presentClassNumber) {
-                    centroidValences.set(presentClassNumber,
-                        new Float(centroidValences.get(presentClassNumber).floatValue() + presentFeats.getValence()));
-                } else {
-                    centroidValences.add(new Float(presentFeats.getValence()));
-                }
-            }
-            // At least we have the activation
-            if (numberOfEmotionalDimensions >= 2) {
-                if (centroidActivations.size() > presentClassNumber) {
-                    centroidActivations.set(presentClassNumber,
-                        new Float(centroidActivations.get(presentClassNumber).floatValue() +
-                        presentFeats.getActivation()));
-                } else {
-                    centroidActivations.add(new Float(presentFeats.getActivation()));
-                }
-            }
-            // At least we have the control
-            if (numberOfEmotionalDimensions >= 3) {
-                if (centroidControls.size() > presentClassNumber) {
-                    centroidControls.set(presentClassNumber,
-                        new Float(centroidControls.get(presentClassNumber).floatValue() + presentFeats.getControl()));
-                } else {
-                    centroidControls.add(new Float(presentFeats.getControl()));
-                }
+            presentClassNumber = getCentroid(exampleCategories.get(num_examples));
+            centroidCounts[presentClassNumber]++;
+            addFeatures(presentClassNumber, exampleFeatures.get(num_examples), (float)1);
+        }
+        // Calculate the means
+        for (int numClass = 0; numClass < numberOfCentroids; numClass++) {
+            for (int dim = 0; dim < 3; dim++) {
+                centroidValues[numClass * 3 + dim] /= (float)centroidCounts[numClass];
             }
         }
+    }
 
-        FeatureBox tempFeatures;
-        for (int numClass = 0; numClass < centroidCategories.size(); numClass++) {
-            tempFeatures = new FeatureBox();
-            tempFeatures.setNumberOfEmotionalDimensions(numberOfEmotionalDimensions);
-            if (numberOfEmotionalDimensions >= 1) {
-                centroidValences.set(numClass, new Float(centroidValences.get(numClass).floatValue() /
-                    numberOfExamples.get(numClass).floatValue()));
-                tempFeatures.setValence(centroidValences.get(numClass).floatValue());
-            }
-            if (numberOfEmotionalDimensions >= 2) {
-                centroidActivations.set(numClass, new Float(centroidActivations.get(numClass).floatValue() /
-                    numberOfExamples.get(numClass).floatValue()));
-                tempFeatures.setActivation(centroidActivations.get(numClass).floatValue());
+
+    /**
+     * Method to update the centroid of the given category with a new example.
+     * The centroid is moved according to the running mean, and a new centroid
+     * is created if the category is new.
+     *
+     * @param features The input emotional features.
+     * @param cat The category of the input example.
+     */
+    public void update(FeatureBox features, String cat) {
+        int numClass = getCentroid(cat);
+        centroidCounts[numClass]++;
+        float weight = (float)1 / (float)centroidCounts[numClass];
+        // Running mean: c += (x - c) / n
+        scaleCentroid(numClass, (float)1 - weight);
+        addFeatures(numClass, features, weight);
+    }
+
+
+    /**
+     * Method to merge the centroids of another NearestCentroid into this one.
+     * The centroids of the same category are averaged according to the number
+     * of examples of each.
+     *
+     * @param otherModel The other NearestCentroid.
+     *
+     * @throws IllegalArgumentException If the other model is not a NearestCentroid with the same
+     * number of emotional dimensions.
+     */
+    public void merge(OnlineClassifier otherModel) {
+        if (!(otherModel instanceof NearestCentroid)) {
+            throw new IllegalArgumentException("NearestCentroid: only another NearestCentroid can be merged!");
+        }
+        NearestCentroid other = (NearestCentroid)otherModel;
+        if (other.numberOfEmotionalDimensions != numberOfEmotionalDimensions) {
+            throw new IllegalArgumentException("NearestCentroid: the number of emotional dimensions " +
+                "doesn't match!");
+        }
+        int numClass, otherExamples;
+        float weight;
+        for (int otherClass = 0; otherClass < other.numberOfCentroids; otherClass++) {
+            numClass = getCentroid(other.centroidCategories[otherClass]);
+            otherExamples = other.centroidCounts[otherClass];
+            centroidCounts[numClass] += otherExamples;
+            weight = (float)otherExamples / (float)centroidCounts[numClass];
+            scaleCentroid(numClass, (float)1 - weight);
+            for (int dim = 0; dim < 3; dim++) {
+                centroidValues[numClass * 3 + dim] += weight * other.centroidValues[otherClass * 3 + dim];
             }
-            if (numberOfEmotionalDimensions >= 3) {
-                centroidControls.set(numClass, new Float(centroidControls.get(numClass).floatValue() /
-                    numberOfExamples.get(numClass).floatValue()));
-                tempFeatures.setControl(centroidControls.get(numClass).floatValue());
+        }
+    }
+
+
+    /**
+     * Function to retrieve the index of the centroid of a category.
+     * An empty centroid is created if the category is new.
+     *
+     * @param cat The category.
+     *
+     * @return The index of the centroid.
+     */
+    private int getCentroid(String cat) {
+        for (int numClass = 0; numClass < numberOfCentroids; numClass++) {
+            if (centroidCategories[numClass].equals(cat)) {
+                return numClass;
             }
-            theNN.inputTrainingExample(tempFeatures, centroidCategories.get(numClass));
+        }
+        if (numberOfCentroids == centroidCounts.length) {
+            int capacity = 2 * numberOfCentroids;
+            float[] values = new float[3 * capacity];
+            System.arraycopy(centroidValues, 0, values, 0, 3 * numberOfCentroids);
+            centroidValues = values;
+            int[] counts = new int[capacity];
+            System.arraycopy(centroidCounts, 0, counts, 0, numberOfCentroids);
+            centroidCounts = counts;
+            String[] categories = new String[capacity];
+            System.arraycopy(centroidCategories, 0, categories, 0, numberOfCentroids);
+            centroidCategories = categories;
+        }
+        centroidCategories[numberOfCentroids] = new String(cat);
+        centroidCounts[numberOfCentroids] = 0;
+        for (int dim = 0; dim < 3; dim++) {
+            centroidValues[numberOfCentroids * 3 + dim] = 0;
+        }
+        numberOfCentroids++;
+        return numberOfCentroids - 1;
+    }
+
+
+    /**
+     * Method to add the weighted emotion dimensions of an example to a centroid.
+     *
+     * @param numClass The index of the centroid.
+     * @param features The features of the example.
+     * @param weight The weight.
+     */
+    private void addFeatures(int numClass, FeatureBox features, float weight) {
+        int base = numClass * 3;
+        // At least we have the valence
+        if (numberOfEmotionalDimensions >= 1) {
+            centroidValues[base] += weight * features.getValence();
+        }
+        // At least we have the activation
+        if (numberOfEmotionalDimensions >= 2) {
+            centroidValues[base + 1] += weight * features.getActivation();
+        }
+        // At least we have the control
+        if (numberOfEmotionalDimensions >= 3) {
+            centroidValues[base + 2] += weight * features.getControl();
+        }
+    }
+
+
+    /**
+     * Method to scale a centroid.
+     *
+     * @param numClass The index of the centroid.
+     * @param factor The scaling factor.
+     */
+    private void scaleCentroid(int numClass, float factor) {
+        for (int dim = 0; dim < 3; dim++) {
+            centroidValues[numClass * 3 + dim] *= factor;
+        }
+    }
+
+
+    /**
+     * Function to get the path of the binary model that corresponds to a given
+     * (XML) model path, i.e., with the ".bin" extension.
+     *
+     * @param path The path of the model.
+     *
+     * @return The path of the binary model.
+     */
+    private String getBinaryPath(String path) {
+        if (path.endsWith(".xml")) {
+            return path.substring(0, path.length() - 4) + ".bin";
+        } else if (path.endsWith(".bin")) {
+            return path;
+        } else {
+            return path + ".bin";
         }
     }
 
@@ -236,6 +402,10 @@ public class NearestCentroid extends Classifier {
      * @see emolib.classifier.Classifier#save(java.lang.String)
      */
     public void save(String path) {
+        if (path.endsWith(".bin")) {
+            saveBinary(path);
+            return;
+        }
         Element root = new Element("classifier");
 
         // Information about this classifier.
@@ -256,7 +426,7 @@ public class NearestCentroid extends Classifier {
         info.addContent(numDimensions);
 
         Element numCategories = new Element("num_categories");
-        numCategories.setText(Integer.toString(centroidCategories.size()));
+        numCategories.setText(Integer.toString(numberOfCentroids));
         info.addContent(numCategories);
 
         root.addContent(info);
@@ -264,16 +434,17 @@ public class NearestCentroid extends Classifier {
         // The set of centroids is defined.
         Element params = new Element("parameters");
         Element centroid;
-        for (int ncats = 0; ncats < centroidCategories.size(); ncats++) {
+        for (int ncats = 0; ncats < numberOfCentroids; ncats++) {
             centroid = new Element("centroid");
-            centroid.setAttribute("val", Float.toString(centroidValences.get(ncats)));
+            centroid.setAttribute("val", Float.toString(centroidValues[ncats * 3]));
             if (numberOfEmotionalDimensions >= 2) {
-                centroid.setAttribute("act", Float.toString(centroidActivations.get(ncats)));
+                centroid.setAttribute("act", Float.toString(centroidValues[ncats * 3 + 1]));
             }
             if (numberOfEmotionalDimensions >= 3) {
-                centroid.setAttribute("con", Float.toString(centroidControls.get(ncats)));
+                centroid.setAttribute("con", Float.toString(centroidValues[ncats * 3 + 2]));
             }
-            centroid.setAttribute("cat", centroidCategories.get(ncats));
+            centroid.setAttribute("cat", centroidCategories[ncats]);
+            centroid.setAttribute("num", Integer.toString(centroidCounts[ncats]));
             params.addContent(centroid);
         }
         root.addContent(params);
@@ -307,10 +478,107 @@ public class NearestCentroid extends Classifier {
     }
 
 
+    /**
+     * Method to save this classifier in a compact binary form.
+     * The file contains a header (magic number and version), the number of
+     * dimensions and centroids, and then the category, the number of examples
+     * and the three emotion dimensions of each centroid.
+     *
+     * @param path The complete path of the output binary file.
+     */
+    public void saveBinary(String path) {
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(path)));
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeInt(numberOfEmotionalDimensions);
+            out.writeInt(numberOfCentroids);
+            for (int ncats = 0; ncats < numberOfCentroids; ncats++) {
+                out.writeUTF(centroidCategories[ncats]);
+                out.writeInt(centroidCounts[ncats]);
+                out.writeFloat(centroidValues[ncats * 3]);
+                out.writeFloat(centroidValues[ncats * 3 + 1]);
+                out.writeFloat(centroidValues[ncats * 3 + 2]);
+            }
+            out.close();
+        } catch (Exception e) {
+            System.out.println("NearestCentroid: problem writing the binary file!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Function to load a classifier previously saved in binary form.
+     * The header is checked before anything is read into the classifier.
+     *
+     * @param path The path of the binary file.
+     *
+     * @throws IOException If the file can't be read, it isn't a NearestCentroid
+     * binary model or it has been written with an unknown version.
+     */
+    private void loadBinary(String path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(
+            new FileInputStream(path)));
+        try {
+            if (in.readInt() != BINARY_MAGIC) {
+                throw new IOException("NearestCentroid: " + path + " is not a binary model!");
+            }
+            int version = in.readInt();
+            if (version != BINARY_VERSION) {
+                throw new IOException("NearestCentroid: unknown version " + version +
+                    " of the binary file " + path + "!");
+            }
+            setNumberOfEmotionalDimensions(in.readInt());
+            int numCentroids = in.readInt();
+            int numClass;
+            for (int ncentroid = 0; ncentroid < numCentroids; ncentroid++) {
+                numClass = getCentroid(in.readUTF());
+                centroidCounts[numClass] = in.readInt();
+                centroidValues[numClass * 3] = in.readFloat();
+                centroidValues[numClass * 3 + 1] = in.readFloat();
+                centroidValues[numClass * 3 + 2] = in.readFloat();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+
+    /**
+     * Function to check if a file contains a binary model.
+     *
+     * @param path The path of the file.
+     *
+     * @return True if the file starts with the binary header.
+     */
+    private boolean isBinaryFile(String path) {
+        boolean binary = false;
+        try {
+            DataInputStream in = new DataInputStream(new FileInputStream(path));
+            binary = (in.readInt() == BINARY_MAGIC);
+            in.close();
+        } catch (Exception e) {
+            binary = false;
+        }
+        return binary;
+    }
+
+
     /* (non-Javadoc)
      * @see emolib.classifier.Classifier#load(java.lang.String)
      */
     public void load(String path) {
+        if (isBinaryFile(path)) {
+            try {
+                loadBinary(path);
+            } catch (IOException e) {
+                System.out.println("NearestCentroid: a problem occurred while loading the classifier binary file!");
+                e.printStackTrace();
+            }
+            return;
+        }
         try {
             SAXBuilder builder = new SAXBuilder();
             Document doc = builder.build(new File(path));
@@ -324,25 +592,32 @@ public class NearestCentroid extends Classifier {
             setNumberOfEmotionalDimensions((Integer.valueOf(ndims.getText())).intValue());
 
             // Get the centroids.
-            FeatureBox tempFeatures;
+            int numClass;
             List listParams = root.getChildren("parameters");
             Element params = (Element)listParams.get(0);
             List listCentroids = params.getChildren("centroid");
             Element centroid;
             for (int ncentroid = 0; ncentroid < listCentroids.size(); ncentroid++) {
                 centroid = (Element)listCentroids.get(ncentroid);
-                tempFeatures = new FeatureBox();
-                tempFeatures.setNumberOfEmotionalDimensions(numberOfEmotionalDimensions);
+                numClass = getCentroid(centroid.getAttributeValue("cat"));
                 if (numberOfEmotionalDimensions >= 1) {
-                    tempFeatures.setValence((Float.valueOf(centroid.getAttributeValue("val"))).floatValue());
+                    centroidValues[numClass * 3] = (Float.valueOf(centroid.getAttributeValue("val"))).floatValue();
                 }
                 if (numberOfEmotionalDimensions >= 2) {
-                    tempFeatures.setActivation((Float.valueOf(centroid.getAttributeValue("act"))).floatValue());
+                    centroidValues[numClass * 3 + 1] =
+                        (Float.valueOf(centroid.getAttributeValue("act"))).floatValue();
                 }
                 if (numberOfEmotionalDimensions >= 3) {
-                    tempFeatures.setControl((Float.valueOf(centroid.getAttributeValue("con"))).floatValue());
+                    centroidValues[numClass * 3 + 2] =
+                        (Float.valueOf(centroid.getAttributeValue("con"))).floatValue();
+                }
+                // Older models don't keep the number of examples, so each
+                // centroid counts as one example.
+                if (centroid.getAttributeValue("num") != null) {
+                    centroidCounts[numClass] = Integer.valueOf(centroid.getAttributeValue("num")).intValue();
+                } else {
+                    centroidCounts[numClass] = 1;
                 }
-                theNN.inputTrainingExample(tempFeatures, centroid.getAttributeValue("cat"));
             }
         } catch (JDOMException e) {
             System.out.println("NearestCentroid: a problem occurred while loading the classifier XML!");
@@ -359,12 +634,7 @@ public class NearestCentroid extends Classifier {
     @Override
     public void resetExamples() {
         super.resetExamples();
-        centroidValences = new ArrayList<Float>();
-        centroidActivations = new ArrayList<Float>();
-        centroidControls = new ArrayList<Float>();
-        centroidCategories = new ArrayList<String>();
-        theNN = new KNearestNeighbour();
-        theNN.setNumberOfEmotionalDimensions(numberOfEmotionalDimensions);
+        numberOfCentroids = 0;
     }
 
 
@@ -374,8 +644,12 @@ public class NearestCentroid extends Classifier {
     public static void main(String[] args) throws Exception {
         NearestCentroid nc = new NearestCentroid();
 
-        if ((args.length == 3) && ((Integer.valueOf(args[0]).intValue() == 1) ||
-        (Integer.valueOf(args[0]).intValue() == 2) || ((Integer.valueOf(args[0]).intValue() == 3)))) {
+        if ((args.length == 3) && args[0].equals("-bin")) {
+            // Conversion of an XML model into its binary form
+            nc.load(args[1]);
+            nc.saveBinary(args[2]);
+        } else if ((args.length == 3) && (args[0].equals("1") || args[0].equals("2") ||
+        args[0].equals("3"))) {
             //
             int numberDims = Integer.valueOf(args[0]).intValue();
             nc.setNumberOfEmotionalDimensions(numberDims);
@@ -433,7 +707,52 @@ public class NearestCentroid extends Classifier {
         System.out.println("NearestCentroid trainer usage:");
         System.out.println("\tjava " + "[-Xmx256m] -cp EmoLib-X.Y.Z.jar emolib.classifier.machinelearning." +
             "NearestCentroid NUMBER_OF_DIMENTIONS INPUT_TRAINING_DATASET OUTPUT_XML_FILE");
+        System.out.println("\t(the model is saved in binary form if OUTPUT_XML_FILE ends with .bin)");
+        System.out.println("NearestCentroid XML to binary model conversion usage:");
+        System.out.println("\tjava " + "[-Xmx256m] -cp EmoLib-X.Y.Z.jar emolib.classifier.machinelearning." +
+            "NearestCentroid -bin INPUT_XML_FILE OUTPUT_BIN_FILE");
     }
 
-}
 
+    /**
+     * Functionality test of the XML to binary model conversion from the command line.
+     */
+    @Test public void binaryConversion() throws Exception {
+        File trainingFile = File.createTempFile("emolib.nc", ".txt");
+        File xmlFile = File.createTempFile("emolib.nc", ".xml");
+        File binFile = File.createTempFile("emolib.nc", ".bin");
+        PrintWriter training = new PrintWriter(new FileWriter(trainingFile));
+        training.println("2.0 6.0 4.0 NEG");
+        training.println("3.0 5.0 3.0 NEG");
+        training.println("5.0 4.0 5.0 NEU");
+        training.println("8.0 6.5 7.0 POS");
+        training.println("7.0 6.0 6.0 POS");
+        training.close();
+        NearestCentroid.main(new String[]{"3", trainingFile.getPath(), xmlFile.getPath()});
+        NearestCentroid.main(new String[]{"-bin", xmlFile.getPath(), binFile.getPath()});
+        Assert.assertTrue(isBinaryFile(binFile.getPath()));
+        //
+        NearestCentroid fromXML = new NearestCentroid();
+        fromXML.load(xmlFile.getPath());
+        NearestCentroid fromBinary = new NearestCentroid();
+        fromBinary.load(binFile.getPath());
+        float[][] tests = {{2.5f, 5.5f, 3.5f}, {5.0f, 4.5f, 5.0f}, {7.5f, 6.0f, 6.5f}, {4.0f, 5.0f, 4.0f}};
+        String[] expected = {"NEG", "NEU", "POS", null};
+        FeatureBox feat;
+        for (int test = 0; test < tests.length; test++) {
+            feat = new FeatureBox();
+            feat.setNumberOfEmotionalDimensions(3);
+            feat.setValence(tests[test][0]);
+            feat.setActivation(tests[test][1]);
+            feat.setControl(tests[test][2]);
+            if (expected[test] != null) {
+                Assert.assertEquals(expected[test], fromXML.getCategory(feat));
+            }
+            Assert.assertEquals(fromXML.getCategory(feat), fromBinary.getCategory(feat));
+        }
+        trainingFile.delete();
+        xmlFile.delete();
+        binFile.delete();
+    }
+
+}
@@ -18,10 +18,12 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
 
 import emolib.classifier.machinelearning.ARNReduced.Graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.HashMap;
 import java.lang.Math;
@@ -54,7 +56,7 @@ import java.lang.Math;
 public class OrdinalLogReg extends Classifier {
 
     // Core
-    private ArrayList<ArrayList<Double>> theBetas;
+    private double[][] theBetas;
 
     // Term Weighting scheme core
     private ARNReduced arnR;
@@ -69,6 +71,16 @@ public class OrdinalLogReg extends Classifier {
     //
     private HashMap<String, Integer> categoryHash;
 
+    // Optimisation settings
+    private double learningRate;
+    private double minImprovement;
+    private int maxEpochs;
+
+    // Weighted training vectors, which may be shared among instances
+    private ArrayList<SparseVector> trainingVectors;
+    private int[] trainingCategories;
+    private boolean sharedFeatures;
+
 
     /**
      * Main constructor of this logistic regression classifier.
@@ -85,6 +97,12 @@ public class OrdinalLogReg extends Classifier {
         synonyms = false;
         emotionDims = false;
         negation = false;
+        learningRate = 0.01;
+        minImprovement = 0.001;
+        maxEpochs = 1000;
+        trainingVectors = null;
+        trainingCategories = null;
+        sharedFeatures = false;
     }
 
 
@@ -96,15 +114,9 @@ public class OrdinalLogReg extends Classifier {
         Iterator categoryLabels = arnR.getCategoryList().iterator();
         String catLab = (String)categoryLabels.next();
         int catNum = categoryHash.get(catLab);
-        Graph tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-        arnR.applyTermWeighing(tempGraph, catNum);
-        float[] tmpVector = tempGraph.exportWeighedVector();
-        double[] weightedVector = createWeightedVector(tmpVector,
-            inputFeatures);
-        ArrayList<Double> wVector = new ArrayList<Double>();
-        for (int i = 0; i < weightedVector.length; i++) {
-            wVector.add(new Double(weightedVector[i]));
-        }
+        Graph inputGraph = arnR.buildGraph(inputFeatures);
+        SparseVector wVector = createWeightedVector(
+            arnR.buildSparseVector(inputGraph, catNum), inputFeatures);
         double probability = calcProbability(catNum, wVector);
         String newCatLab;
         int newCatNum;
@@ -112,14 +124,8 @@ public class OrdinalLogReg extends Classifier {
         while (categoryLabels.hasNext()) {
             newCatLab = (String)categoryLabels.next();
             newCatNum = categoryHash.get(newCatLab);
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-            arnR.applyTermWeighing(tempGraph, newCatNum);
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector, inputFeatures);
-            wVector = new ArrayList<Double>();
-            for (int i = 0; i < weightedVector.length; i++) {
-                wVector.add(new Double(weightedVector[i]));
-            }
+            wVector = createWeightedVector(
+                arnR.buildSparseVector(inputGraph, newCatNum), inputFeatures);
             newProb = calcProbability(newCatNum, wVector);
             if (newProb > probability) {
                 probability = newProb;
@@ -134,46 +140,62 @@ public class OrdinalLogReg extends Classifier {
     /**
      * Function to create the weighted vector apt for this classifier.
      *
-     * @param lexvect The TW vector of lexical features.
+     * @param lexvect The TW sparse vector of lexical features.
      * @param fbox All the feats.
      *
-     * @return The weighted vector.
+     * @return The weighted sparse vector.
      */
-    private double[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
+    private SparseVector createWeightedVector(SparseVector lexvect,
+        FeatureBox fbox) {
+        int totalen = lexvect.getDimension();
+        int numValues = lexvect.getNumberOfValues();
         int offset = 0;
+        int pos = 0;
         if (interceptFeat) {
             totalen++;
+            numValues++;
         }
         if (emotionDims) {
             totalen += 3;
+            numValues += 3;
         }
         if (negation) {
             totalen++;
+            numValues++;
         }
-        double[] weightedVector = new double[totalen];
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
         if (interceptFeat) {
-            weightedVector[0] = (double)1;
+            indices[pos] = 0;
+            values[pos] = (float)1;
+            pos++;
             offset++;
         }
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = (double)lexvect[i];
+        for (int i = 0; i < lexvect.getNumberOfValues(); i++) {
+            indices[pos] = lexvect.getIndex(i) + offset;
+            values[pos] = lexvect.getValue(i);
+            pos++;
         }
-        offset += lexvect.length;
+        offset += lexvect.getDimension();
         if (emotionDims) {
-            weightedVector[offset] = (double)fbox.getValence();
-            weightedVector[offset + 1] = (double)fbox.getActivation();
-            weightedVector[offset + 2] = (double)fbox.getControl();
+            indices[pos] = offset;
+            values[pos] = fbox.getValence();
+            indices[pos + 1] = offset + 1;
+            values[pos + 1] = fbox.getActivation();
+            indices[pos + 2] = offset + 2;
+            values[pos + 2] = fbox.getControl();
+            pos += 3;
             offset += 3;
         }
         if (negation) {
+            indices[pos] = offset;
             if (fbox.getNegation()) {
-                weightedVector[offset] = (double)1;
+                values[pos] = (float)1;
             } else {
-                weightedVector[offset] = (double)0;
+                values[pos] = (float)0;
             }
         }
-        return weightedVector;
+        return new SparseVector(indices, values, totalen);
     }
 
 
@@ -184,6 +206,22 @@ public class OrdinalLogReg extends Classifier {
      * @see emolib.classifier.Classifier#trainingProcedure()
      */
     public void trainingProcedure() {
+        if (!sharedFeatures) {
+            prepareFeatures();
+        }
+        estimateLogistic(trainingVectors, trainingCategories,
+            learningRate,
+            minImprovement,
+            maxEpochs);
+    }
+
+
+    /**
+     * Method to extract the weighted vectors of the training examples
+     * (i.e., to train the ARN-R and weight the terms), which is the part of
+     * the training that does not depend on the optimisation settings.
+     */
+    public void prepareFeatures() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
         arnR = new ARNReduced();
@@ -196,33 +234,69 @@ public class OrdinalLogReg extends Classifier {
         }
         arnR.train();
         categoryHash = arnR.getCategoryHash();
-        // Time to train the logistic regression
-        int[] goldStandardCats = new int[exampleCategories.size()];
-        ArrayList<ArrayList<Double>> goldStandardFeats =
-            new ArrayList<ArrayList<Double>>();
+        trainingCategories = new int[exampleCategories.size()];
+        trainingVectors = new ArrayList<SparseVector>();
         //
-        Graph tempGraph;
-        double[] weightedVector;
-        float[] tmpVector;
         for (int exNum = 0; exNum < exampleFeatures.size(); exNum++) {
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(exampleFeatures.
-                get(exNum)));
-            arnR.applyTermWeighing(tempGraph,
-                categoryHash.get(exampleCategories.get(exNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector,
-                exampleFeatures.get(exNum));
-            goldStandardFeats.add(new ArrayList<Double>());
-            for (int f = 0; f < weightedVector.length; f++) {
-                goldStandardFeats.get(exNum).add(new Double(weightedVector[f]));
-            }
-            goldStandardCats[exNum] = categoryHash.
+            trainingVectors.add(createWeightedVector(arnR.buildSparseVector(
+                arnR.buildGraph(exampleFeatures.get(exNum)),
+                categoryHash.get(exampleCategories.get(exNum)).intValue()),
+                exampleFeatures.get(exNum)));
+            trainingCategories[exNum] = categoryHash.
                 get(exampleCategories.get(exNum)).intValue();
         }
-        estimateLogistic(goldStandardFeats, goldStandardCats,
-            0.01, // learning rate
-            0.001, // min improve
-            1000); // max epochs
+    }
+
+
+    /**
+     * Method to reuse the extracted features of another OrdinalLogReg, which
+     * must have been prepared with the same examples and term weighting
+     * settings. The features are only read, so several instances may be
+     * trained concurrently with different optimisation settings.
+     *
+     * @param other The other OrdinalLogReg.
+     */
+    public void shareFeatures(OrdinalLogReg other) {
+        if (other.trainingVectors == null) {
+            System.out.println("OrdinalLogReg: the features to share haven't been prepared!");
+            return;
+        }
+        arnR = other.arnR;
+        categoryHash = other.categoryHash;
+        trainingVectors = other.trainingVectors;
+        trainingCategories = other.trainingCategories;
+        sharedFeatures = true;
+    }
+
+
+    /**
+     * Method to set the learning rate of the gradient descent.
+     *
+     * @param lrate The learning rate.
+     */
+    public void setLearningRate(double lrate) {
+        learningRate = lrate;
+    }
+
+
+    /**
+     * Method to set the minimum relative improvement of the error between
+     * epochs, below which the gradient descent stops.
+     *
+     * @param impr The minimum improvement.
+     */
+    public void setMinImprovement(double impr) {
+        minImprovement = impr;
+    }
+
+
+    /**
+     * Method to set the maximum number of epochs of the gradient descent.
+     *
+     * @param epochs The maximum number of epochs.
+     */
+    public void setMaxEpochs(int epochs) {
+        maxEpochs = epochs;
     }
 
 
@@ -236,7 +310,7 @@ public class OrdinalLogReg extends Classifier {
      * @param maxepochs The maximum number of epochs.
      */
     private void estimateLogistic(
-        ArrayList<ArrayList<Double>> feats,
+        ArrayList<SparseVector> feats,
         int[] cats,
         double lrate,
         double impr,
@@ -244,52 +318,49 @@ public class OrdinalLogReg extends Classifier {
         // Initialisation
         // theBetas[0] --> NEGATIVE P_N
         // theBetas[1] --> NEUTRAL P_NN
-        theBetas = new ArrayList<ArrayList<Double>>();
-        for (int c = 0; c < (categoryHash.size() - 1); c++) {
-            theBetas.add(new ArrayList<Double>());
-            for (int d = 0; d < feats.get(0).size(); d++) {
-                theBetas.get(c).add(new Double((double)c));
-            }
+        theBetas = new double[categoryHash.size() - 1][feats.get(0).getDimension()];
+        for (int c = 0; c < theBetas.length; c++) {
+            Arrays.fill(theBetas[c], (double)c);
         }
         double expN, expNN, update, newErr, probNEG, probNEU, probPOS;
+        SparseVector example;
         double error = calcError(feats, cats);
         System.out.println("Ini err: " + error);
         for (int epoch = 0; epoch < maxepochs; epoch++) {
             for (int ex = 0; ex < cats.length; ex++) {
-                expN = calcExp(0, feats.get(ex));
-                expNN = calcExp(1, feats.get(ex));
-                probNEG = calcProbability(categoryHash.get("NEG"), feats.get(ex));
-                probNEU = calcProbability(categoryHash.get("NEU"), feats.get(ex));
-                probPOS = calcProbability(categoryHash.get("POS"), feats.get(ex));
-                for (int dim = 0; dim < feats.get(0).size(); dim++) {
+                example = feats.get(ex);
+                expN = calcExp(0, example);
+                expNN = calcExp(1, example);
+                probNEG = calcProbability(categoryHash.get("NEG"), example);
+                probNEU = calcProbability(categoryHash.get("NEU"), example);
+                probPOS = calcProbability(categoryHash.get("POS"), example);
+                // Null features yield null updates, so only the observed
+                // ones are visited.
+                for (int v = 0; v < example.getNumberOfValues(); v++) {
                     // B_N
                     update = 0; // Default for POS
                     if (cats[ex] == categoryHash.get("NEG")) {
                         update = ((double)(-1) / probNEG) *
-                            expN * feats.get(ex).get(dim).doubleValue() /
+                            expN * (double)example.getValue(v) /
                             Math.pow((double)1 + expN, (double)2);
                     } else if (cats[ex] == categoryHash.get("NEU")) {
                         update = ((double)(1) / probNEU) *
-                            expN * feats.get(ex).get(dim).doubleValue() /
+                            expN * (double)example.getValue(v) /
                             Math.pow((double)1 + expN, (double)2);
                     }
-                    theBetas.get(0).set(dim,
-                        new Double(theBetas.get(0).
-                        get(dim).doubleValue() - lrate * update));
+                    theBetas[0][example.getIndex(v)] -= lrate * update;
                     // B_NN
                     update = 0; // Default for NEG
                     if (cats[ex] == categoryHash.get("NEU")) {
                         update = ((double)(-1) / probNEU) *
-                            expNN * feats.get(ex).get(dim).doubleValue() /
+                            expNN * (double)example.getValue(v) /
                             Math.pow((double)1 + expNN, (double)2);
                     } else if (cats[ex] == categoryHash.get("POS")) {
                         update = ((double)(1) / probPOS) *
-                            expNN * feats.get(ex).get(dim).doubleValue() /
+                            expNN * (double)example.getValue(v) /
                             Math.pow((double)1 + expNN, (double)2);
                     }
-                    theBetas.get(1).set(dim,
-                        new Double(theBetas.get(1).
-                        get(dim).doubleValue() - lrate * update));
+                    theBetas[1][example.getIndex(v)] -= lrate * update;
                 }
             }
             newErr = calcError(feats, cats);
@@ -312,13 +383,8 @@ public class OrdinalLogReg extends Classifier {
      *
      * @return The exponential.
      */
-    private double calcExp(int cat, ArrayList<Double> feats) {
-        double e = 0;
-        for (int i = 0; i < feats.size(); i++) {
-            e -= theBetas.get(cat).get(i).doubleValue() *
-               feats.get(i).doubleValue();
-        }
-        return Math.exp(e);
+    private double calcExp(int cat, SparseVector feats) {
+        return Math.exp((double)(-1) * feats.dotProduct(theBetas[cat]));
     }
 
 
@@ -330,7 +396,7 @@ public class OrdinalLogReg extends Classifier {
      *
      * @return The probability.
      */
-    private double calcProbability(int cat, ArrayList<Double> feats) {
+    private double calcProbability(int cat, SparseVector feats) {
         double expN = calcExp(0, feats);
         double expNN = calcExp(1, feats);
         double prob = 0;
@@ -355,7 +421,7 @@ public class OrdinalLogReg extends Classifier {
      *
      * @return The error.
      */
-    private double calcError(ArrayList<ArrayList<Double>> feats, int[] cats) {
+    private double calcError(ArrayList<SparseVector> feats, int[] cats) {
         double error = 0;
         for (int ex = 0; ex < cats.length; ex++) {
             error -= Math.log(calcProbability(cats[ex], feats.get(ex)));
@@ -494,6 +560,9 @@ public class OrdinalLogReg extends Classifier {
         theBetas = null;
         arnR = null;
         categoryHash = null;
+        trainingVectors = null;
+        trainingCategories = null;
+        sharedFeatures = false;
     }
 
 }
@@ -18,6 +18,7 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
+import emolib.classifier.SparseVector;
 
 import emolib.classifier.machinelearning.ARNReduced.Graph;
 
@@ -47,7 +48,7 @@ import java.lang.Math;
 public class RiskLogReg extends Classifier {
 
     // Core
-    private ArrayList<ArrayList<Double>> theBetas;
+    private double[][] theBetas;
 
     // Term Weighting scheme core
     private ARNReduced arnR;
@@ -62,6 +63,16 @@ public class RiskLogReg extends Classifier {
     //
     private HashMap<String, Integer> categoryHash;
 
+    // Optimisation settings
+    private double learningRate;
+    private double minImprovement;
+    private int maxEpochs;
+
+    // Weighted training vectors, which may be shared among instances
+    private ArrayList<SparseVector> trainingVectors;
+    private int[] trainingCategories;
+    private boolean sharedFeatures;
+
 
     /**
      * Main constructor of this logistic regression classifier.
@@ -78,6 +89,12 @@ public class RiskLogReg extends Classifier {
         synonyms = false;
         emotionDims = false;
         negation = false;
+        learningRate = 0.0001;
+        minImprovement = 0.0001;
+        maxEpochs = 10;
+        trainingVectors = null;
+        trainingCategories = null;
+        sharedFeatures = false;
     }
 
 
@@ -89,15 +106,9 @@ public class RiskLogReg extends Classifier {
         Iterator categoryLabels = arnR.getCategoryList().iterator();
         String catLab = (String)categoryLabels.next();
         int catNum = categoryHash.get(catLab);
-        Graph tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-        arnR.applyTermWeighing(tempGraph, catNum);
-        float[] tmpVector = tempGraph.exportWeighedVector();
-        double[] weightedVector = createWeightedVector(tmpVector,
-            inputFeatures);
-        ArrayList<Double> wVector = new ArrayList<Double>();
-        for (int i = 0; i < weightedVector.length; i++) {
-            wVector.add(new Double(weightedVector[i]));
-        }
+        Graph inputGraph = arnR.buildGraph(inputFeatures);
+        SparseVector wVector = createWeightedVector(
+            arnR.buildSparseVector(inputGraph, catNum), inputFeatures);
         double prob = calcProbability(catNum, wVector);
         String newCatLab;
         int newCatNum;
@@ -105,14 +116,8 @@ public class RiskLogReg extends Classifier {
         while (categoryLabels.hasNext()) {
             newCatLab = (String)categoryLabels.next();
             newCatNum = categoryHash.get(newCatLab);
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(inputFeatures));
-            arnR.applyTermWeighing(tempGraph, newCatNum);
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector, inputFeatures);
-            wVector = new ArrayList<Double>();
-            for (int i = 0; i < weightedVector.length; i++) {
-                wVector.add(new Double(weightedVector[i]));
-            }
+            wVector = createWeightedVector(
+                arnR.buildSparseVector(inputGraph, newCatNum), inputFeatures);
             newProb = calcProbability(newCatNum, wVector);
             if (newProb > prob) {
                 prob = newProb;
@@ -127,46 +132,62 @@ public class RiskLogReg extends Classifier {
     /**
      * Function to create the weighted vector apt for this classifier.
      *
-     * @param lexvect The TW vector of lexical features.
+     * @param lexvect The TW sparse vector of lexical features.
      * @param fbox All the feats.
      *
-     * @return The weighted vector.
+     * @return The weighted sparse vector.
      */
-    private double[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
+    private SparseVector createWeightedVector(SparseVector lexvect,
+        FeatureBox fbox) {
+        int totalen = lexvect.getDimension();
+        int numValues = lexvect.getNumberOfValues();
         int offset = 0;
+        int pos = 0;
         if (interceptFeat) {
             totalen++;
+            numValues++;
         }
         if (emotionDims) {
             totalen += 3;
+            numValues += 3;
         }
         if (negation) {
             totalen++;
+            numValues++;
         }
-        double[] weightedVector = new double[totalen];
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
         if (interceptFeat) {
-            weightedVector[0] = (double)1;
+            indices[pos] = 0;
+            values[pos] = (float)1;
+            pos++;
             offset++;
         }
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = (double)lexvect[i];
+        for (int i = 0; i < lexvect.getNumberOfValues(); i++) {
+            indices[pos] = lexvect.getIndex(i) + offset;
+            values[pos] = lexvect.getValue(i);
+            pos++;
         }
-        offset += lexvect.length;
+        offset += lexvect.getDimension();
         if (emotionDims) {
-            weightedVector[offset] = (double)fbox.getValence();
-            weightedVector[offset + 1] = (double)fbox.getActivation();
-            weightedVector[offset + 2] = (double)fbox.getControl();
+            indices[pos] = offset;
+            values[pos] = fbox.getValence();
+            indices[pos + 1] = offset + 1;
+            values[pos + 1] = fbox.getActivation();
+            indices[pos + 2] = offset + 2;
+            values[pos + 2] = fbox.getControl();
+            pos += 3;
             offset += 3;
         }
         if (negation) {
+            indices[pos] = offset;
             if (fbox.getNegation()) {
-                weightedVector[offset] = (double)1;
+                values[pos] = (float)1;
             } else {
-                weightedVector[offset] = (double)0;
+                values[pos] = (float)0;
             }
         }
-        return weightedVector;
+        return new SparseVector(indices, values, totalen);
     }
 
 
@@ -177,6 +198,22 @@ public class RiskLogReg extends Classifier {
      * @see emolib.classifier.Classifier#trainingProcedure()
      */
     public void trainingProcedure() {
+        if (!sharedFeatures) {
+            prepareFeatures();
+        }
+        estimateLogistic(trainingVectors, trainingCategories,
+            learningRate,
+            minImprovement,
+            maxEpochs);
+    }
+
+
+    /**
+     * Method to extract the weighted vectors of the training examples
+     * (i.e., to train the ARN-R and weight the terms), which is the part of
+     * the training that does not depend on the optimisation settings.
+     */
+    public void prepareFeatures() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
         arnR = new ARNReduced();
@@ -189,33 +226,69 @@ public class RiskLogReg extends Classifier {
         }
         arnR.train();
         categoryHash = arnR.getCategoryHash();
-        // Time to train the logistic regression
-        int[] goldStandardCats = new int[exampleCategories.size()];
-        ArrayList<ArrayList<Double>> goldStandardFeats =
-            new ArrayList<ArrayList<Double>>();
+        trainingCategories = new int[exampleCategories.size()];
+        trainingVectors = new ArrayList<SparseVector>();
         //
-        Graph tempGraph;
-        double[] weightedVector;
-        float[] tmpVector;
         for (int exNum = 0; exNum < exampleFeatures.size(); exNum++) {
-            tempGraph = arnR.buildFullGraph(arnR.buildGraph(exampleFeatures.
-                get(exNum)));
-            arnR.applyTermWeighing(tempGraph,
-                categoryHash.get(exampleCategories.get(exNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector,
-                exampleFeatures.get(exNum));
-            goldStandardFeats.add(new ArrayList<Double>());
-            for (int f = 0; f < weightedVector.length; f++) {
-                goldStandardFeats.get(exNum).add(new Double(weightedVector[f]));
-            }
-            goldStandardCats[exNum] = categoryHash.
+            trainingVectors.add(createWeightedVector(arnR.buildSparseVector(
+                arnR.buildGraph(exampleFeatures.get(exNum)),
+                categoryHash.get(exampleCategories.get(exNum)).intValue()),
+                exampleFeatures.get(exNum)));
+            trainingCategories[exNum] = categoryHash.
                 get(exampleCategories.get(exNum)).intValue();
         }
-        estimateLogistic(goldStandardFeats, goldStandardCats,
-            0.0001, // learning rate
-            0.0001, // min improve
-            10); // max epochs
+    }
+
+
+    /**
+     * Method to reuse the extracted features of another RiskLogReg, which
+     * must have been prepared with the same examples and term weighting
+     * settings. The features are only read, so several instances may be
+     * trained concurrently with different optimisation settings.
+     *
+     * @param other The other RiskLogReg.
+     */
+    public void shareFeatures(RiskLogReg other) {
+        if (other.trainingVectors == null) {
+            System.out.println("RiskLogReg: the features to share haven't been prepared!");
+            return;
+        }
+        arnR = other.arnR;
+        categoryHash = other.categoryHash;
+        trainingVectors = other.trainingVectors;
+        trainingCategories = other.trainingCategories;
+        sharedFeatures = true;
+    }
+
+
+    /**
+     * Method to set the learning rate of the gradient descent.
+     *
+     * @param lrate The learning rate.
+     */
+    public void setLearningRate(double lrate) {
+        learningRate = lrate;
+    }
+
+
+    /**
+     * Method to set the minimum relative improvement of the error between
+     * epochs, below which the gradient descent stops.
+     *
+     * @param impr The minimum improvement.
+     */
+    public void setMinImprovement(double impr) {
+        minImprovement = impr;
+    }
+
+
+    /**
+     * Method to set the maximum number of epochs of the gradient descent.
+     *
+     * @param epochs The maximum number of epochs.
+     */
+    public void setMaxEpochs(int epochs) {
+        maxEpochs = epochs;
     }
 
 
@@ -229,34 +302,32 @@ public class RiskLogReg extends Classifier {
      * @param maxepochs The maximum number of epochs.
      */
     private void estimateLogistic(
-        ArrayList<ArrayList<Double>> feats,
+        ArrayList<SparseVector> feats,
         int[] cats,
         double lrate,
         double impr,
         int maxepochs) {
         // Initialisation
-        theBetas = new ArrayList<ArrayList<Double>>();
-        for (int c = 0; c < categoryHash.size(); c++) {
-            theBetas.add(new ArrayList<Double>());
-            for (int d = 0; d < feats.get(0).size(); d++) {
-                theBetas.get(c).add(new Double("0"));
-            }
-        }
+        theBetas = new double[categoryHash.size()][feats.get(0).getDimension()];
         double partition, exp, update, newErr, riskProb, preup;
+        SparseVector example;
         double error = calcError(feats, cats);
         System.out.println("Err ini: " + error);
         for (int epoch = 0; epoch < maxepochs; epoch++) {
             for (int ex = 0; ex < cats.length; ex++) {
-                partition = calcPartition(feats.get(ex));
-                riskProb = calcRisk(cats[ex], feats.get(ex));
-                for (int cat = 0; cat < (theBetas.size() - 1); cat++) {
-                    exp = calcExp(cat, feats.get(ex));
-                    for (int dim = 0; dim < feats.get(0).size(); dim++) {
+                example = feats.get(ex);
+                partition = calcPartition(example);
+                riskProb = calcRisk(cats[ex], example);
+                for (int cat = 0; cat < (theBetas.length - 1); cat++) {
+                    exp = calcExp(cat, example);
+                    // Null features yield null updates, so only the
+                    // observed ones are visited.
+                    for (int v = 0; v < example.getNumberOfValues(); v++) {
                         update = 0;
                         for (int catprime = 0; catprime <
-                                theBetas.size(); catprime++) {
+                                theBetas.length; catprime++) {
                             preup = riskFunction(cats[ex], catprime) *
-                                exp * feats.get(ex).get(dim) *
+                                exp * (double)example.getValue(v) *
                                 (1 / Math.pow(partition, 2));
                             if (cat == catprime) {
                                 preup *= (partition - exp);
@@ -266,9 +337,7 @@ public class RiskLogReg extends Classifier {
                             update += preup;
                         }
                         update *= (double)(1) / riskProb;
-                        theBetas.get(cat).set(dim,
-                            new Double(theBetas.get(cat).get(dim).
-                            doubleValue() - lrate * update));
+                        theBetas[cat][example.getIndex(v)] -= lrate * update;
                     }
                 }
             }
@@ -292,13 +361,8 @@ public class RiskLogReg extends Classifier {
      *
      * @return The exponential.
      */
-    private double calcExp(int cat, ArrayList<Double> feats) {
-        double e = 0;
-        for (int i = 0; i < feats.size(); i++) {
-            e += theBetas.get(cat).get(i).doubleValue() *
-               feats.get(i).doubleValue();
-        }
-        return Math.exp(e);
+    private double calcExp(int cat, SparseVector feats) {
+        return Math.exp(feats.dotProduct(theBetas[cat]));
     }
 
 
@@ -310,9 +374,9 @@ public class RiskLogReg extends Classifier {
      *
      * @return The partition function.
      */
-    private double calcPartition(ArrayList<Double> feats) {
+    private double calcPartition(SparseVector feats) {
         double p = 0;
-        for (int c = 0; c < theBetas.size(); c++) {
+        for (int c = 0; c < theBetas.length; c++) {
             p += calcExp(c, feats);
         }
         return p;
@@ -327,7 +391,7 @@ public class RiskLogReg extends Classifier {
      *
      * @return The probability.
      */
-    private double calcProbability(int cat, ArrayList<Double> feats) {
+    private double calcProbability(int cat, SparseVector feats) {
         return calcExp(cat, feats) / calcPartition(feats);
     }
 
@@ -340,9 +404,9 @@ public class RiskLogReg extends Classifier {
      *
      * @return The risk probability.
      */
-    private double calcRisk(int cat, ArrayList<Double> feats) {
+    private double calcRisk(int cat, SparseVector feats) {
         double rp = 0;
-        for (int c = 0; c < theBetas.size(); c++) {
+        for (int c = 0; c < theBetas.length; c++) {
             rp += riskFunction(cat, c) * calcProbability(c, feats);
         }
         return rp;
@@ -390,7 +454,7 @@ public class RiskLogReg extends Classifier {
      *
      * @return The error.
      */
-    private double calcError(ArrayList<ArrayList<Double>> feats, int[] cats) {
+    private double calcError(ArrayList<SparseVector> feats, int[] cats) {
         double error = 0;
         for (int ex = 0; ex < cats.length; ex++) {
             error += Math.log(calcRisk(cats[ex], feats.get(ex)));
@@ -529,6 +593,9 @@ public class RiskLogReg extends Classifier {
         theBetas = null;
         arnR = null;
         categoryHash = null;
+        trainingVectors = null;
+        trainingCategories = null;
+        sharedFeatures = false;
     }
 
 }
@@ -78,6 +78,7 @@ public class RiskWeightedNaiveBayes extends Classifier {
     private String nbExternalFile;
     private float momentum;
     private float threshold;
+    private int numberOfRepetitions;
     private String learningProcedure;
 
     // Classifier specific parameters
@@ -85,6 +86,10 @@ public class RiskWeightedNaiveBayes extends Classifier {
     private ArrayList<ArrayList<Float>> lossCosts;
     private ArrayList<String> emotionCategories;
 
+    // Posteriors of the training examples, which may be shared among instances
+    private double[][] trainingPosteriors;
+    private boolean sharedFeatures;
+
 
     /* (non-Javadoc)
      * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
@@ -137,7 +142,10 @@ public class RiskWeightedNaiveBayes extends Classifier {
         numberOfEmotionalDimensions = 3;
         momentum = (new Float("0.1")).floatValue();
         threshold = (new Float("0.000001")).floatValue();
+        numberOfRepetitions = 10;
         learningProcedure = "normalized_euclidean_emotion_distance";
+        trainingPosteriors = null;
+        sharedFeatures = false;
     }
 
 
@@ -172,6 +180,17 @@ public class RiskWeightedNaiveBayes extends Classifier {
     }
 
 
+    /**
+     * Method to set the number of loss cost vector repetitions that are
+     * averaged with the gradient descent learning rule.
+     *
+     * @param reps The number of repetitions.
+     */
+    public void setRepetitions(int reps) {
+        numberOfRepetitions = reps;
+    }
+
+
     /**
      * Method to set the learning procedure.
      *
@@ -191,10 +210,27 @@ public class RiskWeightedNaiveBayes extends Classifier {
      * @return The associated risk.
      */
     public float getRisk(FeatureBox feat, ArrayList<Float> losses) {
+        double[] posteriors = new double[emotionCategories.size()];
+        theNB.getPosteriorProbabilities(feat, posteriors);
+
+        return getRisk(posteriors, losses);
+    }
+
+
+    /**
+     * Function to retrieve the risk associated to deciding on a class 'c' given the
+     * posterior probabilities of all the classes, so that they can be reused for
+     * all the risks.
+     *
+     * @param posteriors The posterior probabilities, in the order of the emotion categories.
+     * @param losses The loss cost vector related to class 'c', i.e., $\lambda^c$.
+     *
+     * @return The associated risk.
+     */
+    public float getRisk(double[] posteriors, ArrayList<Float> losses) {
         float aux = 0;
         for (int emoClass = 0; emoClass < emotionCategories.size(); emoClass++) {
-            aux += losses.get(emoClass).floatValue() *
-                theNB.getPosteriorProbability(emotionCategories.get(emoClass), feat);
+            aux += losses.get(emoClass).floatValue() * (float)posteriors[emoClass];
         }
 
         return aux;
@@ -207,17 +243,18 @@ public class RiskWeightedNaiveBayes extends Classifier {
      */
     public String getCategory(FeatureBox inputFeatures) {
         String mostProbableCategory = "neutral";
-        ArrayList<Float> risks = new ArrayList<Float>();
         if (inputFeatures.getNumberOfEmotionalDimensions() >= numberOfEmotionalDimensions) {
-            for (int emoClassRisk = 0; emoClassRisk < emotionCategories.size(); emoClassRisk++) {
-                risks.add(getRisk(inputFeatures, lossCosts.get(emoClassRisk)));
-            }
+            // The posteriors are shared by all the risks
+            double[] posteriors = new double[emotionCategories.size()];
+            theNB.getPosteriorProbabilities(inputFeatures, posteriors);
             // Decide the most probable category, i.e., the one with minimum risk
             mostProbableCategory = emotionCategories.get(0);
-            float probability = risks.get(0).floatValue();
-            for (int emoClass = 1; emoClass < risks.size(); emoClass++) {
-                if (risks.get(emoClass).floatValue() < probability) {
-                    probability = risks.get(emoClass).floatValue();
+            float probability = getRisk(posteriors, lossCosts.get(0));
+            float risk;
+            for (int emoClass = 1; emoClass < emotionCategories.size(); emoClass++) {
+                risk = getRisk(posteriors, lossCosts.get(emoClass));
+                if (risk < probability) {
+                    probability = risk;
                     mostProbableCategory = emotionCategories.get(emoClass);
                 }
             }
@@ -233,40 +270,35 @@ public class RiskWeightedNaiveBayes extends Classifier {
 
     /**
      * Method to scramble the examples in case that some items are more representative than
-     * others.
+     * others. The order of the examples is scrambled, not the examples themselves, so that
+     * they stay aligned with their posteriors.
      *
-     * @param feats Example features.
-     * @param cats Example categories.
+     * @param order The order of the examples.
      */
-    private void scrambleExamples(ArrayList<FeatureBox> feats, ArrayList<String> cats) {
+    private void scrambleExamples(int[] order) {
         Random rand = new Random();
         // Limit of examples
-        int n = feats.size();
+        int n = order.length;
         int randNumOne;
         int randNumTwo;
-        FeatureBox tempFeat;
-        String tempCat;
+        int tempExample;
         // Swap exemplars
         for (int num = 0; num < rand.nextInt(n); num++) {
             randNumOne = rand.nextInt(n);
-            tempFeat = feats.get(randNumOne);
-            tempCat = cats.get(randNumOne);
+            tempExample = order[randNumOne];
             randNumTwo = rand.nextInt(n);
-            feats.set(randNumOne, feats.get(randNumTwo));
-            cats.set(randNumOne, cats.get(randNumTwo));
-            feats.set(randNumTwo, tempFeat);
-            cats.set(randNumTwo, tempCat);
+            order[randNumOne] = order[randNumTwo];
+            order[randNumTwo] = tempExample;
         }
     }
 
 
     /**
-     * Void method to train required by the Classifier class.
+     * Method to train the NB and compute the posteriors of the training examples,
+     * which is the part of the training that does not depend on the settings of the
+     * gradient descent learning rule.
      */
-    /* (non-Javadoc)
-     * @see emolib.classifier.Classifier#trainingProcedure()
-     */
-    public void trainingProcedure() {
+    public void prepareFeatures() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
 
@@ -276,6 +308,46 @@ public class RiskWeightedNaiveBayes extends Classifier {
         }
         theNB.train();
         emotionCategories = (ArrayList<String>)theNB.getEmotionCategories().clone();
+        trainingPosteriors = new double[exampleFeatures.size()][emotionCategories.size()];
+        for (int num_examples = 0; num_examples < exampleFeatures.size(); num_examples++) {
+            theNB.getPosteriorProbabilities(exampleFeatures.get(num_examples), trainingPosteriors[num_examples]);
+        }
+    }
+
+
+    /**
+     * Method to reuse the trained NB and the posteriors of another RiskWeightedNaiveBayes,
+     * which must have been prepared with the same examples (in the same order) and number
+     * of emotional dimensions. They are only read, so several instances may share them and
+     * be trained concurrently.
+     *
+     * @param other The RiskWeightedNaiveBayes with the prepared features.
+     */
+    public void shareFeatures(RiskWeightedNaiveBayes other) {
+        if (other.trainingPosteriors == null) {
+            System.out.println("RiskWeightedNaiveBayes: the features to share haven't been prepared!");
+            return;
+        }
+        theNB = other.theNB;
+        emotionCategories = other.emotionCategories;
+        trainingPosteriors = other.trainingPosteriors;
+        sharedFeatures = true;
+    }
+
+
+    /**
+     * Void method to train required by the Classifier class.
+     */
+    /* (non-Javadoc)
+     * @see emolib.classifier.Classifier#trainingProcedure()
+     */
+    public void trainingProcedure() {
+        ArrayList<String> exampleCategories = getListOfExampleCategories();
+
+        // Training of the NB
+        if (!sharedFeatures) {
+            prepareFeatures();
+        }
 
         // Now it decides which training procedure to follow.
         if (learningProcedure.equals("three_sentiment_heuristic")) {
@@ -306,20 +378,25 @@ public class RiskWeightedNaiveBayes extends Classifier {
             }
         } else if (learningProcedure.equals("three_sentiment_gradient_descent")) {
             String presentCat;
-            FeatureBox presentFeats;
+            int presentExample;
             ArrayList<ArrayList<ArrayList<Float>>> repetitions = new ArrayList<ArrayList<ArrayList<Float>>>();
 
-            // Arbitrarily, 10 loss cost vector repetitions are averaged.
+            // Arbitrarily, 10 loss cost vector repetitions are averaged by default.
             int timeStep;
             ArrayList<ArrayList<Float>> bigTempLoss;
             ArrayList<Float> tempLoss = new ArrayList<Float>();
             ArrayList<Float> memory;
             ArrayList<Float> auxMemo;
-            float targetRisk, variation = 0;
+            float targetRisk, presentRisk, variation = 0;
+            double[] posteriors;
             boolean firstTime;
+            int[] order = new int[exampleCategories.size()];
+            for (int num_examples = 0; num_examples < order.length; num_examples++) {
+                order[num_examples] = num_examples;
+            }
 
-            for (int rep = 0; rep < 10; rep++) {
-                scrambleExamples(exampleFeatures, exampleCategories);
+            for (int rep = 0; rep < numberOfRepetitions; rep++) {
+                scrambleExamples(order);
                 // Temporal lambda (all classes), one possible solution
                 bigTempLoss = new ArrayList<ArrayList<Float>>();
                 for (int numClass = 0; numClass < emotionCategories.size(); numClass++) {
@@ -339,10 +416,10 @@ public class RiskWeightedNaiveBayes extends Classifier {
                     variation = 1;
                     while (variation > threshold) {
                         timeStep++;
-                        for (int num_examples = 0; num_examples < exampleFeatures.size(); num_examples++) {
+                        for (int num_examples = 0; num_examples < order.length; num_examples++) {
                             auxMemo = (ArrayList<Float>)tempLoss.clone();
-                            presentCat = exampleCategories.get(num_examples);
-                            presentFeats = exampleFeatures.get(num_examples);
+                            presentExample = order[num_examples];
+                            presentCat = exampleCategories.get(presentExample);
                             // This is adapted to 3 class sentiment classification.
                             if (presentCat.equals(emotionCategories.get(numClass))) {
                                 // Target risk = 0
@@ -354,10 +431,12 @@ public class RiskWeightedNaiveBayes extends Classifier {
                                 // Target risk = 1
                                 targetRisk = 1;
                             }
+                            posteriors = trainingPosteriors[presentExample];
+                            presentRisk = getRisk(posteriors, auxMemo);
                             for (int k = 0; k < emotionCategories.size(); k++) {
-                                variation = -(1 - momentum) * (1 / timeStep) * 2 * (getRisk(presentFeats, auxMemo) -
+                                variation = -(1 - momentum) * (1 / timeStep) * 2 * (presentRisk -
                                     targetRisk) *
-                                    theNB.getPosteriorProbability(emotionCategories.get(k), presentFeats) + momentum *
+                                    (float)posteriors[k] + momentum *
                                     (auxMemo.get(k).floatValue() - memory.get(k).floatValue());
                                 tempLoss.set(k, new Float(auxMemo.get(k).floatValue() + variation));
                             }
@@ -513,9 +592,17 @@ public class RiskWeightedNaiveBayes extends Classifier {
     @Override
     public void resetExamples() {
         super.resetExamples();
-        theNB.resetExamples();
+        if (sharedFeatures) {
+            // The shared NB belongs to another instance.
+            theNB = new NaiveBayes();
+            theNB.setNumberOfEmotionalDimensions(numberOfEmotionalDimensions);
+        } else {
+            theNB.resetExamples();
+        }
         emotionCategories = new ArrayList<String>();
         lossCosts = new ArrayList<ArrayList<Float>>();
+        trainingPosteriors = null;
+        sharedFeatures = false;
     }
 
 }
@@ -0,0 +1,446 @@
+/*
+ * File    : SparseSVD.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2010 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.classifier.machinelearning;
+
+import emolib.classifier.SparseVector;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.lang.Math;
+
+/**
+ * The <i>SparseSVD</i> class computes a truncated Singular Value
+ * Decomposition of a sparse matrix by means of a randomized algorithm.
+ *
+ * <p>
+ * The matrix is stored in Compressed Sparse Row (CSR) form, together with
+ * its transpose, so memory grows with the number of non-zero values instead
+ * of rows times columns. The top factors are obtained by randomized subspace
+ * iteration (Halko et al., 2011): the range of the matrix is sampled with a
+ * few Gaussian vectors (plus some oversampling), refined with a number of
+ * power iterations, and the small projected matrix is finally decomposed
+ * exactly with the one-sided Jacobi method.
+ * The sparse matrix products, which take most of the time, run in parallel
+ * across the available processors (blocks of rows).
+ * </p>
+ * <p>
+ * The results are given in the same layout as the LingPipe SvdMatrix, i.e.,
+ * leftSingularVectors()[row][factor] and rightSingularVectors()[col][factor].
+ * The random generator is seeded, so the decomposition is reproducible.
+ * </p>
+ * <p>
+ * --<br>
+ * (Halko et al., 2011) Halko, N., Martinsson, P. G. and Tropp, J. A., "Finding Structure
+ * with Randomness: Probabilistic Algorithms for Constructing Approximate Matrix
+ * Decompositions", SIAM Review, vol. 53, no. 2, pp. 217-288, 2011.
+ * </p>
+ *
+ * @see emolib.classifier.machinelearning.LSA
+ */
+public class SparseSVD {
+
+    // The matrix in CSR form
+    private int numberOfRows;
+    private int[] rowPointers;
+    private int[] columnIndices;
+    private float[] rowValues;
+    // The transposed matrix in CSR form
+    private int numberOfColumns;
+    private int[] columnPointers;
+    private int[] rowIndices;
+    private float[] columnValues;
+
+    // Randomized algorithm parameters
+    private int oversampling;
+    private int powerIterations;
+    private int numberOfThreads;
+    private long seed;
+
+    // Decomposition results
+    private double[] theSingularValues;
+    private double[][] theLeftVectors;
+    private double[][] theRightVectors;
+
+
+    /**
+     * Main constructor of this SparseSVD.
+     * The matrix is given by columns (e.g., the documents of a term-document
+     * matrix).
+     *
+     * @param columns The sparse columns of the matrix.
+     * @param numRows The number of rows of the matrix.
+     */
+    public SparseSVD(ArrayList<SparseVector> columns, int numRows) {
+        numberOfRows = numRows;
+        numberOfColumns = columns.size();
+        oversampling = 10;
+        powerIterations = 2;
+        numberOfThreads = Runtime.getRuntime().availableProcessors();
+        seed = 1;
+        theSingularValues = null;
+        theLeftVectors = null;
+        theRightVectors = null;
+        // The transposed matrix is filled directly from the columns
+        int numValues = 0;
+        for (int col = 0; col < numberOfColumns; col++) {
+            numValues += columns.get(col).getNumberOfValues();
+        }
+        columnPointers = new int[numberOfColumns + 1];
+        rowIndices = new int[numValues];
+        columnValues = new float[numValues];
+        SparseVector column;
+        int pos = 0;
+        for (int col = 0; col < numberOfColumns; col++) {
+            columnPointers[col] = pos;
+            column = columns.get(col);
+            for (int v = 0; v < column.getNumberOfValues(); v++) {
+                rowIndices[pos] = column.getIndex(v);
+                columnValues[pos] = column.getValue(v);
+                pos++;
+            }
+        }
+        columnPointers[numberOfColumns] = pos;
+        // Then it is transposed by counting the values of each row
+        rowPointers = new int[numberOfRows + 1];
+        columnIndices = new int[numValues];
+        rowValues = new float[numValues];
+        for (int v = 0; v < numValues; v++) {
+            rowPointers[rowIndices[v] + 1]++;
+        }
+        for (int row = 0; row < numberOfRows; row++) {
+            rowPointers[row + 1] += rowPointers[row];
+        }
+        int[] nextPosition = new int[numberOfRows];
+        System.arraycopy(rowPointers, 0, nextPosition, 0, numberOfRows);
+        for (int col = 0; col < numberOfColumns; col++) {
+            for (int v = columnPointers[col]; v < columnPointers[col + 1]; v++) {
+                pos = nextPosition[rowIndices[v]]++;
+                columnIndices[pos] = col;
+                rowValues[pos] = columnValues[v];
+            }
+        }
+    }
+
+
+    /**
+     * Method to set the number of extra random vectors used to sample the
+     * range of the matrix.
+     *
+     * @param extra The oversampling.
+     */
+    public void setOversampling(int extra) {
+        oversampling = extra;
+    }
+
+
+    /**
+     * Method to set the number of power iterations, which sharpen the
+     * spectrum when the singular values decay slowly.
+     *
+     * @param iterations The number of power iterations.
+     */
+    public void setPowerIterations(int iterations) {
+        powerIterations = iterations;
+    }
+
+
+    /**
+     * Method to set the number of threads for the matrix products.
+     *
+     * @param threads The number of threads.
+     */
+    public void setNumberOfThreads(int threads) {
+        if (threads > 0) {
+            numberOfThreads = threads;
+        } else {
+            System.out.println("SparseSVD: the number of threads must be positive!");
+        }
+    }
+
+
+    /**
+     * Method to set the seed of the random generator.
+     *
+     * @param randomSeed The seed.
+     */
+    public void setSeed(long randomSeed) {
+        seed = randomSeed;
+    }
+
+
+    /**
+     * Method to compute the truncated decomposition.
+     *
+     * @param numFactors The number of factors to retrieve.
+     *
+     * @throws IllegalStateException If the matrix is empty, or if the decomposition fails.
+     */
+    public void decompose(int numFactors) {
+        theSingularValues = null;
+        theLeftVectors = null;
+        theRightVectors = null;
+        int rank = Math.min(numberOfRows, numberOfColumns);
+        int numFact = Math.min(numFactors, rank);
+        if (numFact < 1) {
+            throw new IllegalStateException("SparseSVD: no factors to retrieve from a " + numberOfRows +
+                "x" + numberOfColumns + " matrix!");
+        }
+        int subspace = Math.min(numFact + oversampling, rank);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            // Random sampling of the range of the matrix
+            Random random = new Random(seed);
+            double[][] omega = new double[numberOfColumns][subspace];
+            for (int col = 0; col < numberOfColumns; col++) {
+                for (int j = 0; j < subspace; j++) {
+                    omega[col][j] = random.nextGaussian();
+                }
+            }
+            double[][] theRange = multiply(executor, rowPointers, columnIndices, rowValues, omega);
+            orthonormalise(theRange);
+            // Power iterations, with the intermediate bases orthonormalised
+            double[][] theCorange;
+            for (int iter = 0; iter < powerIterations; iter++) {
+                theCorange = multiply(executor, columnPointers, rowIndices, columnValues, theRange);
+                orthonormalise(theCorange);
+                theRange = multiply(executor, rowPointers, columnIndices, rowValues, theCorange);
+                orthonormalise(theRange);
+            }
+            // Projection onto the basis: the transpose of B = Q' A
+            double[][] projection = multiply(executor, columnPointers, rowIndices, columnValues, theRange);
+            double[][] rotation = jacobi(projection);
+            // Singular values sorted in descending order
+            double[] norms = new double[subspace];
+            for (int col = 0; col < numberOfColumns; col++) {
+                for (int j = 0; j < subspace; j++) {
+                    norms[j] += projection[col][j] * projection[col][j];
+                }
+            }
+            int[] order = new int[subspace];
+            for (int j = 0; j < subspace; j++) {
+                norms[j] = Math.sqrt(norms[j]);
+                order[j] = j;
+            }
+            int tempIndex;
+            for (int i = 1; i < subspace; i++) {
+                for (int j = i; (j > 0) && (norms[order[j]] > norms[order[j - 1]]); j--) {
+                    tempIndex = order[j];
+                    order[j] = order[j - 1];
+                    order[j - 1] = tempIndex;
+                }
+            }
+            theSingularValues = new double[numFact];
+            theRightVectors = new double[numberOfColumns][numFact];
+            theLeftVectors = new double[numberOfRows][numFact];
+            int j;
+            for (int fact = 0; fact < numFact; fact++) {
+                j = order[fact];
+                theSingularValues[fact] = norms[j];
+                if (norms[j] > 0) {
+                    for (int col = 0; col < numberOfColumns; col++) {
+                        theRightVectors[col][fact] = projection[col][j] / norms[j];
+                    }
+                }
+                for (int row = 0; row < numberOfRows; row++) {
+                    double sum = 0;
+                    for (int k = 0; k < subspace; k++) {
+                        sum += theRange[row][k] * rotation[k][j];
+                    }
+                    theLeftVectors[row][fact] = sum;
+                }
+            }
+        } catch (Exception e) {
+            theSingularValues = null;
+            theLeftVectors = null;
+            theRightVectors = null;
+            throw new IllegalStateException("SparseSVD: a problem occurred while decomposing the matrix!", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+
+    /**
+     * Function to multiply a sparse matrix in CSR form by a dense matrix.
+     * The rows of the result are computed in parallel by blocks.
+     *
+     * @param executor The thread pool.
+     * @param pointers The row pointers of the sparse matrix.
+     * @param indices The column indices of the sparse matrix.
+     * @param values The values of the sparse matrix.
+     * @param dense The dense matrix.
+     *
+     * @return The product.
+     */
+    private double[][] multiply(ExecutorService executor, final int[] pointers, final int[] indices,
+        final float[] values, final double[][] dense) throws Exception {
+        final int numRows = pointers.length - 1;
+        final int width = dense[0].length;
+        final double[][] product = new double[numRows][width];
+        int blockSize = (numRows + numberOfThreads - 1) / numberOfThreads;
+        ArrayList<Future<?>> tasks = new ArrayList<Future<?>>();
+        for (int start = 0; start < numRows; start += blockSize) {
+            final int first = start;
+            final int last = Math.min(start + blockSize, numRows);
+            tasks.add(executor.submit(new Runnable() {
+                public void run() {
+                    double value;
+                    double[] denseRow;
+                    double[] productRow;
+                    for (int row = first; row < last; row++) {
+                        productRow = product[row];
+                        for (int v = pointers[row]; v < pointers[row + 1]; v++) {
+                            value = values[v];
+                            denseRow = dense[indices[v]];
+                            for (int j = 0; j < width; j++) {
+                                productRow[j] += value * denseRow[j];
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < tasks.size(); t++) {
+            tasks.get(t).get();
+        }
+        return product;
+    }
+
+
+    /**
+     * Method to orthonormalise the columns of a dense matrix (modified
+     * Gram-Schmidt). Columns that are linearly dependent are zeroed.
+     *
+     * @param matrix The matrix, indexed as matrix[row][col].
+     */
+    private void orthonormalise(double[][] matrix) {
+        int width = matrix[0].length;
+        double norm, dot;
+        for (int j = 0; j < width; j++) {
+            for (int k = 0; k < j; k++) {
+                dot = 0;
+                for (int row = 0; row < matrix.length; row++) {
+                    dot += matrix[row][j] * matrix[row][k];
+                }
+                for (int row = 0; row < matrix.length; row++) {
+                    matrix[row][j] -= dot * matrix[row][k];
+                }
+            }
+            norm = 0;
+            for (int row = 0; row < matrix.length; row++) {
+                norm += matrix[row][j] * matrix[row][j];
+            }
+            norm = Math.sqrt(norm);
+            for (int row = 0; row < matrix.length; row++) {
+                if (norm > 1e-10) {
+                    matrix[row][j] /= norm;
+                } else {
+                    matrix[row][j] = 0;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Function to orthogonalise the columns of a dense matrix with the
+     * one-sided Jacobi method. The given matrix is rotated in place.
+     *
+     * @param matrix The matrix, indexed as matrix[row][col].
+     *
+     * @return The accumulated rotation.
+     */
+    private double[][] jacobi(double[][] matrix) {
+        int width = matrix[0].length;
+        double[][] rotation = new double[width][width];
+        for (int j = 0; j < width; j++) {
+            rotation[j][j] = 1;
+        }
+        boolean rotated = true;
+        double alpha, beta, gamma, zeta, t, c, s, temp;
+        for (int sweep = 0; rotated && (sweep < 60); sweep++) {
+            rotated = false;
+            for (int p = 0; p < width - 1; p++) {
+                for (int q = p + 1; q < width; q++) {
+                    alpha = 0;
+                    beta = 0;
+                    gamma = 0;
+                    for (int row = 0; row < matrix.length; row++) {
+                        alpha += matrix[row][p] * matrix[row][p];
+                        beta += matrix[row][q] * matrix[row][q];
+                        gamma += matrix[row][p] * matrix[row][q];
+                    }
+                    if (Math.abs(gamma) > 1e-12 * Math.sqrt(alpha * beta)) {
+                        rotated = true;
+                        zeta = (beta - alpha) / (2 * gamma);
+                        t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+                        if (zeta == 0) {
+                            t = 1;
+                        }
+                        c = 1 / Math.sqrt(1 + t * t);
+                        s = c * t;
+                        for (int row = 0; row < matrix.length; row++) {
+                            temp = matrix[row][p];
+                            matrix[row][p] = c * temp - s * matrix[row][q];
+                            matrix[row][q] = s * temp + c * matrix[row][q];
+                        }
+                        for (int row = 0; row < width; row++) {
+                            temp = rotation[row][p];
+                            rotation[row][p] = c * temp - s * rotation[row][q];
+                            rotation[row][q] = s * temp + c * rotation[row][q];
+                        }
+                    }
+                }
+            }
+        }
+        return rotation;
+    }
+
+
+    /**
+     * Function to retrieve the singular values.
+     *
+     * @return The singular values, in descending order.
+     */
+    public double[] singularValues() {
+        return theSingularValues;
+    }
+
+
+    /**
+     * Function to retrieve the left singular vectors.
+     *
+     * @return The left singular vectors, indexed as [row][factor].
+     */
+    public double[][] leftSingularVectors() {
+        return theLeftVectors;
+    }
+
+
+    /**
+     * Function to retrieve the right singular vectors.
+     *
+     * @return The right singular vectors, indexed as [col][factor].
+     */
+    public double[][] rightSingularVectors() {
+        return theRightVectors;
+    }
+
+}
+
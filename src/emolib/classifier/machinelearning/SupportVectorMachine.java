@@ -18,10 +18,11 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
-import emolib.classifier.machinelearning.ARNReduced.Graph;
+import emolib.classifier.SparseVector;
 
 import weka.core.Instances;
 import weka.core.Instance;
+import weka.core.SparseInstance;
 import weka.classifiers.functions.SMO;
 import weka.classifiers.functions.supportVector.RBFKernel;
 import weka.classifiers.functions.supportVector.PolyKernel;
@@ -31,6 +32,8 @@ import weka.core.Attribute;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 
 import org.junit.Test;
@@ -55,9 +58,12 @@ import org.junit.Assert;
  * Sequential Minimal Optimisation (SMO) algorithm.
  * Multi-class problems are solved using pairwise classification.
  * The same term weighting schemes as the ones used in the ARN-R are considered.
+ * Alternatively, the features may be hashed into a feature space of fixed
+ * size (see FeatureHasher), thus avoiding the vocabulary altogether.
  * </p>
  *
  * @see emolib.classifier.machinelearning.ARNReduced
+ * @see emolib.classifier.machinelearning.FeatureHasher
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
@@ -90,6 +96,14 @@ public class SupportVectorMachine extends Classifier {
     //
     private HashMap<String, Integer> theCategoryHash;
 
+    // Feature hashing core
+    private boolean featureHashing;
+    private int hashingBits;
+    private FeatureHasher hasher;
+    private ArrayList<String> hashedCategories;
+    // Sorted buckets observed in training, i.e., the hashed attributes
+    private int[] observedBuckets;
+
 
     /**
      * Main constructor of this SVM classifier.
@@ -114,6 +128,11 @@ public class SupportVectorMachine extends Classifier {
         chiSquare = false;
         termFreq = false;
         numFeatSel = 0;
+        featureHashing = false;
+        hashingBits = 18;
+        hasher = null;
+        hashedCategories = null;
+        observedBuckets = null;
     }
 
 
@@ -121,19 +140,26 @@ public class SupportVectorMachine extends Classifier {
      * @see emolib.classifier.Classifier#getCategory(emolib.classifier.FeatureBox)
      */
     public String getCategory(FeatureBox inputFeatures) {
-        Iterator categoryLabels = theARNR.getCategoryList().iterator();
+        Iterator categoryLabels;
+        if (featureHashing) {
+            categoryLabels = hashedCategories.iterator();
+        } else {
+            categoryLabels = theARNR.getCategoryList().iterator();
+        }
         String catLab = (String)categoryLabels.next();
         int catNum = theCategoryHash.get(catLab);
         //
-        Graph tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(inputFeatures));
-        theARNR.applyTermWeighing(tempGraph, catNum);
-        float[] tmpVector = tempGraph.exportWeighedVector();
-        float[] weightedVector = createWeightedVector(tmpVector, inputFeatures);
-        Instance tmpInstance = new Instance(weightedVector.length);
-        tmpInstance.setDataset(dataset);
-        for (int termNum = 0; termNum < weightedVector.length; termNum++) {
-            tmpInstance.setValue(termNum, weightedVector[termNum]);
+        SparseVector weightedVector;
+        if (featureHashing) {
+            weightedVector = createWeightedVector(
+                compactBuckets(hasher.buildSparseVector(inputFeatures)), inputFeatures);
+        } else {
+            weightedVector = createWeightedVector(
+                theARNR.buildSparseVector(theARNR.buildGraph(inputFeatures),
+                catNum), inputFeatures);
         }
+        Instance tmpInstance = createInstance(weightedVector);
+        tmpInstance.setClassMissing();
         try {
             double categoryLabel = theSVM.classifyInstance(tmpInstance);
             while ((double)catNum != categoryLabel) {
@@ -176,49 +202,114 @@ public class SupportVectorMachine extends Classifier {
 
     /**
      * Function to create the weighted vector apt for this classifier.
-     * Same implementation as Logistic, but dealing with array of floats
-     * instead of doubles.
+     * Same implementation as Logistic.
      *
-     * @param lexvect The TW vector of lexical features.
+     * @param lexvect The TW sparse vector of lexical features.
      * @param fbox All the feats.
      *
-     * @return The weighted vector.
+     * @return The weighted sparse vector.
      */
-    private float[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
+    private SparseVector createWeightedVector(SparseVector lexvect,
+        FeatureBox fbox) {
+        int totalen = lexvect.getDimension();
+        int numValues = lexvect.getNumberOfValues();
         int offset = 0;
+        int pos = 0;
         if (interceptFeat) {
             totalen++;
+            numValues++;
         }
         if (emotionDims) {
             totalen += 3;
+            numValues += 3;
         }
         if (negation) {
             totalen++;
+            numValues++;
         }
-        float[] weightedVector = new float[totalen];
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
         if (interceptFeat) {
-            weightedVector[0] = (float)1;
+            indices[pos] = 0;
+            values[pos] = (float)1;
+            pos++;
             offset++;
         }
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = lexvect[i];
+        for (int i = 0; i < lexvect.getNumberOfValues(); i++) {
+            indices[pos] = lexvect.getIndex(i) + offset;
+            values[pos] = lexvect.getValue(i);
+            pos++;
         }
-        offset += lexvect.length;
+        offset += lexvect.getDimension();
         if (emotionDims) {
-            weightedVector[offset] = fbox.getValence();
-            weightedVector[offset + 1] = fbox.getActivation();
-            weightedVector[offset + 2] = fbox.getControl();
+            indices[pos] = offset;
+            values[pos] = fbox.getValence();
+            indices[pos + 1] = offset + 1;
+            values[pos + 1] = fbox.getActivation();
+            indices[pos + 2] = offset + 2;
+            values[pos + 2] = fbox.getControl();
+            pos += 3;
             offset += 3;
         }
         if (negation) {
+            indices[pos] = offset;
             if (fbox.getNegation()) {
-                weightedVector[offset] = (float)1;
+                values[pos] = (float)1;
             } else {
-                weightedVector[offset] = (float)0;
+                values[pos] = (float)0;
             }
         }
-        return weightedVector;
+        return new SparseVector(indices, values, totalen);
+    }
+
+
+    /**
+     * Function to map a hashed vector onto the buckets observed in training,
+     * which are the only hashed attributes of the dataset. The buckets that were
+     * not observed are dropped, like the terms out of the ARN-R vocabulary.
+     *
+     * @param hashedVector The hashed vector.
+     *
+     * @return The vector over the observed buckets.
+     */
+    private SparseVector compactBuckets(SparseVector hashedVector) {
+        int[] indices = new int[hashedVector.getNumberOfValues()];
+        float[] values = new float[indices.length];
+        int numValues = 0;
+        int attribute;
+        for (int v = 0; v < hashedVector.getNumberOfValues(); v++) {
+            attribute = Arrays.binarySearch(observedBuckets, hashedVector.getIndex(v));
+            if (attribute >= 0) {
+                indices[numValues] = attribute;
+                values[numValues] = hashedVector.getValue(v);
+                numValues++;
+            }
+        }
+        if (numValues < indices.length) {
+            indices = Arrays.copyOf(indices, numValues);
+            values = Arrays.copyOf(values, numValues);
+        }
+        return new SparseVector(indices, values, observedBuckets.length);
+    }
+
+
+    /**
+     * Function to create the sparse Weka instance of the given weighted
+     * vector, attached to the dataset.
+     *
+     * @param wVector The weighted vector.
+     *
+     * @return The sparse instance.
+     */
+    private Instance createInstance(SparseVector wVector) {
+        double[] values = new double[wVector.getNumberOfValues()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = (double)wVector.getValue(v);
+        }
+        Instance tmpInstance = new SparseInstance(1, values,
+            wVector.getIndices(), dataset.numAttributes());
+        tmpInstance.setDataset(dataset);
+        return tmpInstance;
     }
 
 
@@ -231,45 +322,82 @@ public class SupportVectorMachine extends Classifier {
     public void trainingProcedure() {
         ArrayList<FeatureBox> exampleFeatures = getListOfExampleFeatures();
         ArrayList<String> exampleCategories = getListOfExampleCategories();
-        theARNR = new ARNReduced();
-        setFeatureWeights();
-        Iterator exFeat = exampleFeatures.iterator();
-        Iterator exCat = exampleCategories.iterator();
-        while (exFeat.hasNext() && exCat.hasNext()) {
-            theARNR.inputTrainingExample((FeatureBox)exFeat.next(), (String)exCat.next());
+        Iterator categoryIter;
+        ArrayList<String> terms;
+        SparseVector[] hashedVectors = null;
+        if (featureHashing) {
+            hasher = new FeatureHasher();
+            hasher.setNumberOfBits(hashingBits);
+            setFeatureWeights();
+            theCategoryHash = new HashMap<String, Integer>();
+            hashedCategories = new ArrayList<String>();
+            for (int instNum = 0; instNum < exampleCategories.size(); instNum++) {
+                if (!theCategoryHash.containsKey(exampleCategories.get(instNum))) {
+                    theCategoryHash.put(exampleCategories.get(instNum),
+                        new Integer(hashedCategories.size()));
+                    hashedCategories.add(exampleCategories.get(instNum));
+                }
+            }
+            categoryIter = hashedCategories.iterator();
+            // The observed buckets play the role of the terms, so the dataset
+            // only holds as many attributes as a vocabulary would
+            hashedVectors = new SparseVector[exampleFeatures.size()];
+            BitSet observed = new BitSet(hasher.getDimension());
+            for (int instNum = 0; instNum < exampleFeatures.size(); instNum++) {
+                hashedVectors[instNum] = hasher.buildSparseVector(exampleFeatures.get(instNum));
+                for (int v = 0; v < hashedVectors[instNum].getNumberOfValues(); v++) {
+                    observed.set(hashedVectors[instNum].getIndex(v));
+                }
+            }
+            observedBuckets = new int[observed.cardinality()];
+            terms = new ArrayList<String>(observedBuckets.length);
+            int bucket = observed.nextSetBit(0);
+            for (int attribute = 0; attribute < observedBuckets.length; attribute++) {
+                observedBuckets[attribute] = bucket;
+                terms.add("h" + bucket);
+                bucket = observed.nextSetBit(bucket + 1);
+            }
+        } else {
+            theARNR = new ARNReduced();
+            setFeatureWeights();
+            Iterator exFeat = exampleFeatures.iterator();
+            Iterator exCat = exampleCategories.iterator();
+            while (exFeat.hasNext() && exCat.hasNext()) {
+                theARNR.inputTrainingExample((FeatureBox)exFeat.next(), (String)exCat.next());
+            }
+            theARNR.train();
+            theCategoryHash = theARNR.getCategoryHash();
+            categoryIter = theARNR.getCategoryList().iterator();
+            terms = theARNR.getVocabularyGraph().getArrayOfTerms();
         }
-        theARNR.train();
-        theCategoryHash = theARNR.getCategoryHash();
         // Category attribute creation
         FastVector catNominalValues = new FastVector(theCategoryHash.size());
-        Iterator categoryIter = theARNR.getCategoryList().iterator();
         while (categoryIter.hasNext()) {
             catNominalValues.addElement((String)categoryIter.next());
         }
         Attribute categoryAttribute = new Attribute("CATEGORY_LABEL", catNominalValues);
         // Attributes creation (the terms)
-        Graph tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(new FeatureBox("foo")));
-        ArrayList<String> terms = tempGraph.getArrayOfTerms();
         FastVector attributes = new FastVector();
         addAttributes(attributes, terms);
         attributes.addElement(categoryAttribute);
         dataset = new Instances("dataset", attributes, exampleFeatures.size());
         dataset.setClassIndex(dataset.numAttributes() - 1);
-        // Feeding the dataset with the instances
+        // Feeding the dataset with the (sparse) instances
         Instance tmpInstance;
-        float[] tmpVector, weightedVector;
+        SparseVector weightedVector;
         for (int instNum = 0; instNum < exampleFeatures.size(); instNum++) {
-            tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(exampleFeatures.get(instNum)));
-            theARNR.applyTermWeighing(tempGraph, theCategoryHash.get(exampleCategories.get(instNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector,
-                exampleFeatures.get(instNum));
-            tmpInstance = new Instance(dataset.numAttributes());
-            tmpInstance.setDataset(dataset);
-            for (int termNum = 0; termNum < weightedVector.length; termNum++) {
-                tmpInstance.setValue(termNum, weightedVector[termNum]);
+            if (featureHashing) {
+                weightedVector = createWeightedVector(compactBuckets(hashedVectors[instNum]),
+                    exampleFeatures.get(instNum));
+            } else {
+                weightedVector = createWeightedVector(theARNR.buildSparseVector(
+                    theARNR.buildGraph(exampleFeatures.get(instNum)),
+                    theCategoryHash.get(exampleCategories.get(instNum)).intValue()),
+                    exampleFeatures.get(instNum));
             }
-            tmpInstance.setValue(weightedVector.length, exampleCategories.get(instNum));
+            tmpInstance = createInstance(weightedVector);
+            tmpInstance.setValue(dataset.classIndex(),
+                exampleCategories.get(instNum));
             dataset.add(tmpInstance);
         }
         // Time to train the SVM
@@ -317,9 +445,18 @@ public class SupportVectorMachine extends Classifier {
 
     /**
      * Method to set the feature weights of the SVM.
-     * It is required that the private reference to the ARN-R is initialised.
+     * It is required that the private reference to the ARN-R (or to the
+     * feature hasher, if hashing is used) is initialised.
      */
     private void setFeatureWeights() {
+        if (featureHashing) {
+            hasher.setTermWeighingMeasure(theTWMeasure);
+            hasher.setCOF(theBigramFreq);
+            hasher.setPOS(posTags);
+            hasher.setStems(stemming);
+            hasher.setSynonyms(synonyms);
+            return;
+        }
         theARNR.setTermWeighingMeasure(theTWMeasure);
         theARNR.setCOF(theBigramFreq);
         theARNR.setPOS(posTags);
@@ -331,6 +468,22 @@ public class SupportVectorMachine extends Classifier {
     }
 
 
+    /**
+     * Method to hash the features into a space of fixed size instead of
+     * building the vocabulary with the ARN-R.
+     * Only the "tf", "ltf" and "binary" TW methods are available then, and
+     * feature selection is not applied. Only the buckets observed in training
+     * become attributes of the dataset.
+     *
+     * @param hashing The feature hashing flag.
+     * @param numBits The number of bits of the feature space, i.e., 2^k buckets.
+     */
+    public void setFeatureHashing(boolean hashing, int numBits) {
+        featureHashing = hashing;
+        hashingBits = numBits;
+    }
+
+
     /**
      * Set the Mutual Information feature selection.
      *
@@ -490,6 +643,9 @@ public class SupportVectorMachine extends Classifier {
         theSVM = null;
         theARNR = null;
         theCategoryHash = null;
+        hasher = null;
+        hashedCategories = null;
+        observedBuckets = null;
     }
 
 
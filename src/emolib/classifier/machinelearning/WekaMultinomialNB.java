@@ -18,10 +18,11 @@ package emolib.classifier.machinelearning;
 
 import emolib.classifier.Classifier;
 import emolib.classifier.FeatureBox;
-import emolib.classifier.machinelearning.ARNReduced.Graph;
+import emolib.classifier.SparseVector;
 
 import weka.core.Instances;
 import weka.core.Instance;
+import weka.core.SparseInstance;
 import weka.classifiers.bayes.NaiveBayesMultinomial;
 import weka.core.FastVector;
 import weka.core.Attribute;
@@ -104,16 +105,11 @@ public class WekaMultinomialNB extends Classifier {
         String catLab = (String)categoryLabels.next();
         int catNum = theCategoryHash.get(catLab);
         //
-        Graph tempGraph = theARNR.buildFullGraph(
-            theARNR.buildGraph(inputFeatures));
-        theARNR.applyTermWeighing(tempGraph, catNum);
-        float[] tmpVector = tempGraph.exportWeighedVector();
-        float[] weightedVector = createWeightedVector(tmpVector, inputFeatures);
-        Instance tmpInstance = new Instance(weightedVector.length);
-        tmpInstance.setDataset(dataset);
-        for (int termNum = 0; termNum < weightedVector.length; termNum++) {
-            tmpInstance.setValue(termNum, weightedVector[termNum]);
-        }
+        SparseVector weightedVector = createWeightedVector(
+            theARNR.buildSparseVector(theARNR.buildGraph(inputFeatures),
+            catNum), inputFeatures);
+        Instance tmpInstance = createInstance(weightedVector);
+        tmpInstance.setClassMissing();
         try {
             double categoryLabel = theMNB.classifyInstance(tmpInstance);
             while ((double)catNum != categoryLabel) {
@@ -156,49 +152,84 @@ public class WekaMultinomialNB extends Classifier {
 
     /**
      * Function to create the weighted vector apt for this classifier.
-     * Same implementation as Logistic, but dealing with array of floats
-     * instead of doubles.
+     * Same implementation as Logistic.
      *
-     * @param lexvect The TW vector of lexical features.
+     * @param lexvect The TW sparse vector of lexical features.
      * @param fbox All the feats.
      *
-     * @return The weighted vector.
+     * @return The weighted sparse vector.
      */
-    private float[] createWeightedVector(float[] lexvect, FeatureBox fbox) {
-        int totalen = lexvect.length;
+    private SparseVector createWeightedVector(SparseVector lexvect,
+        FeatureBox fbox) {
+        int totalen = lexvect.getDimension();
+        int numValues = lexvect.getNumberOfValues();
         int offset = 0;
+        int pos = 0;
         if (interceptFeat) {
             totalen++;
+            numValues++;
         }
         if (emotionDims) {
             totalen += 3;
+            numValues += 3;
         }
         if (negation) {
             totalen++;
+            numValues++;
         }
-        float[] weightedVector = new float[totalen];
+        int[] indices = new int[numValues];
+        float[] values = new float[numValues];
         if (interceptFeat) {
-            weightedVector[0] = (float)1;
+            indices[pos] = 0;
+            values[pos] = (float)1;
+            pos++;
             offset++;
         }
-        for (int i = 0; i < lexvect.length; i++) {
-            weightedVector[i + offset] = lexvect[i];
+        for (int i = 0; i < lexvect.getNumberOfValues(); i++) {
+            indices[pos] = lexvect.getIndex(i) + offset;
+            values[pos] = lexvect.getValue(i);
+            pos++;
         }
-        offset += lexvect.length;
+        offset += lexvect.getDimension();
         if (emotionDims) {
-            weightedVector[offset] = fbox.getValence();
-            weightedVector[offset + 1] = fbox.getActivation();
-            weightedVector[offset + 2] = fbox.getControl();
+            indices[pos] = offset;
+            values[pos] = fbox.getValence();
+            indices[pos + 1] = offset + 1;
+            values[pos + 1] = fbox.getActivation();
+            indices[pos + 2] = offset + 2;
+            values[pos + 2] = fbox.getControl();
+            pos += 3;
             offset += 3;
         }
         if (negation) {
+            indices[pos] = offset;
             if (fbox.getNegation()) {
-                weightedVector[offset] = (float)1;
+                values[pos] = (float)1;
             } else {
-                weightedVector[offset] = (float)0;
+                values[pos] = (float)0;
             }
         }
-        return weightedVector;
+        return new SparseVector(indices, values, totalen);
+    }
+
+
+    /**
+     * Function to create the sparse Weka instance of the given weighted
+     * vector, attached to the dataset.
+     *
+     * @param wVector The weighted vector.
+     *
+     * @return The sparse instance.
+     */
+    private Instance createInstance(SparseVector wVector) {
+        double[] values = new double[wVector.getNumberOfValues()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = (double)wVector.getValue(v);
+        }
+        Instance tmpInstance = new SparseInstance(1, values,
+            wVector.getIndices(), dataset.numAttributes());
+        tmpInstance.setDataset(dataset);
+        return tmpInstance;
     }
 
 
@@ -227,31 +258,22 @@ public class WekaMultinomialNB extends Classifier {
         Attribute categoryAttribute = new Attribute("CATEGORY_LABEL",
             catNominalValues);
         // Attributes creation (the terms)
-        Graph tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(
-            new FeatureBox("foo")));
-        ArrayList<String> terms = tempGraph.getArrayOfTerms();
+        ArrayList<String> terms = theARNR.getVocabularyGraph().getArrayOfTerms();
         FastVector attributes = new FastVector();
         addAttributes(attributes, terms);
         attributes.addElement(categoryAttribute);
         dataset = new Instances("dataset", attributes, exampleFeatures.size());
         dataset.setClassIndex(dataset.numAttributes() - 1);
-        // Feeding the dataset with the instances
+        // Feeding the dataset with the (sparse) instances
         Instance tmpInstance;
-        float[] tmpVector, weightedVector;
+        SparseVector weightedVector;
         for (int instNum = 0; instNum < exampleFeatures.size(); instNum++) {
-            tempGraph = theARNR.buildFullGraph(theARNR.buildGraph(
-                exampleFeatures.get(instNum)));
-            theARNR.applyTermWeighing(tempGraph,
-                theCategoryHash.get(exampleCategories.get(instNum)).intValue());
-            tmpVector = tempGraph.exportWeighedVector();
-            weightedVector = createWeightedVector(tmpVector,
+            weightedVector = createWeightedVector(theARNR.buildSparseVector(
+                theARNR.buildGraph(exampleFeatures.get(instNum)),
+                theCategoryHash.get(exampleCategories.get(instNum)).intValue()),
                 exampleFeatures.get(instNum));
-            tmpInstance = new Instance(dataset.numAttributes());
-            tmpInstance.setDataset(dataset);
-            for (int termNum = 0; termNum < weightedVector.length; termNum++) {
-                tmpInstance.setValue(termNum, weightedVector[termNum]);
-            }
-            tmpInstance.setValue(weightedVector.length,
+            tmpInstance = createInstance(weightedVector);
+            tmpInstance.setValue(dataset.classIndex(),
                 exampleCategories.get(instNum));
             dataset.add(tmpInstance);
         }
@@ -74,6 +74,16 @@ public class Gaussian implements ClassConditionalDensity {
     }
 
 
+    /**
+     * Function to retrieve the standard deviation of this distribution.
+     *
+     * @return The standard deviation.
+     */
+    public float getStd() {
+        return std;
+    }
+
+
     /* (non-Javadoc)
      * @see emolib.classifier.machinelearning.density.ClassConditionalDensity#getProbability(java.lang.float)
      */
@@ -21,6 +21,7 @@ import java.lang.reflect.*;
 import java.util.ArrayList;
 
 import emolib.eks.*;
+import emolib.util.ResourceRegistry;
 import emolib.util.conf.*;
 import emolib.util.proc.*;
 
@@ -49,6 +50,8 @@ import emolib.util.proc.*;
  * incoming stemmed words to the word stems that contains, thus extracting
  * the emotional dimensions and enabling the rest of the system to compute the
  * general affect being expressed.
+ * The dictionary is shared with the other EmotionalKeywordSpotterANLW spotters of the JVM
+ * that load the same file (see {@link emolib.util.ResourceRegistry}).
  * If the stemmed words matched correspond to synonyms of the original word,
  * then a weighting parameter is allowed through the configuration file.
  * </p>
@@ -72,6 +75,13 @@ public class EmotionalKeywordSpotterANLW extends EmotionalKeywordSpotter {
     public final static String PROP_SYNONYMS_WEIGHT = "synonyms_weight";
     public final static String PROP_WORD_NOT_FOUND = "word_not_found";
 
+    private final static ResourceRegistry.Loader<DictionaryANLW> DICTIONARY_LOADER =
+        new ResourceRegistry.Loader<DictionaryANLW>() {
+            public DictionaryANLW load(String path) {
+                return new DictionaryANLW(path);
+            }
+        };
+
 
     private String dictionaryLocation;
     private float conflationWeight;
@@ -113,7 +123,25 @@ public class EmotionalKeywordSpotterANLW extends EmotionalKeywordSpotter {
                 "has not been defined in the configuration file!");
             System.exit(1);
         } else {
-            theDictionary = new DictionaryANLW(dictionaryLocation);
+            deallocate();
+            try {
+                theDictionary = ResourceRegistry.acquire(DictionaryANLW.class, dictionaryLocation,
+                    DICTIONARY_LOADER);
+            } catch (Exception e) {
+                System.out.println("ERROR loading the EmotionalKeywordSpotterANLW!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Method to release the shared dictionary.
+     */
+    public void deallocate() {
+        if (theDictionary != null) {
+            ResourceRegistry.release(DictionaryANLW.class, dictionaryLocation);
+            theDictionary = null;
         }
     }
 
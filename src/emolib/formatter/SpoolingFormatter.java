@@ -0,0 +1,144 @@
+/*
+ * File    : SpoolingFormatter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.formatter;
+
+import java.io.*;
+
+/**
+ * The <i>SpoolingFormatter</i> abstract class supports the AffectiveFormatters that
+ * write their results as they flow through the pipeline, instead of holding them
+ * in memory until they are output.
+ *
+ * <p>
+ * The results are written into a buffered spool file, which is copied to the results
+ * file when they are output (after the header, if any, which may depend on the whole
+ * set of results). The spool file is deleted when the formatter is flushed.
+ * </p>
+ */
+public abstract class SpoolingFormatter extends AffectiveFormatter {
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private File spoolFile;
+    private OutputStream spool;
+
+
+    /**
+     * Method to initialize the SpoolingFormatter.
+     * The results of the former texts are discarded.
+     */
+    public void initialize() {
+        closeSpool();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#flush()
+     */
+    public void flush() {
+        initialize();
+    }
+
+
+    /**
+     * Function to retrieve the spool stream, creating the spool file if needed.
+     *
+     * @return The buffered spool stream.
+     */
+    protected OutputStream getSpool() throws IOException {
+        if (spool == null) {
+            // Not registered with deleteOnExit, which would keep the path of every
+            // spool until the JVM exits: the spool is deleted when it's closed.
+            spoolFile = File.createTempFile("emolib.results", ".spool");
+            spool = new BufferedOutputStream(new FileOutputStream(spoolFile), BUFFER_SIZE);
+            spoolOpened(spool);
+        }
+        return spool;
+    }
+
+
+    /**
+     * Function to determine if any result has been spooled.
+     *
+     * @return True if the spool file exists.
+     */
+    protected boolean hasSpool() {
+        return spool != null;
+    }
+
+
+    /**
+     * Method to be notified when the spool stream is created, e.g., to wrap it.
+     *
+     * @param spoolStream The spool stream.
+     */
+    protected void spoolOpened(OutputStream spoolStream) throws IOException {
+    }
+
+
+    /**
+     * Method to copy the results spooled so far to an output stream.
+     *
+     * @param out The output stream.
+     */
+    protected void copySpool(OutputStream out) throws IOException {
+        if (spool == null) {
+            return;
+        }
+        spool.flush();
+        InputStream in = new FileInputStream(spoolFile);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int length = in.read(buffer);
+        while (length != -1) {
+            out.write(buffer, 0, length);
+            length = in.read(buffer);
+        }
+        in.close();
+    }
+
+
+    /**
+     * Function to open a buffered stream to a results file.
+     *
+     * @param file The results file.
+     *
+     * @return The output stream.
+     */
+    protected OutputStream openResults(File file) throws IOException {
+        return new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+    }
+
+
+    /**
+     * Method to close and delete the spool file, if any.
+     */
+    protected void closeSpool() {
+        try {
+            if (spool != null) {
+                spool.close();
+            }
+        } catch (IOException e) {
+            System.out.println("EmoLib: problem closing the results spool!");
+            e.printStackTrace();
+        }
+        if (spoolFile != null) {
+            spoolFile.delete();
+        }
+        spool = null;
+        spoolFile = null;
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * File    : BinaryFormatter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.formatter.binary;
+
+import emolib.formatter.*;
+import emolib.util.conf.*;
+import emolib.util.proc.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+/**
+ * The <i>BinaryFormatter</i> class performs the formatting process of the output data
+ * into a compact binary file of length-prefixed paragraph records.
+ *
+ * <p>
+ * All the values are big-endian. The file starts with a header:
+ * </p>
+ * <pre>
+ * int     MAGIC ("EMOB")
+ * int     VERSION
+ * float   valence, activation, control of the document (those of the last text)
+ * short   category id of the document
+ * short   number of categories C
+ * C x UTF  category names, in order of id (as DataOutput.writeUTF)
+ * int     number of paragraphs P
+ * </pre>
+ * <p>
+ * which is followed by P paragraph records:
+ * </p>
+ * <pre>
+ * int     length of the record (bytes after this field)
+ * int     paragraph number
+ * float   valence, activation, control of the paragraph
+ * short   category id of the paragraph
+ * short   0 (padding)
+ * int     number of sentences N
+ * N x float  valence column of the sentences
+ * N x float  activation column of the sentences
+ * N x float  control column of the sentences
+ * N x short  category id column of the sentences (plus 2 bytes of padding if N is odd)
+ * (N+1) x int  offsets of the sentence texts, relative to the start of the texts
+ * bytes   UTF-8 sentence texts
+ * </pre>
+ * <p>
+ * The category id -1 stands for no category. The text units that contain no emotional
+ * dimensions are given the threshold value and the "neutral" category. The records
+ * can be read back without copying with {@link emolib.formatter.binary.BinaryResults}.
+ * </p>
+ * <p>
+ * The paragraphs are written as they flow through the formatter (see
+ * {@link emolib.formatter.SpoolingFormatter}), and the BinaryFormatter accepts 2
+ * configuration parameters:
+ * <ul>
+ *     <li>
+ *         The path of the resulting "emolib.results.bin" file.
+ *     </li>
+ *     <li>
+ *         The threshold to discern between a positive valence or a negative one.
+ *     </li>
+ * </ul>
+ * </p>
+ */
+public class BinaryFormatter extends SpoolingFormatter {
+
+    public final static String PROP_RESULTS_PATH = "resultspath";
+    public final static String PROP_THRESHOLD = "threshold";
+
+    public final static int MAGIC = 0x454D4F42;
+    public final static int VERSION = 1;
+
+    private String resultsPath;
+    private float threshold;
+
+    private DataOutputStream spool;
+    private ByteArrayOutputStream recordBytes;
+    private DataOutputStream record;
+    private ByteArrayOutputStream textBytes;
+    private List<Integer> textOffsets;
+    private HashMap<String, Short> categoryIds;
+    private List<String> categories;
+    private int numOfParagraph;
+    private float[] documentDimensions;
+    private short documentCategory;
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
+     */
+    public void register(String name, Registry registry) throws PropertyException {
+        super.register(name, registry);
+        registry.register(PROP_RESULTS_PATH, PropertyType.STRING);
+        registry.register(PROP_THRESHOLD, PropertyType.FLOAT);
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#newProperties(emolib.util.conf.PropertySheet)
+     */
+    public void newProperties(PropertySheet ps) throws PropertyException {
+        super.newProperties(ps);
+        resultsPath = ps.getString(PROP_RESULTS_PATH, "nullpath");
+        threshold = ps.getFloat(PROP_THRESHOLD, Float.parseFloat("5.75"));
+    }
+
+
+    /**
+     * Main constructor of the BinaryFormatter.
+     */
+    public BinaryFormatter() {
+        recordBytes = new ByteArrayOutputStream(4096);
+        record = new DataOutputStream(recordBytes);
+        textBytes = new ByteArrayOutputStream(4096);
+        textOffsets = new ArrayList<Integer>();
+        categoryIds = new HashMap<String, Short>();
+        categories = new ArrayList<String>();
+    }
+
+
+    /**
+     * Method to initialize the BinaryFormatter.
+     * The results of the former texts are discarded.
+     */
+    public void initialize() {
+        spool = null;
+        super.initialize();
+        categoryIds.clear();
+        categories.clear();
+        numOfParagraph = 0;
+        documentDimensions = null;
+        documentCategory = -1;
+    }
+
+
+    /**
+     * Method to perform the formatting process at the paragraph and sentence level.
+     *
+     * @param inputTextDataObject The TextData object to process.
+     */
+    public void applyFormatting(TextData inputTextDataObject) {
+        try {
+            getSpool();
+            for (int numberOfParagraph = 0; numberOfParagraph < inputTextDataObject.getNumberOfParagraphs();
+            numberOfParagraph++) {
+                numOfParagraph++;
+                writeParagraph(inputTextDataObject.getParagraphData(numberOfParagraph));
+            }
+            spool.flush();
+            if (inputTextDataObject.containsEmotionalDimentions()) {
+                documentDimensions = new float[]{inputTextDataObject.getEmotionalValence(),
+                    inputTextDataObject.getEmotionalActivation(), inputTextDataObject.getEmotionalControl()};
+                documentCategory = getCategoryId(inputTextDataObject.getEmotionalCategory());
+            } else {
+                documentDimensions = new float[]{threshold, threshold, threshold};
+                documentCategory = getCategoryId("neutral");
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the binary results!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline.
+     * The results file will be saved in the local filesystem if the path is defined.
+     */
+    public void outputData() {
+        if (resultsPath.equals("nullpath") == false) {
+            outputData(new File(resultsPath, "emolib.results.bin"));
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline
+     * into a determined file.
+     *
+     * @param file File The determined file to output the results.
+     */
+    public void outputData(File file) {
+        try {
+            DataOutputStream out = new DataOutputStream(openResults(file));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                if (documentDimensions == null) {
+                    out.writeFloat(threshold);
+                    out.writeFloat(threshold);
+                    out.writeFloat(threshold);
+                } else {
+                    out.writeFloat(documentDimensions[0]);
+                    out.writeFloat(documentDimensions[1]);
+                    out.writeFloat(documentDimensions[2]);
+                }
+                out.writeShort(documentCategory);
+                out.writeShort(categories.size());
+                for (int category = 0; category < categories.size(); category++) {
+                    out.writeUTF(categories.get(category));
+                }
+                out.writeInt(numOfParagraph);
+                copySpool(out);
+            } finally {
+                out.close();
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the binary results file!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Method to create the data stream of the paragraphs when the spool is opened.
+     *
+     * @param spoolStream The spool stream.
+     */
+    protected void spoolOpened(OutputStream spoolStream) throws IOException {
+        spool = new DataOutputStream(spoolStream);
+    }
+
+
+    /**
+     * Method to write the record of a paragraph.
+     *
+     * @param paragraphData The paragraph.
+     */
+    private void writeParagraph(ParagraphData paragraphData) throws IOException {
+        recordBytes.reset();
+        textBytes.reset();
+        textOffsets.clear();
+        int sentences = paragraphData.getNumberOfSentences();
+        record.writeInt(numOfParagraph);
+        if (paragraphData.containsEmotionalDimentions()) {
+            record.writeFloat(paragraphData.getEmotionalValence());
+            record.writeFloat(paragraphData.getEmotionalActivation());
+            record.writeFloat(paragraphData.getEmotionalControl());
+            record.writeShort(getCategoryId(paragraphData.getEmotionalCategory()));
+        } else {
+            record.writeFloat(threshold);
+            record.writeFloat(threshold);
+            record.writeFloat(threshold);
+            record.writeShort(getCategoryId("neutral"));
+        }
+        record.writeShort(0);
+        record.writeInt(sentences);
+        // The columns are written one after the other.
+        for (int dimension = 0; dimension < 3; dimension++) {
+            for (int numberOfSentence = 0; numberOfSentence < sentences; numberOfSentence++) {
+                SentenceData sentenceData = paragraphData.getSentenceData(numberOfSentence);
+                if (!sentenceData.containsEmotionalDimentions()) {
+                    record.writeFloat(threshold);
+                } else if (dimension == 0) {
+                    record.writeFloat(sentenceData.getEmotionalValence());
+                } else if (dimension == 1) {
+                    record.writeFloat(sentenceData.getEmotionalActivation());
+                } else {
+                    record.writeFloat(sentenceData.getEmotionalControl());
+                }
+            }
+        }
+        for (int numberOfSentence = 0; numberOfSentence < sentences; numberOfSentence++) {
+            SentenceData sentenceData = paragraphData.getSentenceData(numberOfSentence);
+            if (sentenceData.containsEmotionalDimentions()) {
+                record.writeShort(getCategoryId(sentenceData.getEmotionalCategory()));
+            } else {
+                record.writeShort(getCategoryId("neutral"));
+            }
+            textOffsets.add(Integer.valueOf(textBytes.size()));
+            for (int numberOfWord = 0; numberOfWord < sentenceData.getNumberOfWords(); numberOfWord++) {
+                if (numberOfWord > 0) {
+                    textBytes.write(' ');
+                }
+                // Undo the slack trick.
+                byte[] word = sentenceData.getWordData(numberOfWord).getWord().replace('|', '/').getBytes("UTF-8");
+                textBytes.write(word, 0, word.length);
+            }
+        }
+        if ((sentences % 2) != 0) {
+            record.writeShort(0);
+        }
+        textOffsets.add(Integer.valueOf(textBytes.size()));
+        for (int offset = 0; offset < textOffsets.size(); offset++) {
+            record.writeInt(textOffsets.get(offset).intValue());
+        }
+        textBytes.writeTo(record);
+        record.flush();
+        spool.writeInt(recordBytes.size());
+        recordBytes.writeTo(spool);
+    }
+
+
+    /**
+     * Function to retrieve the id of a category, assigning a new one if needed.
+     *
+     * @param category The category.
+     *
+     * @return The id, or -1 if the category is null.
+     */
+    private short getCategoryId(String category) {
+        if (category == null) {
+            return -1;
+        }
+        Short id = categoryIds.get(category);
+        if (id == null) {
+            id = Short.valueOf((short)categories.size());
+            categoryIds.put(category, id);
+            categories.add(category);
+        }
+        return id.shortValue();
+    }
+
+
+    /**
+     * Functionality test of the binary results, read back with BinaryResults.
+     */
+    @Test public void binaryRoundTrip() throws Exception {
+        initialize();
+        String[] words = {"I", "love", "caf\u00e9", ".", "Either|or", "."};
+        TextData text = new TextData();
+        for (int numWord = 0; numWord < words.length; numWord++) {
+            text.putWordData(words[numWord], "w");
+        }
+        ParagraphData paragraph = new ParagraphData();
+        SentenceData sentence = new SentenceData();
+        for (int numWord = 0; numWord < words.length; numWord++) {
+            sentence.addWordData(text.getWordData(numWord));
+            if (words[numWord].equals(".")) {
+                paragraph.addSentenceData(sentence);
+                sentence = new SentenceData();
+            }
+        }
+        text.addParagraphData(paragraph);
+        SentenceData first = text.getParagraphData(0).getSentenceData(0);
+        first.setEmotionalValence(7.5f);
+        first.setEmotionalActivation(6.0f);
+        first.setEmotionalControl(5.5f);
+        first.setEmotionalCategory("positive");
+        applyFormatting(text);
+        // A second text without emotional dimensions.
+        text = new TextData();
+        text.putWordData("Hello", "w");
+        sentence = new SentenceData();
+        sentence.addWordData(text.getWordData(0));
+        paragraph = new ParagraphData();
+        paragraph.addSentenceData(sentence);
+        text.addParagraphData(paragraph);
+        applyFormatting(text);
+        //
+        File file = File.createTempFile("emolib.results", ".bin");
+        outputData(file);
+        BinaryResults results = BinaryResults.open(file);
+        Assert.assertEquals(2, results.getNumberOfParagraphs());
+        Assert.assertEquals("neutral", results.getCategory(results.getCategoryId()));
+        //
+        Assert.assertTrue(results.hasNextParagraph());
+        BinaryResults.Paragraph record = results.nextParagraph();
+        Assert.assertEquals(1, record.getNum());
+        Assert.assertEquals("neutral", results.getCategory(record.getCategoryId()));
+        Assert.assertEquals(2, record.getNumberOfSentences());
+        Assert.assertEquals(7.5f, record.getValences().get(0), 0.0);
+        Assert.assertEquals(6.0f, record.getActivations().get(0), 0.0);
+        Assert.assertEquals(5.5f, record.getControls().get(0), 0.0);
+        Assert.assertEquals("positive", results.getCategory(record.getCategoryIds().get(0)));
+        Assert.assertEquals("neutral", results.getCategory(record.getCategoryIds().get(1)));
+        Assert.assertEquals("I love caf\u00e9 .", record.getText(0));
+        Assert.assertEquals("Either/or .", record.getText(1));
+        //
+        Assert.assertTrue(results.hasNextParagraph());
+        record = results.nextParagraph();
+        Assert.assertEquals(2, record.getNum());
+        Assert.assertEquals(1, record.getNumberOfSentences());
+        Assert.assertEquals("Hello", record.getText(0));
+        Assert.assertFalse(results.hasNextParagraph());
+        initialize();
+        file.delete();
+    }
+
+}
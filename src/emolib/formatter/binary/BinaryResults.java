@@ -0,0 +1,363 @@
+/*
+ * File    : BinaryResults.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.formatter.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The <i>BinaryResults</i> class reads the results file of the
+ * {@link emolib.formatter.binary.BinaryFormatter}.
+ *
+ * <p>
+ * The file is mapped into memory, and the paragraph records are read one by one
+ * as views of the mapped buffer, so the sentence dimensions are accessed as
+ * FloatBuffer columns without copying nor parsing them. E.g.:
+ * </p>
+ * <pre>
+ * BinaryResults results = BinaryResults.open(new File("emolib.results.bin"));
+ * while (results.hasNextParagraph()) {
+ *     BinaryResults.Paragraph paragraph = results.nextParagraph();
+ *     FloatBuffer valences = paragraph.getValences();
+ *     ...
+ * }
+ * </pre>
+ */
+public class BinaryResults {
+
+    private ByteBuffer buffer;
+    private float[] documentDimensions;
+    private short documentCategory;
+    private String[] categories;
+    private int numberOfParagraphs;
+    private int paragraphsRead;
+
+
+    /**
+     * Main constructor of the BinaryResults.
+     * It reads the header of the results.
+     *
+     * @param results The results, from the start of the header to the end of the records.
+     *
+     * @throws IOException If the results are not valid.
+     */
+    public BinaryResults(ByteBuffer results) throws IOException {
+        buffer = results.duplicate();
+        if ((buffer.getInt() != BinaryFormatter.MAGIC) || (buffer.getInt() != BinaryFormatter.VERSION)) {
+            throw new IOException("Not an EmoLib binary results file.");
+        }
+        documentDimensions = new float[]{buffer.getFloat(), buffer.getFloat(), buffer.getFloat()};
+        documentCategory = buffer.getShort();
+        categories = new String[buffer.getShort()];
+        for (int category = 0; category < categories.length; category++) {
+            byte[] name = new byte[2 + (buffer.getShort(buffer.position()) & 0xFFFF)];
+            buffer.get(name);
+            categories[category] = new DataInputStream(new ByteArrayInputStream(name)).readUTF();
+        }
+        numberOfParagraphs = buffer.getInt();
+        paragraphsRead = 0;
+    }
+
+
+    /**
+     * Function to map a results file into memory.
+     *
+     * @param file The results file.
+     *
+     * @return The results.
+     */
+    public static BinaryResults open(File file) throws IOException {
+        RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = input.getChannel();
+            return new BinaryResults(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            input.close();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the name of a category.
+     *
+     * @param id The category id.
+     *
+     * @return The category, or null if the id is -1.
+     */
+    public String getCategory(short id) {
+        if (id < 0) {
+            return null;
+        }
+        return categories[id];
+    }
+
+
+    /**
+     * Function to retrieve the categories, in order of id.
+     *
+     * @return The categories.
+     */
+    public String[] getCategories() {
+        return categories.clone();
+    }
+
+
+    /**
+     * Function to retrieve the emotional valence of the document.
+     *
+     * @return The valence.
+     */
+    public float getValence() {
+        return documentDimensions[0];
+    }
+
+
+    /**
+     * Function to retrieve the emotional activation of the document.
+     *
+     * @return The activation.
+     */
+    public float getActivation() {
+        return documentDimensions[1];
+    }
+
+
+    /**
+     * Function to retrieve the emotional control of the document.
+     *
+     * @return The control.
+     */
+    public float getControl() {
+        return documentDimensions[2];
+    }
+
+
+    /**
+     * Function to retrieve the category id of the document.
+     *
+     * @return The category id.
+     */
+    public short getCategoryId() {
+        return documentCategory;
+    }
+
+
+    /**
+     * Function to retrieve the number of paragraphs.
+     *
+     * @return The number of paragraphs.
+     */
+    public int getNumberOfParagraphs() {
+        return numberOfParagraphs;
+    }
+
+
+    /**
+     * Function to determine if there are more paragraphs to read.
+     *
+     * @return True if there is another paragraph.
+     */
+    public boolean hasNextParagraph() {
+        return paragraphsRead < numberOfParagraphs;
+    }
+
+
+    /**
+     * Function to read the next paragraph.
+     *
+     * @return A view of the paragraph record.
+     */
+    public Paragraph nextParagraph() {
+        int length = buffer.getInt();
+        ByteBuffer recordView = buffer.slice();
+        recordView.limit(length);
+        buffer.position(buffer.position() + length);
+        paragraphsRead++;
+        return new Paragraph(recordView);
+    }
+
+
+    /**
+     * A view of a paragraph record.
+     */
+    public static class Paragraph {
+
+        private static final int HEADER_SIZE = 24;
+
+        private ByteBuffer record;
+        private int sentences;
+        private int offsetsStart;
+        private int textsStart;
+
+        /**
+         * Main constructor.
+         *
+         * @param recordView The record, after its length.
+         */
+        private Paragraph(ByteBuffer recordView) {
+            record = recordView;
+            sentences = record.getInt(20);
+            offsetsStart = HEADER_SIZE + 12 * sentences + 2 * sentences + 2 * (sentences % 2);
+            textsStart = offsetsStart + 4 * (sentences + 1);
+        }
+
+        /**
+         * Function to retrieve the paragraph number.
+         *
+         * @return The number of the paragraph in the document.
+         */
+        public int getNum() {
+            return record.getInt(0);
+        }
+
+        /**
+         * Function to retrieve the emotional valence of the paragraph.
+         *
+         * @return The valence.
+         */
+        public float getValence() {
+            return record.getFloat(4);
+        }
+
+        /**
+         * Function to retrieve the emotional activation of the paragraph.
+         *
+         * @return The activation.
+         */
+        public float getActivation() {
+            return record.getFloat(8);
+        }
+
+        /**
+         * Function to retrieve the emotional control of the paragraph.
+         *
+         * @return The control.
+         */
+        public float getControl() {
+            return record.getFloat(12);
+        }
+
+        /**
+         * Function to retrieve the category id of the paragraph.
+         *
+         * @return The category id.
+         */
+        public short getCategoryId() {
+            return record.getShort(16);
+        }
+
+        /**
+         * Function to retrieve the number of sentences of the paragraph.
+         *
+         * @return The number of sentences.
+         */
+        public int getNumberOfSentences() {
+            return sentences;
+        }
+
+        /**
+         * Function to retrieve the valences of the sentences.
+         *
+         * @return A view of the valence column.
+         */
+        public FloatBuffer getValences() {
+            return getColumn(HEADER_SIZE, 4 * sentences).asFloatBuffer();
+        }
+
+        /**
+         * Function to retrieve the activations of the sentences.
+         *
+         * @return A view of the activation column.
+         */
+        public FloatBuffer getActivations() {
+            return getColumn(HEADER_SIZE + 4 * sentences, 4 * sentences).asFloatBuffer();
+        }
+
+        /**
+         * Function to retrieve the controls of the sentences.
+         *
+         * @return A view of the control column.
+         */
+        public FloatBuffer getControls() {
+            return getColumn(HEADER_SIZE + 8 * sentences, 4 * sentences).asFloatBuffer();
+        }
+
+        /**
+         * Function to retrieve the category ids of the sentences.
+         *
+         * @return A view of the category id column.
+         */
+        public ShortBuffer getCategoryIds() {
+            return getColumn(HEADER_SIZE + 12 * sentences, 2 * sentences).asShortBuffer();
+        }
+
+        /**
+         * Function to retrieve the UTF-8 bytes of the text of a sentence.
+         *
+         * @param sentence The index of the sentence.
+         *
+         * @return A view of the text bytes.
+         */
+        public ByteBuffer getTextBytes(int sentence) {
+            int start = record.getInt(offsetsStart + 4 * sentence);
+            int end = record.getInt(offsetsStart + 4 * (sentence + 1));
+            return getColumn(textsStart + start, end - start);
+        }
+
+        /**
+         * Function to retrieve the text of a sentence.
+         *
+         * @param sentence The index of the sentence.
+         *
+         * @return The text.
+         */
+        public String getText(int sentence) {
+            ByteBuffer text = getTextBytes(sentence);
+            byte[] bytes = new byte[text.remaining()];
+            text.get(bytes);
+            try {
+                return new String(bytes, "UTF-8");
+            } catch (UnsupportedEncodingException e) {
+                throw new IllegalStateException(e.getMessage());
+            }
+        }
+
+        /**
+         * Function to retrieve a view of a region of the record.
+         *
+         * @param start The start of the region.
+         * @param length The length of the region.
+         *
+         * @return The view.
+         */
+        private ByteBuffer getColumn(int start, int length) {
+            ByteBuffer column = record.duplicate();
+            column.position(start);
+            column.limit(start + length);
+            return column.slice();
+        }
+
+    }
+
+}
@@ -0,0 +1,299 @@
+/*
+ * File    : JSONLinesFormatter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.formatter.json;
+
+import emolib.formatter.*;
+import emolib.util.conf.*;
+import emolib.util.proc.*;
+
+import java.io.*;
+
+/**
+ * The <i>JSONLinesFormatter</i> class performs the formatting process of the
+ * output data into a JSON Lines file, i.e., one JSON object per paragraph and line.
+ *
+ * <p>
+ * Each paragraph object contains the same information as the paragraph element of the
+ * {@link emolib.formatter.xml.XMLFormatter}, with numeric dimensions:
+ * </p>
+ * <pre>
+ * {"num":1,"val":7.0,"act":6.0,"con":5.0,"cat":"P","sentences":[{"num":1,"val":7.0,
+ * "act":6.0,"con":5.0,"cat":"P","text":"I love it ."}]}
+ * </pre>
+ * <p>
+ * The paragraphs are written as they flow through the formatter (see
+ * {@link emolib.formatter.SpoolingFormatter}). The text units that contain no emotional
+ * dimensions are given the threshold value and the "neutral" category.
+ * </p>
+ * <p>
+ * The JSONLinesFormatter accepts 2 configuration parameters:
+ * <ul>
+ *     <li>
+ *         The path of the resulting "emolib.results.jsonl" file.
+ *     </li>
+ *     <li>
+ *         The threshold to discern between a positive valence or a negative one.
+ *     </li>
+ * </ul>
+ * </p>
+ */
+public class JSONLinesFormatter extends SpoolingFormatter {
+
+    public final static String PROP_RESULTS_PATH = "resultspath";
+    public final static String PROP_THRESHOLD = "threshold";
+
+    private String resultsPath;
+    private float threshold;
+
+    private Writer writer;
+    private StringBuilder line;
+    private int numOfParagraph;
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
+     */
+    public void register(String name, Registry registry) throws PropertyException {
+        super.register(name, registry);
+        registry.register(PROP_RESULTS_PATH, PropertyType.STRING);
+        registry.register(PROP_THRESHOLD, PropertyType.FLOAT);
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#newProperties(emolib.util.conf.PropertySheet)
+     */
+    public void newProperties(PropertySheet ps) throws PropertyException {
+        super.newProperties(ps);
+        resultsPath = ps.getString(PROP_RESULTS_PATH, "nullpath");
+        threshold = ps.getFloat(PROP_THRESHOLD, Float.parseFloat("5.75"));
+    }
+
+
+    /**
+     * Main constructor of the JSONLinesFormatter.
+     */
+    public JSONLinesFormatter() {
+        line = new StringBuilder();
+    }
+
+
+    /**
+     * Method to initialize the JSONLinesFormatter.
+     * The results of the former texts are discarded.
+     */
+    public void initialize() {
+        writer = null;
+        super.initialize();
+        numOfParagraph = 0;
+    }
+
+
+    /**
+     * Method to perform the formatting process at the paragraph and sentence level.
+     *
+     * @param inputTextDataObject The TextData object to process.
+     */
+    public void applyFormatting(TextData inputTextDataObject) {
+        try {
+            getSpool();
+            for (int numberOfParagraph = 0; numberOfParagraph < inputTextDataObject.getNumberOfParagraphs();
+            numberOfParagraph++) {
+                numOfParagraph++;
+                line.setLength(0);
+                appendParagraph(inputTextDataObject.getParagraphData(numberOfParagraph));
+                line.append('\n');
+                writer.write(line.toString());
+                writer.flush();
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the JSON results!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline.
+     * The results file will be saved in the local filesystem if the path is defined.
+     */
+    public void outputData() {
+        if (resultsPath.equals("nullpath") == false) {
+            outputData(new File(resultsPath, "emolib.results.jsonl"));
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline
+     * into a determined file.
+     *
+     * @param file File The determined file to output the results.
+     */
+    public void outputData(File file) {
+        try {
+            OutputStream out = openResults(file);
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                copySpool(out);
+            } finally {
+                out.close();
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the JSON results file!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Function to escape a text in order to place it into a JSON string.
+     *
+     * @param text The text to escape.
+     *
+     * @return The escaped text.
+     */
+    public static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        appendEscaped(escaped, text);
+        return escaped.toString();
+    }
+
+
+    /**
+     * Method to create the character writer of the paragraphs when the spool is opened.
+     *
+     * @param spoolStream The spool stream.
+     */
+    protected void spoolOpened(OutputStream spoolStream) throws IOException {
+        writer = new OutputStreamWriter(spoolStream, "UTF-8");
+    }
+
+
+    /**
+     * Method to append the JSON object of a paragraph to the line.
+     *
+     * @param paragraphData The paragraph.
+     */
+    private void appendParagraph(ParagraphData paragraphData) {
+        line.append("{\"num\":").append(numOfParagraph);
+        if (paragraphData.containsEmotionalDimentions()) {
+            appendDimensions(paragraphData.getEmotionalValence(), paragraphData.getEmotionalActivation(),
+                paragraphData.getEmotionalControl(), paragraphData.getEmotionalCategory());
+        } else {
+            appendDimensions(threshold, threshold, threshold, "neutral");
+        }
+        line.append(",\"sentences\":[");
+        for (int numberOfSentence = 0; numberOfSentence < paragraphData.getNumberOfSentences();
+        numberOfSentence++) {
+            SentenceData sentenceData = paragraphData.getSentenceData(numberOfSentence);
+            if (numberOfSentence > 0) {
+                line.append(',');
+            }
+            line.append("{\"num\":").append(numberOfSentence + 1);
+            if (sentenceData.containsEmotionalDimentions()) {
+                appendDimensions(sentenceData.getEmotionalValence(), sentenceData.getEmotionalActivation(),
+                    sentenceData.getEmotionalControl(), sentenceData.getEmotionalCategory());
+            } else {
+                appendDimensions(threshold, threshold, threshold, "neutral");
+            }
+            line.append(",\"text\":\"");
+            for (int numberOfWord = 0; numberOfWord < sentenceData.getNumberOfWords(); numberOfWord++) {
+                if (numberOfWord > 0) {
+                    line.append(' ');
+                }
+                // Undo the slack trick.
+                appendEscaped(line, sentenceData.getWordData(numberOfWord).getWord().replace('|', '/'));
+            }
+            line.append("\"}");
+        }
+        line.append("]}");
+    }
+
+
+    /**
+     * Method to append the emotional fields of an object to the line.
+     *
+     * @param valence The valence.
+     * @param activation The activation.
+     * @param control The control.
+     * @param category The category.
+     */
+    private void appendDimensions(float valence, float activation, float control, String category) {
+        line.append(",\"val\":");
+        appendNumber(valence);
+        line.append(",\"act\":");
+        appendNumber(activation);
+        line.append(",\"con\":");
+        appendNumber(control);
+        if (category == null) {
+            line.append(",\"cat\":null");
+        } else {
+            line.append(",\"cat\":\"");
+            appendEscaped(line, category);
+            line.append('"');
+        }
+    }
+
+
+    /**
+     * Method to append a dimension value to the line as a JSON number.
+     *
+     * @param value The value.
+     */
+    private void appendNumber(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            line.append("null");
+        } else {
+            line.append(value);
+        }
+    }
+
+
+    /**
+     * Method to append an escaped text to a JSON string.
+     *
+     * @param escaped The JSON string.
+     * @param text The text to escape.
+     */
+    private static void appendEscaped(StringBuilder escaped, String text) {
+        for (int position = 0; position < text.length(); position++) {
+            char c = text.charAt(position);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\');
+                escaped.append(c);
+            } else if (c == '\n') {
+                escaped.append("\\n");
+            } else if (c == '\r') {
+                escaped.append("\\r");
+            } else if (c == '\t') {
+                escaped.append("\\t");
+            } else if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                String hex = Integer.toHexString(c);
+                escaped.append("\\u");
+                for (int pad = hex.length(); pad < 4; pad++) {
+                    escaped.append('0');
+                }
+                escaped.append(hex);
+            } else {
+                escaped.append(c);
+            }
+        }
+    }
+
+}
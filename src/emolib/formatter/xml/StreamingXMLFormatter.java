@@ -0,0 +1,300 @@
+/*
+ * File    : StreamingXMLFormatter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.formatter.xml;
+
+import emolib.formatter.*;
+import emolib.util.conf.*;
+import emolib.util.proc.*;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import java.io.*;
+
+/**
+ * The <i>StreamingXMLFormatter</i> class performs the formatting process of the
+ * output data into an XML file, like the {@link emolib.formatter.xml.XMLFormatter},
+ * but without building the document tree in memory.
+ *
+ * <p>
+ * The paragraphs are written as they flow through the formatter with an XMLStreamWriter
+ * into a buffered spool file, which is flushed after each paragraph. Since the attributes
+ * of the document element are those of the last processed text, the document element is
+ * written when the results are output: its start tag is followed by a copy of the spool
+ * file. So the memory footprint is constant and the output cost is linear for any number
+ * of paragraphs (see {@link emolib.formatter.SpoolingFormatter}).
+ * </p>
+ * <p>
+ * The StreamingXMLFormatter accepts the same configuration parameters as the XMLFormatter:
+ * <ul>
+ *     <li>
+ *         The path of the resulting XML results file.
+ *     </li>
+ *     <li>
+ *         The threshold to discern between a positive valence or a negative one.
+ *     </li>
+ * </ul>
+ * </p>
+ */
+public class StreamingXMLFormatter extends SpoolingFormatter {
+
+    public final static String PROP_XMLRESULTS_PATH = "xmlresultspath";
+    public final static String PROP_THRESHOLD = "threshold";
+
+    private static XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+    private String xmlResultsPath;
+    private float threshold;
+    private String thresholdValue;
+
+    private XMLStreamWriter writer;
+    private StringBuilder sentenceText;
+    private int numOfParagraph;
+    private String[] documentAttributes;
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
+     */
+    public void register(String name, Registry registry) throws PropertyException {
+        super.register(name, registry);
+        registry.register(PROP_XMLRESULTS_PATH, PropertyType.STRING);
+        registry.register(PROP_THRESHOLD, PropertyType.FLOAT);
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#newProperties(emolib.util.conf.PropertySheet)
+     */
+    public void newProperties(PropertySheet ps) throws PropertyException {
+        super.newProperties(ps);
+        xmlResultsPath = ps.getString(PROP_XMLRESULTS_PATH, "nullpath");
+        threshold = ps.getFloat(PROP_THRESHOLD, Float.parseFloat("5.75"));
+        thresholdValue = Float.toString(threshold);
+    }
+
+
+    /**
+     * Main constructor of the StreamingXMLFormatter.
+     */
+    public StreamingXMLFormatter() {
+        sentenceText = new StringBuilder();
+    }
+
+
+    /**
+     * Method to initialize the StreamingXMLFormatter.
+     * The results of the former texts are discarded.
+     */
+    public void initialize() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (XMLStreamException e) {
+                System.out.println("EmoLib: problem closing the XML results spool!");
+                e.printStackTrace();
+            }
+            writer = null;
+        }
+        super.initialize();
+        numOfParagraph = 0;
+        documentAttributes = null;
+    }
+
+
+    /**
+     * Method to perform the formatting process at the paragraph and sentence level.
+     *
+     * @param inputTextDataObject The TextData object to process.
+     */
+    public void applyFormatting(TextData inputTextDataObject) {
+        try {
+            OutputStream spool = getSpool();
+            for (int numberOfParagraph = 0; numberOfParagraph < inputTextDataObject.getNumberOfParagraphs();
+            numberOfParagraph++) {
+                numOfParagraph++;
+                writeParagraph(inputTextDataObject.getParagraphData(numberOfParagraph));
+                writer.flush();
+                spool.flush();
+            }
+            if (inputTextDataObject.containsEmotionalDimentions()) {
+                documentAttributes = new String[]{Float.toString(inputTextDataObject.getEmotionalValence()),
+                    Float.toString(inputTextDataObject.getEmotionalActivation()),
+                    Float.toString(inputTextDataObject.getEmotionalControl()),
+                    inputTextDataObject.getEmotionalCategory()};
+            } else {
+                documentAttributes = new String[]{thresholdValue, thresholdValue, thresholdValue, "neutral"};
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the XML results!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline.
+     * The StreamingXMLFormatter will produce an XML representation of these results.
+     * According to the configuration given by the class properties defined in the
+     * configuration file, this XML results file will be saved in the local
+     * filesystem if the path is defined.
+     */
+    public void outputData() {
+        if (xmlResultsPath.equals("nullpath") == false) {
+            outputData(new File(xmlResultsPath, "emolib.results.xml"));
+        }
+    }
+
+
+    /**
+     * Method to produce the results obtained from the text processing pipeline.
+     * The StreamingXMLFormatter will produce an XML representation of these results.
+     * According to the configuration given by the class properties defined in the
+     * configuration file, this XML results file will be saved to the present
+     * file.
+     *
+     * @param file File The determined file to output the results. This is normally a temp file.
+     */
+    public void outputData(File file) {
+        try {
+            OutputStream out = openResults(file);
+            try {
+                XMLStreamWriter document = outputFactory.createXMLStreamWriter(out, "UTF-8");
+                document.writeStartDocument("UTF-8", "1.0");
+                document.writeCharacters("\n");
+                if (documentAttributes == null) {
+                    document.writeEmptyElement("document");
+                    document.writeEndDocument();
+                    document.flush();
+                } else {
+                    document.writeStartElement("document");
+                    document.writeAttribute("val", documentAttributes[0]);
+                    document.writeAttribute("act", documentAttributes[1]);
+                    document.writeAttribute("con", documentAttributes[2]);
+                    document.writeAttribute("cat", documentAttributes[3]);
+                    // Close the start tag before copying the paragraphs.
+                    document.writeCharacters("");
+                    document.flush();
+                    writer.flush();
+                    copySpool(out);
+                    document.writeCharacters("\n");
+                    document.writeEndElement();
+                    document.writeEndDocument();
+                    document.flush();
+                }
+                out.write('\n');
+                document.close();
+            } finally {
+                out.close();
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem writing the XML results file!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Method to write a paragraph and its sentences.
+     *
+     * @param paragraphData The paragraph.
+     */
+    private void writeParagraph(ParagraphData paragraphData) throws XMLStreamException {
+        writer.writeCharacters("\n    ");
+        writer.writeStartElement("paragraph");
+        writer.writeAttribute("num", Integer.toString(numOfParagraph));
+        if (paragraphData.containsEmotionalDimentions()) {
+            writeDimensions(paragraphData.getEmotionalValence(), paragraphData.getEmotionalActivation(),
+                paragraphData.getEmotionalControl(), paragraphData.getEmotionalCategory());
+        } else {
+            writeDimensions();
+        }
+        for (int numberOfSentence = 0; numberOfSentence < paragraphData.getNumberOfSentences();
+        numberOfSentence++) {
+            SentenceData sentenceData = paragraphData.getSentenceData(numberOfSentence);
+            writer.writeCharacters("\n        ");
+            writer.writeStartElement("sentence");
+            writer.writeAttribute("num", Integer.toString(numberOfSentence + 1));
+            if (sentenceData.containsEmotionalDimentions()) {
+                writeDimensions(sentenceData.getEmotionalValence(), sentenceData.getEmotionalActivation(),
+                    sentenceData.getEmotionalControl(), sentenceData.getEmotionalCategory());
+            } else {
+                writeDimensions();
+            }
+            sentenceText.setLength(0);
+            for (int numberOfWord = 0; numberOfWord < sentenceData.getNumberOfWords(); numberOfWord++) {
+                sentenceText.append(' ');
+                sentenceText.append(sentenceData.getWordData(numberOfWord).getWord());
+            }
+            // Undo the slack trick.
+            for (int character = 0; character < sentenceText.length(); character++) {
+                if (sentenceText.charAt(character) == '|') {
+                    sentenceText.setCharAt(character, '/');
+                }
+            }
+            writer.writeCharacters(sentenceText.toString());
+            writer.writeEndElement();
+        }
+        if (paragraphData.getNumberOfSentences() > 0) {
+            writer.writeCharacters("\n    ");
+        }
+        writer.writeEndElement();
+    }
+
+
+    /**
+     * Method to write the emotional attributes of an element.
+     *
+     * @param valence The valence.
+     * @param activation The activation.
+     * @param control The control.
+     * @param category The category.
+     */
+    private void writeDimensions(float valence, float activation, float control, String category)
+            throws XMLStreamException {
+        writer.writeAttribute("val", Float.toString(valence));
+        writer.writeAttribute("act", Float.toString(activation));
+        writer.writeAttribute("con", Float.toString(control));
+        writer.writeAttribute("cat", category);
+    }
+
+
+    /**
+     * Method to write the emotional attributes of an element that has no emotional dimensions.
+     */
+    private void writeDimensions() throws XMLStreamException {
+        writer.writeAttribute("val", thresholdValue);
+        writer.writeAttribute("act", thresholdValue);
+        writer.writeAttribute("con", thresholdValue);
+        writer.writeAttribute("cat", "neutral");
+    }
+
+
+    /**
+     * Method to create the XML writer of the paragraphs when the spool is opened.
+     *
+     * @param spoolStream The spool stream.
+     */
+    protected void spoolOpened(OutputStream spoolStream) throws IOException {
+        try {
+            writer = outputFactory.createXMLStreamWriter(spoolStream, "UTF-8");
+        } catch (XMLStreamException e) {
+            throw new IOException("The XML writer cannot be created: " + e.getMessage());
+        }
+    }
+
+}
@@ -26,6 +26,7 @@ import java.util.Vector;
 import edu.stanford.nlp.tagger.maxent.*;
 
 import emolib.pos.*;
+import emolib.util.ResourceRegistry;
 import emolib.util.conf.*;
 import emolib.util.proc.*;
 
@@ -44,6 +45,11 @@ import emolib.util.proc.*;
  * The configuration parameter <i>resources_path</i> must lead to the desired model file.
  * </p>
  * <p>
+ * The model is shared with the other EnglishStanford taggers of the JVM that load the same
+ * file (see {@link emolib.util.ResourceRegistry}), and the tagging calls on the shared model
+ * are serialised.
+ * </p>
+ * <p>
  * This POS tagger makes mistakes. Stanford POS tagger is a
  * probabilistic POS tagger, so it may be inaccurate although the correctness performance
  * is slightly better than 97% using the enriched bidirectional architecture.
@@ -60,6 +66,12 @@ public class EnglishStanford extends POSTagger {
      */
     public final static String PROP_RESOURCES_PATH = "resources_path";
 
+    private final static ResourceRegistry.Loader<MaxentTagger> MODEL_LOADER =
+        new ResourceRegistry.Loader<MaxentTagger>() {
+            public MaxentTagger load(String path) throws Exception {
+                return new MaxentTagger(path);
+            }
+        };
 
     private MaxentTagger tagger;
     private String resourcesPath;
@@ -93,7 +105,8 @@ public class EnglishStanford extends POSTagger {
                     "the configuration file!");
                 System.exit(1);
             } else {
-                tagger = new MaxentTagger(resourcesPath);
+                deallocate();
+                tagger = ResourceRegistry.acquire(MaxentTagger.class, resourcesPath, MODEL_LOADER);
             }
         } catch (Exception e) {
             System.out.println("ERROR loading the EnglishStanford tagger!");
@@ -102,6 +115,17 @@ public class EnglishStanford extends POSTagger {
     }
 
 
+    /**
+     * Method to release the shared model.
+     */
+    public void deallocate() {
+        if (tagger != null) {
+            ResourceRegistry.release(MaxentTagger.class, resourcesPath);
+            tagger = null;
+        }
+    }
+
+
     /**
      * Main constructor of the SpanishQTag.
      */
@@ -124,7 +148,10 @@ public class EnglishStanford extends POSTagger {
                 theWords += words[i] + " ";
             }
             theWords = theWords.trim();
-            String taggedWords = tagger.tagString(theWords);
+            String taggedWords;
+            synchronized (tagger) {
+                taggedWords = tagger.tagString(theWords);
+            }
             String[] posTags = taggedWords.split(" ");
             Vector tag = new Vector();
             int index = 0;
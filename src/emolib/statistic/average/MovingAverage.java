@@ -0,0 +1,420 @@
+/*
+ * File    : MovingAverage.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.statistic.average;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import emolib.util.conf.*;
+import emolib.util.proc.*;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+/**
+ * The <i>MovingAverage</i> class tracks the emotional dimensions of a stream of texts,
+ * e.g., the messages of a chat, as they are processed.
+ *
+ * <p>
+ * The sentences and paragraphs are averaged like in the
+ * {@link emolib.statistic.average.ArithmeticMean}. Additionally, the emotional sentences
+ * and paragraphs update, in constant time and memory, three rolling estimates of the
+ * mood of the stream:
+ * <ul>
+ *     <li>
+ *         The exponentially decayed mean of the sentences, where the weight of the
+ *         last sentence is given by the <b>smoothing_factor</b> parameter.
+ *     </li>
+ *     <li>
+ *         The mean of the last <b>sentence_window</b> sentences.
+ *     </li>
+ *     <li>
+ *         The mean of the last <b>paragraph_window</b> paragraphs.
+ *     </li>
+ * </ul>
+ * </p>
+ * <p>
+ * Unlike the document statistics, these estimates are not reset when the processor is
+ * flushed, only when it is initialized or reset, so they span the whole stream. The
+ * registered listeners are notified after each emotional sentence, in the processing
+ * thread, so they can follow the mood in real time without aggregating the history.
+ * </p>
+ */
+public class MovingAverage extends ArithmeticMean {
+
+    public final static String PROP_SMOOTHING_FACTOR = "smoothing_factor";
+    public final static String PROP_SENTENCE_WINDOW = "sentence_window";
+    public final static String PROP_PARAGRAPH_WINDOW = "paragraph_window";
+
+    private float threshold;
+    private float smoothingFactor;
+    private int sentenceWindowSize;
+    private int paragraphWindowSize;
+
+    private float[] decayed;
+    private long numberOfSentences;
+    private Window sentenceWindow;
+    private Window paragraphWindow;
+    private List<Listener> listeners;
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
+     */
+    public void register(String name, Registry registry) throws PropertyException {
+        super.register(name, registry);
+        registry.register(PROP_SMOOTHING_FACTOR, PropertyType.FLOAT);
+        registry.register(PROP_SENTENCE_WINDOW, PropertyType.INT);
+        registry.register(PROP_PARAGRAPH_WINDOW, PropertyType.INT);
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#newProperties(emolib.util.conf.PropertySheet)
+     */
+    public void newProperties(PropertySheet ps) throws PropertyException {
+        super.newProperties(ps);
+        threshold = ps.getFloat(PROP_THRESHOLD, Float.parseFloat("5.75"));
+        smoothingFactor = ps.getFloat(PROP_SMOOTHING_FACTOR, Float.parseFloat("0.2"));
+        sentenceWindowSize = ps.getInt(PROP_SENTENCE_WINDOW, 10);
+        paragraphWindowSize = ps.getInt(PROP_PARAGRAPH_WINDOW, 5);
+        if ((smoothingFactor <= 0) || (smoothingFactor > 1)) {
+            throw new PropertyException(this, PROP_SMOOTHING_FACTOR,
+                "The smoothing factor must be in (0, 1].");
+        }
+        if (sentenceWindowSize < 1) {
+            throw new PropertyException(this, PROP_SENTENCE_WINDOW,
+                "The sentence window must contain at least one sentence.");
+        }
+        if (paragraphWindowSize < 1) {
+            throw new PropertyException(this, PROP_PARAGRAPH_WINDOW,
+                "The paragraph window must contain at least one paragraph.");
+        }
+        reset();
+    }
+
+
+    /**
+     * Main constructor of the MovingAverage.
+     */
+    public MovingAverage() {
+        decayed = new float[3];
+        listeners = new ArrayList<Listener>();
+    }
+
+
+    /**
+     * Method to initialize the MovingAverage.
+     * The rolling estimates are reset.
+     */
+    public void initialize() {
+        super.initialize();
+        reset();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#flush()
+     */
+    public void flush() {
+        // Only the document statistics, the stream goes on.
+        super.initialize();
+    }
+
+
+    /**
+     * Method to reset the rolling estimates, e.g., when a new stream begins.
+     */
+    public void reset() {
+        numberOfSentences = 0;
+        sentenceWindow = new Window(sentenceWindowSize);
+        paragraphWindow = new Window(paragraphWindowSize);
+    }
+
+
+    /**
+     * Method to register a listener of the updates of the estimates.
+     *
+     * @param listener The listener.
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+
+    /**
+     * Method to unregister a listener of the updates of the estimates.
+     *
+     * @param listener The listener.
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+
+    /**
+     * Method to perform the arithmetic mean calculations and to update the rolling
+     * estimates with the emotional sentences and paragraphs, in order.
+     *
+     * @param inputTextDataObject The TextData object to process.
+     */
+    public void applyStatistics(TextData inputTextDataObject) {
+        super.applyStatistics(inputTextDataObject);
+        for (int numberOfParagraph = 0; numberOfParagraph < inputTextDataObject.getNumberOfParagraphs();
+        numberOfParagraph++) {
+            ParagraphData tempParagraph = inputTextDataObject.getParagraphData(numberOfParagraph);
+            for (int numberOfSentence = 0; numberOfSentence < tempParagraph.getNumberOfSentences();
+            numberOfSentence++) {
+                SentenceData tempSentence = tempParagraph.getSentenceData(numberOfSentence);
+                if (tempSentence.containsEmotionalDimentions()) {
+                    addSentence(tempSentence);
+                }
+            }
+            if (tempParagraph.containsEmotionalDimentions()) {
+                paragraphWindow.add(tempParagraph.getEmotionalValence(), tempParagraph.getEmotionalActivation(),
+                    tempParagraph.getEmotionalControl());
+            }
+        }
+    }
+
+
+    /**
+     * Function to retrieve the exponentially decayed mean of the sentences.
+     *
+     * @return The valence, activation and control, or the threshold if no sentence has
+     *         emotional content yet.
+     */
+    public float[] getDecayedDimensions() {
+        if (numberOfSentences == 0) {
+            return new float[]{threshold, threshold, threshold};
+        }
+        return decayed.clone();
+    }
+
+
+    /**
+     * Function to retrieve the mean of the last sentences.
+     *
+     * @return The valence, activation and control, or the threshold if no sentence has
+     *         emotional content yet.
+     */
+    public float[] getSentenceWindowDimensions() {
+        return sentenceWindow.getMean(threshold);
+    }
+
+
+    /**
+     * Function to retrieve the mean of the last paragraphs.
+     *
+     * @return The valence, activation and control, or the threshold if no paragraph has
+     *         emotional content yet.
+     */
+    public float[] getParagraphWindowDimensions() {
+        return paragraphWindow.getMean(threshold);
+    }
+
+
+    /**
+     * Function to retrieve the number of emotional sentences of the stream.
+     *
+     * @return The number of sentences since the last reset.
+     */
+    public long getNumberOfSentences() {
+        return numberOfSentences;
+    }
+
+
+    /**
+     * Method to update the estimates with an emotional sentence and notify the listeners.
+     *
+     * @param sentence The sentence.
+     */
+    private void addSentence(SentenceData sentence) {
+        float valence = sentence.getEmotionalValence();
+        float activation = sentence.getEmotionalActivation();
+        float control = sentence.getEmotionalControl();
+        if (numberOfSentences == 0) {
+            decayed[0] = valence;
+            decayed[1] = activation;
+            decayed[2] = control;
+        } else {
+            decayed[0] += smoothingFactor * (valence - decayed[0]);
+            decayed[1] += smoothingFactor * (activation - decayed[1]);
+            decayed[2] += smoothingFactor * (control - decayed[2]);
+        }
+        numberOfSentences++;
+        sentenceWindow.add(valence, activation, control);
+        for (int listener = 0; listener < listeners.size(); listener++) {
+            listeners.get(listener).sentenceAdded(this, sentence);
+        }
+    }
+
+
+    /**
+     * The listener of the updates of the estimates.
+     */
+    public interface Listener {
+
+        /**
+         * Method called after an emotional sentence updates the estimates.
+         *
+         * @param average The MovingAverage.
+         * @param sentence The sentence.
+         */
+        public void sentenceAdded(MovingAverage average, SentenceData sentence);
+
+    }
+
+
+    /**
+     * A fixed window of the last emotional dimensions, kept in ring buffers.
+     */
+    private static class Window {
+
+        private float[] valences;
+        private float[] activations;
+        private float[] controls;
+        private double sumValence;
+        private double sumActivation;
+        private double sumControl;
+        private int next;
+        private int count;
+
+        /**
+         * Main constructor.
+         *
+         * @param size The size of the window.
+         */
+        private Window(int size) {
+            valences = new float[size];
+            activations = new float[size];
+            controls = new float[size];
+        }
+
+        /**
+         * Method to add the dimensions of a unit, which replace those of the oldest one
+         * if the window is full.
+         *
+         * @param valence The valence.
+         * @param activation The activation.
+         * @param control The control.
+         */
+        private void add(float valence, float activation, float control) {
+            if (count == valences.length) {
+                sumValence -= valences[next];
+                sumActivation -= activations[next];
+                sumControl -= controls[next];
+            } else {
+                count++;
+            }
+            valences[next] = valence;
+            activations[next] = activation;
+            controls[next] = control;
+            sumValence += valence;
+            sumActivation += activation;
+            sumControl += control;
+            next++;
+            if (next == valences.length) {
+                next = 0;
+            }
+        }
+
+        /**
+         * Function to retrieve the mean of the window.
+         *
+         * @param empty The value of an empty window.
+         *
+         * @return The mean valence, activation and control.
+         */
+        private float[] getMean(float empty) {
+            if (count == 0) {
+                return new float[]{empty, empty, empty};
+            }
+            return new float[]{(float)(sumValence / count), (float)(sumActivation / count),
+                (float)(sumControl / count)};
+        }
+
+    }
+
+
+    /**
+     * Functionality test of the rolling estimates of a stream.
+     */
+    @Test public void rollingEstimates() {
+        threshold = 5.75f;
+        smoothingFactor = 0.5f;
+        sentenceWindowSize = 2;
+        paragraphWindowSize = 5;
+        initialize();
+        assertDimensions(new float[]{5.75f, 5.75f, 5.75f}, getDecayedDimensions());
+        // The first sentence sets the decayed mean, the next ones move it halfway.
+        applyStatistics(makeText(new float[]{8, 2, 4}));
+        assertDimensions(new float[]{8, 2, 4}, getDecayedDimensions());
+        applyStatistics(makeText(new float[]{4, 6, 4}));
+        assertDimensions(new float[]{6, 4, 4}, getDecayedDimensions());
+        assertDimensions(new float[]{6, 4, 4}, getSentenceWindowDimensions());
+        // The state survives a flush, and the third sentence replaces the first in the window.
+        flush();
+        applyStatistics(makeText(new float[]{2, 8, 7}));
+        Assert.assertEquals(3, getNumberOfSentences());
+        assertDimensions(new float[]{4, 6, 5.5f}, getDecayedDimensions());
+        assertDimensions(new float[]{3, 7, 5.5f}, getSentenceWindowDimensions());
+        assertDimensions(new float[]{14 / 3f, 16 / 3f, 5}, getParagraphWindowDimensions());
+        // The state does not survive an initialization.
+        initialize();
+        Assert.assertEquals(0, getNumberOfSentences());
+        assertDimensions(new float[]{5.75f, 5.75f, 5.75f}, getDecayedDimensions());
+        assertDimensions(new float[]{5.75f, 5.75f, 5.75f}, getSentenceWindowDimensions());
+        assertDimensions(new float[]{5.75f, 5.75f, 5.75f}, getParagraphWindowDimensions());
+    }
+
+
+    /**
+     * Method to check the valence, activation and control of an estimate.
+     *
+     * @param expected The expected dimensions.
+     * @param actual The estimated dimensions.
+     */
+    private void assertDimensions(float[] expected, float[] actual) {
+        Assert.assertEquals(expected.length, actual.length);
+        for (int dimension = 0; dimension < expected.length; dimension++) {
+            Assert.assertEquals(expected[dimension], actual[dimension], 1e-5);
+        }
+    }
+
+
+    /**
+     * Function to build a text of one paragraph with one emotional sentence of one word.
+     *
+     * @param dimensions The valence, activation and control of the word.
+     *
+     * @return The text.
+     */
+    private TextData makeText(float[] dimensions) {
+        TextData text = new TextData();
+        WordData word = text.putWordData("word", "w");
+        word.setEmotionalValence(dimensions[0]);
+        word.setEmotionalActivation(dimensions[1]);
+        word.setEmotionalControl(dimensions[2]);
+        SentenceData sentence = new SentenceData();
+        sentence.addWordData(word);
+        ParagraphData paragraph = new ParagraphData();
+        paragraph.addSentenceData(sentence);
+        text.addParagraphData(paragraph);
+        return text;
+    }
+
+}
@@ -167,7 +167,7 @@ public abstract class Tokenizer extends TextDataProcessor {
             float modifierValue;
             // wordSplit[0] is a space.
             for (int i = 1; i < wordSplit.length; i++) {
-                temp = new WordData(wordSplit[i], wordClassSplit[i]);
+                temp = textDataToReturn.putWordData(wordSplit[i], wordClassSplit[i]);
                 if (wordEmotionalContentSplit[i].equals("true")) {
                     temp.setEmotionalContent();
                 }
@@ -180,7 +180,6 @@ public abstract class Tokenizer extends TextDataProcessor {
                         temp.setModifierValue(modifierValue);
                     }
                 }
-                textDataToReturn.putWordData(temp);
             }
         }
         return textDataToReturn;
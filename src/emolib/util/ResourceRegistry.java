@@ -0,0 +1,210 @@
+/*
+ * File    : ResourceRegistry.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The <i>ResourceRegistry</i> class shares the heavy read-only resources (POS models,
+ * WordNet indexes, affective lexicons...) among all the processors of the JVM that
+ * load them from the same path, whichever their pipeline or configuration manager.
+ *
+ * <p>
+ * The resources are reference-counted: the first processor that acquires a resource
+ * loads it, and the following ones share the loaded instance. Each processor must
+ * release its resources when it is deallocated, and the resource is dropped (and
+ * unloaded) when it is no longer referenced. E.g.:
+ * </p>
+ * <pre>
+ * dictionary = ResourceRegistry.acquire(DictionaryANLW.class, path, DICTIONARY_LOADER);
+ * ...
+ * ResourceRegistry.release(DictionaryANLW.class, path);
+ * </pre>
+ * <p>
+ * The resources are loaded outside the lock of the registry, so different resources
+ * may be loaded concurrently. The shared resources must not be modified once loaded.
+ * </p>
+ */
+public class ResourceRegistry {
+
+    private static Map<String, SharedResource> resources = new HashMap<String, SharedResource>();
+
+
+    /**
+     * Unconstructable.
+     */
+    private ResourceRegistry() {
+    }
+
+
+    /**
+     * Function to acquire a shared resource, loading it if it is not already loaded.
+     *
+     * @param type The class of the resource.
+     * @param path The path of the resource.
+     * @param loader The loader of the resource.
+     *
+     * @return The shared resource.
+     *
+     * @throws Exception If the resource cannot be loaded. Then, it is not acquired.
+     */
+    public static <T> T acquire(Class<T> type, String path, Loader<T> loader) throws Exception {
+        String key = getKey(type, path);
+        SharedResource shared;
+        synchronized (resources) {
+            shared = resources.get(key);
+            if (shared == null) {
+                shared = new SharedResource();
+                resources.put(key, shared);
+            }
+            shared.references++;
+        }
+        try {
+            synchronized (shared) {
+                if (shared.resource == null) {
+                    shared.resource = loader.load(path);
+                    shared.loader = loader;
+                }
+                return type.cast(shared.resource);
+            }
+        } catch (Exception e) {
+            release(type, path);
+            throw e;
+        } catch (Error e) {
+            release(type, path);
+            throw e;
+        }
+    }
+
+
+    /**
+     * Method to release a shared resource. The resource is unloaded when it is
+     * no longer referenced.
+     *
+     * @param type The class of the resource.
+     * @param path The path of the resource.
+     */
+    public static void release(Class<?> type, String path) {
+        String key = getKey(type, path);
+        SharedResource shared;
+        synchronized (resources) {
+            shared = resources.get(key);
+            if (shared == null) {
+                return;
+            }
+            shared.references--;
+            if (shared.references > 0) {
+                return;
+            }
+            resources.remove(key);
+        }
+        synchronized (shared) {
+            if (shared.resource != null) {
+                unload(shared.loader, shared.resource);
+                shared.resource = null;
+            }
+        }
+    }
+
+
+    /**
+     * Function to retrieve the number of references to a shared resource.
+     *
+     * @param type The class of the resource.
+     * @param path The path of the resource.
+     *
+     * @return The number of processors that hold the resource.
+     */
+    public static int getReferenceCount(Class<?> type, String path) {
+        synchronized (resources) {
+            SharedResource shared = resources.get(getKey(type, path));
+            if (shared == null) {
+                return 0;
+            }
+            return shared.references;
+        }
+    }
+
+
+    /**
+     * Method to unload a resource with its loader.
+     *
+     * @param loader The loader of the resource.
+     * @param resource The resource, loaded by the same loader.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> void unload(Loader<T> loader, Object resource) {
+        try {
+            loader.unload((T)resource);
+        } catch (Exception e) {
+            System.out.println("EmoLib: problem unloading a shared resource!");
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the key of a resource in the registry.
+     *
+     * @param type The class of the resource.
+     * @param path The path of the resource.
+     *
+     * @return The key.
+     */
+    private static String getKey(Class<?> type, String path) {
+        return type.getName() + "@" + path;
+    }
+
+
+    /**
+     * The loader of a kind of resource.
+     */
+    public static abstract class Loader<T> {
+
+        /**
+         * Function to load a resource.
+         *
+         * @param path The path of the resource.
+         *
+         * @return The resource.
+         */
+        public abstract T load(String path) throws Exception;
+
+        /**
+         * Method to unload a resource that is no longer referenced, e.g., to close its files.
+         * By default, the resource is left to the garbage collector.
+         *
+         * @param resource The resource.
+         */
+        public void unload(T resource) throws Exception {
+        }
+
+    }
+
+
+    /**
+     * An entry of the registry.
+     */
+    private static class SharedResource {
+
+        private int references;
+        private Object resource;
+        private Loader<?> loader;
+
+    }
+
+}
@@ -20,9 +20,18 @@ import emolib.classifier.machinelearning.ARNReduced;
 import emolib.classifier.FeatureBox;
 
 import java.io.*;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.lang.Math;
 
+import org.junit.Test;
+import org.junit.Assert;
+
 
 /**
  * The <i>CorpusVocabularyStatistics</i> class performs a vocabulary analysis
@@ -30,14 +39,33 @@ import java.lang.Math;
  *
  * <p>
  * The CorpusVocabularyStatistics outputs the total vocabulary size (size of training corpus),
- * the vocabulary size (number of words with a frequency over 20, 15, 10, 5 and 3) and the
+ * the vocabulary size (number of words with a frequency over 20, 15, 10, 5, 4, 3 and 2) and the
  * amount of observed bigrams wrt the number of possible events.
  * </p>
+ * <p>
+ * By default, the vocabulary is built into an {@link emolib.classifier.machinelearning.ARNReduced}
+ * graph. For large corpora, the <i>-stream</i> mode splits the input file into as many
+ * shards (of whole lines) as threads, and each thread counts the words and bigrams of its
+ * shard into its own {@link emolib.util.eval.TermCounter}, which are merged at the end.
+ * The <i>-approx</i> mode does not hold the vocabulary at all: the frequencies are estimated
+ * with a {@link emolib.util.eval.CountMinSketch} shared by the threads, and the vocabulary
+ * sizes (over each frequency threshold) with {@link emolib.util.eval.HyperLogLog} sketches,
+ * so the memory is bounded whatever the size of the corpus. Then, the vocabulary sizes
+ * over the thresholds may be overestimated, and the most frequent terms and the perplexity
+ * are not available.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
 public class CorpusVocabularyStatistics {
 
+    private final static int[] VOCABULARY_THRESHOLDS = {20, 15, 10, 5, 4, 3, 2};
+    private final static int BIGRAM_THRESHOLD = 5;
+    private final static int SKETCH_WIDTH = 1 << 20;
+    private final static int SKETCH_DEPTH = 4;
+    private final static int SKETCH_PRECISION = 14;
+
+
     /**
      * Void constructor.
      */
@@ -52,6 +80,8 @@ public class CorpusVocabularyStatistics {
         System.out.println("CorpusVocabularyStatistics usage:");
         System.out.println("\tjava " + "[-Xmx256m] -cp EmoLib-X.Y.Z.jar emolib.util.eval.CorpusVocabularyStatistics " +
             "INPUT_TEXT_FILE");
+        System.out.println("\tjava " + "[-Xmx256m] -cp EmoLib-X.Y.Z.jar emolib.util.eval.CorpusVocabularyStatistics " +
+            "-stream|-approx NUMBER_OF_THREADS INPUT_TEXT_FILE");
     }
 
 
@@ -71,12 +101,313 @@ public class CorpusVocabularyStatistics {
 
 
 
+    /**
+     * Method to analyse the vocabulary of a text file with several threads, and to print the results.
+     *
+     * @param file The text file.
+     * @param numberOfThreads The number of threads, i.e., of shards of the file.
+     * @param approximate True to estimate the frequencies with sketches.
+     */
+    public void analyseStream(File file, int numberOfThreads, boolean approximate) throws Exception {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        int shards = Math.max(1, numberOfThreads);
+        CountMinSketch wordFrequencies = null;
+        CountMinSketch bigramFrequencies = null;
+        if (approximate) {
+            wordFrequencies = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+            bigramFrequencies = new CountMinSketch(SKETCH_WIDTH, SKETCH_DEPTH);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(shards);
+        ShardAnalysis total;
+        try {
+            List<Future<ShardAnalysis>> analyses = new ArrayList<Future<ShardAnalysis>>();
+            long length = file.length();
+            for (int shard = 0; shard < shards; shard++) {
+                analyses.add(executor.submit(new ShardAnalysis(file, length * shard / shards,
+                    length * (shard + 1) / shards, wordFrequencies, bigramFrequencies)));
+            }
+            total = analyses.get(0).get();
+            for (int shard = 1; shard < shards; shard++) {
+                total.merge(analyses.get(shard).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println("");
+        System.out.println("CorpusVocabularyStatistics (" + (approximate ? "approximate, " : "") + shards +
+            " threads)");
+        System.out.println("");
+        System.out.println("The size of the corpus is: " + total.numberOfWords);
+        long totalVocabSize = approximate ? total.wordSketches[0].estimate() : total.words.size();
+        System.out.println("The total vocabulary size (unigrams) of the corpus is: " + totalVocabSize);
+        for (int threshold = 0; threshold < VOCABULARY_THRESHOLDS.length; threshold++) {
+            long vocabSize;
+            if (approximate) {
+                vocabSize = total.wordSketches[threshold + 1].estimate();
+            } else {
+                vocabSize = total.words.getNumberOfTerms(VOCABULARY_THRESHOLDS[threshold]);
+            }
+            System.out.println("Vocabulary size for " + VOCABULARY_THRESHOLDS[threshold] + ": " + vocabSize);
+            System.out.println("\tObserved bigrams on the corpus: " + ((double)total.numberOfWords /
+                ((double)vocabSize * (double)vocabSize)) * 100 + "%");
+            System.out.println("\tTotal vocabulary coverage: " + ((double)vocabSize /
+                (double)totalVocabSize) * 100 + "%");
+        }
+        if (!approximate) {
+            printMostFrequent("WORDS", total.words);
+        }
+        System.out.println("");
+        System.out.println("The bigram size of the corpus is: " + total.numberOfBigrams);
+        if (approximate) {
+            System.out.println("The total vocabulary size (bigrams) of the corpus is: " +
+                total.bigramSketches[0].estimate());
+            System.out.println("");
+            System.out.println("Bigram vocabulary size for " + BIGRAM_THRESHOLD + ": " +
+                total.bigramSketches[1].estimate());
+            System.out.println("");
+            System.out.println("The vocabulary sizes are estimated, the most frequent terms and the " +
+                "perplexity are not available in the approximate mode.");
+        } else {
+            System.out.println("The total vocabulary size (bigrams) of the corpus is: " + total.bigrams.size());
+            System.out.println("");
+            System.out.println("Bigram vocabulary size for " + BIGRAM_THRESHOLD + ": " +
+                total.bigrams.getNumberOfTerms(BIGRAM_THRESHOLD));
+            printMostFrequent("TUPLES", total.bigrams);
+        }
+    }
+
+
+    /**
+     * Method to print the ten most frequent terms and the perplexity of a vocabulary.
+     *
+     * @param kind The kind of terms, WORDS or TUPLES.
+     * @param counter The vocabulary.
+     */
+    private void printMostFrequent(String kind, TermCounter counter) {
+        int[] top = new int[Math.min(10, counter.size())];
+        int topSize = 0;
+        double entropy = 0;
+        double wProb;
+        for (int slot = 0; slot < counter.getCapacity(); slot++) {
+            if (counter.getTerm(slot) != null) {
+                wProb = (double)counter.getCount(slot) / (double)counter.getTotal();
+                entropy -= wProb * Math.log(wProb) / Math.log((double)2);
+                // Insertion into the (descending) top list.
+                int position = topSize;
+                while ((position > 0) && (counter.getCount(top[position - 1]) < counter.getCount(slot))) {
+                    position--;
+                }
+                if (position < top.length) {
+                    if (topSize < top.length) {
+                        topSize++;
+                    }
+                    System.arraycopy(top, position, top, position + 1, topSize - position - 1);
+                    top[position] = slot;
+                }
+            }
+        }
+        System.out.println("");
+        System.out.println("The ten most frequent " + kind + ", along with their respective frequencies:");
+        for (int i = 0; i < topSize; i++) {
+            // The bigram terms are kept as "left right".
+            System.out.println(i + "\t" + counter.getTerm(top[i]).replace(' ', '_') + "\t" +
+                counter.getCount(top[i]));
+        }
+        System.out.println();
+        System.out.println("Perplexity: " + Math.pow((double)2, entropy));
+    }
+
+
+    /**
+     * The analysis of a shard of the input file, i.e., the lines that start within
+     * a range of bytes.
+     */
+    private static class ShardAnalysis implements Callable<ShardAnalysis> {
+
+        private File file;
+        private long start;
+        private long end;
+        private CountMinSketch wordFrequencies;
+        private CountMinSketch bigramFrequencies;
+        private TermCounter words;
+        private TermCounter bigrams;
+        private HyperLogLog[] wordSketches;
+        private HyperLogLog[] bigramSketches;
+        private long numberOfWords;
+        private long numberOfBigrams;
+
+        /**
+         * Main constructor.
+         *
+         * @param file The input file.
+         * @param start The first byte of the shard.
+         * @param end The byte after the shard.
+         * @param wordFrequencies The shared sketch of the word frequencies, or null to count them exactly.
+         * @param bigramFrequencies The shared sketch of the bigram frequencies.
+         */
+        private ShardAnalysis(File file, long start, long end, CountMinSketch wordFrequencies,
+                CountMinSketch bigramFrequencies) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.wordFrequencies = wordFrequencies;
+            this.bigramFrequencies = bigramFrequencies;
+            if (wordFrequencies == null) {
+                words = new TermCounter();
+                bigrams = new TermCounter();
+            } else {
+                wordSketches = new HyperLogLog[VOCABULARY_THRESHOLDS.length + 1];
+                for (int sketch = 0; sketch < wordSketches.length; sketch++) {
+                    wordSketches[sketch] = new HyperLogLog(SKETCH_PRECISION);
+                }
+                bigramSketches = new HyperLogLog[]{new HyperLogLog(SKETCH_PRECISION),
+                    new HyperLogLog(SKETCH_PRECISION)};
+            }
+        }
+
+        /**
+         * Function to analyse the lines of the shard.
+         *
+         * @return This analysis.
+         */
+        public ShardAnalysis call() throws IOException {
+            InputStream in = new BufferedInputStream(new FileInputStream(file), 65536);
+            try {
+                ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+                Charset charset = Charset.defaultCharset();
+                long position = 0;
+                if (start > 0) {
+                    // The line that contains the byte before the shard belongs to the former one.
+                    while (position < start - 1) {
+                        long skipped = in.skip(start - 1 - position);
+                        if (skipped <= 0) {
+                            return this;
+                        }
+                        position += skipped;
+                    }
+                    int c = in.read();
+                    position++;
+                    while ((c != -1) && (c != '\n')) {
+                        c = in.read();
+                        position++;
+                    }
+                }
+                int c = 0;
+                while ((position < end) && (c != -1)) {
+                    line.reset();
+                    c = in.read();
+                    if (c == -1) {
+                        break;
+                    }
+                    while ((c != -1) && (c != '\n')) {
+                        line.write(c);
+                        c = in.read();
+                    }
+                    position += line.size() + ((c == -1) ? 0 : 1);
+                    String lineFromFile = line.toString(charset.name());
+                    if (lineFromFile.endsWith("\r")) {
+                        lineFromFile = lineFromFile.substring(0, lineFromFile.length() - 1);
+                    }
+                    // Blank lines are skipped, like in the ARN-R analysis.
+                    if (lineFromFile.length() > 0) {
+                        analyseLine(lineFromFile);
+                    }
+                }
+            } finally {
+                in.close();
+            }
+            return this;
+        }
+
+        /**
+         * Method to count the words and bigrams of a line as the ARN-R graph does:
+         * the words are split by blanks and the bigrams are the pairs of consecutive words.
+         *
+         * @param lineFromFile The line.
+         */
+        private void analyseLine(String lineFromFile) {
+            String[] wordChunks = lineFromFile.replaceAll("  ", " ").trim().split(" ");
+            String previousWord = null;
+            long previousHash = 0;
+            for (int i = 0; i < wordChunks.length; i++) {
+                // The same normalised token is counted as a word and in the bigrams,
+                // in both modes.
+                String word = wordChunks[i].trim();
+                numberOfWords++;
+                if (i > 0) {
+                    numberOfBigrams++;
+                }
+                if (words != null) {
+                    words.add(word);
+                    if (i > 0) {
+                        bigrams.add(previousWord + " " + word);
+                    }
+                } else {
+                    long hash = HyperLogLog.hash(word);
+                    addSketches(wordSketches, wordFrequencies.add(hash), VOCABULARY_THRESHOLDS, hash);
+                    if (i > 0) {
+                        long bigramHash = HyperLogLog.hash(previousHash, hash);
+                        addSketches(bigramSketches, bigramFrequencies.add(bigramHash),
+                            new int[]{BIGRAM_THRESHOLD}, bigramHash);
+                    }
+                    previousHash = hash;
+                }
+                previousWord = word;
+            }
+        }
+
+        /**
+         * Method to count a term in the distinct counts of the thresholds that its
+         * frequency reaches.
+         *
+         * @param sketches The distinct counts: all the terms, then one per threshold.
+         * @param frequency The estimated frequency of the term.
+         * @param thresholds The thresholds, in descending order.
+         * @param hash The hash of the term.
+         */
+        private void addSketches(HyperLogLog[] sketches, long frequency, int[] thresholds, long hash) {
+            sketches[0].add(hash);
+            for (int threshold = thresholds.length - 1; threshold >= 0; threshold--) {
+                if (frequency < thresholds[threshold]) {
+                    break;
+                }
+                sketches[threshold + 1].add(hash);
+            }
+        }
+
+        /**
+         * Method to add the counts of the analysis of another shard.
+         *
+         * @param other The other analysis.
+         */
+        private void merge(ShardAnalysis other) {
+            numberOfWords += other.numberOfWords;
+            numberOfBigrams += other.numberOfBigrams;
+            if (words != null) {
+                words.merge(other.words);
+                bigrams.merge(other.bigrams);
+            } else {
+                for (int sketch = 0; sketch < wordSketches.length; sketch++) {
+                    wordSketches[sketch].merge(other.wordSketches[sketch]);
+                }
+                for (int sketch = 0; sketch < bigramSketches.length; sketch++) {
+                    bigramSketches[sketch].merge(other.bigramSketches[sketch]);
+                }
+            }
+        }
+
+    }
+
+
     public static void main(String[] args) throws Exception {
         CorpusVocabularyStatistics example = new CorpusVocabularyStatistics();
         ARNReduced arn = new ARNReduced();
         arn.setCOF(true);
 
-        if (args.length == 1) {
+        if ((args.length == 1) && !args[0].equals("-h") && !args[0].equals("--help")) {
             BufferedReader in = new BufferedReader(new FileReader(args[0]));
             System.out.println("");
             System.out.println("CorpusVocabularyStatistics");
@@ -197,6 +528,8 @@ public class CorpusVocabularyStatistics {
                 entropy -= wProb * Math.log(wProb) / Math.log((double)2);
             }
             System.out.println("Perplexity: " + Math.pow((double)2, entropy));
+        } else if ((args.length == 3) && (args[0].equals("-stream") || args[0].equals("-approx"))) {
+            example.analyseStream(new File(args[2]), Integer.parseInt(args[1]), args[0].equals("-approx"));
         } else if (args.length == 1) {
             if (args[0].equals("-h") || args[0].equals("--help")) {
                 example.printSynopsis();
@@ -212,5 +545,94 @@ public class CorpusVocabularyStatistics {
         }
     }
 
-}
 
+    /**
+     * Functionality test of the exact term counter.
+     */
+    @Test public void termCounter() {
+        TermCounter counter = new TermCounter();
+        long total = 0;
+        for (int repetition = 0; repetition < 7; repetition++) {
+            for (int term = 0; term < 1000; term++) {
+                if (repetition <= (term % 7)) {
+                    counter.add("w" + term);
+                    total++;
+                }
+            }
+        }
+        Assert.assertEquals(1000, counter.size());
+        Assert.assertEquals(total, counter.getTotal());
+        Assert.assertEquals(7, counter.getFrequency("w6"));
+        Assert.assertEquals(1, counter.getFrequency("w7"));
+        Assert.assertEquals(0, counter.getFrequency("unseen"));
+        // The terms that appear 5, 6 and 7 times.
+        Assert.assertEquals(3 * 1000 / 7, counter.getNumberOfTerms(5));
+        //
+        TermCounter other = new TermCounter();
+        other.add("w6", 3);
+        other.add("new term");
+        counter.merge(other);
+        Assert.assertEquals(1001, counter.size());
+        Assert.assertEquals(total + 4, counter.getTotal());
+        Assert.assertEquals(10, counter.getFrequency("w6"));
+        Assert.assertEquals(1, counter.getFrequency("new term"));
+    }
+
+
+    /**
+     * Functionality test of the count-min sketch.
+     */
+    @Test public void countMinSketch() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int term = 0; term < 500; term++) {
+            long hash = HyperLogLog.hash("w" + term);
+            for (int repetition = 0; repetition <= (term % 5); repetition++) {
+                sketch.add(hash);
+            }
+        }
+        int exact = 0;
+        for (int term = 0; term < 500; term++) {
+            long estimate = sketch.estimate(HyperLogLog.hash("w" + term));
+            // The sketch never underestimates.
+            Assert.assertTrue(estimate >= (term % 5) + 1);
+            if (estimate == (term % 5) + 1) {
+                exact++;
+            }
+        }
+        Assert.assertTrue(exact >= 450);
+        Assert.assertEquals(0, new CountMinSketch(1024, 4).estimate(HyperLogLog.hash("w0")));
+    }
+
+
+    /**
+     * Functionality test of the HyperLogLog distinct counts.
+     */
+    @Test public void hyperLogLog() {
+        HyperLogLog small = new HyperLogLog(SKETCH_PRECISION);
+        for (int term = 0; term < 100; term++) {
+            small.add(HyperLogLog.hash("w" + term));
+            small.add(HyperLogLog.hash("w" + term));
+        }
+        Assert.assertTrue(Math.abs(small.estimate() - 100) <= 2);
+        //
+        HyperLogLog all = new HyperLogLog(SKETCH_PRECISION);
+        HyperLogLog even = new HyperLogLog(SKETCH_PRECISION);
+        HyperLogLog odd = new HyperLogLog(SKETCH_PRECISION);
+        for (int term = 0; term < 100000; term++) {
+            long hash = HyperLogLog.hash("w" + term);
+            all.add(hash);
+            if ((term % 2) == 0) {
+                even.add(hash);
+            } else {
+                odd.add(hash);
+            }
+        }
+        Assert.assertTrue(Math.abs(all.estimate() - 100000) <= 3000);
+        even.merge(odd);
+        Assert.assertEquals(all.estimate(), even.estimate());
+        // The bigram hashes are ordered.
+        Assert.assertFalse(HyperLogLog.hash(HyperLogLog.hash("a"), HyperLogLog.hash("b")) ==
+            HyperLogLog.hash(HyperLogLog.hash("b"), HyperLogLog.hash("a")));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * File    : CountMinSketch.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2010 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.eval;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The <i>CountMinSketch</i> class estimates the frequencies of a stream of items
+ * in a fixed amount of memory (Cormode and Muthukrishnan, 2005).
+ *
+ * <p>
+ * Each item increments one counter of each row of the sketch, and its frequency is
+ * estimated as the minimum of its counters. The estimate never falls below the actual
+ * frequency, and it exceeds it by less than <i>e/width</i> times the length of the
+ * stream with probability <i>1-exp(-depth)</i>. The items are given as 64-bit hashes
+ * (see {@link emolib.util.eval.HyperLogLog#hash(String)}). The counters are atomic,
+ * so a single sketch may be shared by several threads.
+ * </p>
+ * <p>
+ * --<br>
+ * (Cormode and Muthukrishnan, 2005) Cormode, G. and Muthukrishnan, S. (2005) "An Improved
+ * Data Stream Summary: The Count-Min Sketch and its Applications". Journal of Algorithms,
+ * 55(1), pp. 58-75.
+ * </p>
+ */
+public class CountMinSketch {
+
+    private int width;
+    private int depth;
+    private AtomicLongArray counters;
+
+
+    /**
+     * Main constructor of the CountMinSketch.
+     *
+     * @param width The number of counters of each row, rounded up to a power of 2.
+     * @param depth The number of rows.
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = 1;
+        while (this.width < width) {
+            this.width <<= 1;
+        }
+        this.depth = Math.max(1, depth);
+        counters = new AtomicLongArray(this.width * this.depth);
+    }
+
+
+    /**
+     * Function to count an occurrence of an item.
+     *
+     * @param hash The 64-bit hash of the item.
+     *
+     * @return The estimated frequency of the item, including this occurrence.
+     */
+    public long add(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(getIndex(hash, row)));
+        }
+        return estimate;
+    }
+
+
+    /**
+     * Function to estimate the frequency of an item.
+     *
+     * @param hash The 64-bit hash of the item.
+     *
+     * @return The estimated frequency.
+     */
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(getIndex(hash, row)));
+        }
+        return estimate;
+    }
+
+
+    /**
+     * Function to retrieve the index of the counter of an item in a row.
+     * The row hashes are derived from the two halves of the item hash.
+     *
+     * @param hash The 64-bit hash of the item.
+     * @param row The row.
+     *
+     * @return The index of the counter.
+     */
+    private int getIndex(long hash, int row) {
+        int combined = (int)hash + row * (int)(hash >>> 32);
+        return row * width + (combined & (width - 1));
+    }
+
+}
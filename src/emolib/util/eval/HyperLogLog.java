@@ -0,0 +1,160 @@
+/*
+ * File    : HyperLogLog.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2010 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.eval;
+
+/**
+ * The <i>HyperLogLog</i> class estimates the number of distinct items of a stream
+ * in a fixed amount of memory (Flajolet et al., 2007).
+ *
+ * <p>
+ * The items are given as 64-bit hashes. The first <i>precision</i> bits of the hash
+ * select a register, which keeps the maximum position of the first 1-bit of the rest
+ * of the hash. The relative error of the estimate is about <i>1.04/sqrt(2^precision)</i>,
+ * with 2^precision bytes of memory. The HyperLogLog is not thread-safe, but the sketches
+ * of different threads can be merged.
+ * </p>
+ * <p>
+ * --<br>
+ * (Flajolet et al., 2007) Flajolet, P., Fusy, E., Gandouet, O. and Meunier, F. (2007)
+ * "HyperLogLog: the analysis of a near-optimal cardinality estimation algorithm".
+ * In Proceedings of the Conference on Analysis of Algorithms.
+ * </p>
+ */
+public class HyperLogLog {
+
+    private int precision;
+    private byte[] registers;
+
+
+    /**
+     * Main constructor of the HyperLogLog.
+     *
+     * @param precision The number of bits that select the register, from 4 to 18.
+     */
+    public HyperLogLog(int precision) {
+        this.precision = Math.max(4, Math.min(18, precision));
+        registers = new byte[1 << this.precision];
+    }
+
+
+    /**
+     * Method to count an item.
+     *
+     * @param hash The 64-bit hash of the item.
+     */
+    public void add(long hash) {
+        int register = (int)(hash >>> (64 - precision));
+        int rank = Long.numberOfLeadingZeros(hash << precision) + 1;
+        if (rank > 64 - precision) {
+            rank = 64 - precision + 1;
+        }
+        if (rank > registers[register]) {
+            registers[register] = (byte)rank;
+        }
+    }
+
+
+    /**
+     * Method to add the items of another HyperLogLog of the same precision.
+     *
+     * @param other The other HyperLogLog.
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("The precisions of the HyperLogLogs differ.");
+        }
+        for (int register = 0; register < registers.length; register++) {
+            if (other.registers[register] > registers[register]) {
+                registers[register] = other.registers[register];
+            }
+        }
+    }
+
+
+    /**
+     * Function to estimate the number of distinct items.
+     * Small cardinalities are estimated by linear counting.
+     *
+     * @return The estimated number of distinct items.
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (int register = 0; register < m; register++) {
+            sum += 1.0 / (1L << registers[register]);
+            if (registers[register] == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        if ((estimate <= 2.5 * m) && (zeros > 0)) {
+            estimate = m * Math.log((double)m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+
+    /**
+     * Function to compute the 64-bit hash of a term (FNV-1a of its characters,
+     * followed by the MurmurHash3 finalizer).
+     *
+     * @param term The term.
+     *
+     * @return The hash.
+     */
+    public static long hash(String term) {
+        long hash = 0xCBF29CE484222325L;
+        for (int position = 0; position < term.length(); position++) {
+            hash ^= term.charAt(position);
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+
+    /**
+     * Function to compute the hash of an ordered pair of items from their hashes,
+     * e.g., of a bigram from the hashes of its words.
+     *
+     * @param left The hash of the first item.
+     * @param right The hash of the second item.
+     *
+     * @return The hash of the pair.
+     */
+    public static long hash(long left, long right) {
+        return mix(left * 0x9E3779B97F4A7C15L + Long.rotateLeft(right, 31));
+    }
+
+
+    /**
+     * Function to mix the bits of a hash (MurmurHash3 finalizer).
+     *
+     * @param hash The hash.
+     *
+     * @return The mixed hash.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
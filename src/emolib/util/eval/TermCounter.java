@@ -0,0 +1,254 @@
+/*
+ * File    : TermCounter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2010 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.eval;
+
+/**
+ * The <i>TermCounter</i> class counts the frequencies of a set of terms in an open
+ * addressing hash table of primitive arrays.
+ *
+ * <p>
+ * The terms are looked up in constant time without allocating any entry object, so
+ * the TermCounter is fit for large vocabularies. It is not thread-safe: each thread
+ * should count with its own TermCounter, and the counters can be merged at the end.
+ * The slots of the table can be traversed with <i>getCapacity</i>, <i>getTerm</i>
+ * and <i>getCount</i>, e.g.:
+ * </p>
+ * <pre>
+ * for (int slot = 0; slot &lt; counter.getCapacity(); slot++) {
+ *     if (counter.getTerm(slot) != null) {
+ *         ... counter.getCount(slot) ...
+ *     }
+ * }
+ * </pre>
+ */
+public class TermCounter {
+
+    private String[] terms;
+    private int[] hashes;
+    private int[] counts;
+    private int size;
+    private long total;
+
+
+    /**
+     * Main constructor of the TermCounter.
+     */
+    public TermCounter() {
+        this(1024);
+    }
+
+
+    /**
+     * Constructor of the TermCounter with an expected number of terms.
+     *
+     * @param expectedTerms The expected number of terms.
+     */
+    public TermCounter(int expectedTerms) {
+        int capacity = 16;
+        while (capacity < 2 * expectedTerms) {
+            capacity <<= 1;
+        }
+        terms = new String[capacity];
+        hashes = new int[capacity];
+        counts = new int[capacity];
+    }
+
+
+    /**
+     * Method to count an occurrence of a term.
+     *
+     * @param term The term.
+     */
+    public void add(String term) {
+        add(term, 1);
+    }
+
+
+    /**
+     * Method to count several occurrences of a term.
+     *
+     * @param term The term.
+     * @param count The number of occurrences.
+     */
+    public void add(String term, int count) {
+        int hash = spread(term.hashCode());
+        int mask = terms.length - 1;
+        int slot = hash & mask;
+        while (terms[slot] != null) {
+            if ((hashes[slot] == hash) && terms[slot].equals(term)) {
+                counts[slot] += count;
+                total += count;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        terms[slot] = term;
+        hashes[slot] = hash;
+        counts[slot] = count;
+        total += count;
+        size++;
+        if (2 * size > terms.length) {
+            resize();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the frequency of a term.
+     *
+     * @param term The term.
+     *
+     * @return The number of occurrences of the term.
+     */
+    public int getFrequency(String term) {
+        int hash = spread(term.hashCode());
+        int mask = terms.length - 1;
+        int slot = hash & mask;
+        while (terms[slot] != null) {
+            if ((hashes[slot] == hash) && terms[slot].equals(term)) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+
+    /**
+     * Method to add the counts of another TermCounter.
+     *
+     * @param other The other TermCounter.
+     */
+    public void merge(TermCounter other) {
+        for (int slot = 0; slot < other.terms.length; slot++) {
+            if (other.terms[slot] != null) {
+                add(other.terms[slot], other.counts[slot]);
+            }
+        }
+    }
+
+
+    /**
+     * Function to retrieve the number of different terms.
+     *
+     * @return The number of terms.
+     */
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * Function to retrieve the number of occurrences of all the terms.
+     *
+     * @return The sum of the frequencies.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+
+    /**
+     * Function to retrieve the number of terms which frequency reaches a threshold.
+     *
+     * @param threshold The frequency threshold.
+     *
+     * @return The number of terms.
+     */
+    public int getNumberOfTerms(int threshold) {
+        int number = 0;
+        for (int slot = 0; slot < terms.length; slot++) {
+            if ((terms[slot] != null) && (counts[slot] >= threshold)) {
+                number++;
+            }
+        }
+        return number;
+    }
+
+
+    /**
+     * Function to retrieve the number of slots of the table.
+     *
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return terms.length;
+    }
+
+
+    /**
+     * Function to retrieve the term of a slot.
+     *
+     * @param slot The slot.
+     *
+     * @return The term, or null if the slot is empty.
+     */
+    public String getTerm(int slot) {
+        return terms[slot];
+    }
+
+
+    /**
+     * Function to retrieve the frequency of the term of a slot.
+     *
+     * @param slot The slot.
+     *
+     * @return The frequency.
+     */
+    public int getCount(int slot) {
+        return counts[slot];
+    }
+
+
+    /**
+     * Method to double the capacity of the table.
+     */
+    private void resize() {
+        String[] oldTerms = terms;
+        int[] oldHashes = hashes;
+        int[] oldCounts = counts;
+        terms = new String[2 * oldTerms.length];
+        hashes = new int[terms.length];
+        counts = new int[terms.length];
+        int mask = terms.length - 1;
+        for (int oldSlot = 0; oldSlot < oldTerms.length; oldSlot++) {
+            if (oldTerms[oldSlot] != null) {
+                int slot = oldHashes[oldSlot] & mask;
+                while (terms[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                terms[slot] = oldTerms[oldSlot];
+                hashes[slot] = oldHashes[oldSlot];
+                counts[slot] = oldCounts[oldSlot];
+            }
+        }
+    }
+
+
+    /**
+     * Function to spread the bits of a hash code, so that the linear probing does not
+     * suffer from clustered codes.
+     *
+     * @param hash The hash code.
+     *
+     * @return The spread hash.
+     */
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * File    : AsyncPrinterWriter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.printer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <i>AsyncPrinterWriter</i> class writes the records of the
+ * {@link emolib.util.printer.Printer} from a background thread.
+ *
+ * <p>
+ * The records are put into a bounded buffer that is drained by the writer thread,
+ * so the processing pipeline never waits for the I/O. When the buffer is full, the
+ * records are dropped, and the number of dropped records is written before the
+ * following one. The records are written into a rolling file (the file is renamed
+ * to <i>file</i>.1, the former <i>file</i>.1 to <i>file</i>.2, and so on, when its
+ * size reaches the limit), or into the standard output if no file is given.
+ * </p>
+ */
+public class AsyncPrinterWriter implements Runnable {
+
+    // Identity marker of the end of the records.
+    private final static String END = new String("");
+
+    private final static String LINE_SEPARATOR = System.getProperty("line.separator");
+
+    private ArrayBlockingQueue<String> buffer;
+    private AtomicLong dropped;
+    private File file;
+    private long sizeLimit;
+    private int fileCount;
+    private Writer writer;
+    private long fileSize;
+    private Thread thread;
+
+
+    /**
+     * Main constructor of the AsyncPrinterWriter.
+     * It starts the writer thread.
+     *
+     * @param name The name of the printer.
+     * @param capacity The number of records of the buffer.
+     * @param output The rolling file, or null to write into the standard output.
+     * @param limit The size limit of the rolling file, in characters.
+     * @param count The number of rolled files to keep.
+     */
+    public AsyncPrinterWriter(String name, int capacity, File output, long limit, int count) throws IOException {
+        buffer = new ArrayBlockingQueue<String>(Math.max(1, capacity));
+        dropped = new AtomicLong();
+        file = output;
+        sizeLimit = limit;
+        fileCount = Math.max(1, count);
+        openWriter();
+        thread = new Thread(this, "EmoLib printer: " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+
+    /**
+     * Function to determine if the buffer is full, so that a record would be dropped.
+     * A record that is dropped this way is counted, so it need not be built.
+     *
+     * @return True if the record is dropped.
+     */
+    public boolean dropIfFull() {
+        if (buffer.remainingCapacity() == 0) {
+            dropped.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Method to put a record into the buffer, or to drop it if the buffer is full.
+     *
+     * @param record The record.
+     */
+    public void write(String record) {
+        if (!buffer.offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the number of dropped records.
+     *
+     * @return The number of records dropped since the start.
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+
+    /**
+     * Method to write the buffered records and stop the writer thread.
+     * It waits for the writer thread for 10 seconds at most.
+     */
+    public void close() {
+        try {
+            if (buffer.offer(END, 10, TimeUnit.SECONDS)) {
+                thread.join(10000);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Method to drain the buffer until the writer is closed.
+     * The output is flushed whenever the buffer is empty.
+     */
+    public void run() {
+        long reported = 0;
+        try {
+            String record = buffer.take();
+            while (record != END) {
+                long lost = dropped.get();
+                if (lost > reported) {
+                    append("[" + (lost - reported) + " records dropped]" + LINE_SEPARATOR);
+                    reported = lost;
+                }
+                append(record);
+                record = buffer.poll();
+                if (record == null) {
+                    writer.flush();
+                    record = buffer.take();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("EmoLib: problem writing the printer records!");
+            e.printStackTrace();
+        } finally {
+            try {
+                writer.flush();
+                if (file != null) {
+                    writer.close();
+                }
+            } catch (IOException e) {
+                System.out.println("EmoLib: problem closing the printer records!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Method to write a record, rolling the file if it reaches the size limit.
+     *
+     * @param record The record.
+     */
+    private void append(String record) throws IOException {
+        if ((file != null) && (fileSize > 0) && (fileSize + record.length() > sizeLimit)) {
+            rollFile();
+        }
+        writer.write(record);
+        fileSize += record.length();
+    }
+
+
+    /**
+     * Method to rename the rolled files and start a new one.
+     */
+    private void rollFile() throws IOException {
+        writer.close();
+        new File(file.getPath() + "." + fileCount).delete();
+        for (int index = fileCount - 1; index > 0; index--) {
+            new File(file.getPath() + "." + index).renameTo(new File(file.getPath() + "." + (index + 1)));
+        }
+        file.renameTo(new File(file.getPath() + ".1"));
+        openWriter();
+    }
+
+
+    /**
+     * Method to open the output of the records.
+     */
+    private void openWriter() throws IOException {
+        if (file == null) {
+            writer = new BufferedWriter(new OutputStreamWriter(System.out));
+        } else {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 65536);
+        }
+        fileSize = 0;
+    }
+
+}
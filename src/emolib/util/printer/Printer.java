@@ -16,6 +16,7 @@
 
 package emolib.util.printer;
 
+import java.io.File;
 import java.util.ArrayList;
 
 import emolib.util.conf.*;
@@ -66,6 +67,28 @@ import emolib.util.proc.*;
  *     </li>
  * </ul>
  * </p>
+ * <p>
+ * The information of each text is built into a single record, which is printed
+ * into the standard output by default. If the <b>async</b> parameter is set to true,
+ * the records are handed to an {@link emolib.util.printer.AsyncPrinterWriter} instead,
+ * so that the pipeline does not wait for the I/O:
+ * <ul>
+ *     <li>
+ *         <b>buffer_size</b>: the number of records that may wait to be written. When the
+ *         buffer is full, the records are dropped (and counted in the output).
+ *     </li>
+ *     <li>
+ *         <b>file</b>: the rolling file of the records. The standard output is used if
+ *         it is not defined.
+ *     </li>
+ *     <li>
+ *         <b>file_size</b>: the size (in characters) at which the file is rolled.
+ *     </li>
+ *     <li>
+ *         <b>file_count</b>: the number of rolled files that are kept.
+ *     </li>
+ * </ul>
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
@@ -80,6 +103,13 @@ public class Printer extends TextDataProcessor {
     public final static String PROP_NOUNS = "echo_nouns";
     public final static String PROP_WORD_CLASS = "echo_word_class";
     public final static String PROP_WORD_POS = "echo_word_pos";
+    public final static String PROP_ASYNC = "async";
+    public final static String PROP_BUFFER_SIZE = "buffer_size";
+    public final static String PROP_FILE = "file";
+    public final static String PROP_FILE_SIZE = "file_size";
+    public final static String PROP_FILE_COUNT = "file_count";
+
+    private final static String LINE_SEPARATOR = System.getProperty("line.separator");
 
 
     private boolean echoSynonyms;
@@ -91,6 +121,15 @@ public class Printer extends TextDataProcessor {
     private boolean echoNouns;
     private boolean echoWordClass;
     private boolean echoWordPOS;
+    private boolean echoAnything;
+
+    private boolean async;
+    private int bufferSize;
+    private String file;
+    private int fileSize;
+    private int fileCount;
+    private AsyncPrinterWriter asyncWriter;
+    private StringBuilder record;
 
 
     /* (non-Javadoc)
@@ -107,6 +146,11 @@ public class Printer extends TextDataProcessor {
         registry.register(PROP_NOUNS, PropertyType.BOOLEAN);
         registry.register(PROP_WORD_CLASS, PropertyType.BOOLEAN);
         registry.register(PROP_WORD_POS, PropertyType.BOOLEAN);
+        registry.register(PROP_ASYNC, PropertyType.BOOLEAN);
+        registry.register(PROP_BUFFER_SIZE, PropertyType.INT);
+        registry.register(PROP_FILE, PropertyType.STRING);
+        registry.register(PROP_FILE_SIZE, PropertyType.INT);
+        registry.register(PROP_FILE_COUNT, PropertyType.INT);
     }
 
 
@@ -124,6 +168,13 @@ public class Printer extends TextDataProcessor {
         echoNouns = ps.getBoolean(PROP_NOUNS, false);
         echoWordClass = ps.getBoolean(PROP_WORD_CLASS, false);
         echoWordPOS = ps.getBoolean(PROP_WORD_POS, false);
+        echoAnything = echoSynonyms || echoNumberWords || echoModifiers || echoEmotionalWords || echoStems ||
+            echoStemmedSynonyms || echoNouns || echoWordClass || echoWordPOS;
+        async = ps.getBoolean(PROP_ASYNC, false);
+        bufferSize = ps.getInt(PROP_BUFFER_SIZE, 4096);
+        file = ps.getString(PROP_FILE, "nullpath");
+        fileSize = ps.getInt(PROP_FILE_SIZE, 10485760);
+        fileCount = ps.getInt(PROP_FILE_COUNT, 5);
     }
 
 
@@ -150,13 +201,39 @@ public class Printer extends TextDataProcessor {
 
     /**
      * Method to initialize the Printer.
+     * The asynchronous writer is started, if needed.
      */
     public void initialize() {
+        if (async && echoAnything && (asyncWriter == null)) {
+            try {
+                File output = null;
+                if (!file.equals("nullpath")) {
+                    output = new File(file);
+                }
+                asyncWriter = new AsyncPrinterWriter(getName(), bufferSize, output, fileSize, fileCount);
+            } catch (Exception e) {
+                System.out.println("EmoLib: the Printer cannot open its file, the records are printed " +
+                    "synchronously!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Method to write the pending records and stop the asynchronous writer, if any.
+     */
+    public void deallocate() {
+        if (asyncWriter != null) {
+            asyncWriter.close();
+            asyncWriter = null;
+        }
     }
 
     /** * Main constructor of the Printer.
      */
     public Printer() {
+        record = new StringBuilder();
     }
 
 
@@ -171,67 +248,92 @@ public class Printer extends TextDataProcessor {
         ArrayList theSynonyms;
         int counter;
 
+        AsyncPrinterWriter writer = asyncWriter;
+        if (!echoAnything || ((writer != null) && writer.dropIfFull())) {
+            return;
+        }
+        record.setLength(0);
+
         if (echoNumberWords) {
-            System.out.println("Number of words of this paragraph: " + inputTextDataObject.getNumberOfWords());
+            println("Number of words of this paragraph: " + inputTextDataObject.getNumberOfWords());
         }
 
         for (int numberOfWords = 0; numberOfWords < inputTextDataObject.getNumberOfWords(); numberOfWords++) {
             tempWordData = inputTextDataObject.getWordData(numberOfWords);
             if (echoEmotionalWords) {
                 if (tempWordData.hasEmotionalContent()) {
-                    System.out.println("Emotional word: " + tempWordData.getWord());
-                    System.out.println("\tValence: " + tempWordData.getEmotionalValence());
-                    System.out.println("\tActivation: " + tempWordData.getEmotionalActivation());
-                    System.out.println("\tControl: " + tempWordData.getEmotionalControl());
+                    println("Emotional word: " + tempWordData.getWord());
+                    println("\tValence: " + tempWordData.getEmotionalValence());
+                    println("\tActivation: " + tempWordData.getEmotionalActivation());
+                    println("\tControl: " + tempWordData.getEmotionalControl());
                 }
             }
             if (echoModifiers) {
                 if (tempWordData.isModifier()) {
-                    System.out.println("Modifier word: " + tempWordData.getWord());
-                    System.out.println("\tValue: " + tempWordData.getModifierValue());
+                    println("Modifier word: " + tempWordData.getWord());
+                    println("\tValue: " + tempWordData.getModifierValue());
                 }
             }
             if (echoSynonyms) {
                 theSynonyms = new ArrayList();
                 if (tempWordData.containsSynonyms()) {
-                    System.out.println("Word with synonyms: " + tempWordData.getWord());
+                    println("Word with synonyms: " + tempWordData.getWord());
                     theSynonyms = tempWordData.getSense();
                     for (counter = 0; counter < theSynonyms.size(); counter++) {
-                        System.out.println("\t" + (String)theSynonyms.get(counter));
+                        println("\t" + (String)theSynonyms.get(counter));
                     }
                 }
             }
             if (echoStems) {
                 if (tempWordData.hasEmotionalContent()) {
-                    System.out.println("Word with stem: " + tempWordData.getWord());
-                    System.out.println("\tStem: " + tempWordData.getWordStem());
+                    println("Word with stem: " + tempWordData.getWord());
+                    println("\tStem: " + tempWordData.getWordStem());
                 }
             }
             if (echoStemmedSynonyms) {
                 if (tempWordData.containsStemmedSynonyms()) {
-                    System.out.println("Word with stemmed synonyms: " + tempWordData.getWord());
+                    println("Word with stemmed synonyms: " + tempWordData.getWord());
                     ArrayList stemmedSynonymsList = tempWordData.getStemmedWordSense();
                     for (counter = 0; counter < stemmedSynonymsList.size(); counter++) {
-                        System.out.println("\tStemmed synonym: " + (String)stemmedSynonymsList.get(counter));
+                        println("\tStemmed synonym: " + (String)stemmedSynonymsList.get(counter));
                     }
                 }
             }
             if (echoNouns) {
                 if (tempWordData.isNoun()) {
-                    System.out.println("Noun: " + tempWordData.getWord());
+                    println("Noun: " + tempWordData.getWord());
                 }
             }
             if (echoWordClass) {
-                System.out.println("Word: " + tempWordData.getWord());
-                System.out.println("\tClass: " + tempWordData.getWordClass());
+                println("Word: " + tempWordData.getWord());
+                println("\tClass: " + tempWordData.getWordClass());
             }
             if (echoWordPOS) {
                 if (tempWordData.containsWordPOS()) {
-                    System.out.println("Word with POS tag: " + tempWordData.getWord());
-                    System.out.println("\tPOS: " + tempWordData.getWordPOS());
+                    println("Word with POS tag: " + tempWordData.getWord());
+                    println("\tPOS: " + tempWordData.getWordPOS());
                 }
             }
         }
+
+        if (record.length() > 0) {
+            if (writer != null) {
+                writer.write(record.toString());
+            } else {
+                System.out.print(record);
+                System.out.flush();
+            }
+        }
+    }
+
+
+    /**
+     * Method to append a line to the record of the text.
+     *
+     * @param line The line.
+     */
+    private void println(String line) {
+        record.append(line).append(LINE_SEPARATOR);
     }
 
 }
@@ -0,0 +1,220 @@
+/*
+ * File    : InstrumentedDataProcessor.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.proc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import emolib.util.conf.PropertyException;
+import emolib.util.conf.PropertySheet;
+import emolib.util.conf.Registry;
+
+/**
+ * The <i>InstrumentedDataProcessor</i> wraps a DataProcessor of the AffectiveTagger
+ * pipeline and measures its calls into a {@link emolib.util.proc.StageStatistics}.
+ *
+ * <p>
+ * Following the Pull Model, the getData call of a processor includes the calls to
+ * its predecessors. The wrapper of a processor is the predecessor of the next
+ * processor in the pipeline, and it accumulates the inclusive time (and allocated
+ * bytes) of its calls, so the next wrapper can subtract them in order to
+ * record the processing time of its own stage only. The accumulators are kept
+ * per thread, since the calls of a pipeline run on the calling thread, so
+ * concurrent pipelines sharing the wrappers don't subtract each other's time.
+ * </p>
+ * <p>
+ * The allocated bytes are measured with the per-thread allocation counters of the
+ * HotSpot JVM (com.sun.management.ThreadMXBean), if available.
+ * </p>
+ */
+public class InstrumentedDataProcessor implements DataProcessor {
+
+    private static ThreadMXBean threadBean;
+    private static Method allocatedBytesMethod;
+
+    static {
+        threadBean = ManagementFactory.getThreadMXBean();
+        try {
+            Class allocationBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (allocationBean.isInstance(threadBean)) {
+                Method supported = allocationBean.getMethod("isThreadAllocatedMemorySupported", new Class[]{});
+                Method enabled = allocationBean.getMethod("isThreadAllocatedMemoryEnabled", new Class[]{});
+                if (((Boolean)supported.invoke(threadBean, new Object[]{})).booleanValue() &&
+                ((Boolean)enabled.invoke(threadBean, new Object[]{})).booleanValue()) {
+                    allocatedBytesMethod = allocationBean.getMethod("getThreadAllocatedBytes",
+                        new Class[]{long.class});
+                }
+            }
+        } catch (Exception e) {
+            allocatedBytesMethod = null;
+        }
+    }
+
+    private DataProcessor processor;
+    private InstrumentedDataProcessor upstream;
+    private StageStatistics statistics;
+    // Inclusive nanoseconds [0] and allocated bytes [1] of the current thread.
+    private ThreadLocal<long[]> inclusive;
+
+
+    /**
+     * Main constructor.
+     *
+     * @param wrapped The processor to instrument.
+     * @param previous The instrumented predecessor of the processor, or null if it is the first one.
+     */
+    public InstrumentedDataProcessor(DataProcessor wrapped, InstrumentedDataProcessor previous) {
+        processor = wrapped;
+        upstream = previous;
+        statistics = new StageStatistics(wrapped.getName(), allocatedBytesMethod != null);
+        inclusive = new ThreadLocal<long[]>() {
+            protected long[] initialValue() {
+                return new long[2];
+            }
+        };
+    }
+
+
+    /**
+     * Function to retrieve the statistics of the instrumented processor.
+     *
+     * @return The statistics.
+     */
+    public StageStatistics getStatistics() {
+        return statistics;
+    }
+
+
+    /**
+     * Function to retrieve the instrumented processor.
+     *
+     * @return The processor.
+     */
+    public DataProcessor getProcessor() {
+        return processor;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#getData()
+     */
+    public Data getData() throws DataProcessingException {
+        long[] upstreamInclusive = null;
+        long upstreamNanos = 0;
+        long upstreamBytes = 0;
+        if (upstream != null) {
+            upstreamInclusive = upstream.inclusive.get();
+            upstreamNanos = upstreamInclusive[0];
+            upstreamBytes = upstreamInclusive[1];
+        }
+        long startBytes = getAllocatedBytes();
+        long start = System.nanoTime();
+        Data data = processor.getData();
+        long elapsed = System.nanoTime() - start;
+        long allocated = getAllocatedBytes() - startBytes;
+        long[] ownInclusive = inclusive.get();
+        ownInclusive[0] += elapsed;
+        ownInclusive[1] += allocated;
+        if (upstreamInclusive != null) {
+            elapsed -= upstreamInclusive[0] - upstreamNanos;
+            allocated -= upstreamInclusive[1] - upstreamBytes;
+        }
+        int words = 0;
+        if (data instanceof TextData) {
+            words = ((TextData)data).getNumberOfWords();
+        }
+        statistics.record(elapsed, words, allocated);
+        return data;
+    }
+
+
+    /**
+     * Function to retrieve the bytes allocated so far by the current thread.
+     *
+     * @return The allocated bytes, or 0 if they cannot be measured.
+     */
+    private long getAllocatedBytes() {
+        if (allocatedBytesMethod == null) {
+            return 0;
+        }
+        try {
+            return ((Long)allocatedBytesMethod.invoke(threadBean,
+                new Object[]{new Long(Thread.currentThread().getId())})).longValue();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#register(java.lang.String, emolib.util.conf.Registry)
+     */
+    public void register(String name, Registry registry) throws PropertyException {
+        // The instrumented processor is already configured.
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.conf.Configurable#newProperties(emolib.util.conf.PropertySheet)
+     */
+    public void newProperties(PropertySheet ps) throws PropertyException {
+        // The instrumented processor is already configured.
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#initialize()
+     */
+    public void initialize() {
+        processor.initialize();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#getName()
+     */
+    public String getName() {
+        return processor.getName();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#getPredecessor()
+     */
+    public DataProcessor getPredecessor() {
+        return processor.getPredecessor();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.DataProcessor#setPredecessor(DataProcessor predecessor)
+     */
+    public void setPredecessor(DataProcessor predecessor) {
+        processor.setPredecessor(predecessor);
+    }
+
+
+    /**
+     * Returns the name of the instrumented processor.
+     *
+     * @return The name of the processor.
+     */
+    public String toString() {
+        return processor.toString();
+    }
+
+}
@@ -0,0 +1,172 @@
+/*
+ * File    : LatencyHistogram.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.proc;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The <i>LatencyHistogram</i> class records latencies in nanoseconds with a
+ * bounded relative error, in the manner of HdrHistogram.
+ *
+ * <p>
+ * The values below 32 are recorded exactly. The greater values are recorded in
+ * logarithmic ranges (powers of two) that are linearly divided into 16 buckets,
+ * so any value is recorded with a relative error below 1/16. The memory footprint
+ * is fixed (less than a thousand counters) and recording a value is a lock-free
+ * operation, so the histogram may be read (e.g., through JMX) while it is updated.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int EXACT_VALUES = 32;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS = EXACT_VALUES + (63 - 5) * SUB_BUCKETS;
+
+    private AtomicLongArray counts;
+    private AtomicLong totalCount;
+    private AtomicLong maxValue;
+
+
+    /**
+     * Void constructor.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+        totalCount = new AtomicLong();
+        maxValue = new AtomicLong();
+    }
+
+
+    /**
+     * Method to record a value.
+     *
+     * @param value The value, in nanoseconds.
+     */
+    public void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(getBucket(value));
+        totalCount.incrementAndGet();
+        long max = maxValue.get();
+        while ((value > max) && !maxValue.compareAndSet(max, value)) {
+            max = maxValue.get();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the number of recorded values.
+     *
+     * @return The number of values.
+     */
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+
+    /**
+     * Function to retrieve the greatest recorded value.
+     *
+     * @return The maximum value, in nanoseconds.
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+
+    /**
+     * Function to retrieve the value at a given percentile, i.e., the upper bound
+     * of the bucket that contains it.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     *
+     * @return The value at the percentile, in nanoseconds.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(percentile / 100.0 * total);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(getUpperBound(bucket), maxValue.get());
+            }
+        }
+        return maxValue.get();
+    }
+
+
+    /**
+     * Method to clear all the recorded values.
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        totalCount.set(0);
+        maxValue.set(0);
+    }
+
+
+    /**
+     * Function to retrieve the bucket of a value.
+     *
+     * @param value The value.
+     *
+     * @return The bucket index.
+     */
+    private int getBucket(long value) {
+        if (value < EXACT_VALUES) {
+            return (int)value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int subBucket = (int)(value >>> shift) - SUB_BUCKETS;
+        return EXACT_VALUES + (msb - 5) * SUB_BUCKETS + subBucket;
+    }
+
+
+    /**
+     * Function to retrieve the greatest value that falls into a bucket.
+     *
+     * @param bucket The bucket index.
+     *
+     * @return The upper bound of the bucket.
+     */
+    private long getUpperBound(int bucket) {
+        if (bucket < EXACT_VALUES) {
+            return bucket;
+        }
+        int msb = (bucket - EXACT_VALUES) / SUB_BUCKETS + 5;
+        int subBucket = (bucket - EXACT_VALUES) % SUB_BUCKETS;
+        int shift = msb - SUB_BUCKET_BITS;
+        long upperBound = ((long)(SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        if (upperBound < 0) {
+            upperBound = Long.MAX_VALUE;
+        }
+        return upperBound;
+    }
+
+}
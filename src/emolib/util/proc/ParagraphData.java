@@ -18,6 +18,9 @@ package emolib.util.proc;
 
 import java.util.ArrayList;
 
+import org.junit.Test;
+import org.junit.Assert;
+
 /**
  * The <i>ParagraphData</i> class is a  Data construct
  * that holds information at paragraph-level.
@@ -33,43 +36,59 @@ import java.util.ArrayList;
  *     <li>Emotional control: the control of the emotion.
  * </ul>
  * </p>
+ * <p>
+ * A ParagraphData object is a lightweight view of a paragraph of a
+ * {@link emolib.util.proc.TextColumns} object. A ParagraphData created with the
+ * constructor keeps its sentences until it is added to a TextData object, and from
+ * then on it is a view of the paragraph of the text.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
 public class ParagraphData implements Data, Cloneable {
 
-    private ArrayList<SentenceData> sentenceDataItems;
-    private boolean emotionalContent;
-    private float emotionalValence;
-    private float emotionalActivation;
-    private float emotionalControl;
-    private String emotionalCategory;
-
-    private boolean containsEmotionalDimentions;
+    private TextColumns columns;
+    private int unit;
+    // The sentences of a paragraph that has not been added to a text yet.
+    private ArrayList<SentenceData> pendingSentences;
 
 
     /**
      * Constructs an empty ParagraphData object.
      */
     public ParagraphData() {
-        sentenceDataItems = new ArrayList<SentenceData>();
-        emotionalContent = false;
-        emotionalValence = -1;
-        emotionalActivation = -1;
-        emotionalControl = -1;
-        emotionalCategory = "";
+        columns = new TextColumns(1);
+        unit = columns.addUnit(TextColumns.PARAGRAPH);
+        pendingSentences = new ArrayList<SentenceData>();
+    }
+
 
-        containsEmotionalDimentions = false;
+    /**
+     * Constructs a view of a paragraph of a text.
+     *
+     * @param columns The text.
+     * @param unit The index of the paragraph.
+     */
+    ParagraphData(TextColumns columns, int unit) {
+        this.columns = columns;
+        this.unit = unit;
     }
 
 
     /**
-     * Adds a WordData object into the sentence struct.
+     * Adds a SentenceData object into the paragraph struct.
+     * If the paragraph belongs to a text, it must be its last paragraph.
      *
      * @param sentenceDataToBeAdded The SentenceData to be added.
      */
     public void addSentenceData(SentenceData sentenceDataToBeAdded) {
-        sentenceDataItems.add(sentenceDataToBeAdded);
+        if (pendingSentences != null) {
+            pendingSentences.add(sentenceDataToBeAdded);
+        } else {
+            columns.checkLastUnit(TextColumns.PARAGRAPH, unit);
+            sentenceDataToBeAdded.attachTo(columns);
+            columns.appendParagraphSentence(unit);
+        }
     }
 
 
@@ -81,7 +100,13 @@ public class ParagraphData implements Data, Cloneable {
      * @return The SentenceData of the paragraph.
      */
     public SentenceData getSentenceData(int whichOne) {
-        return sentenceDataItems.get(whichOne);
+        if (pendingSentences != null) {
+            return pendingSentences.get(whichOne);
+        }
+        if ((whichOne < 0) || (whichOne >= getNumberOfSentences())) {
+            throw new IndexOutOfBoundsException("Index: " + whichOne + ", Size: " + getNumberOfSentences());
+        }
+        return new SentenceData(columns, columns.getUnitStart(TextColumns.PARAGRAPH, unit) + whichOne);
     }
 
 
@@ -91,7 +116,10 @@ public class ParagraphData implements Data, Cloneable {
      * @return The number of sentences.
      */
     public int getNumberOfSentences() {
-        return sentenceDataItems.size();
+        if (pendingSentences != null) {
+            return pendingSentences.size();
+        }
+        return columns.getUnitEnd(TextColumns.PARAGRAPH, unit) - columns.getUnitStart(TextColumns.PARAGRAPH, unit);
     }
 
 
@@ -99,7 +127,7 @@ public class ParagraphData implements Data, Cloneable {
      * Marks the paragraph as emotional container.
      */
     public void setEmotionalContent() {
-        emotionalContent = true;
+        columns.setUnitFlag(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -109,7 +137,7 @@ public class ParagraphData implements Data, Cloneable {
      * @return The emotional content of the paragraph.
      */
     public boolean hasEmotionalContent() {
-        return emotionalContent;
+        return columns.isUnitFlagSet(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -119,8 +147,8 @@ public class ParagraphData implements Data, Cloneable {
      * @param inputValence The valence of the emotion of this paragraph.
      */
     public void setEmotionalValence(float inputValence) {
-        emotionalValence = inputValence;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.VALENCE, inputValence);
+        columns.setUnitFlag(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -130,7 +158,7 @@ public class ParagraphData implements Data, Cloneable {
      * @return The valence of the emotion of this paragraph.
      */
     public float getEmotionalValence() {
-        return emotionalValence;
+        return columns.getUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.VALENCE);
     }
 
 
@@ -140,8 +168,8 @@ public class ParagraphData implements Data, Cloneable {
      * @param inputActivation The activation of the emotion of this paragraph.
      */
     public void setEmotionalActivation(float inputActivation) {
-        emotionalActivation = inputActivation;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.ACTIVATION, inputActivation);
+        columns.setUnitFlag(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -151,7 +179,7 @@ public class ParagraphData implements Data, Cloneable {
      * @return The activation of the emotion of this paragraph.
      */
     public float getEmotionalActivation() {
-        return emotionalActivation;
+        return columns.getUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.ACTIVATION);
     }
 
 
@@ -161,8 +189,8 @@ public class ParagraphData implements Data, Cloneable {
      * @param inputControl The control of the emotion of this paragraph.
      */
     public void setEmotionalControl(float inputControl) {
-        emotionalControl = inputControl;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.CONTROL, inputControl);
+        columns.setUnitFlag(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -172,7 +200,7 @@ public class ParagraphData implements Data, Cloneable {
      * @return The control of the emotion of this paragraph.
      */
     public float getEmotionalControl() {
-        return emotionalControl;
+        return columns.getUnitFloat(TextColumns.PARAGRAPH, unit, TextColumns.CONTROL);
     }
 
 
@@ -182,7 +210,7 @@ public class ParagraphData implements Data, Cloneable {
      * @return True if this WordData object has emotional dimentions.
      */
     public boolean containsEmotionalDimentions() {
-        return containsEmotionalDimentions;
+        return columns.isUnitFlagSet(TextColumns.PARAGRAPH, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -192,7 +220,7 @@ public class ParagraphData implements Data, Cloneable {
      * @param inputCategory The category of the emotion of this paragraph.
      */
     public void setEmotionalCategory(String inputCategory) {
-        emotionalCategory = inputCategory;
+        columns.setUnitCategory(TextColumns.PARAGRAPH, unit, inputCategory);
     }
 
 
@@ -202,7 +230,30 @@ public class ParagraphData implements Data, Cloneable {
      * @return The category of the emotion of this paragraph.
      */
     public String getEmotionalCategory() {
-        return emotionalCategory;
+        return columns.getUnitCategory(TextColumns.PARAGRAPH, unit);
+    }
+
+
+    /**
+     * Appends this paragraph to a text, with its sentences and words, and turns
+     * it into a view of it.
+     *
+     * @param text The text.
+     */
+    void attachTo(TextColumns text) {
+        SentenceData[] sentences = new SentenceData[getNumberOfSentences()];
+        for (int sentence = 0; sentence < sentences.length; sentence++) {
+            sentences[sentence] = getSentenceData(sentence);
+        }
+        int newUnit = text.addUnit(TextColumns.PARAGRAPH);
+        text.copyUnit(TextColumns.PARAGRAPH, columns, unit, newUnit);
+        for (int sentence = 0; sentence < sentences.length; sentence++) {
+            sentences[sentence].attachTo(text);
+            text.appendParagraphSentence(newUnit);
+        }
+        columns = text;
+        unit = newUnit;
+        pendingSentences = null;
     }
 
 
@@ -220,5 +271,41 @@ public class ParagraphData implements Data, Cloneable {
         }
     }
 
-}
 
+    /**
+     * Functionality test of the views of the text.
+     */
+    @Test public void textViews() {
+        TextData text = new TextData();
+        String[] words = {"I", "love", "books", ".", "You", "swim", "."};
+        for (int numWord = 0; numWord < words.length; numWord++) {
+            text.putWordData(words[numWord], "w");
+        }
+        // Split the words into sentences, as the sentence splitter does.
+        ParagraphData paragraph = new ParagraphData();
+        SentenceData sentence = new SentenceData();
+        for (int numWord = 0; numWord < words.length; numWord++) {
+            sentence.addWordData(text.getWordData(numWord));
+            if (words[numWord].equals(".")) {
+                paragraph.addSentenceData(sentence);
+                sentence = new SentenceData();
+            }
+        }
+        paragraph.setEmotionalCategory("POS");
+        text.addParagraphData(paragraph);
+        //
+        Assert.assertEquals(7, text.getNumberOfWords());
+        Assert.assertEquals(1, text.getNumberOfParagraphs());
+        ParagraphData view = text.getParagraphData(0);
+        Assert.assertEquals(2, view.getNumberOfSentences());
+        Assert.assertEquals(4, view.getSentenceData(0).getNumberOfWords());
+        Assert.assertEquals("swim", view.getSentenceData(1).getWordData(1).getWord());
+        Assert.assertEquals("POS", view.getEmotionalCategory());
+        // The changes made through a view are made to the text.
+        view.getSentenceData(1).getWordData(1).setEmotionalValence(7.0f);
+        Assert.assertEquals(7.0f, text.getWordData(5).getEmotionalValence(), 0.0);
+        text.getWordData(0).setWord("We");
+        Assert.assertEquals("We", paragraph.getSentenceData(0).getWordData(0).getWord());
+    }
+
+}
@@ -33,43 +33,59 @@ import java.util.ArrayList;
  *     <li>Emotional control: the control of the emotion.
  * </ul>
  * </p>
+ * <p>
+ * A SentenceData object is a lightweight view of a sentence of a
+ * {@link emolib.util.proc.TextColumns} object. A SentenceData created with the
+ * constructor keeps its words until it is added to a text (through a ParagraphData),
+ * and from then on it is a view of the sentence of the text.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
 public class SentenceData implements Data, Cloneable {
 
-    private ArrayList<WordData> wordDataItems;
-    private boolean emotionalContent;
-    private float emotionalValence;
-    private float emotionalActivation;
-    private float emotionalControl;
-    private String emotionalCategory;
-
-    private boolean containsEmotionalDimentions;
+    private TextColumns columns;
+    private int unit;
+    // The words of a sentence that has not been added to a text yet.
+    private ArrayList<WordData> pendingWords;
 
 
     /**
      * Constructs an empty SentenceData object.
      */
     public SentenceData() {
-        wordDataItems = new ArrayList<WordData>();
-        emotionalContent = false;
-        emotionalValence = -1;
-        emotionalActivation = -1;
-        emotionalControl = -1;
-        emotionalCategory = "";
+        columns = new TextColumns(1);
+        unit = columns.addUnit(TextColumns.SENTENCE);
+        pendingWords = new ArrayList<WordData>();
+    }
 
-        containsEmotionalDimentions = false;
+
+    /**
+     * Constructs a view of a sentence of a text.
+     *
+     * @param columns The text.
+     * @param unit The index of the sentence.
+     */
+    SentenceData(TextColumns columns, int unit) {
+        this.columns = columns;
+        this.unit = unit;
     }
 
 
     /**
      * Adds a WordData object into the sentence struct.
+     * If the sentence belongs to a text, it must be its last sentence, and the word
+     * is added to the text if it does not belong to it.
      *
      * @param wordDataToBeAdded The WordData to be added.
      */
     public void addWordData(WordData wordDataToBeAdded) {
-        wordDataItems.add(wordDataToBeAdded);
+        if (pendingWords != null) {
+            pendingWords.add(wordDataToBeAdded);
+        } else {
+            columns.checkLastUnit(TextColumns.SENTENCE, unit);
+            columns.appendSentenceToken(unit, resolveToken(columns, wordDataToBeAdded));
+        }
     }
 
 
@@ -81,7 +97,14 @@ public class SentenceData implements Data, Cloneable {
      * @return The WordData of the sentence.
      */
     public WordData getWordData(int whichOne) {
-        return wordDataItems.get(whichOne);
+        if (pendingWords != null) {
+            return pendingWords.get(whichOne);
+        }
+        if ((whichOne < 0) || (whichOne >= getNumberOfWords())) {
+            throw new IndexOutOfBoundsException("Index: " + whichOne + ", Size: " + getNumberOfWords());
+        }
+        return new WordData(columns, columns.getSentenceToken(columns.getUnitStart(TextColumns.SENTENCE,
+            unit) + whichOne));
     }
 
 
@@ -91,7 +114,10 @@ public class SentenceData implements Data, Cloneable {
      * @return The number of words.
      */
     public int getNumberOfWords() {
-        return wordDataItems.size();
+        if (pendingWords != null) {
+            return pendingWords.size();
+        }
+        return columns.getUnitEnd(TextColumns.SENTENCE, unit) - columns.getUnitStart(TextColumns.SENTENCE, unit);
     }
 
 
@@ -99,7 +125,7 @@ public class SentenceData implements Data, Cloneable {
      * Marks the sentence as emotional container.
      */
     public void setEmotionalContent() {
-        emotionalContent = true;
+        columns.setUnitFlag(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -109,7 +135,7 @@ public class SentenceData implements Data, Cloneable {
      * @return The emotional content of the sentence.
      */
     public boolean hasEmotionalContent() {
-        return emotionalContent;
+        return columns.isUnitFlagSet(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -119,8 +145,8 @@ public class SentenceData implements Data, Cloneable {
      * @param inputValence The valence of the emotion of this sentence.
      */
     public void setEmotionalValence(float inputValence) {
-        emotionalValence = inputValence;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.SENTENCE, unit, TextColumns.VALENCE, inputValence);
+        columns.setUnitFlag(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -130,7 +156,7 @@ public class SentenceData implements Data, Cloneable {
      * @return The valence of the emotion of this sentence.
      */
     public float getEmotionalValence() {
-        return emotionalValence;
+        return columns.getUnitFloat(TextColumns.SENTENCE, unit, TextColumns.VALENCE);
     }
 
 
@@ -140,8 +166,8 @@ public class SentenceData implements Data, Cloneable {
      * @param inputActivation The activation of the emotion of this sentence.
      */
     public void setEmotionalActivation(float inputActivation) {
-        emotionalActivation = inputActivation;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.SENTENCE, unit, TextColumns.ACTIVATION, inputActivation);
+        columns.setUnitFlag(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -151,7 +177,7 @@ public class SentenceData implements Data, Cloneable {
      * @return The activation of the emotion of this sentence.
      */
     public float getEmotionalActivation() {
-        return emotionalActivation;
+        return columns.getUnitFloat(TextColumns.SENTENCE, unit, TextColumns.ACTIVATION);
     }
 
 
@@ -161,8 +187,8 @@ public class SentenceData implements Data, Cloneable {
      * @param inputControl The control of the emotion of this sentence.
      */
     public void setEmotionalControl(float inputControl) {
-        emotionalControl = inputControl;
-        containsEmotionalDimentions = true;
+        columns.setUnitFloat(TextColumns.SENTENCE, unit, TextColumns.CONTROL, inputControl);
+        columns.setUnitFlag(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -172,7 +198,7 @@ public class SentenceData implements Data, Cloneable {
      * @return The control of the emotion of this sentence.
      */
     public float getEmotionalControl() {
-        return emotionalControl;
+        return columns.getUnitFloat(TextColumns.SENTENCE, unit, TextColumns.CONTROL);
     }
 
 
@@ -182,7 +208,7 @@ public class SentenceData implements Data, Cloneable {
      * @return True if this WordData object has emotional dimentions.
      */
     public boolean containsEmotionalDimentions() {
-        return containsEmotionalDimentions;
+        return columns.isUnitFlagSet(TextColumns.SENTENCE, unit, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -192,7 +218,7 @@ public class SentenceData implements Data, Cloneable {
      * @param inputCategory The category of the emotion of this sentence.
      */
     public void setEmotionalCategory(String inputCategory) {
-        emotionalCategory = inputCategory;
+        columns.setUnitCategory(TextColumns.SENTENCE, unit, inputCategory);
     }
 
 
@@ -202,7 +228,46 @@ public class SentenceData implements Data, Cloneable {
      * @return The category of the emotion of this sentence.
      */
     public String getEmotionalCategory() {
-        return emotionalCategory;
+        return columns.getUnitCategory(TextColumns.SENTENCE, unit);
+    }
+
+
+    /**
+     * Appends this sentence to a text, with its words, and turns it into a view of it.
+     * The last paragraph of the text is not extended.
+     *
+     * @param text The text.
+     */
+    void attachTo(TextColumns text) {
+        WordData[] words = new WordData[getNumberOfWords()];
+        for (int word = 0; word < words.length; word++) {
+            words[word] = getWordData(word);
+        }
+        int newUnit = text.addUnit(TextColumns.SENTENCE);
+        text.copyUnit(TextColumns.SENTENCE, columns, unit, newUnit);
+        for (int word = 0; word < words.length; word++) {
+            text.appendSentenceToken(newUnit, resolveToken(text, words[word]));
+        }
+        columns = text;
+        unit = newUnit;
+        pendingWords = null;
+    }
+
+
+    /**
+     * Function to retrieve the token id of a word in a text. The words that do not
+     * belong to the text are appended to it.
+     *
+     * @param text The text.
+     * @param word The word.
+     *
+     * @return The token id of the word.
+     */
+    static int resolveToken(TextColumns text, WordData word) {
+        if (word.getColumns() != text) {
+            word.bind(text, text.importToken(word.getColumns(), word.getToken()));
+        }
+        return word.getToken();
     }
 
 
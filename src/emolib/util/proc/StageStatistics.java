@@ -0,0 +1,208 @@
+/*
+ * File    : StageStatistics.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.proc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <i>StageStatistics</i> class accumulates the call counts, processing times,
+ * latency histogram, processed words and allocated bytes of a stage of the
+ * AffectiveTagger pipeline.
+ *
+ * <p>
+ * The statistics are updated by an {@link emolib.util.proc.InstrumentedDataProcessor}
+ * and they can be read at any time, e.g., through JMX (see
+ * {@link emolib.util.proc.StageStatisticsMBean}).
+ * </p>
+ */
+public class StageStatistics implements StageStatisticsMBean {
+
+    private String name;
+    private AtomicLong calls;
+    private AtomicLong totalNanos;
+    private AtomicLong words;
+    private AtomicLong allocatedBytes;
+    private boolean allocationSupported;
+    private LatencyHistogram latencies;
+
+
+    /**
+     * Main constructor.
+     *
+     * @param stageName The name of the stage.
+     * @param allocation True if the allocated bytes can be measured.
+     */
+    public StageStatistics(String stageName, boolean allocation) {
+        name = stageName;
+        calls = new AtomicLong();
+        totalNanos = new AtomicLong();
+        words = new AtomicLong();
+        allocatedBytes = new AtomicLong();
+        allocationSupported = allocation;
+        latencies = new LatencyHistogram();
+    }
+
+
+    /**
+     * Method to record a call to the stage.
+     *
+     * @param nanos The processing time of the call, in nanoseconds.
+     * @param numberOfWords The number of processed words.
+     * @param bytes The allocated bytes.
+     */
+    public void record(long nanos, int numberOfWords, long bytes) {
+        calls.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        words.addAndGet(numberOfWords);
+        allocatedBytes.addAndGet(bytes);
+        latencies.recordValue(nanos);
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getName()
+     */
+    public String getName() {
+        return name;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getCalls()
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getTotalTimeMillis()
+     */
+    public double getTotalTimeMillis() {
+        return totalNanos.get() / 1e6;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getMeanLatencyMicros()
+     */
+    public double getMeanLatencyMicros() {
+        long numberOfCalls = calls.get();
+        if (numberOfCalls == 0) {
+            return 0;
+        }
+        return totalNanos.get() / 1e3 / numberOfCalls;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getMedianLatencyMicros()
+     */
+    public double getMedianLatencyMicros() {
+        return latencies.getValueAtPercentile(50) / 1e3;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getLatency90thPercentileMicros()
+     */
+    public double getLatency90thPercentileMicros() {
+        return latencies.getValueAtPercentile(90) / 1e3;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getLatency99thPercentileMicros()
+     */
+    public double getLatency99thPercentileMicros() {
+        return latencies.getValueAtPercentile(99) / 1e3;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getMaxLatencyMicros()
+     */
+    public double getMaxLatencyMicros() {
+        return latencies.getMaxValue() / 1e3;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getWords()
+     */
+    public long getWords() {
+        return words.get();
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getWordsPerSecond()
+     */
+    public double getWordsPerSecond() {
+        long nanos = totalNanos.get();
+        if (nanos == 0) {
+            return 0;
+        }
+        return words.get() * 1e9 / nanos;
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#getAllocatedBytes()
+     */
+    public long getAllocatedBytes() {
+        if (allocationSupported) {
+            return allocatedBytes.get();
+        } else {
+            return -1;
+        }
+    }
+
+
+    /* (non-Javadoc)
+     * @see emolib.util.proc.StageStatisticsMBean#reset()
+     */
+    public void reset() {
+        calls.set(0);
+        totalNanos.set(0);
+        words.set(0);
+        allocatedBytes.set(0);
+        latencies.reset();
+    }
+
+
+    /**
+     * Returns a one-line summary of the statistics of this stage.
+     *
+     * @return The summary.
+     */
+    public String toString() {
+        StringBuilder summary = new StringBuilder(name);
+        summary.append(": calls=").append(getCalls());
+        summary.append(" total=").append(Math.round(getTotalTimeMillis())).append("ms");
+        summary.append(" mean=").append(Math.round(getMeanLatencyMicros())).append("us");
+        summary.append(" p50=").append(Math.round(getMedianLatencyMicros())).append("us");
+        summary.append(" p90=").append(Math.round(getLatency90thPercentileMicros())).append("us");
+        summary.append(" p99=").append(Math.round(getLatency99thPercentileMicros())).append("us");
+        summary.append(" max=").append(Math.round(getMaxLatencyMicros())).append("us");
+        summary.append(" words/s=").append(Math.round(getWordsPerSecond()));
+        if (allocationSupported) {
+            summary.append(" allocated=").append(getAllocatedBytes() / 1024).append("KB");
+        }
+        return summary.toString();
+    }
+
+}
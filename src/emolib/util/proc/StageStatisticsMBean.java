@@ -0,0 +1,112 @@
+/*
+ * File    : StageStatisticsMBean.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.proc;
+
+/**
+ * The <i>StageStatisticsMBean</i> interface exposes the statistics of a stage of
+ * the AffectiveTagger pipeline through JMX.
+ *
+ * <p>
+ * All the times refer to the processing time of the stage itself, i.e., without
+ * the time spent in the previous stages of the pipeline.
+ * </p>
+ */
+public interface StageStatisticsMBean {
+
+    /**
+     * Function to retrieve the name of the stage.
+     *
+     * @return The name of the stage.
+     */
+    public String getName();
+
+    /**
+     * Function to retrieve the number of calls to the stage.
+     *
+     * @return The number of calls.
+     */
+    public long getCalls();
+
+    /**
+     * Function to retrieve the total processing time of the stage.
+     *
+     * @return The total time, in milliseconds.
+     */
+    public double getTotalTimeMillis();
+
+    /**
+     * Function to retrieve the mean latency of the stage.
+     *
+     * @return The mean latency, in microseconds.
+     */
+    public double getMeanLatencyMicros();
+
+    /**
+     * Function to retrieve the median latency of the stage.
+     *
+     * @return The median latency, in microseconds.
+     */
+    public double getMedianLatencyMicros();
+
+    /**
+     * Function to retrieve the 90th percentile of the latency of the stage.
+     *
+     * @return The 90th percentile of the latency, in microseconds.
+     */
+    public double getLatency90thPercentileMicros();
+
+    /**
+     * Function to retrieve the 99th percentile of the latency of the stage.
+     *
+     * @return The 99th percentile of the latency, in microseconds.
+     */
+    public double getLatency99thPercentileMicros();
+
+    /**
+     * Function to retrieve the maximum latency of the stage.
+     *
+     * @return The maximum latency, in microseconds.
+     */
+    public double getMaxLatencyMicros();
+
+    /**
+     * Function to retrieve the number of words processed by the stage.
+     *
+     * @return The number of words.
+     */
+    public long getWords();
+
+    /**
+     * Function to retrieve the throughput of the stage.
+     *
+     * @return The words processed per second of processing time.
+     */
+    public double getWordsPerSecond();
+
+    /**
+     * Function to retrieve the bytes allocated by the stage, or -1 if the
+     * JVM does not support this measurement.
+     *
+     * @return The allocated bytes.
+     */
+    public long getAllocatedBytes();
+
+    /**
+     * Method to clear the statistics.
+     */
+    public void reset();
+
+}
@@ -0,0 +1,753 @@
+/*
+ * File    : TextColumns.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2008 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.proc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The <i>TextColumns</i> class holds the information of a text in a columnar
+ * layout, i.e., in primitive arrays indexed by token id.
+ *
+ * <p>
+ * The strings of the tokens (word, class, POS, stem and category) are stored as
+ * offsets into a string pool of the text, so each distinct string is stored once.
+ * The boolean features of the tokens are stored as bitsets, and their emotional
+ * dimensions and modifier values as float columns. The sentences are stored as
+ * boundary offsets into an array of token ids, and the paragraphs as boundary
+ * offsets into the sentences, each one with its own emotional dimensions.
+ * </p>
+ * <p>
+ * The TextData, ParagraphData, SentenceData and WordData objects are lightweight
+ * views (flyweights) of a TextColumns object, so they keep the original interface
+ * while the text is held in a handful of arrays. The text processing stages may
+ * also loop over the columns directly.
+ * </p>
+ */
+public class TextColumns {
+
+    /** The word of the token. */
+    public static final int WORD = 0;
+    /** The lexical category of the token. */
+    public static final int WORD_CLASS = 1;
+    /** The Part-Of-Speech tag of the token. */
+    public static final int POS = 2;
+    /** The stem of the token. */
+    public static final int STEM = 3;
+    /** The emotional category of the token. */
+    public static final int CATEGORY = 4;
+
+    /** The emotional valence. */
+    public static final int VALENCE = 0;
+    /** The emotional activation. */
+    public static final int ACTIVATION = 1;
+    /** The emotional control. */
+    public static final int CONTROL = 2;
+    /** The modifier value of the token. */
+    public static final int MODIFIER_VALUE = 3;
+
+    /** The token, sentence or paragraph is an emotional container. */
+    public static final int EMOTIONAL_CONTENT = 1;
+    /** The token, sentence or paragraph has emotional dimensions. */
+    public static final int EMOTIONAL_DIMENTIONS = 1 << 1;
+    /** The token is a noun. */
+    public static final int NOUN = 1 << 2;
+    /** The token is a verb. */
+    public static final int VERB = 1 << 3;
+    /** The token is an adjective. */
+    public static final int ADJECTIVE = 1 << 4;
+    /** The token is an adverb. */
+    public static final int ADVERB = 1 << 5;
+    /** The token is a modifier. */
+    public static final int MODIFIER = 1 << 6;
+    /** The token is a negation adverb. */
+    public static final int NEGATION_ADVERB = 1 << 7;
+    /** The token has a POS tag. */
+    public static final int POS_TAGGED = 1 << 8;
+    /** The token has synonyms. */
+    public static final int SYNONYMS = 1 << 9;
+    /** The token has stemmed synonyms. */
+    public static final int STEMMED_SYNONYMS = 1 << 10;
+
+    /** The sentence level of the text structure. */
+    public static final int SENTENCE = 0;
+    /** The paragraph level of the text structure. */
+    public static final int PARAGRAPH = 1;
+
+    private static final int NUMBER_OF_STRING_COLUMNS = 5;
+    private static final int NUMBER_OF_FLOAT_COLUMNS = 4;
+    private static final int NUMBER_OF_UNIT_DIMENTIONS = 3;
+    private static final int NULL_STRING = -1;
+
+    // Token columns
+    private int numberOfTokens;
+    private int[][] stringColumns;
+    private float[][] floatColumns;
+    private int[] flags;
+    private int[] paragraphNumbers;
+    private int[] sentenceNumbers;
+    private ArrayList[] senses;
+    private ArrayList[] stemmedSenses;
+
+    // String pool
+    private String[] strings;
+    private int numberOfStrings;
+    private HashMap<String, Integer> stringIds;
+
+    // Text structure: sentences over token ids, paragraphs over sentences
+    private int[] sentenceTokens;
+    private int numberOfSentenceTokens;
+    private int[] numberOfUnits;
+    private int[][] unitEnds;
+    private int[][] unitFlags;
+    private int[][] unitCategories;
+    private float[][][] unitDimentions;
+
+
+    /**
+     * Constructs an empty TextColumns object with a default
+     * initial capacity for 10 tokens.
+     */
+    public TextColumns() {
+        this(10);
+    }
+
+
+    /**
+     * Constructs an empty TextColumns object with an
+     * initial capacity for the specified number of tokens.
+     *
+     * @param initialCapacity Initial capacity for the construct.
+     */
+    public TextColumns(int initialCapacity) {
+        if (initialCapacity < 1) {
+            initialCapacity = 1;
+        }
+        stringColumns = new int[NUMBER_OF_STRING_COLUMNS][initialCapacity];
+        floatColumns = new float[NUMBER_OF_FLOAT_COLUMNS][initialCapacity];
+        flags = new int[initialCapacity];
+        paragraphNumbers = new int[initialCapacity];
+        sentenceNumbers = new int[initialCapacity];
+        strings = new String[initialCapacity];
+        sentenceTokens = new int[0];
+        numberOfUnits = new int[2];
+        unitEnds = new int[2][0];
+        unitFlags = new int[2][0];
+        unitCategories = new int[2][0];
+        unitDimentions = new float[2][NUMBER_OF_UNIT_DIMENTIONS][0];
+    }
+
+
+    /**
+     * Retrieves the number of tokens.
+     *
+     * @return The number of tokens.
+     */
+    public int getNumberOfTokens() {
+        return numberOfTokens;
+    }
+
+
+    /**
+     * Retrieves a string of a token.
+     *
+     * @param column The string column: WORD, WORD_CLASS, POS, STEM or CATEGORY.
+     * @param token The token id.
+     *
+     * @return The string, which may be null.
+     */
+    public String getString(int column, int token) {
+        return getPooledString(stringColumns[column][token]);
+    }
+
+
+    /**
+     * Sets a string of a token.
+     *
+     * @param column The string column: WORD, WORD_CLASS, POS, STEM or CATEGORY.
+     * @param token The token id.
+     * @param value The string, which may be null.
+     */
+    public void setString(int column, int token, String value) {
+        stringColumns[column][token] = poolString(value);
+    }
+
+
+    /**
+     * Retrieves the pool offset of a string of a token.
+     * Equal strings of a text have equal offsets.
+     *
+     * @param column The string column: WORD, WORD_CLASS, POS, STEM or CATEGORY.
+     * @param token The token id.
+     *
+     * @return The offset in the string pool, or -1 for a null string.
+     */
+    public int getStringId(int column, int token) {
+        return stringColumns[column][token];
+    }
+
+
+    /**
+     * Retrieves a string from the string pool.
+     *
+     * @param stringId The offset in the string pool.
+     *
+     * @return The string, or null for a negative offset.
+     */
+    public String getPooledString(int stringId) {
+        if (stringId == NULL_STRING) {
+            return null;
+        }
+        return strings[stringId];
+    }
+
+
+    /**
+     * Retrieves a float value of a token.
+     *
+     * @param column The float column: VALENCE, ACTIVATION, CONTROL or MODIFIER_VALUE.
+     * @param token The token id.
+     *
+     * @return The value.
+     */
+    public float getFloat(int column, int token) {
+        return floatColumns[column][token];
+    }
+
+
+    /**
+     * Sets a float value of a token.
+     *
+     * @param column The float column: VALENCE, ACTIVATION, CONTROL or MODIFIER_VALUE.
+     * @param token The token id.
+     * @param value The value.
+     */
+    public void setFloat(int column, int token, float value) {
+        floatColumns[column][token] = value;
+    }
+
+
+    /**
+     * Retrieves the flags (bitset) of a token.
+     *
+     * @param token The token id.
+     *
+     * @return The flags of the token.
+     */
+    public int getFlags(int token) {
+        return flags[token];
+    }
+
+
+    /**
+     * Determines if a flag of a token is set.
+     *
+     * @param token The token id.
+     * @param flag The flag.
+     *
+     * @return True if the flag is set.
+     */
+    public boolean isFlagSet(int token, int flag) {
+        return (flags[token] & flag) != 0;
+    }
+
+
+    /**
+     * Sets a flag of a token.
+     *
+     * @param token The token id.
+     * @param flag The flag.
+     */
+    public void setFlag(int token, int flag) {
+        flags[token] |= flag;
+    }
+
+
+    /**
+     * Retrieves the number of paragraph of a token.
+     *
+     * @param token The token id.
+     *
+     * @return The number of paragraph.
+     */
+    public int getParagraphNumber(int token) {
+        return paragraphNumbers[token];
+    }
+
+
+    /**
+     * Sets the number of paragraph of a token.
+     *
+     * @param token The token id.
+     * @param number The number of paragraph.
+     */
+    public void setParagraphNumber(int token, int number) {
+        paragraphNumbers[token] = number;
+    }
+
+
+    /**
+     * Retrieves the number of sentence of a token.
+     *
+     * @param token The token id.
+     *
+     * @return The number of sentence.
+     */
+    public int getSentenceNumber(int token) {
+        return sentenceNumbers[token];
+    }
+
+
+    /**
+     * Sets the number of sentence of a token.
+     *
+     * @param token The token id.
+     * @param number The number of sentence.
+     */
+    public void setSentenceNumber(int token, int number) {
+        sentenceNumbers[token] = number;
+    }
+
+
+    /**
+     * Retrieves the synonyms of a token.
+     *
+     * @param token The token id.
+     *
+     * @return The synonyms, or null if they have not been set.
+     */
+    public ArrayList getSense(int token) {
+        if (senses == null) {
+            return null;
+        }
+        return senses[token];
+    }
+
+
+    /**
+     * Sets the synonyms of a token.
+     * The column of synonyms is only allocated if the text has any.
+     *
+     * @param token The token id.
+     * @param synonyms The synonyms.
+     */
+    public void setSense(int token, ArrayList synonyms) {
+        if (senses == null) {
+            senses = new ArrayList[flags.length];
+        }
+        senses[token] = synonyms;
+    }
+
+
+    /**
+     * Retrieves the stemmed synonyms of a token.
+     *
+     * @param token The token id.
+     *
+     * @return The stemmed synonyms, or null if they have not been set.
+     */
+    public ArrayList getStemmedSense(int token) {
+        if (stemmedSenses == null) {
+            return null;
+        }
+        return stemmedSenses[token];
+    }
+
+
+    /**
+     * Sets the stemmed synonyms of a token.
+     * The column of stemmed synonyms is only allocated if the text has any.
+     *
+     * @param token The token id.
+     * @param stemmedSynonyms The stemmed synonyms.
+     */
+    public void setStemmedSense(int token, ArrayList stemmedSynonyms) {
+        if (stemmedSenses == null) {
+            stemmedSenses = new ArrayList[flags.length];
+        }
+        stemmedSenses[token] = stemmedSynonyms;
+    }
+
+
+    /**
+     * Retrieves the number of sentences or paragraphs.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     *
+     * @return The number of units of the level.
+     */
+    public int getNumberOfUnits(int level) {
+        return numberOfUnits[level];
+    }
+
+
+    /**
+     * Retrieves the start offset of a sentence or paragraph, i.e., the offset
+     * of its first token id (see getSentenceToken) or the index of its first sentence.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     *
+     * @return The start offset (inclusive).
+     */
+    public int getUnitStart(int level, int unit) {
+        if (unit == 0) {
+            return 0;
+        }
+        return unitEnds[level][unit - 1];
+    }
+
+
+    /**
+     * Retrieves the end offset of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     *
+     * @return The end offset (exclusive).
+     */
+    public int getUnitEnd(int level, int unit) {
+        return unitEnds[level][unit];
+    }
+
+
+    /**
+     * Retrieves the token id at an offset of the sentences.
+     *
+     * @param offset The offset, between the start and the end of a sentence.
+     *
+     * @return The token id.
+     */
+    public int getSentenceToken(int offset) {
+        return sentenceTokens[offset];
+    }
+
+
+    /**
+     * Retrieves an emotional dimension of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     * @param dimension VALENCE, ACTIVATION or CONTROL.
+     *
+     * @return The value of the dimension.
+     */
+    public float getUnitFloat(int level, int unit, int dimension) {
+        return unitDimentions[level][dimension][unit];
+    }
+
+
+    /**
+     * Sets an emotional dimension of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     * @param dimension VALENCE, ACTIVATION or CONTROL.
+     * @param value The value of the dimension.
+     */
+    public void setUnitFloat(int level, int unit, int dimension, float value) {
+        unitDimentions[level][dimension][unit] = value;
+    }
+
+
+    /**
+     * Determines if a flag of a sentence or paragraph is set.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     * @param flag EMOTIONAL_CONTENT or EMOTIONAL_DIMENTIONS.
+     *
+     * @return True if the flag is set.
+     */
+    public boolean isUnitFlagSet(int level, int unit, int flag) {
+        return (unitFlags[level][unit] & flag) != 0;
+    }
+
+
+    /**
+     * Sets a flag of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     * @param flag EMOTIONAL_CONTENT or EMOTIONAL_DIMENTIONS.
+     */
+    public void setUnitFlag(int level, int unit, int flag) {
+        unitFlags[level][unit] |= flag;
+    }
+
+
+    /**
+     * Retrieves the emotional category of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     *
+     * @return The category.
+     */
+    public String getUnitCategory(int level, int unit) {
+        return getPooledString(unitCategories[level][unit]);
+    }
+
+
+    /**
+     * Sets the emotional category of a sentence or paragraph.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the sentence or paragraph.
+     * @param category The category.
+     */
+    public void setUnitCategory(int level, int unit, String category) {
+        unitCategories[level][unit] = poolString(category);
+    }
+
+
+    /**
+     * Appends a new token with null strings, zero values and no flags.
+     *
+     * @return The token id.
+     */
+    int addToken() {
+        if (numberOfTokens == flags.length) {
+            int capacity = 2 * flags.length;
+            for (int column = 0; column < NUMBER_OF_STRING_COLUMNS; column++) {
+                stringColumns[column] = grow(stringColumns[column], capacity);
+            }
+            for (int column = 0; column < NUMBER_OF_FLOAT_COLUMNS; column++) {
+                float[] grown = new float[capacity];
+                System.arraycopy(floatColumns[column], 0, grown, 0, numberOfTokens);
+                floatColumns[column] = grown;
+            }
+            flags = grow(flags, capacity);
+            paragraphNumbers = grow(paragraphNumbers, capacity);
+            sentenceNumbers = grow(sentenceNumbers, capacity);
+            senses = grow(senses, capacity);
+            stemmedSenses = grow(stemmedSenses, capacity);
+        }
+        int token = numberOfTokens;
+        for (int column = 0; column < NUMBER_OF_STRING_COLUMNS; column++) {
+            stringColumns[column][token] = NULL_STRING;
+        }
+        numberOfTokens++;
+        return token;
+    }
+
+
+    /**
+     * Appends a copy of a token of another TextColumns object.
+     *
+     * @param source The TextColumns of the token.
+     * @param sourceToken The token id in the source.
+     *
+     * @return The token id of the copy.
+     */
+    int importToken(TextColumns source, int sourceToken) {
+        int token = addToken();
+        copyToken(source, sourceToken, token);
+        return token;
+    }
+
+
+    /**
+     * Overwrites a token with a copy of a token of another (or the same) TextColumns object.
+     *
+     * @param source The TextColumns of the token.
+     * @param sourceToken The token id in the source.
+     * @param token The token id to overwrite.
+     */
+    void copyToken(TextColumns source, int sourceToken, int token) {
+        for (int column = 0; column < NUMBER_OF_STRING_COLUMNS; column++) {
+            stringColumns[column][token] = poolString(source.getString(column, sourceToken));
+        }
+        for (int column = 0; column < NUMBER_OF_FLOAT_COLUMNS; column++) {
+            floatColumns[column][token] = source.floatColumns[column][sourceToken];
+        }
+        flags[token] = source.flags[sourceToken];
+        paragraphNumbers[token] = source.paragraphNumbers[sourceToken];
+        sentenceNumbers[token] = source.sentenceNumbers[sourceToken];
+        if ((source.getSense(sourceToken) != null) || (getSense(token) != null)) {
+            setSense(token, source.getSense(sourceToken));
+        }
+        if ((source.getStemmedSense(sourceToken) != null) || (getStemmedSense(token) != null)) {
+            setStemmedSense(token, source.getStemmedSense(sourceToken));
+        }
+    }
+
+
+    /**
+     * Appends a new empty sentence or paragraph at the end of the text, with the
+     * default emotional dimensions (-1) and an empty category.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     *
+     * @return The index of the new unit.
+     */
+    int addUnit(int level) {
+        int unit = numberOfUnits[level];
+        if (unit == unitEnds[level].length) {
+            int capacity = 2 * unit + 4;
+            unitEnds[level] = grow(unitEnds[level], capacity);
+            unitFlags[level] = grow(unitFlags[level], capacity);
+            unitCategories[level] = grow(unitCategories[level], capacity);
+            for (int dimension = 0; dimension < NUMBER_OF_UNIT_DIMENTIONS; dimension++) {
+                float[] grown = new float[capacity];
+                System.arraycopy(unitDimentions[level][dimension], 0, grown, 0, unit);
+                unitDimentions[level][dimension] = grown;
+            }
+        }
+        if (level == SENTENCE) {
+            unitEnds[level][unit] = numberOfSentenceTokens;
+        } else {
+            unitEnds[level][unit] = numberOfUnits[SENTENCE];
+        }
+        unitFlags[level][unit] = 0;
+        unitCategories[level][unit] = poolString("");
+        for (int dimension = 0; dimension < NUMBER_OF_UNIT_DIMENTIONS; dimension++) {
+            unitDimentions[level][dimension][unit] = -1;
+        }
+        numberOfUnits[level]++;
+        return unit;
+    }
+
+
+    /**
+     * Copies the flags, emotional dimensions and category of a sentence or paragraph
+     * of another TextColumns object.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param source The TextColumns of the unit.
+     * @param sourceUnit The index of the unit in the source.
+     * @param unit The index of the unit to overwrite.
+     */
+    void copyUnit(int level, TextColumns source, int sourceUnit, int unit) {
+        unitFlags[level][unit] = source.unitFlags[level][sourceUnit];
+        unitCategories[level][unit] = poolString(source.getUnitCategory(level, sourceUnit));
+        for (int dimension = 0; dimension < NUMBER_OF_UNIT_DIMENTIONS; dimension++) {
+            unitDimentions[level][dimension][unit] = source.unitDimentions[level][dimension][sourceUnit];
+        }
+    }
+
+
+    /**
+     * Appends a token to the last sentence of the text.
+     *
+     * @param sentence The index of the sentence, which must be the last one.
+     * @param token The token id.
+     */
+    void appendSentenceToken(int sentence, int token) {
+        checkLastUnit(SENTENCE, sentence);
+        if (numberOfSentenceTokens == sentenceTokens.length) {
+            sentenceTokens = grow(sentenceTokens, 2 * numberOfSentenceTokens + 16);
+        }
+        sentenceTokens[numberOfSentenceTokens] = token;
+        numberOfSentenceTokens++;
+        unitEnds[SENTENCE][sentence] = numberOfSentenceTokens;
+    }
+
+
+    /**
+     * Appends the last sentence of the text to the last paragraph.
+     *
+     * @param paragraph The index of the paragraph, which must be the last one.
+     */
+    void appendParagraphSentence(int paragraph) {
+        checkLastUnit(PARAGRAPH, paragraph);
+        if (unitEnds[PARAGRAPH][paragraph] != numberOfUnits[SENTENCE] - 1) {
+            throw new IllegalStateException("TextColumns: only the last sentence can be appended " +
+                "to a paragraph!");
+        }
+        unitEnds[PARAGRAPH][paragraph]++;
+    }
+
+
+    /**
+     * Checks that a sentence or paragraph is the last one of the text, for the text is
+     * stored in order and only its last units may grow.
+     *
+     * @param level SENTENCE or PARAGRAPH.
+     * @param unit The index of the unit.
+     */
+    void checkLastUnit(int level, int unit) {
+        if (unit != numberOfUnits[level] - 1) {
+            throw new IllegalStateException("TextColumns: only the last sentence or paragraph " +
+                "of a text can be extended!");
+        }
+    }
+
+
+    /**
+     * Function to retrieve the pool offset of a string, which is added to the
+     * pool if it is not there yet.
+     *
+     * @param value The string.
+     *
+     * @return The offset in the string pool.
+     */
+    private int poolString(String value) {
+        if (value == null) {
+            return NULL_STRING;
+        }
+        if (stringIds == null) {
+            stringIds = new HashMap<String, Integer>();
+        }
+        Integer stringId = stringIds.get(value);
+        if (stringId == null) {
+            if (numberOfStrings == strings.length) {
+                String[] grown = new String[2 * numberOfStrings];
+                System.arraycopy(strings, 0, grown, 0, numberOfStrings);
+                strings = grown;
+            }
+            stringId = Integer.valueOf(numberOfStrings);
+            strings[numberOfStrings] = value;
+            numberOfStrings++;
+            stringIds.put(value, stringId);
+        }
+        return stringId.intValue();
+    }
+
+
+    /**
+     * Function to grow an array of integers.
+     *
+     * @param array The array.
+     * @param capacity The new capacity.
+     *
+     * @return The grown array.
+     */
+    private static int[] grow(int[] array, int capacity) {
+        int[] grown = new int[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+
+    /**
+     * Function to grow an array of lists, which may not have been allocated.
+     *
+     * @param array The array, or null.
+     * @param capacity The new capacity.
+     *
+     * @return The grown array, or null.
+     */
+    private static ArrayList[] grow(ArrayList[] array, int capacity) {
+        if (array == null) {
+            return null;
+        }
+        ArrayList[] grown = new ArrayList[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+}
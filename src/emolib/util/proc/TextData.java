@@ -28,16 +28,20 @@ import java.util.ArrayList;
  * WordData objects, thus it could be stated that it holds the
  * information of a sentence, a paragraph... a text in general.
  * </p>
+ * <p>
+ * The text is held in a {@link emolib.util.proc.TextColumns} object, in a columnar
+ * layout, and the WordData, SentenceData and ParagraphData objects retrieved from
+ * a TextData object are lightweight views of it. Thus, the changes made through
+ * them are made to the text. The WordData objects put into a TextData object are
+ * copied into it and become views of the text too.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
 public class TextData implements Data, Cloneable {
 
-    // The text data may be retrieved differently.
-    // The whole bunch of words.
-    private ArrayList<WordData> textWords;
-    // The beautiful paragraph-sentence-words structure.
-    private ArrayList<ParagraphData> paragraphDataItems;
+    // The words and the beautiful paragraph-sentence-words structure.
+    private TextColumns columns;
 
     private boolean emotionalContent;
     private float emotionalValence;
@@ -53,8 +57,7 @@ public class TextData implements Data, Cloneable {
      * initial capacity for 10 WordData objects.
      */
     public TextData() {
-        textWords = new ArrayList<WordData>();
-        paragraphDataItems = new ArrayList<ParagraphData>();
+        columns = new TextColumns();
         containsEmotionalDimentions = false;
         emotionalContent = false;
         emotionalValence = -1;
@@ -70,8 +73,7 @@ public class TextData implements Data, Cloneable {
      * @param initialCapacity Initial capacity for the construct.
      */
     public TextData(int initialCapacity) {
-        textWords = new ArrayList<WordData>(initialCapacity);
-        paragraphDataItems = new ArrayList<ParagraphData>();
+        columns = new TextColumns(initialCapacity);
         containsEmotionalDimentions = false;
         emotionalContent = false;
         emotionalValence = -1;
@@ -83,34 +85,66 @@ public class TextData implements Data, Cloneable {
     /**
      * Puts a WordData into the TextData object at the end
      * of the structure.
+     * The WordData is copied into the text and it becomes a view of it.
      *
      * @param inputWordData The WordData to be inserted.
      */
     public void putWordData(WordData inputWordData) {
-        boolean op = textWords.add(inputWordData);
-        if (!op) {
-            System.out.println("ERROR adding a word!\n");
-            System.exit(1);
-        }
+        inputWordData.bind(columns, columns.importToken(inputWordData.getColumns(), inputWordData.getToken()));
+    }
+
+
+    /**
+     * Puts a new word into the TextData object at the end
+     * of the structure, without the need of a standalone WordData object.
+     *
+     * @param word The word.
+     * @param wordClass The word-class of the word.
+     *
+     * @return The WordData view of the new word.
+     */
+    public WordData putWordData(String word, String wordClass) {
+        int token = columns.addToken();
+        columns.setString(TextColumns.WORD, token, word);
+        columns.setString(TextColumns.WORD_CLASS, token, wordClass);
+        return new WordData(columns, token);
     }
 
+
     /**
      * Retrieves the textWords from the TextData object.
+     * The list is built on demand with views of the words, so adding or removing
+     * elements from it does not modify the text.
      *
      * @return The textWords of the TextData object.
      */
     public ArrayList getText() {
+        ArrayList<WordData> textWords = new ArrayList<WordData>(columns.getNumberOfTokens());
+        for (int token = 0; token < columns.getNumberOfTokens(); token++) {
+            textWords.add(new WordData(columns, token));
+        }
         return textWords;
     }
 
 
+    /**
+     * Retrieves the columnar representation of the text, for the text processing
+     * stages that loop over its words.
+     *
+     * @return The columns of the text.
+     */
+    public TextColumns getColumns() {
+        return columns;
+    }
+
+
     /**
      * Retrieves the size of the structure (the number of words).
      *
      * @return The size of the structure.
      */
     public int getNumberOfWords() {
-        return textWords.size();
+        return columns.getNumberOfTokens();
     }
 
 
@@ -120,7 +154,7 @@ public class TextData implements Data, Cloneable {
      * @return The number of paragraphs.
      */
     public int getNumberOfParagraphs() {
-        return paragraphDataItems.size();
+        return columns.getNumberOfUnits(TextColumns.PARAGRAPH);
     }
 
 
@@ -130,9 +164,9 @@ public class TextData implements Data, Cloneable {
      * @return An array of strings containing all the words.
      */
     public String[] getWordsAsArrayOfStrings() {
-        String[] arrayOfStringsToReturn = new String[textWords.size()];
-        for (int counter = 0; counter < textWords.size(); counter++) {
-            arrayOfStringsToReturn[counter] = textWords.get(counter).getWord();
+        String[] arrayOfStringsToReturn = new String[columns.getNumberOfTokens()];
+        for (int counter = 0; counter < arrayOfStringsToReturn.length; counter++) {
+            arrayOfStringsToReturn[counter] = columns.getString(TextColumns.WORD, counter);
         }
         return arrayOfStringsToReturn;
     }
@@ -146,29 +180,38 @@ public class TextData implements Data, Cloneable {
      * @return The WordData object in question.
      */
     public WordData getWordData(int index) {
-        return textWords.get(index);
+        checkWordIndex(index);
+        return new WordData(columns, index);
     }
 
 
     /**
      * Replaces the WordData object in the specified index with the
      * new given WordData object.
+     * The WordData is copied into the text (unless it is already a view of the word
+     * in question) and it becomes a view of it.
      *
      * @param index The index of the WordData to be replaced.
      * @param newWordDataObject The new WordData object to be inserted.
      */
     public void setWordData(int index, WordData newWordDataObject) {
-        textWords.set(index, newWordDataObject);
+        checkWordIndex(index);
+        if ((newWordDataObject.getColumns() != columns) || (newWordDataObject.getToken() != index)) {
+            columns.copyToken(newWordDataObject.getColumns(), newWordDataObject.getToken(), index);
+            newWordDataObject.bind(columns, index);
+        }
     }
 
 
     /**
      * Adds a ParagraphData object into the text struct.
+     * The paragraph becomes a view of the text, and its words that do not
+     * belong to the text are put into it.
      *
      * @param paragraphDataToBeAdded The ParagraphData to be added.
      */
     public void addParagraphData(ParagraphData paragraphDataToBeAdded) {
-        paragraphDataItems.add(paragraphDataToBeAdded);
+        paragraphDataToBeAdded.attachTo(columns);
     }
 
 
@@ -180,7 +223,10 @@ public class TextData implements Data, Cloneable {
      * @return The ParagraphData of the text.
      */
     public ParagraphData getParagraphData(int whichOne) {
-        return paragraphDataItems.get(whichOne);
+        if ((whichOne < 0) || (whichOne >= getNumberOfParagraphs())) {
+            throw new IndexOutOfBoundsException("Index: " + whichOne + ", Size: " + getNumberOfParagraphs());
+        }
+        return new ParagraphData(columns, whichOne);
     }
 
 
@@ -295,6 +341,18 @@ public class TextData implements Data, Cloneable {
     }
 
 
+    /**
+     * Checks the index of a word.
+     *
+     * @param index The index of the word.
+     */
+    private void checkWordIndex(int index) {
+        if ((index < 0) || (index >= columns.getNumberOfTokens())) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + columns.getNumberOfTokens());
+        }
+    }
+
+
     /**
      * Returns a clone of this Data object.
      *
@@ -72,6 +72,13 @@ public abstract class TextDataProcessor implements DataProcessor {
     public void flush() {
     }
 
+    /**
+     * Method to release the resources of this TextDataProcessor when it is no longer used,
+     * e.g., the shared resources acquired from the {@link emolib.util.ResourceRegistry}.
+     */
+    public void deallocate() {
+    }
+
     /*
      * (non-Javadoc)
      * @see DataProcessor#getName()
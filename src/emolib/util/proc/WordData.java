@@ -45,67 +45,35 @@ import java.util.ArrayList;
  *     <li>Emotional control: the control of the emotion.
  * </ul>
  * </p>
+ * <p>
+ * A WordData object is a lightweight view of a token of a {@link emolib.util.proc.TextColumns}
+ * object. A WordData created with a constructor has its own storage, which is copied into
+ * the text when the WordData is put into a TextData object. From then on, the WordData is
+ * a view of the token of the text.
+ * </p>
  *
  * @author Alexandre Trilla (atrilla@salle.url.edu)
  */
 public class WordData implements Data, Cloneable {
 
-    private String word;
-    private String wordClass;
-    private String wordPOS;
-    private int paragraphCount;
-    private int sentenceCount;
-    private ArrayList wordSense;
-    private ArrayList wordSenseStem;
-    private boolean hasSynonyms;
-    private String wordStem;
-    private boolean emotionalContent;
-    private float emotionalValence;
-    private float emotionalActivation;
-    private float emotionalControl;
-    private float modifierValue;
-    private String emotionalCategory;
-    private boolean isNoun;
-    private boolean isVerb;
-    private boolean isAdjective;
-    private boolean isAdverb;
-    private boolean isModifier;
-    private boolean isNegationAdverb;
-
-    //Boolean flags for data storage.
-    private boolean containsSynonymsFlag;
-    private boolean containsSynonymsStemFlag;
-    private boolean containsPOSFlag;
-    private boolean containsEmotionalDimentions;
+    private TextColumns columns;
+    private int token;
 
 
     /**
      * Constructs an empty WordData object.
      */
     public WordData() {
-        word = "";
-        wordClass = "";
-        wordPOS = "";
-        wordSense = null;
-        wordSenseStem = null;
-        wordStem = "";
-        emotionalContent = false;
-        emotionalValence = -1;
-        emotionalActivation = -1;
-        emotionalControl = -1;
-        modifierValue = 0;
-        emotionalCategory = "";
-        isNoun = false;
-        isVerb = false;
-        isAdjective = false;
-        isAdverb = false;
-        isModifier = false;
-        isNegationAdverb = false;
-
-        containsSynonymsFlag = false;
-        containsSynonymsStemFlag = false;
-        containsPOSFlag = false;
-        containsEmotionalDimentions = false;
+        columns = new TextColumns(1);
+        token = columns.addToken();
+        setWord("");
+        setWordClass("");
+        columns.setString(TextColumns.POS, token, "");
+        setWordStem("");
+        setEmotionalCategory("");
+        columns.setFloat(TextColumns.VALENCE, token, -1);
+        columns.setFloat(TextColumns.ACTIVATION, token, -1);
+        columns.setFloat(TextColumns.CONTROL, token, -1);
     }
 
 
@@ -116,8 +84,54 @@ public class WordData implements Data, Cloneable {
      * @param wordClass Input wordClass for the constructor.
      */
     public WordData(String word, String wordClass) {
-        this.word = word;
-        this.wordClass = wordClass;
+        columns = new TextColumns(1);
+        token = columns.addToken();
+        setWord(word);
+        setWordClass(wordClass);
+    }
+
+
+    /**
+     * Constructs a view of a token.
+     *
+     * @param columns The text.
+     * @param token The token id.
+     */
+    WordData(TextColumns columns, int token) {
+        this.columns = columns;
+        this.token = token;
+    }
+
+
+    /**
+     * Retrieves the text of the token that this object is a view of.
+     *
+     * @return The text.
+     */
+    TextColumns getColumns() {
+        return columns;
+    }
+
+
+    /**
+     * Retrieves the id of the token that this object is a view of.
+     *
+     * @return The token id.
+     */
+    int getToken() {
+        return token;
+    }
+
+
+    /**
+     * Turns this object into a view of another token.
+     *
+     * @param newColumns The text.
+     * @param newToken The token id.
+     */
+    void bind(TextColumns newColumns, int newToken) {
+        columns = newColumns;
+        token = newToken;
     }
 
 
@@ -127,7 +141,7 @@ public class WordData implements Data, Cloneable {
      * @param wordToBeSet The word to be set.
      */
     public void setWord(String wordToBeSet) {
-        word = wordToBeSet;
+        columns.setString(TextColumns.WORD, token, wordToBeSet);
     }
 
 
@@ -137,7 +151,7 @@ public class WordData implements Data, Cloneable {
      * @return The word of the object.
      */
     public String getWord() {
-        return word;
+        return columns.getString(TextColumns.WORD, token);
     }
 
 
@@ -147,7 +161,7 @@ public class WordData implements Data, Cloneable {
      * @param wordClassToBeSet The word-class to be set.
      */
     public void setWordClass(String wordClassToBeSet) {
-        wordClass = wordClassToBeSet;
+        columns.setString(TextColumns.WORD_CLASS, token, wordClassToBeSet);
     }
 
 
@@ -157,7 +171,7 @@ public class WordData implements Data, Cloneable {
      * @return The word-class of the object.
      */
     public String getWordClass() {
-        return wordClass;
+        return columns.getString(TextColumns.WORD_CLASS, token);
     }
 
 
@@ -167,8 +181,8 @@ public class WordData implements Data, Cloneable {
      * @param thePOS The POS of the word.
      */
     public void setWordPOS(String thePOS) {
-        wordPOS = thePOS;
-        containsPOSFlag = true;
+        columns.setString(TextColumns.POS, token, thePOS);
+        columns.setFlag(token, TextColumns.POS_TAGGED);
     }
 
 
@@ -178,7 +192,7 @@ public class WordData implements Data, Cloneable {
      * @return The POS of the word.
      */
     public String getWordPOS() {
-        return wordPOS;
+        return columns.getString(TextColumns.POS, token);
     }
 
 
@@ -188,7 +202,7 @@ public class WordData implements Data, Cloneable {
      * @return True if this WordData object contains a POS tag.
      */
     public boolean containsWordPOS() {
-        return containsPOSFlag;
+        return columns.isFlagSet(token, TextColumns.POS_TAGGED);
     }
 
 
@@ -198,7 +212,7 @@ public class WordData implements Data, Cloneable {
      * @param theStem The stem of the word.
      */
     public void setWordStem(String theStem) {
-        wordStem = theStem;
+        columns.setString(TextColumns.STEM, token, theStem);
     }
 
 
@@ -208,7 +222,7 @@ public class WordData implements Data, Cloneable {
      * @return The stem of the word.
      */
     public String getWordStem() {
-        return wordStem;
+        return columns.getString(TextColumns.STEM, token);
     }
 
 
@@ -216,7 +230,7 @@ public class WordData implements Data, Cloneable {
      * Marks the word as emotional container.
      */
     public void setEmotionalContent() {
-        emotionalContent = true;
+        columns.setFlag(token, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -226,7 +240,7 @@ public class WordData implements Data, Cloneable {
      * @return The emotional content of the word.
      */
     public boolean hasEmotionalContent() {
-        return emotionalContent;
+        return columns.isFlagSet(token, TextColumns.EMOTIONAL_CONTENT);
     }
 
 
@@ -236,8 +250,8 @@ public class WordData implements Data, Cloneable {
      * @param inputValence The valence of the emotion of this word.
      */
     public void setEmotionalValence(float inputValence) {
-        emotionalValence = inputValence;
-        containsEmotionalDimentions = true;
+        columns.setFloat(TextColumns.VALENCE, token, inputValence);
+        columns.setFlag(token, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -247,7 +261,7 @@ public class WordData implements Data, Cloneable {
      * @return The valence of the emotion of this word.
      */
     public float getEmotionalValence() {
-        return emotionalValence;
+        return columns.getFloat(TextColumns.VALENCE, token);
     }
 
 
@@ -257,8 +271,8 @@ public class WordData implements Data, Cloneable {
      * @param inputActivation The activation of the emotion of this word.
      */
     public void setEmotionalActivation(float inputActivation) {
-        emotionalActivation = inputActivation;
-        containsEmotionalDimentions = true;
+        columns.setFloat(TextColumns.ACTIVATION, token, inputActivation);
+        columns.setFlag(token, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -268,7 +282,7 @@ public class WordData implements Data, Cloneable {
      * @return The activation of the emotion of this word.
      */
     public float getEmotionalActivation() {
-        return emotionalActivation;
+        return columns.getFloat(TextColumns.ACTIVATION, token);
     }
 
 
@@ -278,8 +292,8 @@ public class WordData implements Data, Cloneable {
      * @param inputControl The control of the emotion of this word.
      */
     public void setEmotionalControl(float inputControl) {
-        emotionalControl = inputControl;
-        containsEmotionalDimentions = true;
+        columns.setFloat(TextColumns.CONTROL, token, inputControl);
+        columns.setFlag(token, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -289,7 +303,7 @@ public class WordData implements Data, Cloneable {
      * @return The control of the emotion of this word.
      */
     public float getEmotionalControl() {
-        return emotionalControl;
+        return columns.getFloat(TextColumns.CONTROL, token);
     }
 
 
@@ -299,7 +313,7 @@ public class WordData implements Data, Cloneable {
      * @return True if this WordData object has emotional dimentions.
      */
     public boolean containsEmotionalDimentions() {
-        return containsEmotionalDimentions;
+        return columns.isFlagSet(token, TextColumns.EMOTIONAL_DIMENTIONS);
     }
 
 
@@ -309,7 +323,7 @@ public class WordData implements Data, Cloneable {
      * @param inputCategory The category of the emotion of this word.
      */
     public void setEmotionalCategory(String inputCategory) {
-        emotionalCategory = inputCategory;
+        columns.setString(TextColumns.CATEGORY, token, inputCategory);
     }
 
 
@@ -319,7 +333,7 @@ public class WordData implements Data, Cloneable {
      * @return The category of the emotion of this word.
      */
     public String getEmotionalCategory() {
-        return emotionalCategory;
+        return columns.getString(TextColumns.CATEGORY, token);
     }
 
 
@@ -327,7 +341,7 @@ public class WordData implements Data, Cloneable {
      * Sets this words as a noun.
      */
     public void setAsNoun() {
-        isNoun = true;
+        columns.setFlag(token, TextColumns.NOUN);
     }
 
 
@@ -335,7 +349,7 @@ public class WordData implements Data, Cloneable {
      * Sets this words as an adverb.
      */
     public void setAsAdverb() {
-        isAdverb = true;
+        columns.setFlag(token, TextColumns.ADVERB);
     }
 
 
@@ -343,7 +357,7 @@ public class WordData implements Data, Cloneable {
      * Sets this words as an adjective.
      */
     public void setAsAdjective() {
-        isAdjective = true;
+        columns.setFlag(token, TextColumns.ADJECTIVE);
     }
 
 
@@ -351,7 +365,7 @@ public class WordData implements Data, Cloneable {
      * Sets this words as a verb.
      */
     public void setAsVerb() {
-        isVerb = true;
+        columns.setFlag(token, TextColumns.VERB);
     }
 
 
@@ -361,7 +375,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is a noun.
      */
     public boolean isNoun() {
-        return isNoun;
+        return columns.isFlagSet(token, TextColumns.NOUN);
     }
 
 
@@ -371,7 +385,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is an adverb.
      */
     public boolean isAdverb() {
-        return isAdverb;
+        return columns.isFlagSet(token, TextColumns.ADVERB);
     }
 
 
@@ -381,7 +395,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is an adjective.
      */
     public boolean isAdjective() {
-        return isAdjective;
+        return columns.isFlagSet(token, TextColumns.ADJECTIVE);
     }
 
 
@@ -391,7 +405,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is a verb.
      */
     public boolean isVerb() {
-        return isVerb;
+        return columns.isFlagSet(token, TextColumns.VERB);
     }
 
 
@@ -401,7 +415,7 @@ public class WordData implements Data, Cloneable {
      * @param numberOfParagraph The number of paragraph.
      */
     public void setNumberOfParagraph(int numberOfParagraph) {
-        paragraphCount = numberOfParagraph;
+        columns.setParagraphNumber(token, numberOfParagraph);
     }
 
 
@@ -411,7 +425,7 @@ public class WordData implements Data, Cloneable {
      * @return The number of paragraph.
      */
     public int getNumberOfParagraph() {
-        return paragraphCount;
+        return columns.getParagraphNumber(token);
     }
 
 
@@ -421,7 +435,7 @@ public class WordData implements Data, Cloneable {
      * @param numberOfSentence The number of sentence.
      */
     public void setNumberOfSentence(int numberOfSentence) {
-        sentenceCount = numberOfSentence;
+        columns.setSentenceNumber(token, numberOfSentence);
     }
 
 
@@ -431,7 +445,7 @@ public class WordData implements Data, Cloneable {
      * @return The number of sentence.
      */
     public int getNumberOfSentence() {
-        return sentenceCount;
+        return columns.getSentenceNumber(token);
     }
 
 
@@ -441,8 +455,8 @@ public class WordData implements Data, Cloneable {
      * @param synonyms The synonyms of the word according to its sense.
      */
     public void setSense(ArrayList synonyms) {
-        wordSense = synonyms;
-        containsSynonymsFlag = true;
+        columns.setSense(token, synonyms);
+        columns.setFlag(token, TextColumns.SYNONYMS);
     }
 
 
@@ -452,7 +466,7 @@ public class WordData implements Data, Cloneable {
      * @return The synonyms of the word according to its sense.
      */
     public ArrayList getSense() {
-        return wordSense;
+        return columns.getSense(token);
     }
 
 
@@ -462,7 +476,7 @@ public class WordData implements Data, Cloneable {
      * @return True if this WordData object contains synonyms.
      */
     public boolean containsSynonyms() {
-        return containsSynonymsFlag;
+        return columns.isFlagSet(token, TextColumns.SYNONYMS);
     }
 
 
@@ -472,8 +486,8 @@ public class WordData implements Data, Cloneable {
      * @param stemmedSynonyms The stemmed synonyms of the word according to its sense.
      */
     public void setStemmedWordSense(ArrayList stemmedSynonyms) {
-        wordSenseStem = stemmedSynonyms;
-        containsSynonymsStemFlag = true;
+        columns.setStemmedSense(token, stemmedSynonyms);
+        columns.setFlag(token, TextColumns.STEMMED_SYNONYMS);
     }
 
 
@@ -483,7 +497,7 @@ public class WordData implements Data, Cloneable {
      * @return The stemmed synonyms of the word according to its sense.
      */
     public ArrayList getStemmedWordSense() {
-        return wordSenseStem;
+        return columns.getStemmedSense(token);
     }
 
 
@@ -493,7 +507,7 @@ public class WordData implements Data, Cloneable {
      * @return True if this WordData object contains stemmed synonyms.
      */
     public boolean containsStemmedSynonyms() {
-        return containsSynonymsStemFlag;
+        return columns.isFlagSet(token, TextColumns.STEMMED_SYNONYMS);
     }
 
 
@@ -502,7 +516,7 @@ public class WordData implements Data, Cloneable {
      * Method to set this WordData object as a modifier.
      */
     public void setAsModifier() {
-        isModifier = true;
+        columns.setFlag(token, TextColumns.MODIFIER);
     }
 
 
@@ -512,7 +526,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is a modifier.
      */
     public boolean isModifier() {
-        return isModifier;
+        return columns.isFlagSet(token, TextColumns.MODIFIER);
     }
 
 
@@ -520,7 +534,7 @@ public class WordData implements Data, Cloneable {
      * Method to set this WordData object as a negation adverb.
      */
     public void setAsNegationAdverb() {
-        isNegationAdverb = true;
+        columns.setFlag(token, TextColumns.NEGATION_ADVERB);
     }
 
 
@@ -530,7 +544,7 @@ public class WordData implements Data, Cloneable {
      * @return True if it is a negation adverb.
      */
     public boolean isNegationAdverb() {
-        return isNegationAdverb;
+        return columns.isFlagSet(token, TextColumns.NEGATION_ADVERB);
     }
 
 
@@ -540,7 +554,7 @@ public class WordData implements Data, Cloneable {
      * @param modifierValue The modifier value.
      */
     public void setModifierValue(float modifierValue) {
-        this.modifierValue = modifierValue;
+        columns.setFloat(TextColumns.MODIFIER_VALUE, token, modifierValue);
     }
 
 
@@ -550,18 +564,21 @@ public class WordData implements Data, Cloneable {
      * @return The modifier value.
      */
     public float getModifierValue() {
-        return modifierValue;
+        return columns.getFloat(TextColumns.MODIFIER_VALUE, token);
     }
 
 
     /**
      * Returns a clone of this Data object.
+     * The clone has its own storage, so it is not a view of the token of a text.
      *
      * @return A clone of this Data object.
      */
     public Object clone() {
         try {
-            Data data = (Data) super.clone();
+            WordData data = (WordData) super.clone();
+            TextColumns copy = new TextColumns(1);
+            data.bind(copy, copy.importToken(columns, token));
             return data;
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e.toString());
@@ -0,0 +1,201 @@
+/*
+ * File    : AccessControlList.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+
+/**
+ * The <i>AccessControlList</i> class identifies the privileged users of the
+ * processing service by their IPv4 address.
+ *
+ * <p>
+ * The list is read from a file with one "IP:MASK:Name_Of_The_Privileged_User" entry
+ * per line (e.g., "172.16.0.0:12:lab"). The networks are loaded into a binary prefix
+ * trie of their integer addresses, so an address is looked up with at most 32 steps
+ * regardless of the number of entries. As in a sequential scan of the file, the
+ * first entry that matches the address identifies the user.
+ * </p>
+ * <p>
+ * The list is loaded once, and it is only read again when <i>reloadIfModified</i>
+ * finds that the file has changed.
+ * </p>
+ */
+public class AccessControlList {
+
+    private File aclFile;
+    private long lastModified;
+    private volatile AddressNode root;
+
+
+    /**
+     * Main constructor of the AccessControlList.
+     * It loads the entries of the file.
+     *
+     * @param file The access control list file.
+     */
+    public AccessControlList(File file) {
+        aclFile = file;
+        root = new AddressNode();
+        lastModified = -1;
+        reloadIfModified();
+    }
+
+
+    /**
+     * Function to load the entries of the file again if it has changed since it was
+     * last loaded. The lookups are not blocked while the file is loaded.
+     *
+     * @return True if the file has been loaded.
+     */
+    public synchronized boolean reloadIfModified() {
+        long modified = aclFile.lastModified();
+        if (modified == lastModified) {
+            return false;
+        }
+        AddressNode newRoot = new AddressNode();
+        if (modified != 0) {
+            try {
+                BufferedReader acl = new BufferedReader(new FileReader(aclFile));
+                String entry = acl.readLine();
+                int numEntry = 0;
+                while (entry != null) {
+                    if (entry.trim().length() > 0) {
+                        addEntry(newRoot, entry.trim(), numEntry);
+                        numEntry++;
+                    }
+                    entry = acl.readLine();
+                }
+                acl.close();
+            } catch (Exception e) {
+                System.out.println("EmoLib: problem reading the access control list " + aclFile + "!");
+                e.printStackTrace();
+                return false;
+            }
+        }
+        root = newRoot;
+        lastModified = modified;
+        return true;
+    }
+
+
+    /**
+     * Function to retrieve the name of the privileged user that owns an address.
+     *
+     * @param address The IPv4 address of the client.
+     *
+     * @return The name of the user, or null if the address is not privileged.
+     */
+    public String getPrivilegedName(String address) {
+        int ip;
+        try {
+            ip = parseAddress(address);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        AddressNode node = root;
+        String name = null;
+        int order = Integer.MAX_VALUE;
+        for (int bit = 0; node != null; bit++) {
+            if ((node.name != null) && (node.order < order)) {
+                name = node.name;
+                order = node.order;
+            }
+            if (bit == 32) {
+                break;
+            }
+            node = node.children[(ip >>> (31 - bit)) & 1];
+        }
+        return name;
+    }
+
+
+    /**
+     * Function to parse a dotted IPv4 address.
+     *
+     * @param address The address.
+     *
+     * @return The integer representation of the address.
+     *
+     * @throws NumberFormatException If the address is not a valid IPv4 address.
+     */
+    public static int parseAddress(String address) throws NumberFormatException {
+        String[] bytes = address.trim().split("[.]");
+        if (bytes.length != 4) {
+            throw new NumberFormatException("Not an IPv4 address: " + address);
+        }
+        int ip = 0;
+        for (int numByte = 0; numByte < 4; numByte++) {
+            int value = Integer.parseInt(bytes[numByte]);
+            if ((value < 0) || (value > 255)) {
+                throw new NumberFormatException("Not an IPv4 address: " + address);
+            }
+            ip = (ip << 8) | value;
+        }
+        return ip;
+    }
+
+
+    /**
+     * Method to add an entry of the file to the trie.
+     * The malformed entries are reported and ignored.
+     *
+     * @param trie The root of the trie.
+     * @param entry The "IP:MASK:Name" entry.
+     * @param order The position of the entry in the file.
+     */
+    private void addEntry(AddressNode trie, String entry, int order) {
+        String[] chunks = entry.split(":");
+        int network;
+        int mask;
+        try {
+            network = parseAddress(chunks[0]);
+            mask = Integer.parseInt(chunks[1].trim());
+            if ((mask < 0) || (mask > 32) || (chunks.length < 3)) {
+                throw new NumberFormatException(entry);
+            }
+        } catch (Exception e) {
+            System.out.println("EmoLib: malformed entry in the access control list: " + entry);
+            return;
+        }
+        AddressNode node = trie;
+        for (int bit = 0; bit < mask; bit++) {
+            int branch = (network >>> (31 - bit)) & 1;
+            if (node.children[branch] == null) {
+                node.children[branch] = new AddressNode();
+            }
+            node = node.children[branch];
+        }
+        if (node.name == null) {
+            node.name = chunks[2];
+            node.order = order;
+        }
+    }
+
+
+    /**
+     * The node of the prefix trie. The path from the root gives the network bits.
+     */
+    private static class AddressNode {
+
+        private AddressNode[] children = new AddressNode[2];
+        private String name;
+        private int order = Integer.MAX_VALUE;
+
+    }
+
+}
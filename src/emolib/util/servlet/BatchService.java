@@ -0,0 +1,450 @@
+/*
+ * File    : BatchService.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import emolib.AffectiveTagger;
+import emolib.util.proc.TextData;
+
+import org.junit.Test;
+import org.junit.Assert;
+
+/**
+ * The <i>BatchService</i> is a servlet class that acts as a machine-oriented interface
+ * to perform the emotional tagging of batches of texts.
+ *
+ * <p>
+ * The texts are POSTed either as a JSON array or as an NDJSON stream (one JSON value
+ * per line). Each item is an object with a "text" field and optional "language"
+ * ("en" or "es", the "language" request parameter by default, or "en") and "id"
+ * fields, or just a string. E.g.:
+ * </p>
+ * <pre>
+ * {"id": 1, "language": "en", "text": "I love this film."}
+ * {"id": 2, "language": "es", "text": "No me gusta nada."}
+ * </pre>
+ * <p>
+ * The items are read as they arrive and processed on a pool of worker threads, each
+ * of which borrows a pipeline of the language from a {@link emolib.util.servlet.TaggerPool}.
+ * The results are streamed back as NDJSON ("application/x-ndjson") as soon as each
+ * item is finished, so they may come in a different order than the input. Each result
+ * contains the "index" of the item in the input, its "id" (if given) and the JSON
+ * representation of the {@link emolib.util.servlet.ResultWriter}, or an "error" field.
+ * </p>
+ * <p>
+ * This endpoint is reserved to the privileged users of the service (see
+ * {@link emolib.util.servlet.RateLimiter}). The number of workers is given by the
+ * "workers" init parameter (the number of processors by default).
+ * </p>
+ */
+public class BatchService extends HttpServlet {
+
+    private static final Pattern LETTERS = Pattern.compile("([a-z]|[A-Z])+");
+
+    private URL configFile;
+    private Map<String, String> taggerNames;
+    private Map<String, FutureTask<TaggerPool>> pools;
+    private String emolibPath;
+    private int workers;
+    private ExecutorService executor;
+    private ResultWriter writer;
+    private RateLimiter limiter;
+
+
+    /**
+     * Initializes the servlet service.
+     * It loads the English pipeline (the rest are loaded on demand) and starts the workers.
+     */
+    public void init() throws ServletException {
+        try {
+            configFile = this.getClass().getResource("/conf/emolib.config.xml");
+            taggerNames = new HashMap<String, String>();
+            taggerNames.put("en", "english_tagger");
+            taggerNames.put("es", "spanish_tagger");
+            pools = new HashMap<String, FutureTask<TaggerPool>>();
+            workers = Runtime.getRuntime().availableProcessors();
+            if (getInitParameter("workers") != null) {
+                workers = Integer.parseInt(getInitParameter("workers"));
+            }
+            float threshold = Float.parseFloat("5.75");
+            if (getInitParameter("threshold") != null) {
+                threshold = Float.parseFloat(getInitParameter("threshold"));
+            }
+            writer = new ResultWriter(threshold);
+            emolibPath = getPool("en").getEmoLibPath();
+            limiter = RateLimiter.getSharedInstance(emolibPath);
+            executor = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+                public Thread newThread(Runnable task) {
+                    Thread worker = new Thread(task, "EmoLib batch worker");
+                    worker.setDaemon(true);
+                    return worker;
+                }
+            });
+        } catch (Exception e) {
+            System.out.println("EmoLib: the batch service could not be loaded!");
+            e.printStackTrace();
+            throw new ServletException(e);
+        }
+    }
+
+
+    /**
+     * Releases the resources of the servlet service.
+     */
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (limiter != null) {
+            RateLimiter.release(emolibPath);
+            limiter = null;
+        }
+        synchronized (this) {
+            if (pools != null) {
+                // The pools that are still loading are closed when they are done (see getPool).
+                for (Iterator<FutureTask<TaggerPool>> i = pools.values().iterator(); i.hasNext();) {
+                    FutureTask<TaggerPool> loading = i.next();
+                    if (loading.isDone()) {
+                        try {
+                            loading.get().close();
+                        } catch (Exception e) {
+                            // It failed to load, there is nothing to close.
+                        }
+                    }
+                }
+                pools.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Processes a batch of texts and streams back the results as they are finished.
+     */
+    protected void doPost(HttpServletRequest req, HttpServletResponse res)
+            throws ServletException, IOException {
+        if (!limiter.isPrivileged(req.getRemoteAddr())) {
+            res.sendError(HttpServletResponse.SC_FORBIDDEN,
+                "The EmoLib batch service requires access privileges.");
+            return;
+        }
+        limiter.countPrivileged(req.getRemoteAddr());
+        // The encoding must be set before any parameter is read.
+        req.setCharacterEncoding("UTF-8");
+        String defaultLanguage = req.getParameter("language");
+        if (defaultLanguage == null) {
+            defaultLanguage = "en";
+        }
+        JSONReader input = new JSONReader(req.getReader());
+        res.setContentType("application/x-ndjson; charset=UTF-8");
+        PrintWriter output = res.getWriter();
+        CompletionService<String> completion = new ExecutorCompletionService<String>(executor);
+        List<Future<String>> pending = new ArrayList<Future<String>>();
+        int maxPending = 2 * workers;
+        int index = 0;
+        try {
+            boolean array = input.isArrayNext();
+            if (array) {
+                input.beginArray();
+            }
+            while ((array ? input.hasNextElement() : input.hasNext()) && !output.checkError()) {
+                pending.add(completion.submit(new BatchItem(index, input.readValue(), defaultLanguage)));
+                index++;
+                // Stream the finished results, and wait for them if there are too many in flight.
+                writeFinished(output, completion, pending, pending.size() >= maxPending);
+            }
+        } catch (IOException e) {
+            writeFinished(output, completion, pending, false);
+            output.println("{\"index\":" + index + ",\"error\":\"" +
+                ResultWriter.escapeJSON(String.valueOf(e.getMessage())) + "\"}");
+            output.flush();
+        }
+        while (!pending.isEmpty() && !output.checkError()) {
+            writeFinished(output, completion, pending, true);
+        }
+        // The client is gone.
+        for (Iterator<Future<String>> i = pending.iterator(); i.hasNext();) {
+            i.next().cancel(true);
+        }
+    }
+
+
+    /**
+     * Method to write the results that are finished.
+     *
+     * @param output The output stream.
+     * @param completion The results.
+     * @param pending The items in process.
+     * @param wait True to wait for one result at least.
+     */
+    private void writeFinished(PrintWriter output, CompletionService<String> completion,
+            List<Future<String>> pending, boolean wait) throws IOException {
+        try {
+            Future<String> done = wait ? completion.take() : completion.poll();
+            while (done != null) {
+                pending.remove(done);
+                output.println(done.get());
+                done = completion.poll();
+            }
+        } catch (Exception e) {
+            // The workers catch their own errors, so this only happens on interruption.
+            Thread.currentThread().interrupt();
+            throw new IOException("The batch has been interrupted.");
+        }
+        output.flush();
+    }
+
+
+    /**
+     * Function to retrieve the pool of pipelines of a language, loading it on demand.
+     * The pool is loaded by the first thread that asks for it, outside the lock of the
+     * servlet, so the items of the languages already loaded are not held up. A pool that
+     * fails to load is forgotten, so that it is tried again with the next request.
+     *
+     * @param language The language code.
+     *
+     * @return The pool of pipelines.
+     *
+     * @throws IllegalArgumentException If the language is not supported.
+     */
+    private TaggerPool getPool(String language) throws Exception {
+        FutureTask<TaggerPool> loading;
+        boolean loader = false;
+        synchronized (this) {
+            loading = pools.get(language);
+            if (loading == null) {
+                final String taggerName = taggerNames.get(language);
+                if (taggerName == null) {
+                    throw new IllegalArgumentException("Unsupported language: " + language);
+                }
+                loading = new FutureTask<TaggerPool>(new Callable<TaggerPool>() {
+                    public TaggerPool call() throws Exception {
+                        return new TaggerPool(configFile, taggerName, workers);
+                    }
+                });
+                pools.put(language, loading);
+                loader = true;
+            }
+        }
+        if (loader) {
+            loading.run();
+        }
+        try {
+            TaggerPool pool = loading.get();
+            if (loader) {
+                synchronized (this) {
+                    if (pools.get(language) != loading) {
+                        // The service was destroyed while loading.
+                        pool.close();
+                    }
+                }
+            }
+            return pool;
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                if (pools.get(language) == loading) {
+                    pools.remove(language);
+                }
+            }
+            if (e.getCause() instanceof Exception) {
+                throw (Exception)e.getCause();
+            }
+            throw e;
+        }
+    }
+
+
+    /**
+     * The processing of an item of the batch, which yields its result line.
+     */
+    private class BatchItem implements Callable<String> {
+
+        private int index;
+        private Object item;
+        private String language;
+
+        /**
+         * Main constructor.
+         *
+         * @param position The index of the item in the batch.
+         * @param value The item as read from the input.
+         * @param defaultLanguage The language of the item if not given.
+         */
+        private BatchItem(int position, Object value, String defaultLanguage) {
+            index = position;
+            item = value;
+            language = defaultLanguage;
+        }
+
+        /* (non-Javadoc)
+         * @see java.util.concurrent.Callable#call()
+         */
+        public String call() {
+            StringWriter line = new StringWriter();
+            PrintWriter result = new PrintWriter(line);
+            result.print("{\"index\":" + index);
+            Object text = item;
+            if (item instanceof Map) {
+                Map fields = (Map)item;
+                if (fields.get("id") != null) {
+                    result.print(",\"id\":" + toJSON(fields.get("id")));
+                }
+                if (fields.get("language") != null) {
+                    language = fields.get("language").toString();
+                }
+                text = fields.get("text");
+            }
+            try {
+                if (!(text instanceof String)) {
+                    throw new IllegalArgumentException("The item has no text.");
+                }
+                List<TextData> texts = process(getPool(language), (String)text);
+                result.print(",\"language\":\"" + ResultWriter.escapeJSON(language) + "\",");
+                writer.writeJSONFields(result, texts);
+            } catch (Throwable e) {
+                if (!(e instanceof IllegalArgumentException)) {
+                    System.out.println("EmoLib: problem processing the batch item " + index + "!");
+                    e.printStackTrace();
+                }
+                result.print(",\"error\":\"" + ResultWriter.escapeJSON(String.valueOf(e.getMessage())) + "\"");
+            }
+            result.print("}");
+            result.flush();
+            return line.toString();
+        }
+
+        /**
+         * Function to process the paragraphs (lines) of a text.
+         *
+         * @param pool The pool of pipelines.
+         * @param text The text.
+         *
+         * @return The processed paragraphs.
+         */
+        private List<TextData> process(TaggerPool pool, String text) throws Exception {
+            List<TextData> texts = new ArrayList<TextData>();
+            AffectiveTagger tagger = pool.borrow();
+            try {
+                String[] paragraphs = text.split("\n");
+                for (int numPar = 0; numPar < paragraphs.length; numPar++) {
+                    if (LETTERS.matcher(paragraphs[numPar]).find()) {
+                        TextData processed = tagger.processText(paragraphs[numPar]);
+                        if (processed != null) {
+                            texts.add(processed);
+                        }
+                    }
+                }
+            } finally {
+                pool.release(tagger);
+            }
+            return texts;
+        }
+
+        /**
+         * Function to represent the id of an item in JSON.
+         *
+         * @param id The id, as read from the input.
+         *
+         * @return The JSON value.
+         */
+        private String toJSON(Object id) {
+            if (id instanceof Double) {
+                double number = ((Double)id).doubleValue();
+                if (number == Math.rint(number) && Math.abs(number) < 1e15) {
+                    return Long.toString((long)number);
+                }
+                return id.toString();
+            } else if (id instanceof Boolean) {
+                return id.toString();
+            }
+            return "\"" + ResultWriter.escapeJSON(id.toString()) + "\"";
+        }
+
+    }
+
+
+    /**
+     * Functionality test of the JSON reader of the batch requests.
+     */
+    @Test public void readJSON() throws Exception {
+        JSONReader reader = new JSONReader(new StringReader(
+            "{\"text\": \"I \\\"love\\\" it\\u0021\", \"lang\": \"en\", \"id\": -1.5e1, " +
+            "\"tags\": [true, false, null, {}], \"empty\": []}"));
+        Map<?, ?> object = (Map<?, ?>)reader.readValue();
+        Assert.assertEquals("I \"love\" it!", object.get("text"));
+        Assert.assertEquals("en", object.get("lang"));
+        Assert.assertEquals(Double.valueOf(-15.0), object.get("id"));
+        List<?> tags = (List<?>)object.get("tags");
+        Assert.assertEquals(4, tags.size());
+        Assert.assertEquals(Boolean.TRUE, tags.get(0));
+        Assert.assertEquals(Boolean.FALSE, tags.get(1));
+        Assert.assertTrue(tags.get(2) == null);
+        Assert.assertTrue(((Map<?, ?>)tags.get(3)).isEmpty());
+        Assert.assertTrue(((List<?>)object.get("empty")).isEmpty());
+        Assert.assertFalse(reader.hasNext());
+        // The elements of an array are read one by one.
+        reader = new JSONReader(new StringReader(" [ {\"text\": \"a\"} , \"b\" ] "));
+        Assert.assertTrue(reader.isArrayNext());
+        reader.beginArray();
+        Assert.assertTrue(reader.hasNextElement());
+        Assert.assertEquals("a", ((Map<?, ?>)reader.readValue()).get("text"));
+        Assert.assertTrue(reader.hasNextElement());
+        Assert.assertEquals("b", reader.readValue());
+        Assert.assertFalse(reader.hasNextElement());
+        Assert.assertFalse(reader.hasNext());
+        // So are the lines of NDJSON.
+        reader = new JSONReader(new StringReader("\"a\"\n\"b\"\n"));
+        Assert.assertFalse(reader.isArrayNext());
+        Assert.assertEquals("a", reader.readValue());
+        Assert.assertTrue(reader.hasNext());
+        Assert.assertEquals("b", reader.readValue());
+        Assert.assertFalse(reader.hasNext());
+        //
+        boolean malformed = false;
+        try {
+            new JSONReader(new StringReader("{\"text\" \"a\"}")).readValue();
+        } catch (IOException e) {
+            malformed = true;
+        }
+        Assert.assertTrue(malformed);
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * File    : JSONReader.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The <i>JSONReader</i> class reads JSON values from a character stream, one at a time.
+ *
+ * <p>
+ * The objects are read as Maps, the arrays as Lists, the strings as Strings, the
+ * numbers as Doubles and the literals as Booleans or null. The values of a top-level
+ * array can also be read one by one (see <i>beginArray</i> and <i>hasNextElement</i>),
+ * so that a large array (or a stream of values, like NDJSON) needs not be held in memory.
+ * </p>
+ */
+public class JSONReader {
+
+    private Reader input;
+    private int next;
+    private long position;
+    private boolean firstElement;
+
+
+    /**
+     * Main constructor of the JSONReader.
+     *
+     * @param reader The character stream.
+     */
+    public JSONReader(Reader reader) throws IOException {
+        input = reader;
+        position = -1;
+        firstElement = false;
+        advance();
+    }
+
+
+    /**
+     * Function to determine if the stream contains more values (skipping the
+     * blank characters).
+     *
+     * @return True if there is another value to read.
+     */
+    public boolean hasNext() throws IOException {
+        skipBlanks();
+        return next != -1;
+    }
+
+
+    /**
+     * Function to determine if the next value of the stream is an array.
+     *
+     * @return True if the next value is an array.
+     */
+    public boolean isArrayNext() throws IOException {
+        skipBlanks();
+        return next == '[';
+    }
+
+
+    /**
+     * Method to start reading the elements of an array one by one.
+     */
+    public void beginArray() throws IOException {
+        skipBlanks();
+        expect('[');
+        skipBlanks();
+        // The first element needs no separator.
+        firstElement = (next != ']');
+    }
+
+
+    /**
+     * Function to determine if the array that is being read has more elements.
+     * The closing bracket is consumed when the array ends.
+     *
+     * @return True if there is another element to read.
+     */
+    public boolean hasNextElement() throws IOException {
+        if (firstElement) {
+            firstElement = false;
+            return true;
+        }
+        skipBlanks();
+        if (next == ',') {
+            advance();
+            return true;
+        }
+        expect(']');
+        return false;
+    }
+
+
+    /**
+     * Function to read the next value of the stream.
+     *
+     * @return The value.
+     *
+     * @throws IOException If the stream cannot be read or it is not valid JSON.
+     */
+    public Object readValue() throws IOException {
+        skipBlanks();
+        if (next == '{') {
+            advance();
+            Map<String, Object> object = new LinkedHashMap<String, Object>();
+            skipBlanks();
+            if (next == '}') {
+                advance();
+                return object;
+            }
+            while (true) {
+                skipBlanks();
+                String key = readString();
+                skipBlanks();
+                expect(':');
+                object.put(key, readValue());
+                skipBlanks();
+                if (next == ',') {
+                    advance();
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        } else if (next == '[') {
+            List<Object> array = new ArrayList<Object>();
+            beginArray();
+            while (hasNextElement()) {
+                array.add(readValue());
+            }
+            return array;
+        } else if (next == '"') {
+            return readString();
+        } else if (next == 't') {
+            expectWord("true");
+            return Boolean.TRUE;
+        } else if (next == 'f') {
+            expectWord("false");
+            return Boolean.FALSE;
+        } else if (next == 'n') {
+            expectWord("null");
+            return null;
+        } else {
+            return readNumber();
+        }
+    }
+
+
+    /**
+     * Function to read a string.
+     *
+     * @return The string.
+     */
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder string = new StringBuilder();
+        while (next != '"') {
+            if (next == -1) {
+                throw error("unterminated string");
+            } else if (next == '\\') {
+                advance();
+                if (next == 'u') {
+                    int code = 0;
+                    for (int digit = 0; digit < 4; digit++) {
+                        advance();
+                        int value = Character.digit(next, 16);
+                        if (value < 0) {
+                            throw error("bad unicode escape");
+                        }
+                        code = (code << 4) | value;
+                    }
+                    string.append((char)code);
+                } else if (next == 'n') {
+                    string.append('\n');
+                } else if (next == 't') {
+                    string.append('\t');
+                } else if (next == 'r') {
+                    string.append('\r');
+                } else if (next == 'b') {
+                    string.append('\b');
+                } else if (next == 'f') {
+                    string.append('\f');
+                } else if ((next == '"') || (next == '\\') || (next == '/')) {
+                    string.append((char)next);
+                } else {
+                    throw error("bad escape");
+                }
+            } else {
+                string.append((char)next);
+            }
+            advance();
+        }
+        advance();
+        return string.toString();
+    }
+
+
+    /**
+     * Function to read a number.
+     *
+     * @return The number.
+     */
+    private Double readNumber() throws IOException {
+        StringBuilder number = new StringBuilder();
+        while ((next != -1) && ("+-0123456789.eE".indexOf(next) >= 0)) {
+            number.append((char)next);
+            advance();
+        }
+        try {
+            return Double.valueOf(number.toString());
+        } catch (NumberFormatException e) {
+            throw error("unexpected character");
+        }
+    }
+
+
+    /**
+     * Method to consume a literal.
+     *
+     * @param word The literal.
+     */
+    private void expectWord(String word) throws IOException {
+        for (int character = 0; character < word.length(); character++) {
+            expect(word.charAt(character));
+        }
+    }
+
+
+    /**
+     * Method to consume a given character.
+     *
+     * @param character The expected character.
+     */
+    private void expect(char character) throws IOException {
+        if (next != character) {
+            throw error("expected '" + character + "'");
+        }
+        advance();
+    }
+
+
+    /**
+     * Method to skip the blank characters.
+     */
+    private void skipBlanks() throws IOException {
+        while ((next == ' ') || (next == '\t') || (next == '\n') || (next == '\r') || (next == '\uFEFF')) {
+            advance();
+        }
+    }
+
+
+    /**
+     * Method to read the next character.
+     */
+    private void advance() throws IOException {
+        next = input.read();
+        position++;
+    }
+
+
+    /**
+     * Function to build a parsing error.
+     *
+     * @param message The description of the error.
+     *
+     * @return The exception.
+     */
+    private IOException error(String message) {
+        return new IOException("Malformed JSON at character " + position + ": " + message);
+    }
+
+}
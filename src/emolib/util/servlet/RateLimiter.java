@@ -0,0 +1,390 @@
+/*
+ * File    : RateLimiter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <i>RateLimiter</i> class enforces the limits of the demo processing service.
+ *
+ * <p>
+ * The demo is restricted to 50 words per request and 10 requests per natural day
+ * (the first request and 10 more are served). The privileged users (see
+ * {@link emolib.util.servlet.AccessControlList}) have unrestricted access, and
+ * their requests are counted under their name instead of under their IP.
+ * </p>
+ * <p>
+ * The hit counters are kept in memory, in a lock-striped concurrent map, and they
+ * are bucketed by natural day. A background timer periodically writes the updated
+ * counters to the "data/servlog/YEAR/MONTH/DAY/KEY.log" files, evicts the counters
+ * of the past days and reloads the "data/service.acl" file if it has changed. So no
+ * request touches the filesystem. The counters of the current day are read from
+ * the log files when the RateLimiter is created, so they survive a restart.
+ * </p>
+ * <p>
+ * The servlets of the same EmoLib installation share one RateLimiter (see
+ * <i>getSharedInstance</i>), because they share the same log files.
+ * </p>
+ */
+public class RateLimiter {
+
+    public final static int DEFAULT_MAX_WORDS = 50;
+    public final static int DEFAULT_MAX_HITS = 10;
+    public final static long DEFAULT_PERSISTENCE_PERIOD = 60;
+
+    private static Map<String, RateLimiter> sharedInstances = new HashMap<String, RateLimiter>();
+
+    private String logPath;
+    private int maxWords;
+    private int maxHits;
+    private AccessControlList acl;
+    private ConcurrentHashMap<String, HitCounter> counters;
+    private volatile DayBucket currentDay;
+    private Timer persistenceTimer;
+    private int numberOfUsers;
+
+
+    /**
+     * Main constructor of the RateLimiter.
+     *
+     * @param emolibPath The root path of EmoLib.
+     * @param wordLimit The maximum number of words per request.
+     * @param hitLimit The maximum number of requests per day, after the first one.
+     * @param persistencePeriod The period to write the counters, in seconds.
+     */
+    public RateLimiter(String emolibPath, int wordLimit, int hitLimit, long persistencePeriod) {
+        logPath = emolibPath + "/data/servlog";
+        maxWords = wordLimit;
+        maxHits = hitLimit;
+        acl = new AccessControlList(new File(emolibPath + "/data/service.acl"));
+        counters = new ConcurrentHashMap<String, HitCounter>(256, 0.75f, 16);
+        currentDay = new DayBucket(System.currentTimeMillis());
+        loadCounters(currentDay);
+        persistenceTimer = new Timer("EmoLib rate limiter: " + emolibPath, true);
+        persistenceTimer.schedule(new TimerTask() {
+            public void run() {
+                acl.reloadIfModified();
+                persist();
+            }
+        }, persistencePeriod * 1000L, persistencePeriod * 1000L);
+    }
+
+
+    /**
+     * Function to retrieve the RateLimiter of an EmoLib installation, with the
+     * default limits. It must be given back with <i>release</i>.
+     *
+     * @param emolibPath The root path of EmoLib.
+     *
+     * @return The shared RateLimiter.
+     */
+    public static synchronized RateLimiter getSharedInstance(String emolibPath) {
+        RateLimiter limiter = sharedInstances.get(emolibPath);
+        if (limiter == null) {
+            limiter = new RateLimiter(emolibPath, DEFAULT_MAX_WORDS, DEFAULT_MAX_HITS,
+                DEFAULT_PERSISTENCE_PERIOD);
+            sharedInstances.put(emolibPath, limiter);
+        }
+        limiter.numberOfUsers++;
+        return limiter;
+    }
+
+
+    /**
+     * Method to give a shared RateLimiter back. When it is no longer used, its
+     * counters are written and its timer is stopped.
+     *
+     * @param emolibPath The root path of EmoLib.
+     */
+    public static synchronized void release(String emolibPath) {
+        RateLimiter limiter = sharedInstances.get(emolibPath);
+        if (limiter != null) {
+            limiter.numberOfUsers--;
+            if (limiter.numberOfUsers <= 0) {
+                sharedInstances.remove(emolibPath);
+                limiter.shutdown();
+            }
+        }
+    }
+
+
+    /**
+     * Function to determine if a request exceeds the demo limits.
+     * The request is counted if it is served.
+     *
+     * @param text The text to process.
+     * @param address The IP of the client.
+     *
+     * @return True if the limits are exceeded.
+     */
+    public boolean isExceeded(String text, String address) {
+        DayBucket day = getDay(System.currentTimeMillis());
+        String privileged = acl.getPrivilegedName(address);
+        if (privileged != null) {
+            getCounter(day, privileged).hit(address);
+            return false;
+        }
+        if (text.split(" ").length > maxWords) {
+            return true;
+        }
+        return !getCounter(day, address).hitIfAllowed(address, maxHits);
+    }
+
+
+    /**
+     * Function to determine if a client is a privileged user.
+     * The request is not counted (see <i>countPrivileged</i>).
+     *
+     * @param address The IP of the client.
+     *
+     * @return True if the client is privileged.
+     */
+    public boolean isPrivileged(String address) {
+        return acl.getPrivilegedName(address) != null;
+    }
+
+
+    /**
+     * Method to count a request of a privileged user, which is never limited.
+     * Nothing is counted if the client is not privileged.
+     *
+     * @param address The IP of the client.
+     */
+    public void countPrivileged(String address) {
+        String privileged = acl.getPrivilegedName(address);
+        if (privileged != null) {
+            getCounter(getDay(System.currentTimeMillis()), privileged).hit(address);
+        }
+    }
+
+
+    /**
+     * Method to write the updated counters to their log files, and to evict the
+     * counters of the past days.
+     */
+    public void persist() {
+        String today = getDay(System.currentTimeMillis()).folder;
+        for (Iterator<Map.Entry<String, HitCounter>> i = counters.entrySet().iterator(); i.hasNext();) {
+            Map.Entry<String, HitCounter> entry = i.next();
+            HitCounter counter = entry.getValue();
+            if (counter.dirty) {
+                counter.dirty = false;
+                try {
+                    File folder = new File(logPath + "/" + counter.folder);
+                    folder.mkdirs();
+                    BufferedWriter out = new BufferedWriter(new FileWriter(new File(folder,
+                        counter.key + ".log")));
+                    out.write(counter.address + ":" + counter.hits.get());
+                    out.close();
+                } catch (Exception e) {
+                    counter.dirty = true;
+                    System.out.println("EmoLib: problem writing the service log of " + counter.key + "!");
+                    e.printStackTrace();
+                }
+            }
+            if (!counter.dirty && !counter.folder.equals(today)) {
+                i.remove();
+            }
+        }
+    }
+
+
+    /**
+     * Method to stop the persistence timer and write the counters.
+     */
+    public void shutdown() {
+        persistenceTimer.cancel();
+        persist();
+    }
+
+
+    /**
+     * Function to retrieve the day bucket of a time, reusing the current one.
+     *
+     * @param now The time, in milliseconds.
+     *
+     * @return The day bucket.
+     */
+    private DayBucket getDay(long now) {
+        DayBucket day = currentDay;
+        if ((now < day.start) || (now >= day.end)) {
+            day = new DayBucket(now);
+            currentDay = day;
+        }
+        return day;
+    }
+
+
+    /**
+     * Function to retrieve the counter of a client for a given day.
+     *
+     * @param day The day bucket.
+     * @param key The IP or the name of the privileged user.
+     *
+     * @return The counter.
+     */
+    private HitCounter getCounter(DayBucket day, String key) {
+        String counterKey = day.folder + "/" + key;
+        HitCounter counter = counters.get(counterKey);
+        if (counter == null) {
+            HitCounter newCounter = new HitCounter(day.folder, key, 0);
+            counter = counters.putIfAbsent(counterKey, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+
+    /**
+     * Method to read the counters of a day from their log files.
+     *
+     * @param day The day bucket.
+     */
+    private void loadCounters(DayBucket day) {
+        File[] logs = new File(logPath + "/" + day.folder).listFiles();
+        if (logs == null) {
+            return;
+        }
+        for (int numLog = 0; numLog < logs.length; numLog++) {
+            String fileName = logs[numLog].getName();
+            if (!fileName.endsWith(".log")) {
+                continue;
+            }
+            try {
+                BufferedReader log = new BufferedReader(new FileReader(logs[numLog]));
+                String[] pieces = log.readLine().split(":");
+                log.close();
+                String key = fileName.substring(0, fileName.length() - 4);
+                HitCounter counter = new HitCounter(day.folder, key, Integer.parseInt(pieces[1]));
+                counter.address = pieces[0];
+                counters.put(day.folder + "/" + key, counter);
+            } catch (Exception e) {
+                System.out.println("EmoLib: problem reading the service log " + logs[numLog] + "!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * The natural day of a set of counters.
+     */
+    private static class DayBucket {
+
+        private long start;
+        private long end;
+        private String folder;
+
+        /**
+         * Main constructor.
+         *
+         * @param now A time of the day, in milliseconds.
+         */
+        private DayBucket(long now) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(now);
+            calendar.set(Calendar.HOUR_OF_DAY, 0);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            start = calendar.getTimeInMillis();
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+            end = calendar.getTimeInMillis();
+            // Same layout as the date of the former service logs: YEAR/Mon/DAY.
+            String[] today = new Date(now).toString().split(" ");
+            folder = today[5] + "/" + today[1] + "/" + today[2];
+        }
+
+    }
+
+
+    /**
+     * The requests of a client during a day.
+     */
+    private static class HitCounter {
+
+        private String folder;
+        private String key;
+        private volatile String address;
+        private AtomicInteger hits;
+        private volatile boolean dirty;
+
+        /**
+         * Main constructor.
+         *
+         * @param day The folder of the day.
+         * @param name The IP or the name of the privileged user.
+         * @param initialHits The requests already served.
+         */
+        private HitCounter(String day, String name, int initialHits) {
+            folder = day;
+            key = name;
+            address = name;
+            hits = new AtomicInteger(initialHits);
+            dirty = false;
+        }
+
+        /**
+         * Method to count a request.
+         *
+         * @param client The IP of the client.
+         */
+        private void hit(String client) {
+            address = client;
+            hits.incrementAndGet();
+            dirty = true;
+        }
+
+        /**
+         * Function to count a request if the client has not exceeded the limit.
+         *
+         * @param client The IP of the client.
+         * @param limit The maximum number of requests.
+         *
+         * @return True if the request is allowed.
+         */
+        private boolean hitIfAllowed(String client, int limit) {
+            while (true) {
+                int current = hits.get();
+                if (current > limit) {
+                    return false;
+                }
+                if (hits.compareAndSet(current, current + 1)) {
+                    address = client;
+                    dirty = true;
+                    return true;
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,380 @@
+/*
+ * File    : ResultWriter.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.io.PrintWriter;
+import java.util.List;
+
+import emolib.formatter.json.JSONLinesFormatter;
+import emolib.util.proc.ParagraphData;
+import emolib.util.proc.SentenceData;
+import emolib.util.proc.TextData;
+
+/**
+ * The <i>ResultWriter</i> class renders the results of the processing service
+ * directly from the processed TextData objects, without any intermediate file.
+ *
+ * <p>
+ * The XML representation follows the layout of the
+ * {@link emolib.formatter.xml.XMLFormatter}: the text units that contain no
+ * emotional dimensions are given the threshold value and the "neutral" category.
+ * The JSON representation has the same structure, i.e., a document object with
+ * a list of paragraphs, each of which with a list of sentences.
+ * </p>
+ */
+public class ResultWriter {
+
+    private float threshold;
+
+
+    /**
+     * Main constructor of the ResultWriter.
+     *
+     * @param thresholdValue The dimension value of the text units that contain no emotional dimensions.
+     */
+    public ResultWriter(float thresholdValue) {
+        threshold = thresholdValue;
+    }
+
+
+    /**
+     * Void constructor of the ResultWriter, with the default threshold of the XMLFormatter.
+     */
+    public ResultWriter() {
+        this(Float.parseFloat("5.75"));
+    }
+
+
+    /**
+     * Function to retrieve the text of a sentence, as the XMLFormatter does.
+     *
+     * @param sentence The sentence.
+     *
+     * @return The words of the sentence, each one preceded by a blank space.
+     */
+    public String getText(SentenceData sentence) {
+        StringBuilder text = new StringBuilder();
+        for (int numberOfWord = 0; numberOfWord < sentence.getNumberOfWords(); numberOfWord++) {
+            text.append(' ');
+            text.append(sentence.getWordData(numberOfWord).getWord());
+        }
+        // Undo the slack trick.
+        return text.toString().replace("|", "/");
+    }
+
+
+    /**
+     * Function to retrieve the emotional dimensions of a text.
+     *
+     * @param text The text.
+     *
+     * @return The valence, activation and control.
+     */
+    public float[] getDimensions(TextData text) {
+        if (text.containsEmotionalDimentions()) {
+            return new float[]{text.getEmotionalValence(), text.getEmotionalActivation(),
+                text.getEmotionalControl()};
+        } else {
+            return new float[]{threshold, threshold, threshold};
+        }
+    }
+
+
+    /**
+     * Function to retrieve the emotional dimensions of a paragraph.
+     *
+     * @param paragraph The paragraph.
+     *
+     * @return The valence, activation and control.
+     */
+    public float[] getDimensions(ParagraphData paragraph) {
+        if (paragraph.containsEmotionalDimentions()) {
+            return new float[]{paragraph.getEmotionalValence(), paragraph.getEmotionalActivation(),
+                paragraph.getEmotionalControl()};
+        } else {
+            return new float[]{threshold, threshold, threshold};
+        }
+    }
+
+
+    /**
+     * Function to retrieve the emotional dimensions of a sentence.
+     *
+     * @param sentence The sentence.
+     *
+     * @return The valence, activation and control.
+     */
+    public float[] getDimensions(SentenceData sentence) {
+        if (sentence.containsEmotionalDimentions()) {
+            return new float[]{sentence.getEmotionalValence(), sentence.getEmotionalActivation(),
+                sentence.getEmotionalControl()};
+        } else {
+            return new float[]{threshold, threshold, threshold};
+        }
+    }
+
+
+    /**
+     * Function to retrieve the emotional category of a text.
+     *
+     * @param text The text.
+     *
+     * @return The category, or "neutral" if the text is not classified.
+     */
+    public String getCategory(TextData text) {
+        if (text.containsEmotionalDimentions() && (text.getEmotionalCategory() != null)) {
+            return text.getEmotionalCategory();
+        } else {
+            return "neutral";
+        }
+    }
+
+
+    /**
+     * Function to retrieve the emotional category of a paragraph.
+     *
+     * @param paragraph The paragraph.
+     *
+     * @return The category, or "neutral" if the paragraph is not classified.
+     */
+    public String getCategory(ParagraphData paragraph) {
+        if (paragraph.containsEmotionalDimentions() && (paragraph.getEmotionalCategory() != null)) {
+            return paragraph.getEmotionalCategory();
+        } else {
+            return "neutral";
+        }
+    }
+
+
+    /**
+     * Function to retrieve the emotional category of a sentence.
+     *
+     * @param sentence The sentence.
+     *
+     * @return The category, or "neutral" if the sentence is not classified.
+     */
+    public String getCategory(SentenceData sentence) {
+        if (sentence.containsEmotionalDimentions() && (sentence.getEmotionalCategory() != null)) {
+            return sentence.getEmotionalCategory();
+        } else {
+            return "neutral";
+        }
+    }
+
+
+    /**
+     * Method to write the XML representation of the results.
+     * The paragraphs are numbered through all the texts, and the attributes of the
+     * document are those of the last text.
+     *
+     * @param output The output stream.
+     * @param texts The processed texts, one for each input paragraph.
+     */
+    public void writeXML(PrintWriter output, List<TextData> texts) {
+        output.print("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        if (texts.isEmpty()) {
+            output.print("<document />\n");
+            return;
+        }
+        TextData last = texts.get(texts.size() - 1);
+        output.print("<document");
+        writeXMLAttributes(output, getDimensions(last), getCategory(last));
+        output.print(">\n");
+        int numOfParagraph = 0;
+        for (int numberOfText = 0; numberOfText < texts.size(); numberOfText++) {
+            TextData text = texts.get(numberOfText);
+            for (int numberOfParagraph = 0; numberOfParagraph < text.getNumberOfParagraphs();
+            numberOfParagraph++) {
+                numOfParagraph++;
+                ParagraphData paragraph = text.getParagraphData(numberOfParagraph);
+                output.print("    <paragraph num=\"" + numOfParagraph + "\"");
+                writeXMLAttributes(output, getDimensions(paragraph), getCategory(paragraph));
+                if (paragraph.getNumberOfSentences() == 0) {
+                    output.print(" />\n");
+                    continue;
+                }
+                output.print(">\n");
+                for (int numberOfSentence = 0; numberOfSentence < paragraph.getNumberOfSentences();
+                numberOfSentence++) {
+                    SentenceData sentence = paragraph.getSentenceData(numberOfSentence);
+                    output.print("        <sentence num=\"" + (numberOfSentence + 1) + "\"");
+                    writeXMLAttributes(output, getDimensions(sentence), getCategory(sentence));
+                    output.print(">");
+                    output.print(escapeXML(getText(sentence), false));
+                    output.print("</sentence>\n");
+                }
+                output.print("    </paragraph>\n");
+            }
+        }
+        output.print("</document>\n");
+    }
+
+
+    /**
+     * Method to write the JSON representation of the results.
+     *
+     * @param output The output stream.
+     * @param texts The processed texts, one for each input paragraph.
+     */
+    public void writeJSON(PrintWriter output, List<TextData> texts) {
+        output.print("{");
+        writeJSONFields(output, texts);
+        output.print("}\n");
+    }
+
+
+    /**
+     * Method to write the fields of the JSON representation of the results, without
+     * the enclosing braces, so that they can be written along with other fields.
+     *
+     * @param output The output stream.
+     * @param texts The processed texts, one for each input paragraph.
+     */
+    public void writeJSONFields(PrintWriter output, List<TextData> texts) {
+        if (!texts.isEmpty()) {
+            TextData last = texts.get(texts.size() - 1);
+            writeJSONAttributes(output, getDimensions(last), getCategory(last));
+            output.print(",");
+        }
+        output.print("\"paragraphs\":[");
+        int numOfParagraph = 0;
+        for (int numberOfText = 0; numberOfText < texts.size(); numberOfText++) {
+            TextData text = texts.get(numberOfText);
+            for (int numberOfParagraph = 0; numberOfParagraph < text.getNumberOfParagraphs();
+            numberOfParagraph++) {
+                if (numOfParagraph > 0) {
+                    output.print(",");
+                }
+                numOfParagraph++;
+                ParagraphData paragraph = text.getParagraphData(numberOfParagraph);
+                output.print("{\"num\":" + numOfParagraph + ",");
+                writeJSONAttributes(output, getDimensions(paragraph), getCategory(paragraph));
+                output.print(",\"sentences\":[");
+                for (int numberOfSentence = 0; numberOfSentence < paragraph.getNumberOfSentences();
+                numberOfSentence++) {
+                    SentenceData sentence = paragraph.getSentenceData(numberOfSentence);
+                    if (numberOfSentence > 0) {
+                        output.print(",");
+                    }
+                    output.print("{\"num\":" + (numberOfSentence + 1) + ",");
+                    writeJSONAttributes(output, getDimensions(sentence), getCategory(sentence));
+                    output.print(",\"text\":\"" + escapeJSON(getText(sentence).trim()) + "\"}");
+                }
+                output.print("]}");
+            }
+        }
+        output.print("]");
+    }
+
+
+    /**
+     * Function to escape a text in order to place it into an XML (or HTML) document.
+     *
+     * @param text The text to escape.
+     * @param attribute True if the text is the value of an attribute.
+     *
+     * @return The escaped text.
+     */
+    public static String escapeXML(String text, boolean attribute) {
+        StringBuilder escaped = null;
+        for (int position = 0; position < text.length(); position++) {
+            char c = text.charAt(position);
+            String entity = null;
+            if (c == '&') {
+                entity = "&amp;";
+            } else if (c == '<') {
+                entity = "&lt;";
+            } else if (c == '>') {
+                entity = "&gt;";
+            } else if (c == '"' && attribute) {
+                entity = "&quot;";
+            } else if (c == '\r') {
+                entity = "&#xD;";
+            } else if ((c == '\n' || c == '\t') && attribute) {
+                entity = (c == '\n') ? "&#xA;" : "&#x9;";
+            }
+            if (entity != null && escaped == null) {
+                escaped = new StringBuilder(text.length() + 16);
+                escaped.append(text, 0, position);
+            }
+            if (escaped != null) {
+                if (entity != null) {
+                    escaped.append(entity);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        if (escaped == null) {
+            return text;
+        }
+        return escaped.toString();
+    }
+
+
+    /**
+     * Function to escape a text in order to place it into a JSON string.
+     *
+     * @param text The text to escape.
+     *
+     * @return The escaped text.
+     */
+    public static String escapeJSON(String text) {
+        return JSONLinesFormatter.escape(text);
+    }
+
+
+    /**
+     * Method to write the emotional attributes of an XML element.
+     *
+     * @param output The output stream.
+     * @param dimensions The valence, activation and control.
+     * @param category The emotional category.
+     */
+    private void writeXMLAttributes(PrintWriter output, float[] dimensions, String category) {
+        output.print(" val=\"" + dimensions[0] + "\" act=\"" + dimensions[1] + "\" con=\"" +
+            dimensions[2] + "\" cat=\"" + escapeXML(category, true) + "\"");
+    }
+
+
+    /**
+     * Method to write the emotional attributes of a JSON object.
+     *
+     * @param output The output stream.
+     * @param dimensions The valence, activation and control.
+     * @param category The emotional category.
+     */
+    private void writeJSONAttributes(PrintWriter output, float[] dimensions, String category) {
+        output.print("\"val\":" + toJSONNumber(dimensions[0]) + ",\"act\":" + toJSONNumber(dimensions[1]) +
+            ",\"con\":" + toJSONNumber(dimensions[2]) + ",\"cat\":\"" + escapeJSON(category) + "\"");
+    }
+
+
+    /**
+     * Function to represent a dimension value as a JSON number.
+     *
+     * @param value The value.
+     *
+     * @return The JSON number, or null if the value is not a finite number.
+     */
+    private String toJSONNumber(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return "null";
+        }
+        return Float.toString(value);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * File    : TaggerPool.java
+ * Created : 18-Oct-2026
+ *
+ * Emolib - Emotional Library
+ *
+ * Copyright (c) 2009 Alexandre Trilla &
+ * 2007-2012 Enginyeria i Arquitectura La Salle (Universitat Ramon Llull)
+ *
+ * This file is part of Emolib.
+ *
+ * You should have received a copy of the rights granted with this
+ * distribution of EmoLib. See COPYING.
+ */
+
+package emolib.util.servlet;
+
+import java.net.URL;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import emolib.AffectiveTagger;
+import emolib.util.conf.ConfigurationManager;
+
+/**
+ * The <i>TaggerPool</i> class holds a bounded set of AffectiveTaggers so that
+ * concurrent requests never share a processing pipeline.
+ *
+ * <p>
+ * Each AffectiveTagger is loaded from its own ConfigurationManager, so that it
+ * has its own instances of the processing modules, which share the read-only models
+ * (see {@link emolib.util.ResourceRegistry}). The first tagger is loaded
+ * when the pool is created, and the rest are loaded on demand (when all the
+ * loaded ones are busy) up to the size of the pool. When the pool is exhausted,
+ * the requests wait for a tagger to be released. The taggers are deallocated when
+ * the pool is closed.
+ * </p>
+ */
+public class TaggerPool {
+
+    private URL configFile;
+    private String taggerName;
+    private int poolSize;
+    private int numberOfTaggers;
+    private String emolibPath;
+    private LinkedBlockingQueue<AffectiveTagger> idleTaggers;
+    private volatile boolean closed;
+
+
+    /**
+     * Main constructor of the TaggerPool.
+     * It loads the first tagger of the pool.
+     *
+     * @param config The configuration file.
+     * @param name The name of the AffectiveTagger component in the configuration file.
+     * @param size The maximum number of taggers.
+     */
+    public TaggerPool(URL config, String name, int size) throws Exception {
+        configFile = config;
+        taggerName = name;
+        poolSize = Math.max(1, size);
+        idleTaggers = new LinkedBlockingQueue<AffectiveTagger>();
+        AffectiveTagger tagger = loadTagger();
+        emolibPath = tagger.getEmoLibPath();
+        numberOfTaggers = 1;
+        idleTaggers.add(tagger);
+    }
+
+
+    /**
+     * Function to borrow a tagger from the pool. It must be given back with
+     * <i>release</i> once the request is processed.
+     *
+     * @return An idle tagger.
+     */
+    public AffectiveTagger borrow() throws Exception {
+        AffectiveTagger tagger = idleTaggers.poll();
+        if (tagger == null) {
+            if (reserveTagger()) {
+                try {
+                    tagger = loadTagger();
+                } catch (Exception e) {
+                    synchronized (this) {
+                        numberOfTaggers--;
+                    }
+                    throw e;
+                }
+            } else {
+                tagger = idleTaggers.take();
+            }
+        }
+        return tagger;
+    }
+
+
+    /**
+     * Method to give a tagger back to the pool.
+     * The tagger is flushed, so that the results of the request are not accumulated.
+     *
+     * @param tagger The borrowed tagger.
+     */
+    public void release(AffectiveTagger tagger) {
+        tagger.flush();
+        // The check and the add are atomic with respect to close, so that a tagger
+        // is either drained by close or deallocated here, but never left behind.
+        synchronized (this) {
+            if (!closed) {
+                idleTaggers.add(tagger);
+                return;
+            }
+        }
+        tagger.deallocate();
+    }
+
+
+    /**
+     * Method to close the pool. The idle taggers are deallocated, and so are the busy
+     * ones once they are released.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        AffectiveTagger tagger = idleTaggers.poll();
+        while (tagger != null) {
+            tagger.deallocate();
+            tagger = idleTaggers.poll();
+        }
+    }
+
+
+    /**
+     * Function to retrieve the EmoLib path of the taggers.
+     *
+     * @return The EmoLib path.
+     */
+    public String getEmoLibPath() {
+        return emolibPath;
+    }
+
+
+    /**
+     * Function to retrieve the maximum number of taggers.
+     *
+     * @return The size of the pool.
+     */
+    public int getSize() {
+        return poolSize;
+    }
+
+
+    /**
+     * Function to reserve the load of a new tagger, if the pool is not full.
+     *
+     * @return True if a new tagger may be loaded.
+     */
+    private synchronized boolean reserveTagger() {
+        if (numberOfTaggers < poolSize) {
+            numberOfTaggers++;
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Function to load a new tagger with its own configuration manager.
+     *
+     * @return The tagger.
+     */
+    private AffectiveTagger loadTagger() throws Exception {
+        ConfigurationManager cm = new ConfigurationManager(configFile);
+        return (AffectiveTagger)cm.lookup(taggerName);
+    }
+
+}
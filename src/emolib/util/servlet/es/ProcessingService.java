@@ -19,6 +19,7 @@ package emolib.util.servlet.es;
 import java.lang.InstantiationException;
 import java.lang.reflect.*;
 import java.io.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.net.URL;
 import java.net.Inet4Address;
@@ -26,20 +27,16 @@ import java.net.InetAddress;
 import javax.servlet.*;
 import javax.servlet.http.*;
 import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-
-import java.util.Date;
 
 import java.lang.Math;
 
-import org.jdom.*;
-import org.jdom.input.*;
-import org.jdom.output.*;
-
 import emolib.*;
 import emolib.util.*;
 import emolib.util.conf.*;
 import emolib.util.proc.*;
+import emolib.util.servlet.RateLimiter;
+import emolib.util.servlet.ResultWriter;
+import emolib.util.servlet.TaggerPool;
 
 /**
  * The <i>ProcessingService</i> is a servlet class that acts as a web interface to
@@ -55,22 +52,54 @@ import emolib.util.proc.*;
  */
 public class ProcessingService extends HttpServlet {
 
-    private URL configFile;
-    private ConfigurationManager cm;
-    private AffectiveTagger tagger;
-    private boolean outOfMemory;
+    private static final Pattern LETTERS = Pattern.compile("([a-z]|[A-Z])+");
+
+    private TaggerPool pool;
+    private ResultWriter writer;
+    private RateLimiter limiter;
+
+
+    /**
+     * Initializes the servlet service.
+     * It loads the needed resources once: a pool of "spanish_tagger" pipelines, whose size
+     * is given by the "pool_size" init parameter (2 by default). The "threshold" init
+     * parameter sets the dimension values of the unprocessed text units (5.75 by default).
+     * The demo limits are enforced by the RateLimiter of the EmoLib installation.
+     */
+    public void init() throws ServletException {
+        try {
+            // Gets the default "conf/emolib.config.xml" file and loads the "spanish_tagger".
+            URL configFile = this.getClass().getResource("/conf/emolib.config.xml");
+            int poolSize = 2;
+            if (getInitParameter("pool_size") != null) {
+                poolSize = Integer.parseInt(getInitParameter("pool_size"));
+            }
+            float threshold = Float.parseFloat("5.75");
+            if (getInitParameter("threshold") != null) {
+                threshold = Float.parseFloat(getInitParameter("threshold"));
+            }
+            pool = new TaggerPool(configFile, "spanish_tagger", poolSize);
+            writer = new ResultWriter(threshold);
+            limiter = RateLimiter.getSharedInstance(pool.getEmoLibPath());
+        } catch (Exception e) {
+            System.out.println("EmoLib: the spanish_tagger could not be loaded!");
+            e.printStackTrace();
+            throw new ServletException(e);
+        }
+    }
 
 
     /**
-     * Main constructor of the servlet service.
-     * It loads the needed resources once.
+     * Releases the resources of the servlet service.
      */
-    public ProcessingService() throws Exception {
-        // Gets the default "conf/emolib.config.xml" file and loads the "spanish_tagger".
-        configFile = this.getClass().getResource("/conf/emolib.config.xml");
-        cm = new ConfigurationManager(configFile);
-        tagger = (AffectiveTagger)cm.lookup("spanish_tagger");
-        outOfMemory = false;
+    public void destroy() {
+        if (limiter != null) {
+            RateLimiter.release(pool.getEmoLibPath());
+            limiter = null;
+        }
+        if (pool != null) {
+            pool.close();
+        }
     }
 
 
@@ -83,271 +112,147 @@ public class ProcessingService extends HttpServlet {
      * @return True if the text is valid for further analysis.
      */
     private boolean containsLetters(String theText) {
-        boolean hasLetters = false;
-
-        Pattern pattern = Pattern.compile("([a-z]|[A-Z])+");
-        Matcher matcher = pattern.matcher(theText);
-        if (matcher.find()) {
-            hasLetters = true;
-        }
-
-        return hasLetters;
+        return LETTERS.matcher(theText).find();
     }
 
 
     /**
-     * Function to determine if the demo limits are exceeded.
-     * The demo is restricted to 50 words max or more than 10 connections per natural day.
-     * The privileged user has unrestricted access.
-     * The logs are registered in the data/servlog folder. Privileged users are
-     * identified by their name instead of by their IP.
-     *
-     * @param text The text to process.
-     * @param date The date of the request.
-     * @param ip The IP of the client.
-     *
-     * @return True if the request is valid.
+     * Overrides the <i>service</i> procedure of the servlet specification in
+     * order to include the EmoLib processing facilities.
+     * The results are rendered directly from the processed TextData objects, as an
+     * HTML page (by default), as an XML file (if the DOWNLOAD parameter is given or
+     * the FORMAT parameter is "xml") or as a JSON object (if the FORMAT parameter is
+     * "json").
      */
-    private boolean demoLimitsExceeded(String text, String date, String ip) throws IOException {
-        boolean limits = false;
-        // First check if it's a privileged user
-        boolean privils = false;
-        String path = tagger.getEmoLibPath();
-        BufferedReader acl = new BufferedReader(new FileReader(path + "/data/service.acl"));
-        // IP:MASK:Name_Of_The_Privileged_User
-        String privilegedAddress = acl.readLine();
-        String[] privChunk = null;
-        boolean exists = false;
-        boolean success = false;
-        while (privilegedAddress != null) {
-            privChunk = privilegedAddress.split(":");
-            // Seen in Stackoverflow:
-            // Validate an IP Address (with Mask)
-            if (checkAddressing(privChunk[0], privChunk[1], ip)) {
-                privils = true;
-                // Register this privileged request
-                String[] today = date.split(" ");
-                String folderToday = path + "/data/servlog/" + today[5] + "/" + today[1] + "/" + today[2];
-                exists = (new File(folderToday + "/" + privChunk[2] + ".log")).exists();
-                if (!exists) {
-                    // No service has been requested by this privileged
-                    // IP yet.
-                    // Let's create its log file for today
-                    // Ensures that the folder for today is created
-                    success = (new File(folderToday)).mkdirs();
-                    BufferedWriter out = new BufferedWriter(
-                        new FileWriter(folderToday + "/" +
-                        privChunk[2] + ".log"));
-                    out.write(ip + ":" + "1");
-                    out.close();
-                } else {
-                    // Check permitted number of requests
-                    BufferedReader ipFile = new BufferedReader(
-                        new FileReader(folderToday + "/" +
-                        privChunk[2] + ".log"));
-                    String[] pieces = (ipFile.readLine()).split(":");
-                    int hits = Integer.parseInt(pieces[1]);
-                    ipFile.close();
-                    BufferedWriter out = new BufferedWriter(
-                        new FileWriter(folderToday + "/" +
-                        privChunk[2] + ".log"));
-                    out.write(ip + ":" + Integer.toString(hits + 1));
-                    out.close();
-                }
-                break;
-            }
-            privilegedAddress = acl.readLine();
+    public void service(HttpServletRequest req, HttpServletResponse res) 
+            throws ServletException, IOException, OutOfMemoryError {
+        req.setCharacterEncoding("UTF-8");
+        String textToProcess = req.getParameter("TEXTOPROCESS");
+        if (textToProcess == null) {
+            textToProcess = "";
         }
-        acl.close();
-        if (!privils) {
-            // Check if the text to analyse contains more than 50 words.
-            String[] words = text.split(" ");
-            if (words.length > 50) {
-                limits = true;
+        textToProcess = textToProcess.trim();
+        String doDown = req.getParameter("DOWNLOAD");
+        String format = req.getParameter("FORMAT");
+        String ipClient = req.getRemoteAddr();
+        // Determine if demo limits are exceeded
+        boolean exceed = limiter.isExceeded(textToProcess, ipClient);
+        //
+        if (exceed) {
+            res.setContentType("text/html; charset=UTF-8");
+            PrintWriter output = res.getWriter();
+            try {
+                printHeader(output);
+                colourParagraphHeader(output, "WARNING", "NONE", "NONE", "NONE");
+                colourSentence(output, "La demo del servicio de análisis EmoLib permite un máximo " +
+                    "de 50 palabras por petición y 10 peticiones por día natural, " +
+                    "y éstos límites han sido rebasados! Puede contactar con " +
+                    "<a href=\"mailto:atrilla@salle.url.edu\">Alexandre Trilla</a> " +
+                    "para contratar privilegios de acceso.", "neutral", "NONE", "NONE", "NONE");
+                colourParagraphFooter(output);
+                printFooter(output);
+            } catch (Exception e) {
+                output.println("<p>Un problema ha ocurrido con los límites de la demo!</p>");
+                e.printStackTrace();
+            }
+        } else {
+            List<TextData> results;
+            try {
+                results = processParagraphs(textToProcess);
+            } catch (OutOfMemoryError err) {
+                results = null;
+            } catch (Exception e) {
+                System.out.println("EmoLib: problem processing the request!");
+                e.printStackTrace();
+                results = null;
+            }
+            if (results == null) {
+                res.setContentType("text/html; charset=UTF-8");
+                PrintWriter output = res.getWriter();
+                output.println("<p>El servicio EmoLib está temporalmente " +
+                    "fuera de servicio. Por favor, inténtelo de nuevo en unos minutos.</p>");
+            } else if ((doDown != null) || "xml".equals(format)) {
+                res.setContentType("application/xml; charset=UTF-8");
+                if (doDown != null) {
+                    res.setHeader("Content-Disposition", "attachment; filename=emolib.results.xml");
+                }
+                writer.writeXML(res.getWriter(), results);
+            } else if ("json".equals(format)) {
+                res.setContentType("application/json; charset=UTF-8");
+                writer.writeJSON(res.getWriter(), results);
             } else {
-                // Check that the this request without privileges does not exceed 10 hits per day.
-                String[] today = date.split(" ");
-                String folderToday = path + "/data/servlog/" + today[5] + "/" + today[1] + "/" + today[2];
-                exists = (new File(folderToday + "/" + ip + ".log")).exists();
-                if (!exists) {
-                    // No service has been requested by this IP yet.
-                    // Let's create its log file for today
-                    // Ensures that the folder for today is created
-                    success = (new File(folderToday)).mkdirs();
-                    BufferedWriter out = new BufferedWriter(new FileWriter(folderToday + "/" + ip + ".log"));
-                    out.write(ip + ":" + "1");
-                    out.close();
-                } else {
-                    // Check permitted number of requests
-                    BufferedReader ipFile = new BufferedReader(new FileReader(folderToday + "/" + ip + ".log"));
-                    String[] pieces = (ipFile.readLine()).split(":");
-                    int hits = Integer.parseInt(pieces[1]);
-                    ipFile.close();
-                    if (hits > 10) {
-                        limits = true;
-                    } else {
-                        BufferedWriter out = new BufferedWriter(new FileWriter(folderToday + "/" + ip + ".log"));
-                        out.write(ip + ":" + Integer.toString(hits + 1));
-                        out.close();
-                    }
+                res.setContentType("text/html; charset=UTF-8");
+                PrintWriter output = res.getWriter();
+                try {
+                    printResults(output, results);
+                } catch (Exception e) {
+                    output.println("<p>El servicio EmoLib está temporalmente " +
+                        "fuera de servicio. Por favor, inténtelo de nuevo en unos minutos.</p>");
+                    e.printStackTrace();
                 }
             }
         }
-        //
-        return limits;
     }
 
 
     /**
-     * Chech the addressing of the two IP's.
-     * If they belong to the same network, yield TRUE.
+     * Function to process the paragraphs of the input text with a pipeline of the pool.
+     * Each line of the input text is regarded as a paragraph.
      *
-     * @param privilIP The privileged IP address.
-     * @param mask The mask.
-     * @param inputIP The IP address to check.
+     * @param text The text to process.
      *
-     * @return TRUE if the two addresses belong to the same network.
+     * @return The processed paragraphs.
      */
-    private boolean checkAddressing(String privilIP, String mask,
-            String inputIP) {
-        boolean sameNetwork = true;
-        String[] privChunk = privilIP.split("[.]");
-        String[] inputChunk = inputIP.split("[.]");
-        int theMask = Integer.parseInt(mask);
-        int whole = theMask / 8;
-        int part = theMask % 8;
-        for (int cBytes = 0; cBytes < whole; cBytes++) {
-            if (!privChunk[cBytes].equals(inputChunk[cBytes])) {
-                sameNetwork = false;
-                break;
-            }
-        }
-        if (sameNetwork && (part != 0)) {
-            int lastBytePriv = Integer.parseInt(privChunk[whole]);
-            int lastByteInput = Integer.parseInt(inputChunk[whole]);
-            int maskFrame = 0;
-            for (int cPart = 0; cPart < part; cPart++) {
-                maskFrame += (int)Math.pow((double)2, (double)(7 - cPart));
-            }
-            if ((lastBytePriv & maskFrame) != (lastByteInput & maskFrame)) {
-                sameNetwork = false;
+    private List<TextData> processParagraphs(String text) throws Exception {
+        List<TextData> results = new ArrayList<TextData>();
+        AffectiveTagger tagger = pool.borrow();
+        try {
+            String[] parToProcess = text.split("\n");
+            for (int numPar = 0; numPar < parToProcess.length; numPar++) {
+                // Void paragraph make the system crash.
+                if (containsLetters(parToProcess[numPar])) {
+                    TextData processed = tagger.processText(parToProcess[numPar]);
+                    if (processed != null) {
+                        results.add(processed);
+                    }
+                }
             }
+        } finally {
+            pool.release(tagger);
         }
-        return sameNetwork;
+        return results;
     }
 
 
     /**
-     * Overrides the <i>service</i> procedure of the servlet specification in
-     * order to include the EmoLib processing facilities.
+     * Method to print the results page.
+     *
+     * @param output The output stream of the servlet.
+     * @param results The processed paragraphs.
+     *
+     * @throws Exception.
      */
-    public void service(HttpServletRequest req, HttpServletResponse res) 
-            throws ServletException, IOException, OutOfMemoryError {
-        try {
-            Runtime runtime = Runtime.getRuntime();
-            // At least, let half the memory be available
-            if (runtime.freeMemory() < runtime.totalMemory() * 0.2) {
-                System.gc();
-            }
-            req.setCharacterEncoding("UTF-8");
-            PrintWriter output = res.getWriter();
-            res.setContentType("text/html; charset=UTF-8");
-            String textToProcess = req.getParameter("TEXTOPROCESS");
-            textToProcess = textToProcess.trim();
-            String doDown = req.getParameter("DOWNLOAD");
-            String parToBeProcessed;
-            String ipClient = req.getRemoteAddr();
-            Date theDate = new Date();
-            String wholeDate = theDate.toString();
-            // Determine if demo limits are exceeded
-            boolean exceed = demoLimitsExceeded(textToProcess, wholeDate, ipClient);
-            //
-            if (exceed) {
-                try {
-                    printHeader(output);
-                    colourParagraphHeader(output, "WARNING", "NONE", "NONE", "NONE");
-                    colourSentence(output, "La demo del servicio de análisis EmoLib permite un máximo " +
-                        "de 50 palabras por petición y 10 peticiones por día natural, " +
-                        "y éstos límites han sido rebasados! Puede contactar con " +
-                        "<a href=\"mailto:atrilla@salle.url.edu\">Alexandre Trilla</a> " +
-                        "para contratar privilegios de acceso.", "neutral", "NONE", "NONE", "NONE");
-                    colourParagraphFooter(output);
-                    printFooter(output);
-                } catch (Exception e) {
-                    output.println("<p>Un problema ha ocurrido con los límites de la demo!</p>");
-                    e.printStackTrace();
-                }
-            } else {
-                // Creates a temporal file to save the results.
-                try {
-                    String[] parToProcess = textToProcess.split("\n");
-                    for (int numPar = 0; numPar < parToProcess.length; numPar++) {
-                        // Void paragraph make the system crash.
-                        if (containsLetters(parToProcess[numPar])) {
-                            tagger.inputData(parToProcess[numPar]);
-                        }
-                    }
-                    File resultsTempFile = File.createTempFile("emolib.results.xml", ".temp");
-                    URL tempResultsURL = resultsTempFile.toURL();
-                    // Writes the temp file.
-                    tagger.outputData(resultsTempFile);
-                    // Decide whether downloading the results file or showing the nice GUI.
-                    if (doDown != null) {
-                        doDownload(req, res, resultsTempFile.getAbsolutePath(), "emolib.results.xml");
-                    } else {
-                        printHeader(output);
-    
-                        // Extracts the info from the XML results file.
-                        InputStream is = new FileInputStream(resultsTempFile);
-                        SAXBuilder saxBuilder = new SAXBuilder();
-                        Document doc = saxBuilder.build(is);
-                        Element root = doc.detachRootElement();
-                        Element paragraph, sentence;
-                        List sentencesList;
-                        String sentenceText, sentenceCategory, paragraphCategory, valence, activation, control;
-                        // The XML hierarchy starts here.
-                        List paragraphsList = root.getChildren("paragraph");
-                        for (int parNum = 0; parNum < paragraphsList.size(); parNum++) {
-                            paragraph = (Element)paragraphsList.get(parNum);
-                            paragraphCategory = paragraph.getAttributeValue("cat");
-                            valence = paragraph.getAttributeValue("val");
-                            activation = paragraph.getAttributeValue("act");
-                            control = paragraph.getAttributeValue("con");
-                            colourParagraphHeader(output, paragraphCategory, valence, activation, control);
-                            sentencesList = paragraph.getChildren("sentence");
-                            for (int sentNum = 0; sentNum < sentencesList.size(); sentNum++) {
-                                sentence = (Element)sentencesList.get(sentNum);
-                                sentenceText = sentence.getText();
-                                sentenceCategory = sentence.getAttributeValue("cat");
-                                valence = sentence.getAttributeValue("val");
-                                activation = sentence.getAttributeValue("act");
-                                control = sentence.getAttributeValue("con");
-                                colourSentence(output, sentenceText, sentenceCategory, valence, activation, control);
-                            }
-                            colourParagraphFooter(output);
-                        }
-                        printFooter(output);
-                    }
-                    resultsTempFile.delete();
-                    tagger.flush();
-                } catch (Exception e) {
-                    output.println("<p>Un problema ha ocurrido con los archivos temporales!</p>");
-                    e.printStackTrace();
+    private void printResults(PrintWriter output, List<TextData> results) throws Exception {
+        printHeader(output);
+        float[] dimensions;
+        for (int numText = 0; numText < results.size(); numText++) {
+            TextData text = results.get(numText);
+            for (int parNum = 0; parNum < text.getNumberOfParagraphs(); parNum++) {
+                ParagraphData paragraph = text.getParagraphData(parNum);
+                dimensions = writer.getDimensions(paragraph);
+                colourParagraphHeader(output, writer.getCategory(paragraph), Float.toString(dimensions[0]),
+                    Float.toString(dimensions[1]), Float.toString(dimensions[2]));
+                for (int sentNum = 0; sentNum < paragraph.getNumberOfSentences(); sentNum++) {
+                    SentenceData sentence = paragraph.getSentenceData(sentNum);
+                    dimensions = writer.getDimensions(sentence);
+                    colourSentence(output, ResultWriter.escapeXML(writer.getText(sentence), false),
+                        writer.getCategory(sentence), Float.toString(dimensions[0]),
+                        Float.toString(dimensions[1]), Float.toString(dimensions[2]));
                 }
-            }
-        } catch (OutOfMemoryError err) {
-            if (!outOfMemory) {
-                outOfMemory = true;
-                System.gc();
-                // Let's try if this is enough to provide the service
-                service(req, res);
-            } else {
-                PrintWriter output = res.getWriter();
-                res.setContentType("text/html; charset=UTF-8");
-                output.println("<p>El servicio EmoLib está temporalmente " +
-                    "fuera de servicio. Por favor, inténtelo de nuevo en unos minutos.</p>");
+                colourParagraphFooter(output);
             }
         }
+        printFooter(output);
     }
 
 
@@ -517,33 +422,5 @@ public class ProcessingService extends HttpServlet {
         output.println(colouredText);
     }
 
-
-    /**
-     *  Sends a file to the ServletResponse output stream.
-     *  Typically you want the browser to receive a different name than the
-     *  name the file has been saved in your local database, since
-     *  your local names need to be unique.
-     *
-     *  @param req The req
-     *  @param resp The res
-     *  @param filename The name of the file you want to download.
-     *  @param original_filename The name the browser should receive.
-     */
-    private void doDownload( HttpServletRequest req, HttpServletResponse res, String filename,
-    String original_filename ) throws IOException {
-        FileInputStream fileToDownload = new FileInputStream(filename);
-        PrintWriter out = res.getWriter();
-        res.setContentType("application/xml; charset=UTF-8");
-        res.setHeader("Content-Disposition", "attachment; filename=" + original_filename);
-        res.setContentLength(fileToDownload.available());
-        int c;
-        while ((c = fileToDownload.read()) != -1) {
-            out.write(c);
-        }
-        out.flush();
-        out.close();
-        fileToDownload.close();
-    }
-
 }
 
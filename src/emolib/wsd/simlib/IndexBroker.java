@@ -188,7 +188,11 @@ public class IndexBroker
         Query q ;
         try
         {
-            q = _parser.parse ( query ) ;
+            // The parser is not thread-safe, while the searcher is.
+            synchronized ( _parser )
+            {
+                q = _parser.parse ( query ) ;
+            }
             return _searcher.search ( q ) ;
         }
         catch ( ParseException ex )
@@ -202,5 +206,15 @@ public class IndexBroker
         return null ;
     }
 
-}
+    /**
+     * Closes the searcher of the index.
+     */
+    public void close () throws IOException
+    {
+        if ( _searcher != null )
+        {
+            _searcher.close () ;
+        }
+    }
 
+}
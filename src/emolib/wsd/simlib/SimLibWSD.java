@@ -18,6 +18,7 @@
 package emolib.wsd.simlib;
 
 import emolib.wsd.*;
+import emolib.util.ResourceRegistry;
 import emolib.util.conf.*;
 import emolib.util.proc.*;
 
@@ -39,6 +40,8 @@ import java.util.ArrayList;
  * of the necessary files that represent the indexed WordNet structure.
  * SimLibWSD depends on the (adapted) code developed by Nuno Seco for the WordNet
  * Similarity library.
+ * The indexes are shared with the other SimLibWSD disambiguators of the JVM that
+ * load them from the same path (see {@link emolib.util.ResourceRegistry}).
  * </p>
  * <p>
  * --<br>
@@ -60,6 +63,17 @@ public class SimLibWSD extends WordSenseDisambiguator {
     public final static String PROP_USE_VERBS = "use_verbs";
     public final static String PROP_USE_ADJECTIVES = "use_adjectives";
 
+    private final static ResourceRegistry.Loader<SimilarityAssessor> INDEX_LOADER =
+        new ResourceRegistry.Loader<SimilarityAssessor>() {
+            public SimilarityAssessor load(String path) {
+                return new SimilarityAssessor(path);
+            }
+
+            public void unload(SimilarityAssessor assessor) throws IOException {
+                assessor.close();
+            }
+        };
+
     private String wnIndexPath;
     private boolean use_n;
     private boolean use_v;
@@ -103,9 +117,37 @@ public class SimLibWSD extends WordSenseDisambiguator {
                 "the filesystem! Please check the configuration file.");
             System.exit(1);
         } else {
-            assessorNoun = new SimilarityAssessor(wnIndexPath + "/noun");
-            assessorVerb = new SimilarityAssessor(wnIndexPath + "/verb");
-            assessorAdjective = new SimilarityAssessor(wnIndexPath + "/adj");
+            deallocate();
+            try {
+                assessorNoun = ResourceRegistry.acquire(SimilarityAssessor.class, wnIndexPath + "/noun",
+                    INDEX_LOADER);
+                assessorVerb = ResourceRegistry.acquire(SimilarityAssessor.class, wnIndexPath + "/verb",
+                    INDEX_LOADER);
+                assessorAdjective = ResourceRegistry.acquire(SimilarityAssessor.class, wnIndexPath + "/adj",
+                    INDEX_LOADER);
+            } catch (Exception e) {
+                System.out.println("EmoLib: problem loading the WordNet indexes of SimLibWSD!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+
+    /**
+     * Method to release the shared indexes.
+     */
+    public void deallocate() {
+        if (assessorNoun != null) {
+            ResourceRegistry.release(SimilarityAssessor.class, wnIndexPath + "/noun");
+            assessorNoun = null;
+        }
+        if (assessorVerb != null) {
+            ResourceRegistry.release(SimilarityAssessor.class, wnIndexPath + "/verb");
+            assessorVerb = null;
+        }
+        if (assessorAdjective != null) {
+            ResourceRegistry.release(SimilarityAssessor.class, wnIndexPath + "/adj");
+            assessorAdjective = null;
         }
     }
 
@@ -51,6 +51,16 @@ public class SimilarityAssessor
     }
 
 
+    /**
+     * Closes the index of the broker.
+     */
+    public void close() throws IOException {
+        if (_broker != null) {
+            _broker.close();
+        }
+    }
+
+
     /**
      *  Returns the list of documents that fulfill the given query.
      *  @param query String  The query to be searched